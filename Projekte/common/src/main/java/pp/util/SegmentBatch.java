@@ -0,0 +1,450 @@
+package pp.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.lang.Float.max;
+import static java.lang.Float.min;
+import static pp.util.FloatMath.sign;
+import static pp.util.FloatMath.sqr;
+import static pp.util.FloatMath.sqrt;
+
+/**
+ * An immutable batch of line segments stored as a structure of arrays, i.e., one float array
+ * per coordinate instead of one object per segment. The batch provides kernels that compute
+ * distances to its segments. Their inner loops only contain plain float arithmetic on the
+ * arrays, and conditions are expressed by min, max and conditional expressions, so that
+ * the JIT compiler can unroll and vectorize them.
+ * <p>
+ * The segments are organized in a bounding volume hierarchy, i.e., a binary tree of axis-aligned
+ * bounding boxes whose leaves contain at most {@linkplain #LEAF_SIZE} segments. The segments of
+ * each node are stored contiguously in the arrays. Queries skip all nodes whose bounding box is
+ * too far away, so they take time logarithmic in the number of segments for typical mazes.
+ */
+public final class SegmentBatch {
+    /**
+     * The maximal number of segments in a leaf of the hierarchy.
+     */
+    static final int LEAF_SIZE = 8;
+
+    private final float[] x1;
+    private final float[] y1;
+    private final float[] dx;
+    private final float[] dy;
+    /**
+     * The reciprocal of the squared length of each segment, or 0 if the segment is in fact a point.
+     */
+    private final float[] invLenSq;
+
+    /**
+     * The bounding boxes of the nodes of the hierarchy. Node 0 is the root.
+     */
+    private final float[] nodeMinX;
+    private final float[] nodeMinY;
+    private final float[] nodeMaxX;
+    private final float[] nodeMaxY;
+    /**
+     * The range of segments of each node, i.e., the indices from nodeStart (inclusive) to nodeEnd (exclusive).
+     */
+    private final int[] nodeStart;
+    private final int[] nodeEnd;
+    /**
+     * The index of the left child of each node, or -1 if the node is a leaf. The right child of a node
+     * directly follows the subtree of its left child; its index is stored in nodeRight.
+     */
+    private final int[] nodeLeft;
+    private final int[] nodeRight;
+    private int numNodes;
+
+    /**
+     * Creates a batch containing the specified segments.
+     *
+     * @param segments the segments of this batch
+     */
+    public SegmentBatch(List<? extends SegmentLike> segments) {
+        final int n = segments.size();
+        x1 = new float[n];
+        y1 = new float[n];
+        dx = new float[n];
+        dy = new float[n];
+        invLenSq = new float[n];
+        // a binary tree whose leaves are not empty has less than 2n nodes
+        final int maxNodes = Math.max(1, 2 * n);
+        nodeMinX = new float[maxNodes];
+        nodeMinY = new float[maxNodes];
+        nodeMaxX = new float[maxNodes];
+        nodeMaxY = new float[maxNodes];
+        nodeStart = new int[maxNodes];
+        nodeEnd = new int[maxNodes];
+        nodeLeft = new int[maxNodes];
+        nodeRight = new int[maxNodes];
+
+        final SegmentLike[] order = segments.toArray(new SegmentLike[0]);
+        build(order, 0, n);
+        for (int i = 0; i < n; i++) {
+            final SegmentLike s = order[i];
+            x1[i] = s.from().getX();
+            y1[i] = s.from().getY();
+            dx[i] = s.diffX();
+            dy[i] = s.diffY();
+            final float lenSq = dx[i] * dx[i] + dy[i] * dy[i];
+            invLenSq[i] = lenSq > 0f ? 1f / lenSq : 0f;
+        }
+    }
+
+    /**
+     * Creates the node for the segments order[start] to order[end - 1] and, recursively, its
+     * children. The segments are split at the median of their centers along the longer side of
+     * the box around their centers.
+     *
+     * @return the index of the created node
+     */
+    private int build(SegmentLike[] order, int start, int end) {
+        final int node = numNodes++;
+        nodeStart[node] = start;
+        nodeEnd[node] = end;
+        nodeLeft[node] = -1;
+        nodeRight[node] = -1;
+        float minX = Float.POSITIVE_INFINITY;
+        float minY = Float.POSITIVE_INFINITY;
+        float maxX = Float.NEGATIVE_INFINITY;
+        float maxY = Float.NEGATIVE_INFINITY;
+        float minCx = Float.POSITIVE_INFINITY;
+        float minCy = Float.POSITIVE_INFINITY;
+        float maxCx = Float.NEGATIVE_INFINITY;
+        float maxCy = Float.NEGATIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            final SegmentLike s = order[i];
+            minX = min(minX, min(s.from().getX(), s.to().getX()));
+            minY = min(minY, min(s.from().getY(), s.to().getY()));
+            maxX = max(maxX, max(s.from().getX(), s.to().getX()));
+            maxY = max(maxY, max(s.from().getY(), s.to().getY()));
+            minCx = min(minCx, centerX(s));
+            minCy = min(minCy, centerY(s));
+            maxCx = max(maxCx, centerX(s));
+            maxCy = max(maxCy, centerY(s));
+        }
+        nodeMinX[node] = minX;
+        nodeMinY[node] = minY;
+        nodeMaxX[node] = maxX;
+        nodeMaxY[node] = maxY;
+        if (end - start > LEAF_SIZE) {
+            final Comparator<SegmentLike> cmp = maxCx - minCx >= maxCy - minCy
+                                                ? Comparator.comparingDouble(SegmentBatch::centerX)
+                                                : Comparator.comparingDouble(SegmentBatch::centerY);
+            Arrays.sort(order, start, end, cmp);
+            final int mid = (start + end) >>> 1;
+            nodeLeft[node] = build(order, start, mid);
+            nodeRight[node] = build(order, mid, end);
+        }
+        return node;
+    }
+
+    private static float centerX(SegmentLike s) {
+        return 0.5f * (s.from().getX() + s.to().getX());
+    }
+
+    private static float centerY(SegmentLike s) {
+        return 0.5f * (s.from().getY() + s.to().getY());
+    }
+
+    /**
+     * Returns the number of segments in this batch.
+     */
+    public int size() {
+        return x1.length;
+    }
+
+    /**
+     * Returns the square of the distance of the point (x,y) from the bounding box of the specified node.
+     */
+    private float boxDistanceSquared(int node, float x, float y) {
+        final float ex = max(max(nodeMinX[node] - x, x - nodeMaxX[node]), 0f);
+        final float ey = max(max(nodeMinY[node] - y, y - nodeMaxY[node]), 0f);
+        return ex * ex + ey * ey;
+    }
+
+    /**
+     * Returns the square of the distance of the box from (minX,minY) to (maxX,maxY) from the
+     * bounding box of the specified node.
+     */
+    private float boxDistanceSquared(int node, float minX, float minY, float maxX, float maxY) {
+        final float ex = max(max(nodeMinX[node] - maxX, minX - nodeMaxX[node]), 0f);
+        final float ey = max(max(nodeMinY[node] - maxY, minY - nodeMaxY[node]), 0f);
+        return ex * ex + ey * ey;
+    }
+
+    /**
+     * Returns the square of the minimal distance of the point (x,y) from any segment of this batch,
+     * or {@linkplain Float#POSITIVE_INFINITY} if this batch is empty.
+     *
+     * @param x x-coordinate of the point
+     * @param y y-coordinate of the point
+     */
+    public float minDistanceSquared(float x, float y) {
+        return minDistanceSquared(0, x, y, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Returns the square of the minimal distance of the point (x,y) from the segments of the specified
+     * node if it is less than bound, or a value that is at least bound otherwise. The search stops as
+     * soon as a distance not exceeding goal has been found.
+     */
+    private float minDistanceSquared(int node, float x, float y, float bound, float goal) {
+        if (boxDistanceSquared(node, x, y) >= bound)
+            return bound;
+        if (nodeLeft[node] < 0)
+            return min(bound, minDistanceSquared(nodeStart[node], nodeEnd[node], x, y));
+        int first = nodeLeft[node];
+        int second = nodeRight[node];
+        // visit the closer child first so that the bound shrinks early
+        if (boxDistanceSquared(second, x, y) < boxDistanceSquared(first, x, y)) {
+            first = nodeRight[node];
+            second = nodeLeft[node];
+        }
+        final float res = minDistanceSquared(first, x, y, bound, goal);
+        return res <= goal ? res : minDistanceSquared(second, x, y, res, goal);
+    }
+
+    /**
+     * Returns the square of the minimal distance of the point (x,y) from the segments with indices
+     * from start (inclusive) to end (exclusive).
+     */
+    private float minDistanceSquared(int start, int end, float x, float y) {
+        float res = Float.POSITIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            final float px = x - x1[i];
+            final float py = y - y1[i];
+            final float t = min(max((px * dx[i] + py * dy[i]) * invLenSq[i], 0f), 1f);
+            final float ex = px - t * dx[i];
+            final float ey = py - t * dy[i];
+            res = min(res, ex * ex + ey * ey);
+        }
+        return res;
+    }
+
+    /**
+     * Returns the point on the segments of this batch that is closest to the point (x,y),
+     * or null if this batch is empty.
+     *
+     * @param x x-coordinate of the point
+     * @param y y-coordinate of the point
+     */
+    public FloatPoint closestPoint(float x, float y) {
+        final float[] res = new float[2];
+        return closestPoint(x, y, res) ? new FloatPoint(res[0], res[1]) : null;
+    }
+
+    /**
+     * Computes the point on the segments of this batch that is closest to the point (x,y)
+     * without creating any objects. The coordinates of the closest point are stored in
+     * res[0] and res[1].
+     *
+     * @param x   x-coordinate of the point
+     * @param y   y-coordinate of the point
+     * @param res array of length at least 2 receiving the closest point
+     * @return false if this batch is empty, and true otherwise
+     */
+    public boolean closestPoint(float x, float y, float[] res) {
+        if (x1.length == 0)
+            return false;
+        final int i = closestSegment(0, x, y, minDistanceSquared(x, y));
+        final float t = min(max(((x - x1[i]) * dx[i] + (y - y1[i]) * dy[i]) * invLenSq[i], 0f), 1f);
+        res[0] = x1[i] + t * dx[i];
+        res[1] = y1[i] + t * dy[i];
+        return true;
+    }
+
+    /**
+     * Returns the index of a segment of the specified node whose squared distance from the point (x,y)
+     * is exactly dist, or -1 if there is no such segment. The distance is computed with the same
+     * operations as in {@linkplain #minDistanceSquared(int, int, float, float)}, which yields
+     * identical results in Java.
+     */
+    private int closestSegment(int node, float x, float y, float dist) {
+        if (boxDistanceSquared(node, x, y) > dist)
+            return -1;
+        if (nodeLeft[node] >= 0) {
+            final int res = closestSegment(nodeLeft[node], x, y, dist);
+            return res >= 0 ? res : closestSegment(nodeRight[node], x, y, dist);
+        }
+        for (int i = nodeStart[node]; i < nodeEnd[node]; i++)
+            if (minDistanceSquared(i, i + 1, x, y) == dist)
+                return i;
+        return -1;
+    }
+
+    /**
+     * Returns the square of the minimal distance of the segment from (ax,ay) to (bx,by) from any
+     * segment of this batch, or {@linkplain Float#POSITIVE_INFINITY} if this batch is empty.
+     * A circle moving from (ax,ay) to (bx,by) touches a segment of this batch if and only if
+     * the result does not exceed the square of its radius.
+     *
+     * @param ax x-coordinate of the start point of the segment
+     * @param ay y-coordinate of the start point of the segment
+     * @param bx x-coordinate of the end point of the segment
+     * @param by y-coordinate of the end point of the segment
+     */
+    public float minDistanceSquared(float ax, float ay, float bx, float by) {
+        return minDistanceSquared(0, ax, ay, bx, by, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Returns the square of the minimal distance of the segment from (ax,ay) to (bx,by) from the
+     * segments of the specified node if it is less than bound, or a value that is at least bound
+     * otherwise. The search stops as soon as a distance not exceeding goal has been found.
+     * The distance of the bounding boxes of both segments is a lower bound of their distance.
+     */
+    private float minDistanceSquared(int node, float ax, float ay, float bx, float by, float bound, float goal) {
+        final float minX = min(ax, bx);
+        final float minY = min(ay, by);
+        final float maxX = max(ax, bx);
+        final float maxY = max(ay, by);
+        if (boxDistanceSquared(node, minX, minY, maxX, maxY) >= bound)
+            return bound;
+        if (nodeLeft[node] < 0)
+            return min(bound, minDistanceSquared(nodeStart[node], nodeEnd[node], ax, ay, bx, by));
+        final float res = minDistanceSquared(nodeLeft[node], ax, ay, bx, by, bound, goal);
+        return res <= goal ? res : minDistanceSquared(nodeRight[node], ax, ay, bx, by, res, goal);
+    }
+
+    /**
+     * Returns the square of the minimal distance of the segment from (ax,ay) to (bx,by) from the
+     * segments with indices from start (inclusive) to end (exclusive).
+     */
+    private float minDistanceSquared(int start, int end, float ax, float ay, float bx, float by) {
+        final float ux = bx - ax;
+        final float uy = by - ay;
+        final float uu = ux * ux + uy * uy;
+        final float invUu = uu > 0f ? 1f / uu : 0f;
+        float res = Float.POSITIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            final float vx = dx[i];
+            final float vy = dy[i];
+            final float inv = invLenSq[i];
+            // end points of the specified segment relative to the start point of segment i
+            final float pax = ax - x1[i];
+            final float pay = ay - y1[i];
+            final float pbx = bx - x1[i];
+            final float pby = by - y1[i];
+            // end points of segment i relative to the start point of the specified segment
+            final float qax = -pax;
+            final float qay = -pay;
+            final float qbx = qax + vx;
+            final float qby = qay + vy;
+
+            // distances of the four end points from the respective other segment
+            final float ta = min(max((pax * vx + pay * vy) * inv, 0f), 1f);
+            final float tb = min(max((pbx * vx + pby * vy) * inv, 0f), 1f);
+            final float sa = min(max((qax * ux + qay * uy) * invUu, 0f), 1f);
+            final float sb = min(max((qbx * ux + qby * uy) * invUu, 0f), 1f);
+            final float d1 = sqr(pax - ta * vx) + sqr(pay - ta * vy);
+            final float d2 = sqr(pbx - tb * vx) + sqr(pby - tb * vy);
+            final float d3 = sqr(qax - sa * ux) + sqr(qay - sa * uy);
+            final float d4 = sqr(qbx - sb * ux) + sqr(qby - sb * uy);
+            final float d = min(min(d1, d2), min(d3, d4));
+
+            // the segments intersect if the end points of each one lie on different sides of the other one
+            final float oa = vx * pay - vy * pax;
+            final float ob = vx * pby - vy * pbx;
+            final float oc = ux * qay - uy * qax;
+            final float od = ux * qby - uy * qbx;
+            final boolean crossing = oa * ob < 0f && oc * od < 0f;
+            res = min(res, crossing ? 0f : d);
+        }
+        return res;
+    }
+
+    /**
+     * Returns the time of impact of a circle with the specified radius moving on a straight line
+     * from (ax,ay) to (bx,by), i.e., the smallest fraction t in [0,1] such that the circle at
+     * (ax,ay) + t * ((bx,by) - (ax,ay)) touches any segment of this batch. The result is 0 if
+     * the circle already touches a segment at its start position, and
+     * {@linkplain Float#POSITIVE_INFINITY} if it does not touch any segment along its path.
+     *
+     * @param ax     x-coordinate of the start position of the center
+     * @param ay     y-coordinate of the start position of the center
+     * @param bx     x-coordinate of the end position of the center
+     * @param by     y-coordinate of the end position of the center
+     * @param radius the radius
+     */
+    public float timeOfImpact(float ax, float ay, float bx, float by, float radius) {
+        if (touches(ax, ay, radius))
+            return 0f;
+        if (!touches(ax, ay, bx, by, radius))
+            return Float.POSITIVE_INFINITY;
+        return timeOfImpact(0, ax, ay, bx, by, radius, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Returns the time of impact with the segments of the specified node if it is less than bound,
+     * or a value that is at least bound otherwise. Only nodes whose bounding box is within radius
+     * of the bounding box of the path are visited.
+     */
+    private float timeOfImpact(int node, float ax, float ay, float bx, float by, float radius, float bound) {
+        if (boxDistanceSquared(node, min(ax, bx), min(ay, by), max(ax, bx), max(ay, by)) > radius * radius)
+            return bound;
+        if (nodeLeft[node] < 0)
+            return min(bound, timeOfImpact(nodeStart[node], nodeEnd[node], ax, ay, bx, by, radius));
+        final float res = timeOfImpact(nodeLeft[node], ax, ay, bx, by, radius, bound);
+        return timeOfImpact(nodeRight[node], ax, ay, bx, by, radius, res);
+    }
+
+    /**
+     * Returns the time of impact with the segments with indices from start (inclusive) to end (exclusive).
+     */
+    private float timeOfImpact(int start, int end, float ax, float ay, float bx, float by, float radius) {
+        final float ux = bx - ax;
+        final float uy = by - ay;
+        float res = Float.POSITIVE_INFINITY;
+        for (int i = start; i < end; i++) {
+            // the circle touches the segment when its center enters the capsule around the segment,
+            // i.e., one of the circles around the end points or the strip along the segment
+            res = min(res, SegmentLike.firstWithin(ax, ay, bx, by, x1[i], y1[i], radius));
+            res = min(res, SegmentLike.firstWithin(ax, ay, bx, by, x1[i] + dx[i], y1[i] + dy[i], radius));
+            if (invLenSq[i] > 0f) {
+                final float len = sqrt(1f / invLenSq[i]);
+                // signed distance from the line through the segment at the start and the end of the path
+                final float d0 = (dx[i] * (ay - y1[i]) - dy[i] * (ax - x1[i])) / len;
+                final float d1 = (dx[i] * (by - y1[i]) - dy[i] * (bx - x1[i])) / len;
+                if (d0 != d1) {
+                    final float t = (d0 - sign(d0) * radius) / (d0 - d1);
+                    final float px = ax + t * ux - x1[i];
+                    final float py = ay + t * uy - y1[i];
+                    final float q = (px * dx[i] + py * dy[i]) * invLenSq[i];
+                    if (t >= 0f && t <= 1f && q >= 0f && q <= 1f)
+                        res = min(res, t);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Checks whether a circle with the specified center and radius touches any segment of this batch.
+     *
+     * @param x      x-coordinate of the center
+     * @param y      y-coordinate of the center
+     * @param radius the radius
+     */
+    public boolean touches(float x, float y, float radius) {
+        final float r2 = radius * radius;
+        return minDistanceSquared(0, x, y, Math.nextUp(r2), r2) <= r2;
+    }
+
+    /**
+     * Checks whether a circle with the specified radius touches any segment of this batch
+     * when moving from (ax,ay) to (bx,by).
+     *
+     * @param ax     x-coordinate of the start position of the center
+     * @param ay     y-coordinate of the start position of the center
+     * @param bx     x-coordinate of the end position of the center
+     * @param by     y-coordinate of the end position of the center
+     * @param radius the radius
+     */
+    public boolean touches(float ax, float ay, float bx, float by, float radius) {
+        final float r2 = radius * radius;
+        return minDistanceSquared(0, ax, ay, bx, by, Math.nextUp(r2), r2) <= r2;
+    }
+}
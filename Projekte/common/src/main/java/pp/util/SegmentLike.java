@@ -112,6 +112,38 @@ public interface SegmentLike {
         return FloatMath.abs(dx1 * dy - dy1 * dx) / len;
     }
 
+    /**
+     * Returns the smallest fraction q in [0,1] such that the point (x1,y1) + q * ((x2,y2) - (x1,y1))
+     * of the segment from (x1,y1) to (x2,y2) has at most the specified distance from the point (x,y),
+     * or {@linkplain Float#POSITIVE_INFINITY} if there is no such point. If a circle with radius
+     * dist moves from (x1,y1) to (x2,y2), the result is its time of impact with the point (x,y).
+     *
+     * @param x1   x-coordinate of the segment start point
+     * @param y1   y-coordinate of the segment start point
+     * @param x2   x-coordinate of the segment end point
+     * @param y2   y-coordinate of the segment end point
+     * @param x    x-coordinate of the point
+     * @param y    y-coordinate of the point
+     * @param dist the distance
+     * @return the fraction q, or {@linkplain Float#POSITIVE_INFINITY}
+     */
+    static float firstWithin(float x1, float y1, float x2, float y2, float x, float y, float dist) {
+        final float px = x1 - x;
+        final float py = y1 - y;
+        final float c = px * px + py * py - dist * dist;
+        if (c <= 0f)
+            return 0f;
+        final float ux = x2 - x1;
+        final float uy = y2 - y1;
+        final float a = ux * ux + uy * uy;
+        final float b = px * ux + py * uy;
+        final float disc = b * b - a * c;
+        if (b >= 0f || disc < 0f)
+            return Float.POSITIVE_INFINITY;
+        final float q = (-b - sqrt(disc)) / a;
+        return q <= 1f ? q : Float.POSITIVE_INFINITY;
+    }
+
     /**
      * Returns the distance of the specified position from this segment.
      * This is just a convenience method for {@linkplain #distanceTo(float, float)}.
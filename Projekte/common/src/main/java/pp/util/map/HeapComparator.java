@@ -11,7 +11,7 @@ import java.util.Comparator;
  * A comparator used to keep segments in the heap sorted by their distance from the observer.
  */
 class HeapComparator implements Comparator<TypedSegment> {
-    private static final float EPS = 1e-4f;
+    static final float EPS = 1e-4f;
     private static final float FACTOR = 10f;
     private static final Position ZERO = new FloatPoint(0f, 0f);
     /**
@@ -19,10 +19,23 @@ class HeapComparator implements Comparator<TypedSegment> {
      */
     static final TypedSegment OUT_OF_VIEWING_AREA_SEG = new TypedSegment(ZERO, ZERO, Triangle.OUT_OF_VIEWING_AREA);
     private final Position observer;
+    private final boolean tolerant;
     private Angle angle;
 
+    /**
+     * Creates a comparator that throws a RuntimeException if the observer is too close to a segment.
+     */
     HeapComparator(Position observer, Angle angle) {
+        this(observer, angle, false);
+    }
+
+    /**
+     * Creates a comparator. If tolerant is true, distances of segments too close to the observer
+     * are snapped to the minimal distance instead of throwing a RuntimeException.
+     */
+    HeapComparator(Position observer, Angle angle, boolean tolerant) {
         this.observer = observer;
+        this.tolerant = tolerant;
         setAngle(angle);
     }
 
@@ -38,10 +51,14 @@ class HeapComparator implements Comparator<TypedSegment> {
             return -1;
         if (o2 == OUT_OF_VIEWING_AREA_SEG)
             return 1;
-        final float dist1 = o1.dist(observer, angle);
-        final float dist2 = o2.dist(observer, angle);
-        if (dist1 < EPS || dist2 < EPS)
-            throw new RuntimeException("observer too close to segment");
+        float dist1 = o1.dist(observer, angle);
+        float dist2 = o2.dist(observer, angle);
+        if (dist1 < EPS || dist2 < EPS) {
+            if (!tolerant)
+                throw new RuntimeException("observer too close to segment");
+            dist1 = Math.max(dist1, EPS);
+            dist2 = Math.max(dist2, EPS);
+        }
         final float diff = dist1 - dist2;
         if (diff < -EPS)
             return -1;
@@ -12,6 +12,9 @@ import java.util.List;
 import java.util.Map;
 
 import static java.lang.Float.POSITIVE_INFINITY;
+import static pp.util.FloatMath.PI;
+import static pp.util.FloatMath.TWO_PI;
+import static pp.util.FloatMath.atan2;
 
 /**
  * A class for computing and representing all segments that are at least partially visible
@@ -24,8 +27,27 @@ import static java.lang.Float.POSITIVE_INFINITY;
  */
 public class Observation {
     private final Position observer;
-    private final List<Triangle> triangles = new ArrayList<>();
+    private final List<Triangle> triangles;
     private final Map<TypedSegment, Circle> entityMap;
+    /**
+     * The right border of the viewing area in radians.
+     */
+    private final float viewStart;
+    /**
+     * The viewing area in radians. A value of at least 2*pi means an unrestricted viewing area.
+     */
+    private final float viewingArea;
+    /**
+     * The right angles of all triangles in radians relative to the right angle of the
+     * first triangle, i.e., in ascending order within [0, 2*pi). This index is created
+     * together with the triangles, i.e., an observation is never modified after its creation
+     * and can be shared between threads.
+     */
+    private final float[] rightAngles;
+    /**
+     * The right angle of the first triangle in radians.
+     */
+    private final float startAngle;
 
     /**
      * Creates the observation for the specified collection of segments.
@@ -45,17 +67,44 @@ public class Observation {
     public Observation(Position observer, float direction, float viewingArea,
                        Collection<TypedSegment> segments,
                        Map<TypedSegment, Circle> entityMap) {
+        this(observer, direction, viewingArea, segments, entityMap, false);
+    }
+
+    /**
+     * Creates the observation for the specified collection of segments like
+     * {@linkplain #Observation(Position, float, float, Collection, Map)}. If tolerant is
+     * true, degenerate input does not cause a RuntimeException: segments that (almost)
+     * touch the observer position are ignored, and segments at (almost) the same distance
+     * from the observer are ordered without failing.
+     *
+     * @param observer    the viewer position
+     * @param direction   the viewer direction (in radians)
+     * @param viewingArea represents the viewing area (in radians).
+     * @param segments    the collection of all segments
+     * @param entityMap   maps segments to the shape of those BoundedItems
+     *                    that generated these segments
+     * @param tolerant    whether degenerate input shall be tolerated
+     */
+    public Observation(Position observer, float direction, float viewingArea,
+                       Collection<TypedSegment> segments,
+                       Map<TypedSegment, Circle> entityMap,
+                       boolean tolerant) {
         this.observer = observer;
         this.entityMap = entityMap;
-        final Visibility vis = new Visibility(observer, direction, viewingArea, segments);
-        if (vis.getSteps().isEmpty()) return;
+        this.viewStart = direction - Math.min(PI, 0.5f * viewingArea);
+        this.viewingArea = viewingArea;
+        final Visibility vis = new Visibility(observer, direction, viewingArea, segments, tolerant);
+        final List<Triangle> list = new ArrayList<>();
         // note that the first step is also the last step
         Step prevStep = null;
         for (Step curStep : vis.getSteps()) {
             if (prevStep != null)
-                triangles.add(makeTriangle(prevStep.leftSegment(), curStep.angle(), prevStep.angle()));
+                list.add(makeTriangle(prevStep.leftSegment(), curStep.angle(), prevStep.angle()));
             prevStep = curStep;
         }
+        this.triangles = List.copyOf(list);
+        this.startAngle = triangles.isEmpty() ? 0f : triangles.get(0).rightAngle().radians();
+        this.rightAngles = makeRightAngles();
     }
 
     private Triangle makeTriangle(TypedSegment segment, Angle leftAngle, Angle rightAngle) {
@@ -67,6 +116,17 @@ public class Observation {
         return new Triangle(segment, entityMap.get(segment), leftAngle, rightAngle, leftDist, rightDist, interval);
     }
 
+    /**
+     * Normalizes the specified angle to the range [0, 2*pi).
+     *
+     * @param radians the specified angle in radians
+     */
+    private static float normalize(float radians) {
+        float res = radians % TWO_PI;
+        if (res < 0f) res += TWO_PI;
+        return res >= TWO_PI ? 0f : res;
+    }
+
     /**
      * Returns the sequence of triangles, i.e., segment parts visible from the viewer position.
      * The triangles are ordered from right to left, starting at the first angle within the viewing
@@ -76,4 +136,104 @@ public class Observation {
     public List<Triangle> getTriangles() {
         return triangles;
     }
+
+    /**
+     * Returns the triangle whose sides enclose the direction from the observer to the specified point,
+     * or null if there is no such triangle, e.g., if the point coincides with the observer position.
+     * The triangle is found by a binary search over the angularly sorted triangles.
+     *
+     * @param x the point's x value
+     * @param y the point's y value
+     */
+    public Triangle findTriangle(float x, float y) {
+        final float dx = x - observer.getX();
+        final float dy = y - observer.getY();
+        if (triangles.isEmpty() || (dx == 0f && dy == 0f))
+            return null;
+        final float[] angles = rightAngles;
+        final float angle = relativeAngle(atan2(dy, dx));
+        // find the last triangle whose right angle is not left of the point
+        int lo = 0;
+        int hi = angles.length - 1;
+        while (lo < hi) {
+            final int mid = (lo + hi + 1) >>> 1;
+            if (angles[mid] <= angle)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        return triangles.get(lo);
+    }
+
+    /**
+     * Checks whether the specified point is visible from the observer position, i.e., whether
+     * it lies within the viewing area and within the triangle in its direction. Points lying on
+     * a visible segment are visible, too. Triangles without any segment provide an infinite view,
+     * i.e., each point in their direction is visible. This is also the case for all points within
+     * the viewing area if there are no segments at all.
+     *
+     * @param x the point's x value
+     * @param y the point's y value
+     */
+    public boolean isVisible(float x, float y) {
+        final float dx = x - observer.getX();
+        final float dy = y - observer.getY();
+        if ((dx == 0f && dy == 0f) || !inViewingArea(dx, dy))
+            return false;
+        final Triangle triangle = findTriangle(x, y);
+        return triangle == null || triangle.segment == null || triangle.contains(dx, dy);
+    }
+
+    /**
+     * Checks whether the specified direction lies within the viewing area.
+     *
+     * @param dx the x value of the direction
+     * @param dy the y value of the direction
+     */
+    private boolean inViewingArea(float dx, float dy) {
+        return viewingArea >= TWO_PI || normalize(atan2(dy, dx) - viewStart) <= viewingArea;
+    }
+
+    /**
+     * Checks whether the specified position is visible from the observer position.
+     * This is just a convenience method for {@linkplain #isVisible(float, float)}.
+     *
+     * @param pos the position to check
+     */
+    public boolean isVisible(Position pos) {
+        return isVisible(pos.getX(), pos.getY());
+    }
+
+    /**
+     * Checks for each of the specified positions whether it is visible from the observer position
+     * and returns the results in an array where each element corresponds to the position with the same
+     * index in the specified list.
+     *
+     * @param positions the positions to check
+     * @see #isVisible(float, float)
+     */
+    public boolean[] isVisible(List<? extends Position> positions) {
+        final boolean[] result = new boolean[positions.size()];
+        int i = 0;
+        for (Position pos : positions)
+            result[i++] = isVisible(pos.getX(), pos.getY());
+        return result;
+    }
+
+    private float[] makeRightAngles() {
+        final float[] angles = new float[triangles.size()];
+        for (int i = 1; i < angles.length; i++)
+            angles[i] = relativeAngle(triangles.get(i).rightAngle().radians());
+        return angles;
+    }
+
+    /**
+     * Returns the specified angle relative to the right angle of the first triangle
+     * normalized to the range [0, 2*pi).
+     *
+     * @param radians the specified angle in radians
+     */
+    private float relativeAngle(float radians) {
+        return normalize(radians - startAngle);
+    }
 }
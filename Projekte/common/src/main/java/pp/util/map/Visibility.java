@@ -25,6 +25,11 @@ class Visibility {
      * The observer position.
      */
     private final Position observer;
+    /**
+     * Indicates whether degenerate input is tolerated, i.e., segments too close to the
+     * observer are ignored instead of causing a RuntimeException.
+     */
+    private final boolean tolerant;
     /**
      * The rightmost angle of the viewing area as unit vector,
      * or the observer's 6 o'clock position if the viewing area is not restricted.
@@ -76,7 +81,25 @@ class Visibility {
      * @param segments    the collection of all segments
      */
     public Visibility(Position observer, float direction, float viewingArea, Collection<TypedSegment> segments) {
+        this(observer, direction, viewingArea, segments, false);
+    }
+
+    /**
+     * Computes the visibility of all segments that are visible from the specified
+     * observer with the specified viewing area. If tolerant is true, segments
+     * that (almost) touch the observer position are ignored, and near-coincident
+     * distances are snapped instead of throwing a RuntimeException.
+     *
+     * @param observer    the observer position
+     * @param direction   where the observer looks
+     * @param viewingArea The angle range of the viewing area. Any value >= 2*pi means an
+     *                    unrestricted viewing area.
+     * @param segments    the collection of all segments
+     * @param tolerant    whether degenerate input shall be tolerated
+     */
+    public Visibility(Position observer, float direction, float viewingArea, Collection<TypedSegment> segments, boolean tolerant) {
         this.observer = observer;
+        this.tolerant = tolerant;
         this.startAngle = Angle.fromRadians(direction - min(PI, 0.5f * viewingArea));
         this.viewingArea = viewingArea >= TWO_PI ? null : Angle.fromRadians(viewingArea);
         if (!segments.isEmpty()) {
@@ -102,6 +125,9 @@ class Visibility {
             initialSegments.add(OUT_OF_VIEWING_AREA_SEG);
         }
         for (TypedSegment seg : segments) {
+            if (tolerant && seg.distanceTo(observer) < HeapComparator.EPS)
+                // the observer (almost) lies on this segment; ignore it
+                continue;
             final Angle leftAngle = angle(seg.from());
             final Angle rightAngle = angle(seg.to());
             if (correctOrientation(leftAngle, rightAngle) && inViewingArea(leftAngle, rightAngle)) {
@@ -169,10 +195,10 @@ class Visibility {
 
     private void makeComparator() {
         if (borders.isEmpty())
-            comparator = new HeapComparator(observer, Angle.ZERO);
+            comparator = new HeapComparator(observer, Angle.ZERO, tolerant);
         else {
             final Border last = borders.get(borders.size() - 1);
-            comparator = new HeapComparator(observer, last.angle);
+            comparator = new HeapComparator(observer, last.angle, tolerant);
         }
     }
 
@@ -0,0 +1,144 @@
+package pp.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static pp.util.FloatMath.sqr;
+
+public class SegmentBatchTest {
+    private static final float EPS = 1e-4f;
+    private static final List<Segment> SEGMENTS = List.of(new Segment(new FloatPoint(0f, 0f), new FloatPoint(4f, 0f)),
+                                                          new Segment(new FloatPoint(4f, 0f), new FloatPoint(4f, 3f)),
+                                                          new Segment(new FloatPoint(-2f, 5f), new FloatPoint(1f, 2f)),
+                                                          new Segment(new FloatPoint(6f, 6f), new FloatPoint(6f, 6f)));
+    private static final SegmentBatch BATCH = new SegmentBatch(SEGMENTS);
+
+    @Test
+    public void empty() {
+        final SegmentBatch batch = new SegmentBatch(List.of());
+        assertEquals(0, batch.size());
+        assertEquals(Float.POSITIVE_INFINITY, batch.minDistanceSquared(1f, 2f), 0f);
+        assertNull(batch.closestPoint(1f, 2f));
+        assertFalse(batch.touches(1f, 2f, 3f, 4f, 100f));
+    }
+
+    @Test
+    public void point() {
+        assertEquals(4, BATCH.size());
+        assertEquals(1f, BATCH.minDistanceSquared(2f, 1f), EPS);
+        assertEquals(0f, BATCH.minDistanceSquared(4f, 2f), EPS);
+        assertEquals(2f, BATCH.minDistanceSquared(7f, 7f), EPS);
+        assertTrue(BATCH.touches(2f, 1f, 1f));
+        assertFalse(BATCH.touches(2f, 1.5f, 1f));
+        assertEquals(new FloatPoint(2f, 0f), BATCH.closestPoint(2f, 1f));
+        assertEquals(new FloatPoint(6f, 6f), BATCH.closestPoint(7f, 7f));
+    }
+
+    @Test
+    public void swept() {
+        assertEquals(0f, BATCH.minDistanceSquared(2f, 1f, 2f, -1f), EPS);
+        assertEquals(1f, BATCH.minDistanceSquared(2f, 1f, 3f, 1f), EPS);
+        assertEquals(0.25f, BATCH.minDistanceSquared(5f, 6.5f, 7f, 6.5f), EPS);
+        assertEquals(1f, BATCH.minDistanceSquared(2f, 1f, 2f, 1f), EPS);
+        assertTrue(BATCH.touches(2f, 2f, 2f, 0.5f, 0.5f));
+        assertFalse(BATCH.touches(2f, 2f, 2f, 0.6f, 0.5f));
+    }
+
+    @Test
+    public void impact() {
+        assertEquals(0f, BATCH.timeOfImpact(2f, 0.5f, 2f, 5f, 1f), EPS);
+        assertEquals(0.75f, BATCH.timeOfImpact(2f, 2f, 2f, 0f, 0.5f), EPS);
+        assertEquals(0.25f, BATCH.timeOfImpact(6f, 1f, 2f, 1f, 1f), EPS);
+        assertEquals(0.5f, BATCH.timeOfImpact(6f, 8f, 6f, 6f, 1f), EPS);
+        assertEquals(Float.POSITIVE_INFINITY, BATCH.timeOfImpact(2f, 2f, 3f, 2f, 0.5f), 0f);
+    }
+
+    @Test
+    public void random() {
+        final Random random = new Random(42);
+        final List<Segment> segments = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            segments.add(new Segment(randomPoint(random), randomPoint(random)));
+        final SegmentBatch batch = new SegmentBatch(segments);
+        for (int k = 0; k < 200; k++) {
+            final FloatPoint a = randomPoint(random);
+            final FloatPoint b = randomPoint(random);
+            final Segment seg = new Segment(a, b);
+            float point = Float.POSITIVE_INFINITY;
+            float swept = Float.POSITIVE_INFINITY;
+            for (Segment s : segments) {
+                point = Math.min(point, sqr(s.distanceTo(a)));
+                swept = Math.min(swept, seg.minDistanceSquared(s));
+            }
+            assertEquals(point, batch.minDistanceSquared(a.getX(), a.getY()), EPS);
+            assertEquals(swept, batch.minDistanceSquared(a.getX(), a.getY(), b.getX(), b.getY()), EPS);
+            // the time of impact of a moving circle is the first position touching a segment
+            final float radius = 2f * random.nextFloat();
+            final float t = batch.timeOfImpact(a.getX(), a.getY(), b.getX(), b.getY(), radius);
+            if (swept > sqr(radius) + EPS)
+                assertEquals(Float.POSITIVE_INFINITY, t, 0f);
+            else if (t > 0f) {
+                final Position p = seg.pointAt(t);
+                assertEquals(radius, (float) Math.sqrt(batch.minDistanceSquared(p.getX(), p.getY())), EPS);
+                final Position before = seg.pointAt(0.99f * t);
+                assertTrue(batch.minDistanceSquared(before.getX(), before.getY()) > sqr(radius));
+            }
+        }
+    }
+
+    @Test
+    public void manySegments() {
+        final Random random = new Random(4711);
+        final List<Segment> segments = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            final FloatPoint from = randomPoint(random);
+            segments.add(new Segment(from, new FloatPoint(from.getX() + random.nextFloat() - 0.5f,
+                                                          from.getY() + random.nextFloat() - 0.5f)));
+        }
+        final SegmentBatch batch = new SegmentBatch(segments);
+        assertEquals(2000, batch.size());
+        for (int k = 0; k < 500; k++) {
+            final FloatPoint a = randomPoint(random);
+            final FloatPoint b = new FloatPoint(a.getX() + random.nextFloat(), a.getY() + random.nextFloat());
+            final Segment seg = new Segment(a, b);
+            final float radius = 0.3f * random.nextFloat();
+            float point = Float.POSITIVE_INFINITY;
+            float swept = Float.POSITIVE_INFINITY;
+            for (Segment s : segments) {
+                point = Math.min(point, sqr(s.distanceTo(a)));
+                swept = Math.min(swept, distanceSquared(seg, s));
+            }
+            assertEquals(point, batch.minDistanceSquared(a.getX(), a.getY()), EPS);
+            assertEquals(swept, batch.minDistanceSquared(a.getX(), a.getY(), b.getX(), b.getY()), EPS);
+            if (Math.abs(point - sqr(radius)) > EPS)
+                assertEquals(point <= sqr(radius), batch.touches(a.getX(), a.getY(), radius));
+            if (Math.abs(swept - sqr(radius)) > EPS)
+                assertEquals(swept <= sqr(radius), batch.touches(a.getX(), a.getY(), b.getX(), b.getY(), radius));
+        }
+    }
+
+    /**
+     * Returns the squared distance of two segments computed from the distances of the end points
+     * of each segment from the other one, which is exact unless the segments intersect.
+     */
+    private static float distanceSquared(Segment s1, Segment s2) {
+        final boolean crossing = s1.determinantWith(new Segment(s1.from(), s2.from())) *
+                                 s1.determinantWith(new Segment(s1.from(), s2.to())) < 0f &&
+                                 s2.determinantWith(new Segment(s2.from(), s1.from())) *
+                                 s2.determinantWith(new Segment(s2.from(), s1.to())) < 0f;
+        if (crossing) return 0f;
+        return sqr(Math.min(Math.min(s1.distanceTo(s2.from()), s1.distanceTo(s2.to())),
+                            Math.min(s2.distanceTo(s1.from()), s2.distanceTo(s1.to()))));
+    }
+
+    private static FloatPoint randomPoint(Random random) {
+        return new FloatPoint(20f * random.nextFloat() - 10f, 20f * random.nextFloat() - 10f);
+    }
+}
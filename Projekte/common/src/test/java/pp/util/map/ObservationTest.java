@@ -5,11 +5,15 @@ import pp.util.FloatPoint;
 import pp.util.Position;
 import pp.util.TypedSegment;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static pp.util.FloatMath.PI;
 import static pp.util.FloatMath.ZERO_TOLERANCE;
 import static pp.util.FloatMath.atan2;
@@ -180,6 +184,109 @@ public class ObservationTest {
         check(ANGLES3, SEGS3, SEGMENTS3, 3, WALL);
     }
 
+    @Test
+    public void visibility1() {
+        checkVisibility(new Observation(p(0, 0), PI, 10f, SEGMENTS1, Collections.emptyMap()), PI, 10f);
+    }
+
+    @Test
+    public void visibility2() {
+        checkVisibility(new Observation(p(0, 0), 0.5f * PI, 0.5f * PI, SEGMENTS2, Collections.emptyMap()), 0.5f * PI, 0.5f * PI);
+    }
+
+    @Test
+    public void visibility3() {
+        final Observation obs = new Observation(p(0, 0), PI, 10f, SEGMENTS3, Collections.emptyMap());
+        assertTrue(obs.isVisible(p(0.5f, 0.5f)));
+        assertTrue(obs.isVisible(p(-0.9f, 0.9f)));
+        assertTrue(obs.isVisible(p(1f, 0f)));
+        assertFalse(obs.isVisible(p(1.5f, 0f)));
+        assertFalse(obs.isVisible(p(-0.5f, -1.5f)));
+        final List<Position> positions = List.of(p(0.2f, -0.7f), p(3f, 3f), p(-0.5f, 0.1f));
+        assertArrayEquals(new boolean[]{true, false, true}, obs.isVisible(positions));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void degenerate() {
+        final List<TypedSegment> segments = new ArrayList<>(SEGMENTS3);
+        segments.add(seg(p(0f, 0f), p(0.5f, -0.5f)));
+        new Observation(p(0, 0), PI, 10f, segments, Collections.emptyMap());
+    }
+
+    @Test
+    public void degenerateTolerant() {
+        final List<TypedSegment> segments = new ArrayList<>(SEGMENTS3);
+        segments.add(seg(p(0f, 0f), p(0.5f, -0.5f)));
+        segments.add(seg(p(-0.5f, 0.00001f), p(0.5f, -0.00001f)));
+        final Observation obs = new Observation(p(0, 0), PI, 10f, segments, Collections.emptyMap(), true);
+        final List<Triangle> triangles = obs.getTriangles();
+        assertEquals(ANGLES3.length, triangles.size());
+        for (int i = 0; i < ANGLES3.length; i++)
+            assertEquals(SEGMENTS3.get(SEGS3[i]), triangles.get(i).getSegment());
+    }
+
+    @Test
+    public void emptyLevel() {
+        final Observation full = new Observation(p(0, 0), 0f, 10f, List.of(), Collections.emptyMap());
+        assertTrue(full.isVisible(p(0.5f, 0.5f)));
+        assertTrue(full.isVisible(p(-100f, 3f)));
+        assertFalse(full.isVisible(p(0f, 0f)));
+        final Observation obs = new Observation(p(0, 0), 0f, 0.5f * PI, List.of(), Collections.emptyMap());
+        assertTrue(obs.isVisible(p(100f, 0f)));
+        assertTrue(obs.isVisible(p(1f, 0.9f)));
+        assertFalse(obs.isVisible(p(1f, 1.1f)));
+        assertFalse(obs.isVisible(p(-1f, 0f)));
+    }
+
+    @Test
+    public void infiniteView() {
+        // SEGMENTS1 does not enclose the observer, i.e., there are directions without any segment
+        final Observation obs = new Observation(p(0, 0), PI, 10f, SEGMENTS1, Collections.emptyMap());
+        assertTrue(obs.isVisible(p(-10f, 5f)));
+        assertFalse(obs.isVisible(p(0f, 2f)));
+        final Observation restricted = new Observation(p(0, 0), 5f / 6f * PI, 0.1f * PI, SEGMENTS1, Collections.emptyMap());
+        assertTrue(restricted.isVisible(p(-10f, 5f)));
+        assertFalse(restricted.isVisible(p(10f, 0f)));
+    }
+
+    /**
+     * Checks that the binary search over the triangles yields the same result as a linear scan.
+     * Points close to the observer are skipped because they lie within the tips of several triangles.
+     * A point is visible if it lies within the viewing area and in a triangle without any segment
+     * or within a triangle with a segment.
+     */
+    private void checkVisibility(Observation obs, float direction, float viewingArea) {
+        final Position observer = p(0, 0);
+        for (float x = -3f; x <= 3f; x += 0.25f)
+            for (float y = -3f; y <= 3f; y += 0.25f) {
+                final float dx = x + 0.05f;
+                final float dy = y + 0.05f;
+                if (dx * dx + dy * dy < 0.25f) continue;
+                boolean expected = false;
+                if (viewingArea >= 2f * PI || positive(atan2(dy, dx) - direction + 0.5f * viewingArea) <= viewingArea)
+                    for (Triangle t : obs.getTriangles())
+                        if (encloses(t, dx, dy, obs.getTriangles().size() == 1))
+                            expected = t.getSegment() == null || t.contains(dx, dy);
+                assertEquals(dx + "/" + dy, expected, obs.isVisible(observer.getX() + dx, observer.getY() + dy));
+            }
+    }
+
+    /**
+     * Checks whether the direction lies between the sides of the specified triangle. A triangle
+     * whose sides coincide is degenerate unless it is the only one and covers the full circle.
+     */
+    private static boolean encloses(Triangle t, float dx, float dy, boolean single) {
+        final float right = t.rightAngle().radians();
+        float span = positive(t.leftAngle().radians() - right);
+        if (span == 0f && single) span = 2f * PI;
+        return positive(atan2(dy, dx) - right) < span;
+    }
+
+    private static float positive(float radians) {
+        final float res = radians % (2f * PI);
+        return res < 0f ? res + 2f * PI : res;
+    }
+
     private void checkAll(float[][] angles, int[][] segs, List<TypedSegment> segments) {
         assertEquals(angles.length, segs.length);
         assertEquals(angles.length, segments.size());
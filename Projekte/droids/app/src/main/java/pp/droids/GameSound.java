@@ -5,13 +5,8 @@ import com.jme3.app.state.AbstractAppState;
 import com.jme3.app.state.AppStateManager;
 import com.jme3.audio.AudioData;
 import com.jme3.audio.AudioNode;
-import pp.droids.model.DamageReceiver;
 import pp.droids.model.DroidsModel;
-import pp.droids.model.Enemy;
-import pp.droids.model.Item;
-import pp.droids.model.Projectile;
-import pp.droids.model.Shooter;
-import pp.droids.notifications.GameEventAdapter;
+import pp.droids.notifications.EventRing;
 import pp.util.Prefs;
 
 import java.lang.System.Logger;
@@ -31,7 +26,9 @@ public class GameSound extends AbstractAppState {
     private AudioNode gunSound;
     private AudioNode killedSound;
     private AudioNode hitSound;
-
+    private EventRing eventRing;
+    private EventRing.Consumer consumer;
+    private final EventRing.Handler player = this::play;
 
 
     /**
@@ -53,6 +50,15 @@ public class GameSound extends AbstractAppState {
     public void setEnabled(boolean enabled) {
         if (isEnabled() == enabled) return;
         super.setEnabled(enabled);
+        // a disabled state is not updated, i.e., it must not hold back the event ring
+        if (eventRing != null) {
+            if (enabled)
+                consumer = eventRing.addConsumer();
+            else {
+                eventRing.removeConsumer(consumer);
+                consumer = null;
+            }
+        }
         LOGGER.log(Level.INFO, "Sound enabled: {0}", enabled); //NON-NLS
         PREFS.put(ENABLED_PREF, String.valueOf(enabled));
     }
@@ -87,26 +93,39 @@ public class GameSound extends AbstractAppState {
     }
 
     /**
-     * Recognizes fired shots, destroyed enemies and hits. If an event is recognized, it calls a method to play the  particular sound.
+     * Recognizes fired shots, destroyed enemies and hits by consuming the event ring of the model.
+     * The events are processed by {@linkplain #update(float)}.
      *
      * @param model the droids model
      */
     public void register(DroidsModel model) {
-        model.addGameEventListener(new GameEventAdapter() {
-            @Override
-            public void shooterFired(Shooter shooter, Projectile projectile) {
-                if (isEnabled()) gunSound.playInstance();
-            }
+        if (eventRing != null)
+            eventRing.removeConsumer(consumer);
+        eventRing = model.getEventRing();
+        consumer = isEnabled() ? eventRing.addConsumer() : null;
+    }
 
-            @Override
-            public void enemyDestroyed(Enemy enemy) {
-                if (isEnabled()) killedSound.playInstance();
-            }
+    /**
+     * Plays the sounds of all events published since the last call.
+     * It overrides {@link com.jme3.app.state.AbstractAppState#update(float)}
+     *
+     * @param tpf time per frame
+     */
+    @Override
+    public void update(float tpf) {
+        super.update(tpf);
+        if (consumer != null)
+            eventRing.poll(consumer, player);
+    }
 
-            @Override
-            public void hit(DamageReceiver damaged, Item hittingItem) {
-                if (isEnabled()) hitSound.playInstance();
-            }
-        });
+    /**
+     * Plays the particular sound of the specified event.
+     */
+    private void play(EventRing ring, long sequence) {
+        switch (ring.getType(sequence)) {
+            case SHOOTER_FIRED -> gunSound.playInstance();
+            case ENEMY_DESTROYED -> killedSound.playInstance();
+            case HIT -> hitSound.playInstance();
+        }
     }
 }
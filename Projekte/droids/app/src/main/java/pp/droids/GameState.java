@@ -26,8 +26,10 @@ import com.jme3.util.TangentBinormalGenerator;
 import pp.droids.model.Droid;
 import pp.droids.model.DroidsMap;
 import pp.droids.model.DroidsModel;
+import pp.droids.model.FixedStepDriver;
 import pp.droids.notifications.GameEventAdapter;
 import pp.droids.view.MainSynchronizer;
+import pp.droids.view.ProjectileRenderer;
 
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
@@ -93,7 +95,9 @@ public class GameState extends AbstractAppState {
     private final Node viewNode = new Node("view"); //NON-NLS
     private final Node itemNode = new Node("items"); //NON-NLS
     private DroidsModel model;
+    private FixedStepDriver driver;
     private final ModelViewSynchronizer synchronizer = new MainSynchronizer(this, itemNode);
+    private ProjectileRenderer projectileRenderer;
 
     /**
      *
@@ -146,11 +150,22 @@ public class GameState extends AbstractAppState {
         return model;
     }
 
+    /**
+     * Returns the driver that updates the model with a fixed time step.
+     *
+     * @return the fixed step driver
+     */
+    public FixedStepDriver getDriver() {
+        return driver;
+    }
+
     /**
      * Resets the synchronizer for model and view, the camera and the floor.
      */
     public void reset() {
         synchronizer.reset();
+        projectileRenderer.reset();
+        driver.reset();
         adjustCamera();
         setupFloor();
     }
@@ -168,11 +183,14 @@ public class GameState extends AbstractAppState {
         super.initialize(stateManager, application);
         this.app = (DroidsApp) application;
         model = new DroidsModel(app.getConfig());
+        driver = new FixedStepDriver(model);
         model.loadRandomMap();
         app.getRootNode().attachChild(viewNode);
         viewNode.attachChild(itemNode);
+        projectileRenderer = new ProjectileRenderer(app.getAssetManager(), viewNode);
         app.getStateManager().getState(GameSound.class).register(model);
         app.getStateManager().getState(GameMusic.class).register(model);
+        synchronizer.register(model);
         model.addGameEventListener(new GameEventAdapter() {
             @Override
             public void mapChanged(DroidsMap oldMap, DroidsMap newMap) {
@@ -370,6 +388,7 @@ public class GameState extends AbstractAppState {
 
     /**
      * Updates the synchronizes and the model and enabled the game input, if the game isn't over.
+     * The model is updated by the fixed step driver, which may update it several times or not at all.
      *
      * @param delta Time since the last call to update(), in seconds.
      */
@@ -377,8 +396,10 @@ public class GameState extends AbstractAppState {
     public void update(float delta) {
         super.update(delta);
         if (!model.isGameOver()) {
-            model.update(delta);
+            driver.advance(delta);
             synchronizer.syncWithModel();
+            final DroidsMap map = model.getDroidsMap();
+            projectileRenderer.update(map.getProjectilePool(), map.getDroid().getLevel(), driver.getAlpha());
             adjustCamera();
         }
         getGameInput().setEnabled(!model.isGameOver());
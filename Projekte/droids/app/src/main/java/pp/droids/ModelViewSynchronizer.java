@@ -3,23 +3,32 @@ package pp.droids;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import pp.droids.model.Droid;
+import pp.droids.model.DroidsMap;
+import pp.droids.model.DroidsModel;
 import pp.droids.model.Item;
+import pp.droids.model.ItemStore;
+import pp.droids.model.MapLevel;
+import pp.droids.notifications.GameEventAdapter;
 
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * This abstract class synchronizes model and view.
  */
 public abstract class ModelViewSynchronizer {
     private static final Logger LOGGER = System.getLogger(ModelViewSynchronizer.class.getName());
+    private static final int NO_HANDLE = -1;
     protected final GameState gameState;
     private final Node root;
-    private final Map<Item, Spatial> itemMap = new HashMap<>();
+    private int[] handles = new int[0];
+    private Spatial[] spatials = new Spatial[0];
+    private final List<Item> destroyedItems = new ArrayList<>();
+    private final List<Item> movedItems = new ArrayList<>();
+    private MapLevel shownLevel;
 
     /**
      * Saves the game state and the node.
@@ -35,40 +44,108 @@ public abstract class ModelViewSynchronizer {
     protected abstract Spatial translate(Item item);
 
     /**
-     * Synchronizes model and view by iterating over all spatial.
+     * Recognizes items that have been removed from the map or moved to another level so that
+     * their spatials are removed by the next call of {@linkplain #syncWithModel()}.
+     *
+     * @param model the droids model
+     */
+    public void register(DroidsModel model) {
+        model.addGameEventListener(new GameEventAdapter() {
+            @Override
+            public void itemsDestroyed(DroidsMap map, List<Item> items) {
+                destroyedItems.addAll(items);
+            }
+
+            @Override
+            public void itemsChangedLevel(DroidsMap map, List<Item> items) {
+                movedItems.addAll(items);
+            }
+        });
+    }
+
+    /**
+     * Synchronizes model and view. Spatials are created for new items of the droid's level and
+     * removed for items that have been destroyed or moved to another level since the last call.
+     * If the droid itself has changed its level, all spatials are removed.
      */
     public void syncWithModel() {
         final Droid droid = gameState.getModel().getDroidsMap().getDroid();
-        droid.getLevel().forEach(this::getSpatial);
-        final Iterator<Entry<Item, Spatial>> it = itemMap.entrySet().iterator();
-        while (it.hasNext()) {
-            final Entry<Item, Spatial> entry = it.next();
-            if (entry.getKey().isDestroyed() || entry.getKey().getLevel() != droid.getLevel()) {
-                if (entry.getValue() != null)
-                    entry.getValue().removeFromParent();
-                it.remove();
-                LOGGER.log(Level.DEBUG, "removed spatial for {0}", entry.getKey()); //NON-NLS
-            }
+        final MapLevel level = droid.getLevel();
+        if (level != shownLevel) {
+            removeAll();
+            shownLevel = level;
         }
+        for (Item item : destroyedItems)
+            removeSpatial(item);
+        destroyedItems.clear();
+        for (Item item : movedItems)
+            if (item.getLevel() != level)
+                removeSpatial(item);
+        movedItems.clear();
+        level.forEach(this::getSpatial);
+    }
+
+    /**
+     * Removes the spatials of all items.
+     */
+    private void removeAll() {
+        for (int slot = 0; slot < handles.length; slot++)
+            if (handles[slot] != NO_HANDLE)
+                removeSlot(slot);
+    }
+
+    /**
+     * Removes the spatial of the specified item if there is one.
+     */
+    private void removeSpatial(Item item) {
+        final int handle = item.getHandle();
+        if (handle < 0) return;
+        final int slot = ItemStore.slotOf(handle);
+        if (slot < handles.length && handles[slot] == handle) {
+            removeSlot(slot);
+            LOGGER.log(Level.DEBUG, "removed spatial for {0}", item); //NON-NLS
+        }
+    }
+
+    /**
+     * Removes the spatial stored in the specified slot.
+     */
+    private void removeSlot(int slot) {
+        if (spatials[slot] != null)
+            spatials[slot].removeFromParent();
+        spatials[slot] = null;
+        handles[slot] = NO_HANDLE;
     }
 
     /**
      * Permits, if an item is destroyed or already part of the map. If it is not, it gets created.
+     * Spatials are stored in arrays indexed by the slot of the item's handle. If the stored handle
+     * differs from the item's handle, the slot has been reused, and the stale spatial is replaced.
      *
      * @param item the item to be considered
      * @return the spatial of the item
      */
     public Spatial getSpatial(Item item) {
-        if (item.isDestroyed()) {
-            final Spatial spatial = itemMap.remove(item);
-            if (spatial != null)
-                spatial.removeFromParent();
+        final int handle = item.getHandle();
+        if (item.isDestroyed() || handle < 0) {
+            removeSpatial(item);
             return null;
         }
-        if (itemMap.containsKey(item))
-            return itemMap.get(item);
+        final int slot = ItemStore.slotOf(handle);
+        if (slot >= handles.length) {
+            final int oldLength = handles.length;
+            final int newLength = Math.max(slot + 1, 2 * oldLength);
+            handles = Arrays.copyOf(handles, newLength);
+            spatials = Arrays.copyOf(spatials, newLength);
+            Arrays.fill(handles, oldLength, newLength, NO_HANDLE);
+        }
+        if (handles[slot] == handle)
+            return spatials[slot];
+        if (handles[slot] != NO_HANDLE)
+            removeSlot(slot);
         final Spatial spatial = translate(item);
-        itemMap.put(item, spatial);
+        handles[slot] = handle;
+        spatials[slot] = spatial;
         LOGGER.log(Level.DEBUG, "added spatial for {0}", item); //NON-NLS
         if (spatial != null)
             root.attachChild(spatial);
@@ -79,7 +156,11 @@ public abstract class ModelViewSynchronizer {
      * Resets it by clearing the map and detach all children of the root.
      */
     public void reset() {
-        itemMap.clear();
+        Arrays.fill(handles, NO_HANDLE);
+        Arrays.fill(spatials, null);
+        destroyedItems.clear();
+        movedItems.clear();
+        shownLevel = null;
         root.detachAllChildren();
         syncWithModel();
     }
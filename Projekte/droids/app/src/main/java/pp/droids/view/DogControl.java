@@ -2,25 +2,24 @@ package pp.droids.view;
 
 import com.jme3.renderer.RenderManager;
 import com.jme3.renderer.ViewPort;
-import com.jme3.scene.control.AbstractControl;
 import pp.droids.model.Dog;
+import pp.droids.model.FixedStepDriver;
 
 import static com.jme3.math.Vector3f.UNIT_Y;
 import static pp.droids.view.CoordinateTransformation.modelToViewX;
 import static pp.droids.view.CoordinateTransformation.modelToViewY;
 import static pp.droids.view.CoordinateTransformation.modelToViewZ;
 
-public class DogControl extends AbstractControl {
-
-    private final Dog dog;
+public class DogControl extends InterpolatingControl {
 
     /**
      * Constructor to set up the dog.
      *
-     * @param dog given dog
+     * @param dog    given dog
+     * @param driver the driver of the model, or null if the dog shall be shown at its current position
      */
-    public DogControl(Dog dog) {
-        this.dog = dog;
+    public DogControl(Dog dog, FixedStepDriver driver) {
+        super(dog, driver);
     }
 
     /**
@@ -30,11 +29,12 @@ public class DogControl extends AbstractControl {
     @Override
     protected void controlUpdate(float tpf) {
         if (spatial != null) {
-            final float angle = dog.getRotation();
+            interpolate();
+            final float angle = getRotation();
             spatial.getLocalRotation().fromAngleAxis(angle, UNIT_Y);
-            spatial.setLocalTranslation(modelToViewX(dog),
-                                        modelToViewY(dog),
-                                        modelToViewZ(dog));
+            spatial.setLocalTranslation(modelToViewX(getX(), getY()),
+                                        modelToViewY(getX(), getY()),
+                                        modelToViewZ(getX(), getY()));
         }
     }
 
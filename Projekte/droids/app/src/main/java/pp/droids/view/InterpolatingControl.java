@@ -0,0 +1,76 @@
+package pp.droids.view;
+
+import com.jme3.scene.control.AbstractControl;
+import pp.droids.model.BoundedItem;
+import pp.droids.model.FixedStepDriver;
+
+import static pp.util.Angle.normalizeAngle;
+
+/**
+ * Base class of controls that show a bounded item between the last two simulation steps of a
+ * {@linkplain FixedStepDriver}. The item keeps its position and rotation before the latest
+ * update of the map (see {@linkplain BoundedItem#getPreviousX()}), and the control interpolates
+ * between this state and the current one with the driver's interpolation factor, so that the item
+ * moves smoothly even if the simulation runs at a lower rate than the rendering. Both states are
+ * the states after simulation steps, so the interpolation is also correct if the driver has run
+ * several catch-up steps in one frame.
+ */
+abstract class InterpolatingControl extends AbstractControl {
+    private final BoundedItem item;
+    private final FixedStepDriver driver;
+    private float prevX;
+    private float prevY;
+    private float prevRotation;
+    private float curX;
+    private float curY;
+    private float curRotation;
+
+    /**
+     * Creates a control for the specified item.
+     *
+     * @param item   the controlled item
+     * @param driver the driver of the model, or null if the item shall be shown at its current state
+     */
+    protected InterpolatingControl(BoundedItem item, FixedStepDriver driver) {
+        this.item = item;
+        this.driver = driver;
+    }
+
+    /**
+     * Takes over the state of the item before and after the latest update of the model.
+     * This method must be called once per frame before the interpolated state is used.
+     */
+    protected void interpolate() {
+        prevX = item.getPreviousX();
+        prevY = item.getPreviousY();
+        prevRotation = item.getPreviousRotation();
+        curX = item.getX();
+        curY = item.getY();
+        curRotation = item.getRotation();
+    }
+
+    private float alpha() {
+        return driver == null ? 1f : driver.getAlpha();
+    }
+
+    /**
+     * Returns the interpolated x-coordinate of the item.
+     */
+    protected float getX() {
+        return prevX + alpha() * (curX - prevX);
+    }
+
+    /**
+     * Returns the interpolated y-coordinate of the item.
+     */
+    protected float getY() {
+        return prevY + alpha() * (curY - prevY);
+    }
+
+    /**
+     * Returns the interpolated rotation of the item, which turns the shorter way.
+     */
+    protected float getRotation() {
+        return prevRotation + alpha() * normalizeAngle(curRotation - prevRotation);
+    }
+}
@@ -94,7 +94,7 @@ public class MainSynchronizer extends ModelViewSynchronizer implements Visitor<S
         final Spatial spatial = gameState.getApp().getAssetManager().loadModel(DROID_MODEL);
         spatial.scale(robot.getRadius() / Droid.BOUNDING_RADIUS);
         spatial.setShadowMode(ShadowMode.CastAndReceive);
-        spatial.addControl(new RobotControl(robot));
+        spatial.addControl(new RobotControl(robot, gameState.getDriver()));
         spatial.setName(DROID);
         return spatial;
     }
@@ -110,7 +110,7 @@ public class MainSynchronizer extends ModelViewSynchronizer implements Visitor<S
         final Spatial spatial = gameState.getApp().getAssetManager().loadModel(ENEMY_MODEL);
         spatial.scale(robot.getRadius() / Enemy.BOUNDING_RADIUS);
         spatial.setShadowMode(ShadowMode.CastAndReceive);
-        spatial.addControl(new RobotControl(robot));
+        spatial.addControl(new RobotControl(robot, gameState.getDriver()));
         spatial.setName(ENEMY);
         return spatial;
     }
@@ -127,7 +127,7 @@ public class MainSynchronizer extends ModelViewSynchronizer implements Visitor<S
         missile.scale(0.3f);
         missile.updateGeometricState();
         missile.setShadowMode(ShadowMode.Cast);
-        missile.addControl(new MissileControl(projectile, PROJECTILE_HEIGHT));
+        missile.addControl(new MissileControl(projectile, PROJECTILE_HEIGHT, gameState.getDriver()));
         missile.setName(PROJECTILE);
         return missile;
     }
@@ -161,7 +161,7 @@ public class MainSynchronizer extends ModelViewSynchronizer implements Visitor<S
     public Spatial visit(Rocket rocket) {
         Spatial missile = gameState.getApp().getAssetManager().loadModel(ROCKET_MODEL);
         missile.updateGeometricState();
-        missile.addControl(new MissileControl(rocket, ROCKET_HEIGHT));
+        missile.addControl(new MissileControl(rocket, ROCKET_HEIGHT, gameState.getDriver()));
         missile.setName(ROCKET);
         return missile;
     }
@@ -219,7 +219,7 @@ public class MainSynchronizer extends ModelViewSynchronizer implements Visitor<S
     public Spatial visit(Dog dog){
         final Spatial spatial = gameState.getApp().getAssetManager().loadModel(DOG_MODEL);
         spatial.setShadowMode(ShadowMode.CastAndReceive);
-        spatial.addControl(new DogControl(dog));
+        spatial.addControl(new DogControl(dog, gameState.getDriver()));
         spatial.setName(DOG);
         return spatial;
     }
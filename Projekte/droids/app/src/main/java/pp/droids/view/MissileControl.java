@@ -2,8 +2,8 @@ package pp.droids.view;
 
 import com.jme3.renderer.RenderManager;
 import com.jme3.renderer.ViewPort;
-import com.jme3.scene.control.AbstractControl;
 import pp.droids.model.BoundedItem;
+import pp.droids.model.FixedStepDriver;
 
 import static com.jme3.math.FastMath.PI;
 import static com.jme3.math.Vector3f.UNIT_Y;
@@ -14,8 +14,7 @@ import static pp.droids.view.CoordinateTransformation.modelToViewZ;
 /**
  * Class to control missiles
  */
-class MissileControl extends AbstractControl {
-    private final BoundedItem missile;
+class MissileControl extends InterpolatingControl {
     private final float height;
 
     /**
@@ -23,9 +22,10 @@ class MissileControl extends AbstractControl {
      *
      * @param missile the given missile
      * @param height  height of the missile
+     * @param driver  the driver of the model, or null if the missile shall be shown at its current position
      */
-    public MissileControl(BoundedItem missile, float height) {
-        this.missile = missile;
+    public MissileControl(BoundedItem missile, float height, FixedStepDriver driver) {
+        super(missile, driver);
         this.height = height;
     }
 
@@ -36,11 +36,12 @@ class MissileControl extends AbstractControl {
     @Override
     protected void controlUpdate(float tpf) {
         if (spatial != null) {
-            final float angle = PI + missile.getRotation();
+            interpolate();
+            final float angle = PI + getRotation();
             spatial.getLocalRotation().fromAngleAxis(angle, UNIT_Y);
-            spatial.setLocalTranslation(modelToViewX(missile),
-                                        modelToViewY(missile) + height,
-                                        modelToViewZ(missile));
+            spatial.setLocalTranslation(modelToViewX(getX(), getY()),
+                                        modelToViewY(getX(), getY()) + height,
+                                        modelToViewZ(getX(), getY()));
         }
     }
 
@@ -0,0 +1,110 @@
+package pp.droids.view;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.renderer.queue.RenderQueue.ShadowMode;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Node;
+import com.jme3.scene.instancing.InstancedNode;
+import com.jme3.scene.shape.Sphere;
+import pp.droids.model.MapLevel;
+import pp.droids.model.ProjectilePool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static pp.droids.view.CoordinateTransformation.modelToViewX;
+import static pp.droids.view.CoordinateTransformation.modelToViewY;
+import static pp.droids.view.CoordinateTransformation.modelToViewZ;
+import static pp.droids.view.MainSynchronizer.PROJECTILE_HEIGHT;
+
+/**
+ * Renders the projectiles of a {@linkplain ProjectilePool}. All projectiles share a single mesh
+ * and material and are drawn by an instanced node, i.e., with one draw call. The geometries are
+ * pooled as well: a geometry is created only if there are more visible projectiles than ever
+ * before, and surplus geometries are just detached. Like the controls of the items, the
+ * renderer shows each projectile between its positions before and after the last simulation
+ * step (see {@linkplain ProjectilePool#getPrevX(int)}).
+ */
+public class ProjectileRenderer {
+    private static final String NAME = "Projectile"; //NON-NLS
+
+    private final InstancedNode node = new InstancedNode("projectiles"); //NON-NLS
+    private final List<Geometry> geometries = new ArrayList<>();
+    private final Mesh mesh = new Sphere(8, 8, 1f);
+    private final Material material;
+    private int attached;
+
+    /**
+     * Creates a renderer and attaches its instanced node to the specified parent node.
+     *
+     * @param assetManager the asset manager for loading the material definition
+     * @param parent       the node where the projectiles are shown
+     */
+    public ProjectileRenderer(AssetManager assetManager, Node parent) {
+        material = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md"); //NON-NLS
+        material.setColor("Color", ColorRGBA.Orange); //NON-NLS
+        material.setBoolean("UseInstancing", true); //NON-NLS
+        node.setShadowMode(ShadowMode.Off);
+        parent.attachChild(node);
+    }
+
+    /**
+     * Shows exactly the projectiles of the specified pool that are in the specified level.
+     * This method must be called once per frame after the model has been updated.
+     *
+     * @param pool  the projectile pool
+     * @param level the level that is shown
+     * @param alpha the interpolation factor between the last two simulation steps
+     *              (see {@linkplain pp.droids.model.FixedStepDriver#getAlpha()})
+     */
+    public void update(ProjectilePool pool, MapLevel level, float alpha) {
+        final int before = attached;
+        int n = 0;
+        for (int i = 0; i < pool.size(); i++)
+            if (pool.getLevel(i) == level) {
+                final float x = pool.getPrevX(i) + alpha * (pool.getX(i) - pool.getPrevX(i));
+                final float y = pool.getPrevY(i) + alpha * (pool.getY(i) - pool.getPrevY(i));
+                final Geometry geometry = getGeometry(n++);
+                geometry.setLocalTranslation(modelToViewX(x, y),
+                                             modelToViewY(x, y) + PROJECTILE_HEIGHT,
+                                             modelToViewZ(x, y));
+                geometry.setLocalScale(pool.getRadius(i));
+            }
+        for (int j = n; j < attached; j++)
+            geometries.get(j).removeFromParent();
+        attached = n;
+        if (attached != before)
+            node.instance();
+    }
+
+    /**
+     * Removes all projectiles from the view.
+     */
+    public void reset() {
+        for (int j = 0; j < attached; j++)
+            geometries.get(j).removeFromParent();
+        attached = 0;
+        node.instance();
+    }
+
+    /**
+     * Returns the geometry with the specified index, which is attached to the instanced node.
+     * The geometry is created if it does not exist yet.
+     *
+     * @param index the index, which is at most the number of attached geometries
+     */
+    private Geometry getGeometry(int index) {
+        if (index == geometries.size()) {
+            final Geometry geometry = new Geometry(NAME, mesh);
+            geometry.setMaterial(material);
+            geometries.add(geometry);
+        }
+        final Geometry geometry = geometries.get(index);
+        if (index >= attached)
+            node.attachChild(geometry);
+        return geometry;
+    }
+}
@@ -3,8 +3,8 @@ package pp.droids.view;
 import com.jme3.renderer.RenderManager;
 import com.jme3.renderer.ViewPort;
 import com.jme3.scene.Spatial.CullHint;
-import com.jme3.scene.control.AbstractControl;
 import pp.droids.model.DamageReceiver;
+import pp.droids.model.FixedStepDriver;
 
 import static com.jme3.math.FastMath.PI;
 import static com.jme3.math.Vector3f.UNIT_Y;
@@ -15,7 +15,7 @@ import static pp.droids.view.CoordinateTransformation.modelToViewZ;
 /**
  * This class controls the robot.
  */
-class RobotControl extends AbstractControl {
+class RobotControl extends InterpolatingControl {
     private static final float FLASH_TIME = 1f;
     private static final float FLASH_INTERVAL = .1f;
     private final DamageReceiver robot;
@@ -24,9 +24,11 @@ class RobotControl extends AbstractControl {
 
     /**
      * Constructor to set up the robot.
-     * @param robot given robot
+     * @param robot  given robot
+     * @param driver the driver of the model, or null if the robot shall be shown at its current position
      */
-    public RobotControl(DamageReceiver robot) {
+    public RobotControl(DamageReceiver robot, FixedStepDriver driver) {
+        super(robot, driver);
         this.robot = robot;
     }
 
@@ -37,11 +39,12 @@ class RobotControl extends AbstractControl {
     @Override
     protected void controlUpdate(float tpf) {
         if (spatial != null) {
-            final float angle = PI + robot.getRotation();
+            interpolate();
+            final float angle = PI + getRotation();
             spatial.getLocalRotation().fromAngleAxis(angle, UNIT_Y);
-            spatial.setLocalTranslation(modelToViewX(robot),
-                                        modelToViewY(robot),
-                                        modelToViewZ(robot));
+            spatial.setLocalTranslation(modelToViewX(getX(), getY()),
+                                        modelToViewY(getX(), getY()),
+                                        modelToViewZ(getX(), getY()));
             if (hint == null)
                 hint = spatial.getCullHint();
             else if (isRobotVisible() != visible) {
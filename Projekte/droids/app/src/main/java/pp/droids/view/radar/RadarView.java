@@ -63,6 +63,7 @@ public class RadarView extends AbstractAppState {
         super.initialize(stateManager, app);
         this.app = (DroidsApp) app;
         synchronizer = new RadarSynchronizer(getGameState(), itemNode);
+        synchronizer.register(getGameState().getModel());
         setupNodes();
         setupBackground();
         setupViewPort();
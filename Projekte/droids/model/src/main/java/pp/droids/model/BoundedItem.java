@@ -1,5 +1,6 @@
 package pp.droids.model;
 
+import pp.droids.model.collisions.ShapeKind;
 import pp.droids.model.observation.Observer;
 import pp.util.CircularEntity;
 import pp.util.Position;
@@ -7,6 +8,7 @@ import pp.util.map.Observation;
 
 import java.util.Collections;
 import java.util.Set;
+import java.util.function.Predicate;
 
 import static pp.util.Angle.normalizeAngle;
 
@@ -35,6 +37,22 @@ public abstract class BoundedItem extends Item implements CircularEntity {
      */
     private float rotation;
 
+    /**
+     * The position and rotation of this item before it has been changed in the update
+     * {@linkplain #prevUpdate} of its map.
+     */
+    private float prevX;
+    private float prevY;
+    private float prevRotation;
+    private long prevUpdate = -1L;
+
+    /**
+     * The spatial hash of the level containing this item, or null if this item is not
+     * contained in any spatial hash, e.g., because it has not yet been added to the map
+     * or because it is a copy.
+     */
+    SpatialHash spatialHash;
+
     /**
      * Creates a new item for the specified game model.
      *
@@ -56,6 +74,14 @@ public abstract class BoundedItem extends Item implements CircularEntity {
         return boundingRadius;
     }
 
+    /**
+     * Returns {@linkplain ShapeKind#CIRCLE} because collisions are detected using the bounding circle.
+     */
+    @Override
+    public ShapeKind getShapeKind() {
+        return ShapeKind.CIRCLE;
+    }
+
     /**
      * Moves the item to the specified position.
      *
@@ -63,8 +89,14 @@ public abstract class BoundedItem extends Item implements CircularEntity {
      * @param y y-coordinate of the new position
      */
     public void setPos(float x, float y) {
+        rememberPrevious();
+        final float oldX = this.x;
+        final float oldY = this.y;
         this.x = x;
         this.y = y;
+        if (spatialHash != null)
+            spatialHash.moved(this, oldX, oldY);
+        changed();
     }
 
     /**
@@ -108,7 +140,61 @@ public abstract class BoundedItem extends Item implements CircularEntity {
      * @param rotation in radians
      */
     public void setRotation(float rotation) {
+        rememberPrevious();
         this.rotation = normalizeAngle(rotation);
+        changed();
+    }
+
+    /**
+     * Keeps the position and rotation of this item if it is changed for the first time in the
+     * current update of its map.
+     */
+    private void rememberPrevious() {
+        final MapLevel level = getLevel();
+        if (level == null)
+            return;
+        final long update = level.getDroidsMap().getUpdateCount();
+        if (update != prevUpdate) {
+            prevUpdate = update;
+            prevX = x;
+            prevY = y;
+            prevRotation = rotation;
+        }
+    }
+
+    /**
+     * Returns true if this item has been moved or turned in the latest update of its map.
+     */
+    private boolean changedInLatestUpdate() {
+        final MapLevel level = getLevel();
+        return level != null && prevUpdate > 0L && prevUpdate == level.getDroidsMap().getUpdateCount();
+    }
+
+    /**
+     * Returns the x-coordinate of the item's center point before the latest update of its map.
+     * Views interpolate between this state and the current one if the map is updated at a lower
+     * rate than the view is rendered (see {@linkplain FixedStepDriver}).
+     */
+    public float getPreviousX() {
+        return changedInLatestUpdate() ? prevX : getX();
+    }
+
+    /**
+     * Returns the y-coordinate of the item's center point before the latest update of its map.
+     *
+     * @see #getPreviousX()
+     */
+    public float getPreviousY() {
+        return changedInLatestUpdate() ? prevY : getY();
+    }
+
+    /**
+     * Returns the rotation of the item in radians before the latest update of its map.
+     *
+     * @see #getPreviousX()
+     */
+    public float getPreviousRotation() {
+        return changedInLatestUpdate() ? prevRotation : getRotation();
     }
 
     /**
@@ -120,7 +206,24 @@ public abstract class BoundedItem extends Item implements CircularEntity {
      */
     @Override
     public BoundedItem copy() {
-        return (BoundedItem) super.copy();
+        final BoundedItem copy = (BoundedItem) super.copy();
+        // the copy is not contained in the map
+        copy.spatialHash = null;
+        return copy;
+    }
+
+    /**
+     * Checks whether this item overlaps with any other item in the same map
+     * and that satisfies the specified predicate. Only items close to this item
+     * are checked (see {@linkplain MapLevel#anyItemNear(float, float, float, Predicate)}).
+     *
+     * @param accept only items accepted by this predicate are considered.
+     * @return true, if a collision happens
+     */
+    @Override
+    public boolean overlapsWithAnyOtherItem(Predicate<Item> accept) {
+        return getLevel().anyItemNear(getX(), getY(), getRadius(),
+                                      item -> accept.test(item) && overlapsWith(item));
     }
 
     /**
@@ -1,5 +1,6 @@
 package pp.droids.model;
 
+import pp.droids.notifications.EventType;
 import pp.droids.notifications.HitEvent;
 
 /**
@@ -49,17 +50,35 @@ public abstract class DamageReceiver extends BoundedItem {
         return timeSinceLastHit;
     }
 
+    /**
+     * Sets the number of lives and the time since the last hit, e.g., when a saved state is restored.
+     *
+     * @param lives            the remaining number of lives
+     * @param timeSinceLastHit the time in seconds since the last hit, or a negative value if this
+     *                         item has never been hit
+     * @see MapStateFormat
+     */
+    void restoreHits(int lives, float timeSinceLastHit) {
+        this.lives = lives;
+        this.timeSinceLastHit = timeSinceLastHit;
+    }
+
     /**
      * This method is called whenever the item is hit. This  method reduces the number of lives and
      * destroys it (by calling {@linkplain BoundedItem#destroy()}) if there are no lives left.
      *
-     * @param item the item hitting this item
+     * @param item the item hitting this item, i.e., a projectile, or the shooter of a pooled
+     *             projectile (see {@linkplain ProjectilePool})
      */
     @Override
     public void hitBy(Item item) {
         timeSinceLastHit = 0f;
-        if (--lives > 0)
-            getModel().notifyListeners(new HitEvent(this, item));
+        changed();
+        if (--lives > 0) {
+            getModel().getEventRing().publish(EventType.HIT, getId(), item.getId(), getX(), getY());
+            if (getModel().hasGameEventListeners(HitEvent.class))
+                getModel().notifyListeners(new HitEvent(this, item));
+        }
         else
             destroy();
     }
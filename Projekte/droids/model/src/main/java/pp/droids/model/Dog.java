@@ -1,5 +1,7 @@
 package pp.droids.model;
 
+import pp.droids.model.MovementSolver.Move;
+import pp.droids.model.replay.ReplayRecorder;
 import pp.util.Position;
 import pp.util.Segment;
 import pp.util.map.Observation;
@@ -67,6 +69,11 @@ public class Dog extends BoundedItem{
      */
     private final List<Position> path = new LinkedList<>();
 
+    /**
+     * The solver moving the dog along the items it hits.
+     */
+    private final MovementSolver solver = new MovementSolver();
+
     private static final float BOUNDING_RADIUS = 0.4f;
 
 
@@ -74,9 +81,16 @@ public class Dog extends BoundedItem{
     private FollowState followState;
 
     /**
-     * The latest observation by the dog
+     * The latest observation by the dog and the level where it has been made.
      */
     private Observation latestObservation;
+    private MapLevel observedLevel;
+
+    /**
+     * The observation prepared by {@linkplain #think(float)} and the level where it has been made.
+     */
+    private Observation preparedObservation;
+    private MapLevel preparedLevel;
 
 
     public Dog(DroidsModel model) {
@@ -193,35 +207,33 @@ public class Dog extends BoundedItem{
     }
 
     /**
-     * Sets the dog to the specified position if it doesn't collide with anything
-     * else there. The dog is not moved if there were a collision.
+     * Moves the dog towards the specified position without colliding with anything.
+     * If the dog hits something on its way, it slides along the contact
+     * (see {@linkplain MovementSolver}).
      *
      * @param p the new position
-     * @return true if the dog has been moved to the new position
+     * @return whether the dog has reached the new position, has moved only partially, or is blocked
      * @see #setPosAvoidingCollisions(float, float)
      */
-    private boolean setPosAvoidingCollisions(Position p) {
+    private Move setPosAvoidingCollisions(Position p) {
         return setPosAvoidingCollisions(p.getX(), p.getY());
     }
 
     /**
-     * Sets the dog to the specified position if it doesn't collide with anything
-     * else there. The dog is not moved if there were a collision.
+     * Moves the dog towards the specified position without colliding with anything.
+     * If the dog hits something on its way, it slides along the contact
+     * (see {@linkplain MovementSolver}).
      *
      * @param newX x-coordinate of the new position
      * @param newY y-coordinate of the new position
-     * @return true if the dog has been moved to the new position
+     * @return whether the dog has reached the new position, has moved only partially, or is blocked
      * @see #setPosAvoidingCollisions(pp.util.Position)
      */
-    private boolean setPosAvoidingCollisions(float newX, float newY) {
-        final float oldX = getX();
-        final float oldY = getY();
-        setPos(newX, newY);
-        if (collidesWithAnyOtherItem()) {
-            setPos(oldX, oldY);
-            return false;
-        }
-        return true;
+    private Move setPosAvoidingCollisions(float newX, float newY) {
+        final Move move = solver.resolve(this, newX, newY);
+        if (move != Move.BLOCKED)
+            setPos(solver.getX(), solver.getY());
+        return move;
     }
 
     /**
@@ -255,14 +267,17 @@ public class Dog extends BoundedItem{
             // we do not reach the next path point in this time slot
             final float newX = getX() + FORWARD_SPEED * delta * cos(getRotation());
             final float newY = getY() + FORWARD_SPEED * delta * sin(getRotation());
-            if (!setPosAvoidingCollisions(newX, newY))
+            // sliding along an item keeps the path, but a blocked dog gives up
+            if (setPosAvoidingCollisions(newX, newY) == Move.BLOCKED)
                 path.clear();
             return 0f;
         }
 
-        // we have reached the next path point in this time slot
-        if (!setPosAvoidingCollisions(target)) {
-            path.clear();
+        // we reach the next path point in this time slot unless we hit something
+        final Move move = setPosAvoidingCollisions(target);
+        if (move != Move.FULL) {
+            if (move == Move.BLOCKED)
+                path.clear();
             return 0f;
         }
         path.remove(0);
@@ -288,6 +303,9 @@ public class Dog extends BoundedItem{
     public void setPath(List<Segment> newPath) {
         path.clear();
         newPath.stream().map(Segment::to).forEach(path::add);
+        final ReplayRecorder recorder = getModel().getReplayRecorder();
+        if (recorder != null)
+            recorder.dogPath(path);
     }
 
 
@@ -320,13 +338,57 @@ public class Dog extends BoundedItem{
     /**
      * This method lets the dog observe its surrounding in its current level.
      * Results can be obtained by {@linkplain #getObservation()} and
-     * {@linkplain #getMap()}.
+     * {@linkplain #getMap()}. If the dog observes in the think phase and has not thought in this
+     * update, it keeps its latest observation unless it has changed its level.
      */
     private void observe() {
-        latestObservation = getObservation(FOLLOWING_CATS);
+        final Observation observation;
+        if (preparedObservation != null && preparedLevel == getLevel())
+            observation = preparedObservation;
+        else if (thinksAhead() && latestObservation != null && observedLevel == getLevel())
+            return;
+        else
+            observation = getObservation(FOLLOWING_CATS);
+        preparedObservation = null;
+        latestObservation = observation;
+        observedLevel = getLevel();
         latestObservation.getTriangles().forEach(getMap()::add);
     }
 
+    /**
+     * Prepares the observation of this dog from its position at the beginning of the update if
+     * the dog observes in the think phase (see {@linkplain #thinksAhead()}). The observation is used
+     * by the next update unless the dog has changed its level. Otherwise, the dog observes from its
+     * position after moving in the update.
+     *
+     * @param delta time in seconds since the last update call
+     */
+    @Override
+    public void think(float delta) {
+        if (!thinksAhead()) return;
+        preparedLevel = getLevel();
+        preparedObservation = getObservation(FOLLOWING_CATS);
+    }
+
+    /**
+     * Returns true if the dog observes in the think phase, i.e., if the think phase runs in parallel
+     * (see {@linkplain DroidsConfig#isParallelThinkPhase()}) or if the thinking of the dog may be
+     * deferred (see {@linkplain ThinkScheduler#isLimited()}).
+     */
+    private boolean thinksAhead() {
+        return getModel().getConfig().isParallelThinkPhase()
+               || getModel().getDroidsMap().getThinkScheduler().isLimited();
+    }
+
+    /**
+     * Returns true because the dog may observe less often than it moves if the model limits the
+     * time for thinking.
+     */
+    @Override
+    public boolean isThinkingDeferrable() {
+        return true;
+    }
+
     /**
      * Accept method of the visitor pattern.
      */
@@ -1,6 +1,9 @@
 package pp.droids.model;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import pp.droids.model.MovementSolver.Move;
+import pp.droids.model.replay.DroidCommand;
+import pp.droids.model.replay.ReplayRecorder;
 import pp.util.Position;
 import pp.util.Segment;
 import pp.util.map.Observation;
@@ -86,6 +89,11 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
      */
     private final List<Position> path = new LinkedList<>();
 
+    /**
+     * The solver moving the droid along the items it hits.
+     */
+    private final MovementSolver solver = new MovementSolver();
+
     /**
      * The current turn state of the droid.
      */
@@ -111,6 +119,12 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
      */
     private Observation latestObservation;
 
+    /**
+     * The observation prepared by {@linkplain #think(float)} and the level where it has been made.
+     */
+    private Observation preparedObservation;
+    private MapLevel preparedLevel;
+
     /**
      * Creates a droid.
      *
@@ -157,6 +171,7 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
      * Handles a forward command.
      */
     public void goForward() {
+        record(DroidCommand.FORWARD);
         forwardState = switch (forwardState) {
             case FORWARD, STOP -> ForwardState.FORWARD;
             case BACKWARD -> ForwardState.STOP;
@@ -167,6 +182,7 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
      * Handles a backward command.
      */
     public void goBackward() {
+        record(DroidCommand.BACKWARD);
         forwardState = switch (forwardState) {
             case BACKWARD, STOP -> ForwardState.BACKWARD;
             case FORWARD -> ForwardState.STOP;
@@ -177,6 +193,7 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
      * Handles a step left command.
      */
     public void stepLeft(){
+        record(DroidCommand.STEP_LEFT);
         sidestepState = switch(sidestepState){
             case LEFT, STOP -> SidestepState.LEFT;
             case RIGHT -> SidestepState.STOP;
@@ -187,6 +204,7 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
      * Handles a step right command.
      */
     public void stepRight(){
+        record(DroidCommand.STEP_RIGHT);
         sidestepState = switch(sidestepState){
             case RIGHT, STOP -> SidestepState.RIGHT;
             case LEFT -> SidestepState.STOP;
@@ -197,6 +215,7 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
      * Handles a turn left command.
      */
     public void turnLeft() {
+        record(DroidCommand.TURN_LEFT);
         turnState = switch (turnState) {
             case LEFT, STOP -> TurnState.LEFT;
             case RIGHT -> TurnState.STOP;
@@ -207,12 +226,31 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
      * Handles a turn right command.
      */
     public void turnRight() {
+        record(DroidCommand.TURN_RIGHT);
         turnState = switch (turnState) {
             case RIGHT, STOP -> TurnState.RIGHT;
             case LEFT -> TurnState.STOP;
         };
     }
 
+    /**
+     * Handles a fire command.
+     */
+    @Override
+    public void fire() {
+        record(DroidCommand.FIRE);
+        super.fire();
+    }
+
+    /**
+     * Records the specified command if the game is being recorded.
+     */
+    private void record(DroidCommand command) {
+        final ReplayRecorder recorder = getModel().getReplayRecorder();
+        if (recorder != null)
+            recorder.command(command);
+    }
+
     /**
      * Called once per frame. The method updates the droid position depending on the elapsed time passed
      * as the argument.
@@ -301,35 +339,33 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
     }
 
     /**
-     * Sets the droid to the specified position if it doesn't collide with anything
-     * else there. The droid is not moved if there were a collision.
+     * Moves the droid towards the specified position without colliding with anything.
+     * If the droid hits something on its way, it slides along the contact
+     * (see {@linkplain MovementSolver}).
      *
      * @param p the new position
-     * @return true if the droid has been moved to the new position
+     * @return whether the droid has reached the new position, has moved only partially, or is blocked
      * @see #setPosAvoidingCollisions(float, float)
      */
-    private boolean setPosAvoidingCollisions(Position p) {
+    private Move setPosAvoidingCollisions(Position p) {
         return setPosAvoidingCollisions(p.getX(), p.getY());
     }
 
     /**
-     * Sets the droid to the specified position if it doesn't collide with anything
-     * else there. The droid is not moved if there were a collision.
+     * Moves the droid towards the specified position without colliding with anything.
+     * If the droid hits something on its way, it slides along the contact
+     * (see {@linkplain MovementSolver}).
      *
      * @param newX x-coordinate of the new position
      * @param newY y-coordinate of the new position
-     * @return true if the droid has been moved to the new position
+     * @return whether the droid has reached the new position, has moved only partially, or is blocked
      * @see #setPosAvoidingCollisions(pp.util.Position)
      */
-    private boolean setPosAvoidingCollisions(float newX, float newY) {
-        final float oldX = getX();
-        final float oldY = getY();
-        setPos(newX, newY);
-        if (collidesWithAnyOtherItem()) {
-            setPos(oldX, oldY);
-            return false;
-        }
-        return true;
+    private Move setPosAvoidingCollisions(float newX, float newY) {
+        final Move move = solver.resolve(this, newX, newY);
+        if (move != Move.BLOCKED)
+            setPos(solver.getX(), solver.getY());
+        return move;
     }
 
     /**
@@ -363,14 +399,17 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
             // we do not reach the next path point in this time slot
             final float newX = getX() + FORWARD_SPEED * delta * cos(getRotation());
             final float newY = getY() + FORWARD_SPEED * delta * sin(getRotation());
-            if (!setPosAvoidingCollisions(newX, newY))
+            // sliding along an item keeps the path, but a blocked droid gives up
+            if (setPosAvoidingCollisions(newX, newY) == Move.BLOCKED)
                 path.clear();
             return 0f;
         }
 
-        // we have reached the next path point in this time slot
-        if (!setPosAvoidingCollisions(target)) {
-            path.clear();
+        // we reach the next path point in this time slot unless we hit something
+        final Move move = setPosAvoidingCollisions(target);
+        if (move != Move.FULL) {
+            if (move == Move.BLOCKED)
+                path.clear();
             return 0f;
         }
         path.remove(0);
@@ -396,6 +435,9 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
     public void setPath(List<Segment> newPath) {
         path.clear();
         newPath.stream().map(Segment::to).forEach(path::add);
+        final ReplayRecorder recorder = getModel().getReplayRecorder();
+        if (recorder != null)
+            recorder.path(path);
     }
 
     /**
@@ -430,10 +472,28 @@ public class Droid extends Shooter implements Navigable<Segment>, Debugee {
      * {@linkplain #getMap()}.
      */
     private void observe() {
-        latestObservation = getObservation(CAPTURING_CATS);
+        latestObservation = preparedObservation != null && preparedLevel == getLevel()
+                            ? preparedObservation
+                            : getObservation(CAPTURING_CATS);
+        preparedObservation = null;
         latestObservation.getTriangles().forEach(getMap()::add);
     }
 
+    /**
+     * Prepares the observation of this droid from its position at the beginning of the update if
+     * the think phase runs in parallel (see {@linkplain DroidsConfig#isParallelThinkPhase()}).
+     * The observation is used by the next update unless the droid has changed its level. Otherwise,
+     * the droid observes from its position after moving in the update.
+     *
+     * @param delta time in seconds since the last update call
+     */
+    @Override
+    public void think(float delta) {
+        if (!getModel().getConfig().isParallelThinkPhase()) return;
+        preparedLevel = getLevel();
+        preparedObservation = getObservation(CAPTURING_CATS);
+    }
+
     /**
      * Accept method of the visitor pattern.
      */
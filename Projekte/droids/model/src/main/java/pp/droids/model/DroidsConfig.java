@@ -162,4 +162,133 @@ public class DroidsConfig {
     public int getDroidLives() {
         return lives;
     }
+
+    /**
+     * Whether shooters fire pooled projectiles (see {@linkplain ProjectilePool}) instead of
+     * projectile items.
+     */
+    @JsonProperty("pooled projectiles") //NON-NLS
+    private boolean pooledProjectiles = false;
+
+    /**
+     * Returns whether shooters fire pooled projectiles (see {@linkplain ProjectilePool}) instead of
+     * projectile items.
+     */
+    @JsonIgnore
+    public boolean isPooledProjectiles() {
+        return pooledProjectiles;
+    }
+
+    /**
+     * The number of simulation steps per second of a {@linkplain FixedStepDriver}. A non-positive
+     * value lets the driver update the model once per frame with the frame time.
+     */
+    @JsonProperty("simulation rate") //NON-NLS
+    private float simulationRate = 0f;
+
+    /**
+     * The maximal number of simulation steps per frame of a {@linkplain FixedStepDriver}.
+     */
+    @JsonProperty("max catch-up steps") //NON-NLS
+    private int maxCatchUpSteps = 5;
+
+    /**
+     * Returns the number of simulation steps per second, or a non-positive value if the model
+     * is updated once per frame.
+     */
+    @JsonIgnore
+    public float getSimulationRate() {
+        return simulationRate;
+    }
+
+    /**
+     * Returns the maximal number of simulation steps per frame.
+     */
+    @JsonIgnore
+    public int getMaxCatchUpSteps() {
+        return maxCatchUpSteps;
+    }
+
+    /**
+     * Whether items think concurrently (see {@linkplain Item#think(float)}). This pays off only
+     * if many items do actual work when thinking. The droid and the dog then prepare their
+     * observations in the think phase, i.e., from their positions at the beginning of the update.
+     */
+    @JsonProperty("parallel think phase") //NON-NLS
+    private boolean parallelThinkPhase = false;
+
+    /**
+     * Returns whether items think concurrently (see {@linkplain Item#think(float)}).
+     */
+    @JsonIgnore
+    public boolean isParallelThinkPhase() {
+        return parallelThinkPhase;
+    }
+
+    /**
+     * The time in milliseconds per update that items whose thinking may be deferred
+     * (see {@linkplain Item#isThinkingDeferrable()}) may spend thinking. A non-positive value
+     * means that all items think in every update.
+     */
+    @JsonProperty("think budget") //NON-NLS
+    private float thinkBudget = 0f;
+
+    /**
+     * Returns the time in milliseconds per update for deferrable thinking, or a non-positive
+     * value if there is no limit.
+     *
+     * @see ThinkScheduler
+     */
+    @JsonIgnore
+    public float getThinkBudget() {
+        return thinkBudget;
+    }
+
+    /**
+     * Whether the map publishes a snapshot of all items at the end of each update
+     * (see {@linkplain DroidsMap#getSnapshots()}). Publishing copies the state of all items in each
+     * update, so it is disabled by default and should only be enabled if the snapshots are read by
+     * threads other than the one updating the map. Readers on the updating thread shall read the
+     * items themselves.
+     */
+    @JsonProperty("publish snapshots") //NON-NLS
+    private boolean publishSnapshots = false;
+
+    /**
+     * Returns whether the map publishes a snapshot of all items at the end of each update.
+     */
+    @JsonIgnore
+    public boolean isPublishSnapshots() {
+        return publishSnapshots;
+    }
+
+    /**
+     * The minimal number of events that the event ring of the model can hold
+     * (see {@linkplain DroidsModel#getEventRing()}).
+     */
+    @JsonProperty("event ring capacity") //NON-NLS
+    private int eventRingCapacity = 1024;
+
+    /**
+     * Returns the minimal number of events that the event ring of the model can hold.
+     */
+    @JsonIgnore
+    public int getEventRingCapacity() {
+        return eventRingCapacity;
+    }
+
+    /**
+     * The number of updates between two keyframes of a replay log, or a non-positive value if no
+     * keyframes shall be written (see {@linkplain pp.droids.model.replay.ReplayRecorder}).
+     */
+    @JsonProperty("replay keyframe interval") //NON-NLS
+    private int replayKeyframeInterval = 600;
+
+    /**
+     * Returns the number of updates between two keyframes of a replay log.
+     */
+    @JsonIgnore
+    public int getReplayKeyframeInterval() {
+        return replayKeyframeInterval;
+    }
 }
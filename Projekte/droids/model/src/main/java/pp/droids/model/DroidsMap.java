@@ -1,13 +1,34 @@
 package pp.droids.model;
 
+import pp.droids.model.replay.ReplayRecorder;
+import pp.droids.model.snapshot.SnapshotPublisher;
+import pp.droids.notifications.ItemsChangedLevelEvent;
+import pp.droids.notifications.ItemsDestroyedEvent;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Represents the entire game map.
  */
 public class DroidsMap {
+    private static final Logger LOGGER = System.getLogger(DroidsMap.class.getName());
+
+    /**
+     * The minimal number of items for running the think phase in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 32;
+
+    /**
+     * The model containing this map.
+     */
+    private final DroidsModel model;
 
     /**
      * The droid of this droids map.
@@ -20,9 +41,9 @@ public class DroidsMap {
     private Dog dog;
 
     /**
-     * A list of all items contained in this droids map.
+     * All items contained in this droids map.
      */
-    private final List<Item> items = new ArrayList<>();
+    private final ItemStore items = new ItemStore();
 
     /**
      * A list of all items to be added to this droids map.
@@ -39,6 +60,31 @@ public class DroidsMap {
      */
     private final int height;
 
+    /**
+     * The pool of projectiles that are not items of this map.
+     */
+    private final ProjectilePool projectilePool = new ProjectilePool();
+
+    /**
+     * The scheduler deciding which items think in each update.
+     */
+    private final ThinkScheduler thinkScheduler;
+
+    /**
+     * The items thinking in the current update, which is reused in each update.
+     */
+    private final List<Item> thinkers = new ArrayList<>();
+
+    /**
+     * Publishes the state of all items at the end of each update for readers on other threads.
+     */
+    private final SnapshotPublisher snapshots = new SnapshotPublisher();
+
+    /**
+     * The number of updates of this map so far.
+     */
+    private long updateCount;
+
     /**
      * Creates an empty map of the specified size and with a droid at position (0,0)
      *
@@ -47,14 +93,16 @@ public class DroidsMap {
      * @param height the height of the map
      */
     public DroidsMap(DroidsModel model, int width, int height) {
+        this.model = model;
         this.width = width;
         this.height = height;
+        this.thinkScheduler = new ThinkScheduler(1e-3f * model.getConfig().getThinkBudget());
     }
 
     /**
-     * Returns the list of all items (and all levels) of this map.
+     * Returns the store of all items (and all levels) of this map.
      */
-    public List<Item> getItems() {
+    public ItemStore getItems() {
         return items;
     }
 
@@ -76,6 +124,15 @@ public class DroidsMap {
         return Objects.requireNonNull(dog, "The dog has not yet been set");
     }
 
+    /**
+     * Returns the dog, or null if it has not yet been set.
+     *
+     * @see MapStateFormat
+     */
+    Dog getDogOrNull() {
+        return dog;
+    }
+
     /**
      * Sets the dog in this map.
      * This method must not be called twice for the same map.
@@ -100,6 +157,26 @@ public class DroidsMap {
         this.droid = droid;
         droid.setLevel(Objects.requireNonNull(level));
         items.add(droid);
+        level.addItem(droid);
+    }
+
+    /**
+     * Sets the droid without adding it to the items of this map, e.g., when a saved state is restored
+     * whose items already contain the droid or from which the destroyed droid has been removed.
+     *
+     * @param droid the droid
+     * @see MapStateFormat
+     */
+    void restoreDroid(Droid droid) {
+        this.droid = droid;
+    }
+
+    /**
+     * Returns the number of updates of this map so far, i.e., the number of the current update
+     * while the map is being updated.
+     */
+    public long getUpdateCount() {
+        return updateCount;
     }
 
     /**
@@ -122,14 +199,31 @@ public class DroidsMap {
 
     /**
      * Called once per frame. This method calls the update method of each item in this map and removes items that
-     * cease to exist.
+     * cease to exist. Listeners handling an {@linkplain ItemsDestroyedEvent} are notified of the removed items,
+     * and listeners handling an {@linkplain ItemsChangedLevelEvent} of the items moved to another level.
+     * Finally, the state of all items is published as a snapshot (see {@linkplain #getSnapshots()})
+     * if {@linkplain DroidsConfig#isPublishSnapshots()} is true.
      *
      * @param deltaTime time in seconds since the last update call
      */
     public void update(float deltaTime) {
+        updateCount++;
         // last update loop or user action may have created new items
         addRegisteredItems();
 
+        // let all items prepare their updates while nothing changes
+        thinkers.clear();
+        if (droid != null)
+            thinkers.add(droid);
+        for (Item item : items)
+            if (item != droid)
+                thinkers.add(item);
+        final List<Item> selected = thinkScheduler.select(thinkers, droid, deltaTime);
+        final ReplayRecorder recorder = model.getReplayRecorder();
+        if (recorder != null && thinkScheduler.isLimited())
+            recorder.think(thinkScheduler.getSelectedIds());
+        think(selected, deltaTime);
+
         // Update the droid even if it has been destroyed and has
         // been removed from the list of items. That way one
         // can still navigate the camera if the droid has been
@@ -142,9 +236,114 @@ public class DroidsMap {
         for (Item item : items)
             if (item != droid)
                 item.update(deltaTime);
+        projectilePool.update(deltaTime);
+
+        // remove all items destroyed since the last update
+        items.removeDestroyed(item -> item.getLevel().removeItem(item));
+        if (!items.getDestroyedThisTick().isEmpty() &&
+            model.hasGameEventListeners(ItemsDestroyedEvent.class))
+            model.notifyListeners(new ItemsDestroyedEvent(this, List.copyOf(items.getDestroyedThisTick())));
+        items.collectLevelChanges();
+        if (!items.getLevelChangedThisTick().isEmpty() &&
+            model.hasGameEventListeners(ItemsChangedLevelEvent.class))
+            model.notifyListeners(new ItemsChangedLevelEvent(this, List.copyOf(items.getLevelChangedThisTick())));
+
+        if (model.getConfig().isPublishSnapshots())
+            snapshots.publish(items, droid);
+    }
+
+    /**
+     * Calls {@linkplain Item#think(float)} for each of the specified items. The items are split
+     * into one chunk per processor, and the chunks are processed concurrently if
+     * {@linkplain DroidsConfig#isParallelThinkPhase()} is true and there are enough items.
+     * The method returns when all items have finished thinking, so the results do not depend
+     * on the number of threads. If the calling thread is interrupted, it keeps waiting for all
+     * chunks and restores its interrupt status afterwards.
+     *
+     * @param thinkers the items
+     * @param delta    time in seconds since the last update call
+     */
+    private void think(List<Item> thinkers, float delta) {
+        final int numChunks = Math.min(Runtime.getRuntime().availableProcessors(),
+                                       thinkers.size() / PARALLEL_THRESHOLD + 1);
+        if (!model.getConfig().isParallelThinkPhase() || numChunks < 2) {
+            thinkScheduler.think(thinkers, delta);
+            return;
+        }
+        final List<Future<?>> futures = new ArrayList<>(numChunks - 1);
+        for (int c = 1; c < numChunks; c++) {
+            final List<Item> chunk = chunk(thinkers, c, numChunks);
+            futures.add(model.getExecutor().submit(() -> thinkScheduler.think(chunk, delta)));
+        }
+        // the calling thread processes the first chunk itself
+        thinkScheduler.think(chunk(thinkers, 0, numChunks), delta);
+        // never return while a chunk is still thinking, because the update changes the map
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                }
+                catch (ExecutionException e) {
+                    if (failure == null)
+                        failure = e.getCause();
+                    break;
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            LOGGER.log(Level.WARNING, "Interrupted while waiting for the think phase"); //NON-NLS
+            Thread.currentThread().interrupt();
+        }
+        if (failure instanceof RuntimeException re) throw re;
+        if (failure instanceof Error err) throw err;
+        if (failure != null) throw new IllegalStateException(failure);
+    }
+
+    private static List<Item> chunk(List<Item> list, int c, int numChunks) {
+        return list.subList(c * list.size() / numChunks, (c + 1) * list.size() / numChunks);
+    }
 
-        // remove all destroyed items
-        items.removeIf(Item::isDestroyed);
+    /**
+     * Returns the scheduler deciding which items think in each update.
+     */
+    public ThinkScheduler getThinkScheduler() {
+        return thinkScheduler;
+    }
+
+    /**
+     * Returns the publisher of the snapshots taken at the end of each update. Threads other than
+     * the one updating the map shall read the state of the items from these snapshots instead of
+     * the items themselves. Nothing is published unless {@linkplain DroidsConfig#isPublishSnapshots()}
+     * is true.
+     *
+     * @see DroidsConfig#isPublishSnapshots()
+     */
+    public SnapshotPublisher getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Returns the pool of projectiles that are not items of this map.
+     *
+     * @see DroidsConfig#isPooledProjectiles()
+     */
+    public ProjectilePool getProjectilePool() {
+        return projectilePool;
+    }
+
+    /**
+     * Returns the items that have been registered, but not yet added to the map.
+     *
+     * @see #register(Item, MapLevel)
+     */
+    List<Item> getRegisteredItems() {
+        return Collections.unmodifiableList(addedItems);
     }
 
     /**
@@ -152,6 +351,8 @@ public class DroidsMap {
      */
     public void addRegisteredItems() {
         items.addAll(addedItems);
+        for (Item item : addedItems)
+            item.getLevel().addItem(item);
         addedItems.clear();
     }
 
@@ -1,6 +1,12 @@
 package pp.droids.model;
 
+import pp.droids.model.external.BinaryMapFormat;
 import pp.droids.model.external.ExternalMap;
+import pp.droids.model.external.StreamingMapLoader;
+import pp.droids.model.observation.ModelDumper;
+import pp.droids.model.replay.ReplayRecorder;
+import pp.droids.notifications.EventBus;
+import pp.droids.notifications.EventRing;
 import pp.droids.notifications.GameEvent;
 import pp.droids.notifications.GameEventListener;
 import pp.droids.notifications.MapChangedEvent;
@@ -10,8 +16,9 @@ import java.io.IOException;
 import java.lang.System.Logger;
 import java.lang.System.Logger.Level;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -25,9 +32,19 @@ public class DroidsModel {
     private static final Logger LOGGER = System.getLogger(DroidsModel.class.getName());
 
     /**
-     * A list of all game event listeners added to this model.
+     * The default file where the map is saved if the visibility computation fails.
      */
-    private final List<GameEventListener> listeners = new ArrayList<>();
+    private static final String DUMP_FILE = "dump.json"; //NON-NLS
+
+    /**
+     * The bus delivering game events to all listeners added to this model.
+     */
+    private final EventBus eventBus = new EventBus();
+
+    /**
+     * The ring buffer of primitive events, which are published without allocating objects.
+     */
+    private final EventRing eventRing;
 
     /**
      * The configuration used in this game model.
@@ -45,6 +62,23 @@ public class DroidsModel {
      * Executor service for multi-threading.
      */
     private ExecutorService executor;
+    /**
+     * Indicates whether the executor service has been provided from outside and is shared
+     * with other models, i.e., it must not be shut down by this model.
+     */
+    private final boolean sharedExecutor;
+    /**
+     * The recorder of this game, or null if it is not being recorded.
+     */
+    private ReplayRecorder replayRecorder;
+    /**
+     * Reports failures of the visibility computation of this game and saves its map.
+     */
+    private final ModelDumper modelDumper = new ModelDumper(this);
+    /**
+     * The file where the map is saved if the visibility computation fails.
+     */
+    private File dumpFile = new File(DUMP_FILE);
 
     /**
      * Creates a game model with a default configuration.
@@ -59,7 +93,22 @@ public class DroidsModel {
      * @param config the configuration of this game
      */
     public DroidsModel(DroidsConfig config) {
+        this(config, null);
+    }
+
+    /**
+     * Creates a game model that uses the specified executor service for multi-threading.
+     * The executor service may be shared by several models, e.g., when a server hosts many
+     * games, and it is not shut down by {@linkplain #shutdown()}.
+     *
+     * @param config   the configuration of this game
+     * @param executor the executor service, or null if the model shall create its own one when needed
+     */
+    public DroidsModel(DroidsConfig config, ExecutorService executor) {
         this.config = config;
+        this.eventRing = new EventRing(config.getEventRingCapacity());
+        this.executor = executor;
+        this.sharedExecutor = executor != null;
         setDroidsMap(new DroidsMap(this, config.getWidth(), config.getHeight()));
     }
 
@@ -86,9 +135,38 @@ public class DroidsModel {
         return executor;
     }
 
+    /**
+     * Returns the dumper that reports failures of the visibility computation of this game and
+     * saves its map to {@linkplain #getDumpFile()}.
+     */
+    public ModelDumper getModelDumper() {
+        return modelDumper;
+    }
+
+    /**
+     * Returns the file where the map is saved if the visibility computation fails.
+     */
+    public File getDumpFile() {
+        return dumpFile;
+    }
+
+    /**
+     * Sets the file where the map is saved if the visibility computation fails. Models running
+     * side by side, e.g., the matches of a server, shall use different files.
+     *
+     * @param dumpFile the dump file
+     */
+    public void setDumpFile(File dumpFile) {
+        this.dumpFile = Objects.requireNonNull(dumpFile);
+    }
+
+    /**
+     * Shuts down the executor service unless it is shared with other models.
+     */
     public void shutdown() {
         LOGGER.log(Level.INFO, "called DroidsModel::shutdown"); //NON-NLS
-        if (executor != null)
+        stopRecording();
+        if (executor != null && !sharedExecutor)
             executor.shutdown();
     }
 
@@ -112,13 +190,15 @@ public class DroidsModel {
     }
 
     /**
-     * Loads a game map from the specified json file and uses it as the current one.
+     * Loads a game map from the specified json or binary file and uses it as the current one.
      *
-     * @param file json file representing a droids map
+     * @param file json file or binary file (see {@linkplain BinaryMapFormat}) representing a droids map
      * @throws IOException if any IO error occurs.
      */
     public void loadMap(File file) throws IOException {
-        setDroidsMap(ExternalMap.readFromJsonFile(file).toMap(this));
+        setDroidsMap(BinaryMapFormat.isBinaryMap(file)
+                     ? BinaryMapFormat.load(file, this)
+                     : StreamingMapLoader.load(file, this));
     }
 
     /**
@@ -128,7 +208,7 @@ public class DroidsModel {
      * @throws IOException if any IO error occurs.
      */
     public void loadMap(InputStream stream) throws IOException {
-        setDroidsMap(ExternalMap.readFromJsonStream(stream).toMap(this));
+        setDroidsMap(StreamingMapLoader.load(stream, this));
     }
 
     /**
@@ -138,7 +218,7 @@ public class DroidsModel {
      * @throws IOException if any IO error occurs.
      */
     public void loadMap(String string) throws IOException {
-        setDroidsMap(ExternalMap.readFromJsonString(string).toMap(this));
+        setDroidsMap(StreamingMapLoader.load(string, this));
     }
 
     /**
@@ -151,13 +231,96 @@ public class DroidsModel {
         new ExternalMap(getDroidsMap()).writeToFile(file);
     }
 
+    /**
+     * Saves the current game map to the specified file in the binary map format.
+     *
+     * @param file binary file representing where the droids map is written to.
+     * @throws IOException if any IO error occurs.
+     * @see BinaryMapFormat
+     */
+    public void saveBinaryMap(File file) throws IOException {
+        BinaryMapFormat.write(new ExternalMap(getDroidsMap()), file);
+    }
+
     /**
      * Called once per frame. This method triggers any update of the game model based on the elapsed time.
+     * Events fired during the update are delivered in batches when the update is complete.
      *
      * @param deltaTime time in seconds since the last update call
      */
     public void update(float deltaTime) {
-        droidsMap.update(deltaTime);
+        if (replayRecorder != null)
+            replayRecorder.tick(deltaTime);
+        eventBus.beginBatch();
+        try {
+            droidsMap.update(deltaTime);
+        }
+        finally {
+            eventBus.flush();
+        }
+        if (replayRecorder != null)
+            replayRecorder.afterUpdate();
+    }
+
+    /**
+     * Starts recording this game into a replay log written to the specified stream. The log starts
+     * with the complete state of the current map (see {@linkplain MapStateFormat}) so that a
+     * {@linkplain pp.droids.model.replay.ReplayPlayer} starts from exactly the same state. A recording
+     * that is already running is stopped.
+     *
+     * @param out the stream receiving the replay log; it is closed when the recording stops
+     * @throws IOException if the header of the log cannot be written
+     */
+    public void startRecording(OutputStream out) throws IOException {
+        stopRecording();
+        replayRecorder = new ReplayRecorder(this, out);
+        LOGGER.log(Level.INFO, "started recording"); //NON-NLS
+    }
+
+    /**
+     * Stops recording this game and closes the stream of the replay log. Nothing happens if the
+     * game is not being recorded.
+     */
+    public void stopRecording() {
+        if (replayRecorder != null) {
+            replayRecorder.close();
+            LOGGER.log(Level.INFO, "stopped recording after {0} ticks", replayRecorder.getTick()); //NON-NLS
+            replayRecorder = null;
+        }
+    }
+
+    /**
+     * Returns the recorder of this game, or null if it is not being recorded.
+     */
+    public ReplayRecorder getReplayRecorder() {
+        return replayRecorder != null && !replayRecorder.isClosed() ? replayRecorder : null;
+    }
+
+    /**
+     * Returns the ring buffer to which this model publishes shots, hits and destroyed enemies as
+     * primitive events. Consumers that do not need the items themselves, e.g., sound, statistics
+     * or recorders, shall use the ring instead of a {@linkplain GameEventListener}.
+     */
+    public EventRing getEventRing() {
+        return eventRing;
+    }
+
+    /**
+     * Returns true if any game event listener of this model handles events of the specified type.
+     * Event objects of this type need not be created if there is none.
+     *
+     * @param type the type of events
+     * @see EventBus#hasListeners(Class)
+     */
+    public boolean hasGameEventListeners(Class<? extends GameEvent> type) {
+        return eventBus.hasListeners(type);
+    }
+
+    /**
+     * Returns the bus delivering the game events of this model.
+     */
+    public EventBus getEventBus() {
+        return eventBus;
     }
 
     /**
@@ -168,7 +331,21 @@ public class DroidsModel {
      */
     public void addGameEventListener(GameEventListener receiver) {
         LOGGER.log(Level.DEBUG, "add listener {0}", receiver); //NON-NLS
-        listeners.add(receiver);
+        eventBus.addListener(receiver);
+    }
+
+    /**
+     * Adds the specified receiver to the list of all event notification subscribers. The receiver
+     * gets the events asynchronously on the specified executor, i.e., it does not delay the game,
+     * but the model may have changed when it receives an event.
+     *
+     * @param receiver the receiver to add
+     * @param executor the executor delivering the events, e.g., {@linkplain #getExecutor()}
+     * @see EventBus#addListener(GameEventListener, Executor)
+     */
+    public void addGameEventListener(GameEventListener receiver, Executor executor) {
+        LOGGER.log(Level.DEBUG, "add asynchronous listener {0}", receiver); //NON-NLS
+        eventBus.addListener(receiver, executor);
     }
 
     /**
@@ -179,19 +356,19 @@ public class DroidsModel {
      */
     public void removeGameEventListener(GameEventListener receiver) {
         LOGGER.log(Level.DEBUG, "remove listener {0}", receiver); //NON-NLS
-        listeners.remove(receiver);
+        eventBus.removeListener(receiver);
     }
 
     /**
      * Notifies every registered
-     * {@linkplain pp.droids.notifications.GameEventListener}.
+     * {@linkplain pp.droids.notifications.GameEventListener}. During {@linkplain #update(float)},
+     * the event is queued and delivered at the end of the update.
      *
      * @param event The notification event communicated to every registered listener.
      * @see #addGameEventListener(pp.droids.notifications.GameEventListener)
      */
     public void notifyListeners(GameEvent event) {
-        for (GameEventListener listener : new ArrayList<>(listeners))
-            event.notify(listener);
+        eventBus.post(event);
     }
 
     /**
@@ -215,6 +392,23 @@ public class DroidsModel {
         return isGameLost() || isGameWon();
     }
 
+    /**
+     * Returns the winner, or null if there is none yet.
+     */
+    FlagCaptor getWinner() {
+        return winner;
+    }
+
+    /**
+     * Sets the winner, e.g., when a saved state is restored.
+     *
+     * @param winner the winner, or null if there is none yet
+     * @see MapStateFormat
+     */
+    void setWinner(FlagCaptor winner) {
+        this.winner = winner;
+    }
+
     /**
      * Called when a flag captor reaches the exit. If the captor is the
      * winner if it holds a flag.
@@ -1,6 +1,7 @@
 package pp.droids.model;
 
 import pp.droids.notifications.EnemyDestroyedEvent;
+import pp.droids.notifications.EventType;
 import pp.npc.NonPlayerCharacter;
 import pp.npc.NonPlayerCharacterBehavior;
 import pp.util.Segment;
@@ -82,7 +83,9 @@ public class Enemy extends Shooter implements NonPlayerCharacter {
      */
     @Override
     public void destroy() {
-        getModel().notifyListeners(new EnemyDestroyedEvent(this));
+        getModel().getEventRing().publish(EventType.ENEMY_DESTROYED, getId(), -1, getX(), getY());
+        if (getModel().hasGameEventListeners(EnemyDestroyedEvent.class))
+            getModel().notifyListeners(new EnemyDestroyedEvent(this));
         super.destroy();
     }
 
@@ -97,6 +100,24 @@ public class Enemy extends Shooter implements NonPlayerCharacter {
         behavior.update(delta);
     }
 
+    /**
+     * Lets the npc-behavior prepare the next update.
+     *
+     * @param delta time in seconds since the last update call
+     */
+    @Override
+    public void think(float delta) {
+        behavior.think(delta);
+    }
+
+    /**
+     * Returns true because the thinking of enemies may be spread over several updates.
+     */
+    @Override
+    public boolean isThinkingDeferrable() {
+        return true;
+    }
+
     /**
      * Accept method of the visitor pattern.
      */
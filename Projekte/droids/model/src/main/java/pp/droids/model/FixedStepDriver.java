@@ -0,0 +1,115 @@
+package pp.droids.model;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+
+/**
+ * Drives a game model with a fixed time step independent of the frame rate. The time of each frame
+ * is added to an accumulator, and the model is updated with the fixed step size as long as the
+ * accumulator contains at least one step. The remaining fraction of a step is available as the
+ * interpolation factor {@linkplain #getAlpha()}, which views use to interpolate between the last
+ * two simulated states. If a frame takes so long that more than the maximal number of catch-up
+ * steps would be necessary, the surplus time is dropped, i.e., the game runs slower instead of
+ * spending ever more time on simulation.
+ * <p>
+ * A driver with a non-positive step size updates the model once per frame with the frame time,
+ * and its interpolation factor is always 1.
+ */
+public class FixedStepDriver {
+    private static final Logger LOGGER = System.getLogger(FixedStepDriver.class.getName());
+
+    private final DroidsModel model;
+    private final float stepSize;
+    private final int maxSteps;
+    private float accumulator;
+    private long stepCount;
+
+    /**
+     * Creates a driver for the specified model using the simulation rate and the maximal number of
+     * catch-up steps of the model's configuration.
+     *
+     * @param model the game model
+     * @see DroidsConfig#getSimulationRate()
+     * @see DroidsConfig#getMaxCatchUpSteps()
+     */
+    public FixedStepDriver(DroidsModel model) {
+        this(model,
+             model.getConfig().getSimulationRate() > 0f ? 1f / model.getConfig().getSimulationRate() : 0f,
+             model.getConfig().getMaxCatchUpSteps());
+    }
+
+    /**
+     * Creates a driver for the specified model.
+     *
+     * @param model    the game model
+     * @param stepSize the time in seconds of each simulation step, or a non-positive value
+     *                 for updating the model once per frame
+     * @param maxSteps the maximal number of simulation steps per frame
+     */
+    public FixedStepDriver(DroidsModel model, float stepSize, int maxSteps) {
+        this.model = model;
+        this.stepSize = stepSize;
+        this.maxSteps = Math.max(1, maxSteps);
+    }
+
+    /**
+     * Returns the time in seconds of each simulation step, or a non-positive value if the model
+     * is updated once per frame.
+     */
+    public float getStepSize() {
+        return stepSize;
+    }
+
+    /**
+     * Returns the number of model updates since this driver has been created. Views may compare
+     * it with a previously stored value to find out whether the model has been updated.
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Returns the interpolation factor in [0,1], i.e., the fraction of a step that has passed since
+     * the last model update. A view shows the interpolation of the state before and after the last
+     * update with this factor.
+     */
+    public float getAlpha() {
+        return stepSize > 0f ? Math.min(accumulator / stepSize, 1f) : 1f;
+    }
+
+    /**
+     * Advances the model by the specified frame time. The model is not updated anymore
+     * as soon as the game is over.
+     *
+     * @param frameTime time in seconds since the last call
+     * @return the number of model updates
+     */
+    public int advance(float frameTime) {
+        if (stepSize <= 0f) {
+            model.update(frameTime);
+            stepCount++;
+            return 1;
+        }
+        accumulator += frameTime;
+        int steps = 0;
+        while (accumulator >= stepSize && !model.isGameOver()) {
+            if (steps == maxSteps) {
+                LOGGER.log(Level.DEBUG, "dropped {0} seconds of simulation time", accumulator); //NON-NLS
+                accumulator %= stepSize;
+                break;
+            }
+            model.update(stepSize);
+            accumulator -= stepSize;
+            stepCount++;
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Discards the accumulated time, e.g., after a new map has been loaded.
+     */
+    public void reset() {
+        accumulator = 0f;
+    }
+}
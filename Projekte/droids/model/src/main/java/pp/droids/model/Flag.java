@@ -23,6 +23,18 @@ public class Flag extends BoundedItem {
         return captor == null ? super.getY() : captor.getY();
     }
 
+    @Override
+    public float getPreviousX() {
+        // flag follows captor
+        return captor == null ? super.getPreviousX() : captor.getPreviousX();
+    }
+
+    @Override
+    public float getPreviousY() {
+        // flag follows captor
+        return captor == null ? super.getPreviousY() : captor.getPreviousY();
+    }
+
     @Override
     public MapLevel getLevel() {
         // flag follows captor
@@ -50,9 +62,11 @@ public class Flag extends BoundedItem {
     void releasedBy(FlagCaptor releaser) {
         if (captor != releaser)
             throw new RuntimeException(releaser + " hasn't captured the flag");
+        final MapLevel oldLevel = getLevel();
         captor = null;
         setPos(releaser);
         setLevel(releaser.getLevel());
+        levelChanged(oldLevel);
     }
 
     /**
@@ -65,7 +79,11 @@ public class Flag extends BoundedItem {
         if (this.captor != null)
             throw new RuntimeException("cannot capture a flag if it is already captured");
         LOGGER.log(Level.INFO, "{0} captured the flag", captor); //NON-NLS
+        final MapLevel oldLevel = getLevel();
         this.captor = captor;
+        levelChanged(oldLevel);
+        // the flag has just moved to its captor
+        changed();
     }
 
     /**
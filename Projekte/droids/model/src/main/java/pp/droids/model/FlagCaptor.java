@@ -42,6 +42,27 @@ public abstract class FlagCaptor extends DamageReceiver {
         return getCapturedFlag() != null;
     }
 
+    /**
+     * Sets the level of this captor. A captured flag follows its captor to the new level.
+     */
+    @Override
+    public void setLevel(MapLevel level) {
+        final MapLevel oldLevel = getLevel();
+        super.setLevel(level);
+        if (capturedFlag != null)
+            capturedFlag.levelChanged(oldLevel);
+    }
+
+    /**
+     * Reports a change of this captor. A captured flag follows its captor, so it has changed, too.
+     */
+    @Override
+    void changed() {
+        super.changed();
+        if (capturedFlag != null)
+            capturedFlag.changed();
+    }
+
     @Override
     public void destroy() {
         setCapturedFlag(null);
@@ -64,11 +85,11 @@ public abstract class FlagCaptor extends DamageReceiver {
      */
     private void processFlagCapturing() {
         if (isDestroyed()) return;
-        for (Item it : getLevel()) {
+        getLevel().forEachItemNear(getX(), getY(), getRadius(), it -> {
             if (it instanceof Flag flag && flag.getCaptor() == null && distanceTo(flag) <= getRadius() && getCapturedFlag() == null)
                 setCapturedFlag(flag);
             if (it instanceof Exit exit && distanceTo(exit) <= exit.getRadius())
                 getModel().reachedExit(this);
-        }
+        });
     }
 }
@@ -0,0 +1,98 @@
+package pp.droids.model;
+
+import pp.droids.model.collisions.CollisionPredicate;
+import pp.droids.model.collisions.Narrowphase;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static pp.util.FloatMath.sqr;
+import static pp.util.FloatMath.sqrt;
+
+/**
+ * Finds the item of a level that is hit first by a circle moving on a straight line. The
+ * candidates are visited directly in the spatial hash of the level without collecting them
+ * first, and their times of impact are computed by {@linkplain Narrowphase#timeOfImpact(Item,
+ * float, float, float, float, float, Item)}, so a search does not create any objects. The
+ * result of the last search is kept in this finder. Hence, a finder is meant to be owned and
+ * reused by a single caller, e.g., a {@linkplain ProjectilePool}, and it must not be used by
+ * several threads at the same time.
+ */
+class ImpactFinder implements Predicate<BoundedItem> {
+    private Item moving;
+    private float x;
+    private float y;
+    private float radius;
+    private float toX;
+    private float toY;
+    private Item first;
+    private float time;
+
+    /**
+     * Searches the item of the specified level that is hit first by a circle moving on a straight
+     * line from (x,y) to (toX,toY). Only items satisfying {@linkplain CollisionPredicate#INSTANCE}
+     * can be hit. The result can be obtained by {@linkplain #getItem()} and {@linkplain #getTime()}.
+     *
+     * @param level  the level containing the moving circle
+     * @param moving the item represented by the moving circle, which is never hit, or null
+     * @param x      x-coordinate of the start position of the center
+     * @param y      y-coordinate of the start position of the center
+     * @param radius the radius of the moving circle
+     * @param toX    x-coordinate of the target position of the center
+     * @param toY    y-coordinate of the target position of the center
+     * @return true if an item is hit
+     */
+    boolean find(MapLevel level, Item moving, float x, float y, float radius, float toX, float toY) {
+        this.moving = moving;
+        this.x = x;
+        this.y = y;
+        this.radius = radius;
+        this.toX = toX;
+        this.toY = toY;
+        first = null;
+        time = Float.POSITIVE_INFINITY;
+        final float halfDist = 0.5f * sqrt(sqr(toX - x) + sqr(toY - y));
+        level.getSpatialHash().anyMatch(0.5f * (x + toX), 0.5f * (y + toY), radius + halfDist, this);
+        final List<Item> unhashed = level.getUnhashedItems();
+        for (int i = 0; i < unhashed.size(); i++)
+            consider(unhashed.get(i));
+        this.moving = null;
+        return first != null;
+    }
+
+    /**
+     * Considers the specified candidate of the spatial hash and returns false so that
+     * all candidates are visited.
+     */
+    @Override
+    public boolean test(BoundedItem candidate) {
+        consider(candidate);
+        return false;
+    }
+
+    private void consider(Item candidate) {
+        if (CollisionPredicate.INSTANCE.test(candidate)) {
+            final float t = Narrowphase.timeOfImpact(moving, x, y, radius, toX, toY, candidate);
+            if (t < time) {
+                first = candidate;
+                time = t;
+            }
+        }
+    }
+
+    /**
+     * Returns the item hit first in the last search, or null if no item has been hit.
+     */
+    Item getItem() {
+        return first;
+    }
+
+    /**
+     * Returns the time of impact of the last search, i.e., the fraction of the path where
+     * the circle touches the item that is hit first, or {@linkplain Float#POSITIVE_INFINITY}
+     * if no item has been hit.
+     */
+    float getTime() {
+        return time;
+    }
+}
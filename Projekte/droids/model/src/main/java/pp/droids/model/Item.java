@@ -1,8 +1,8 @@
 package pp.droids.model;
 
 import pp.droids.model.collisions.CollisionPredicate;
-import pp.droids.model.collisions.MoveOverlapVisitor;
-import pp.droids.model.collisions.OverlapVisitor;
+import pp.droids.model.collisions.Narrowphase;
+import pp.droids.model.collisions.ShapeKind;
 import pp.util.Position;
 
 import java.lang.System.Logger;
@@ -34,6 +34,32 @@ public abstract class Item implements Cloneable {
      */
     private boolean destroyed = false;
 
+    /**
+     * The slot index of this item in the {@linkplain ItemStore} of its map, or -1 if it is not
+     * contained in the map. Maintained by the item store.
+     */
+    int slot = -1;
+
+    /**
+     * The generational handle of this item in the {@linkplain ItemStore} of its map, or -1 if it has
+     * never been contained in the map. Maintained by the item store.
+     */
+    int handle = -1;
+
+    /**
+     * The entity id of this item in its map, or -1 if it has never been contained in the map.
+     * Assigned by the item store.
+     */
+    int id = -1;
+
+    /**
+     * The positions of this item in the lists of its level (see {@linkplain MapLevel}), or -1 if it
+     * is not contained in the respective list. Maintained by the level.
+     */
+    int levelIndex = -1;
+    int catIndex = -1;
+    int unhashedIndex = -1;
+
     /**
      * Creates a new item.
      *
@@ -82,7 +108,35 @@ public abstract class Item implements Cloneable {
      * Sets the level that contains this item.
      */
     public void setLevel(MapLevel level) {
+        final MapLevel oldLevel = getLevel();
         this.level = Objects.requireNonNull(level);
+        levelChanged(oldLevel);
+        changed();
+    }
+
+    /**
+     * Moves this item from the item lists of the specified level to those of its current level
+     * (see {@linkplain #getLevel()}) if it has been contained in the specified level, and reports
+     * the move to the item store of the map (see {@linkplain ItemStore#getLevelChangedThisTick()}).
+     * This method must be called whenever the value of {@linkplain #getLevel()} changes.
+     *
+     * @param oldLevel the level of this item before the change, or null if it hasn't had one
+     */
+    void levelChanged(MapLevel oldLevel) {
+        final MapLevel newLevel = getLevel();
+        if (oldLevel != null && oldLevel != newLevel && oldLevel.removeItem(this)) {
+            newLevel.addItem(this);
+            newLevel.getDroidsMap().getItems().levelChanged(this);
+        }
+    }
+
+    /**
+     * Reports a change of the position, rotation, lives, or level of this item to the item store
+     * of its map, which keeps track of changed items if requested (see {@linkplain ItemStore#setTrackingChanges(boolean)}).
+     */
+    void changed() {
+        if (slot >= 0 && level != null)
+            level.getDroidsMap().getItems().changed(this);
     }
 
     /**
@@ -90,9 +144,50 @@ public abstract class Item implements Cloneable {
      */
     public void destroy() {
         LOGGER.log(Level.INFO, "{0} instance destroyed", getClass().getName()); //NON-NLS
+        final boolean wasDestroyed = destroyed;
+        destroyed = true;
+        if (!wasDestroyed && slot >= 0 && level != null)
+            level.getDroidsMap().getItems().destroyed(this);
+    }
+
+    /**
+     * Returns the entity id of this item, which is unique within its map and never changes,
+     * or -1 if the item has never been contained in a map.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Marks this item, which must not yet be contained in a map, as destroyed without any of the
+     * effects of {@linkplain #destroy()}, e.g., when a saved state is restored.
+     *
+     * @see MapStateFormat
+     */
+    void restoreDestroyed() {
         destroyed = true;
     }
 
+    /**
+     * Returns the generational handle of this item, which can be resolved to this item by
+     * {@linkplain ItemStore#resolve(int)} as long as the item is contained in the map. The handle
+     * is kept after the item has been removed, but it does not resolve anymore. Returns -1 if the
+     * item has never been contained in a map.
+     */
+    public int getHandle() {
+        return handle;
+    }
+
+    /**
+     * Returns the slot index of this item in the {@linkplain ItemStore} of its map, which does not
+     * change as long as the item is contained in the map, or -1 if it is not contained in the map.
+     *
+     * @see ItemStore#getBySlot(int)
+     */
+    public int getSlot() {
+        return slot;
+    }
+
     /**
      * Creates and returns a copy of this item by cloning it.
      *
@@ -101,7 +196,13 @@ public abstract class Item implements Cloneable {
      */
     public Item copy() {
         try {
-            return (Item) clone();
+            final Item copy = (Item) clone();
+            // the copy is not contained in the map
+            copy.slot = -1;
+            copy.levelIndex = -1;
+            copy.catIndex = -1;
+            copy.unhashedIndex = -1;
+            return copy;
         }
         catch (CloneNotSupportedException ex) {
             throw new RuntimeException(ex.getMessage());
@@ -117,6 +218,36 @@ public abstract class Item implements Cloneable {
         return destroyed;
     }
 
+    /**
+     * Returns the kind of shape of this item, which determines how collisions with this item
+     * are detected (see {@linkplain Narrowphase}).
+     */
+    public abstract ShapeKind getShapeKind();
+
+    /**
+     * Called once per frame before any item is updated (see {@linkplain #update(float)}).
+     * This method may prepare the update of this item by computations that only read the
+     * state of the map, e.g., observations, and store their results in this item without
+     * changing any state that is visible to other items. It may be called concurrently for
+     * different items. The default implementation does nothing.
+     *
+     * @param delta time in seconds since the last update call
+     */
+    public void think(float delta) {
+        // do nothing
+    }
+
+    /**
+     * Returns true if this item does not need to think in every update, i.e., if
+     * {@linkplain #think(float)} may be called less often than {@linkplain #update(float)} when the
+     * model limits the time for thinking (see {@linkplain ThinkScheduler}). The time argument of
+     * {@linkplain #think(float)} is then the time since its last call.
+     * The default implementation returns false.
+     */
+    public boolean isThinkingDeferrable() {
+        return false;
+    }
+
     /**
      * Called once per frame. Used for updating this item's position etc.
      *
@@ -131,7 +262,7 @@ public abstract class Item implements Cloneable {
      * @return true if they overlap.
      */
     public boolean overlapsWith(Item other) {
-        return other.accept(accept(OverlapVisitor.INSTANCE));
+        return Narrowphase.overlap(this, other);
     }
 
     /**
@@ -144,7 +275,7 @@ public abstract class Item implements Cloneable {
      * @return true if they overlap.
      */
     public boolean overlapsWhenMoving(Position to, Item other) {
-        return other.accept(accept(new MoveOverlapVisitor(to)));
+        return Narrowphase.overlapWhenMoving(this, to, other);
     }
 
     /**
@@ -175,7 +306,8 @@ public abstract class Item implements Cloneable {
     /**
      * This method is called whenever the item is hit. The default implementation does nothing.
      *
-     * @param item the item hitting this item
+     * @param item the item hitting this item, i.e., a projectile, or the shooter of a pooled
+     *             projectile (see {@linkplain ProjectilePool})
      */
     public void hitBy(Item item) {
         // do nothing
@@ -0,0 +1,477 @@
+package pp.droids.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Stores the items of a map. The items are kept densely packed in an array for fast iteration,
+ * and each item additionally has a slot index (see {@linkplain Item#getSlot()}) that does not
+ * change as long as the item is contained in the store. Views may use slot indices as keys of
+ * plain arrays. A slot is reused after its item has been removed.
+ * <p>
+ * When an item is added for the first time, it receives an entity id (see {@linkplain Item#getId()}),
+ * which is unique within the store and never changes. Additionally, each item has a generational
+ * handle (see {@linkplain Item#getHandle()}), which combines its slot index with a generation counter
+ * of the slot that is incremented whenever the slot is freed. A handle can be resolved to its item
+ * in constant time by {@linkplain #resolve(int)}, and a handle of an item that has been removed
+ * does not resolve to the item that reuses its slot. Ids and handles are non-negative ints, so they
+ * can be used as compact keys instead of the items themselves.
+ * <p>
+ * Items are removed in constant time by moving the last item into the gap (swap-remove), i.e.,
+ * the iteration order is the insertion order only as long as no item has been removed.
+ * Destroyed items are not searched for: {@linkplain Item#destroy()} reports the item to the
+ * store, and {@linkplain #removeDestroyed(Consumer)} removes exactly the reported items.
+ * The items removed by the most recent call are available as {@linkplain #getDestroyedThisTick()}.
+ * Likewise, items report when they have been moved to another level, and the items moved since
+ * the previous call of {@linkplain #collectLevelChanges()} are available as
+ * {@linkplain #getLevelChangedThisTick()}.
+ * <p>
+ * If {@linkplain #setTrackingChanges(boolean) requested}, the store additionally keeps track of the
+ * items whose position, rotation, lives, or level has changed and of the ids of the items removed
+ * since the last call of {@linkplain #clearChanges()}. Items report their changes themselves, so
+ * consumers like delta snapshots need not compare all items.
+ * <p>
+ * The store must not be modified while iterating over it.
+ */
+public class ItemStore extends AbstractList<Item> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * The number of low-order bits of a handle that represent the slot index.
+     */
+    static final int SLOT_BITS = 20;
+
+    /**
+     * The maximal number of slots.
+     */
+    static final int MAX_SLOTS = 1 << SLOT_BITS;
+
+    private static final int SLOT_MASK = MAX_SLOTS - 1;
+    private static final int GENERATION_MASK = (1 << (Integer.SIZE - 1 - SLOT_BITS)) - 1;
+
+    private Item[] dense = new Item[INITIAL_CAPACITY];
+    private int[] denseSlot = new int[INITIAL_CAPACITY];
+    private int[] slotIndex = new int[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int size;
+    private int numSlots;
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int numFreeSlots;
+    private int nextId;
+
+    /**
+     * Items reported as destroyed, which are removed by the next call of {@linkplain #removeDestroyed(Consumer)}.
+     */
+    private final List<Item> pendingRemoval = new ArrayList<>();
+
+    /**
+     * Items removed by the last call of {@linkplain #removeDestroyed(Consumer)}.
+     */
+    private final List<Item> destroyedThisTick = new ArrayList<>();
+
+    /**
+     * Items reported as moved to another level, which are collected by the next call of {@linkplain #collectLevelChanges()}.
+     */
+    private final List<Item> pendingLevelChanges = new ArrayList<>();
+
+    /**
+     * Items collected by the last call of {@linkplain #collectLevelChanges()}.
+     */
+    private final List<Item> levelChangedThisTick = new ArrayList<>();
+
+    /**
+     * Indicates whether changed and removed items are tracked.
+     */
+    private boolean trackingChanges;
+
+    /**
+     * Items changed or added since the last call of {@linkplain #clearChanges()}, each at most once.
+     */
+    private final List<Item> changedItems = new ArrayList<>();
+    private boolean[] changedSlots = new boolean[INITIAL_CAPACITY];
+
+    /**
+     * Ids and handles of items removed since the last call of {@linkplain #clearChanges()}.
+     */
+    private int[] removedIds = new int[INITIAL_CAPACITY];
+    private int[] removedHandles = new int[INITIAL_CAPACITY];
+    private int numRemoved;
+
+    /**
+     * Returns the item at the specified position of the dense array.
+     *
+     * @param index the position in [0, {@linkplain #size()})
+     */
+    @Override
+    public Item get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(index);
+        return dense[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots, i.e., an upper bound of the slot index of every contained item.
+     */
+    public int getSlotCount() {
+        return numSlots;
+    }
+
+    /**
+     * Returns the item with the specified slot index, or null if the slot is free.
+     *
+     * @param slot the slot index
+     */
+    public Item getBySlot(int slot) {
+        if (slot < 0 || slot >= numSlots || slotIndex[slot] < 0)
+            return null;
+        return dense[slotIndex[slot]];
+    }
+
+    /**
+     * Returns the item with the specified handle, or null if the handle does not belong to an
+     * item of this store, e.g., because the item has been removed.
+     *
+     * @param handle the handle of an item
+     * @see Item#getHandle()
+     */
+    public Item resolve(int handle) {
+        if (handle < 0) return null;
+        final Item item = getBySlot(slotOf(handle));
+        return item != null && item.handle == handle ? item : null;
+    }
+
+    /**
+     * Returns the slot index contained in the specified handle.
+     *
+     * @param handle a non-negative handle
+     */
+    public static int slotOf(int handle) {
+        return handle & SLOT_MASK;
+    }
+
+    /**
+     * Returns the number of entity ids assigned so far, i.e., an upper bound of all ids.
+     */
+    public int getIdCount() {
+        return nextId;
+    }
+
+    /**
+     * Sets the number of entity ids assigned so far, e.g., when a saved state is restored whose
+     * items already have their ids.
+     *
+     * @param idCount an upper bound of the ids of all items that have ever been contained in this store
+     * @see MapStateFormat
+     */
+    void setIdCount(int idCount) {
+        nextId = idCount;
+    }
+
+    /**
+     * Returns true if the specified object is an item of this store. This takes constant time.
+     */
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Returns the position of the specified object in the dense array, or -1 if it is not
+     * an item of this store. This takes constant time.
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Item item))
+            return -1;
+        final int slot = item.slot;
+        if (slot < 0 || slot >= numSlots || slotIndex[slot] < 0 || dense[slotIndex[slot]] != item)
+            return -1;
+        return slotIndex[slot];
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Adds the specified item at the end and assigns a slot and a handle to it, and an entity id
+     * if it has not yet got one. An item that has already been destroyed is reported for removal
+     * immediately.
+     *
+     * @param item the item, which must not be contained in any store
+     * @return true
+     * @throws IllegalArgumentException if the item is already contained in a store
+     */
+    @Override
+    public boolean add(Item item) {
+        if (item.slot >= 0)
+            throw new IllegalArgumentException(item + " is already contained in a store"); //NON-NLS
+        if (size == dense.length) {
+            dense = Arrays.copyOf(dense, 2 * size);
+            denseSlot = Arrays.copyOf(denseSlot, 2 * size);
+        }
+        final int slot = allocateSlot();
+        dense[size] = item;
+        denseSlot[size] = slot;
+        slotIndex[slot] = size;
+        item.slot = slot;
+        item.handle = generations[slot] << SLOT_BITS | slot;
+        if (item.id < 0)
+            item.id = nextId++;
+        size++;
+        modCount++;
+        changed(item);
+        if (item.isDestroyed())
+            pendingRemoval.add(item);
+        return true;
+    }
+
+    private int allocateSlot() {
+        if (numFreeSlots > 0)
+            return freeSlots[--numFreeSlots];
+        if (numSlots == MAX_SLOTS)
+            throw new IllegalStateException("too many items"); //NON-NLS
+        if (numSlots == slotIndex.length) {
+            slotIndex = Arrays.copyOf(slotIndex, 2 * numSlots);
+            generations = Arrays.copyOf(generations, 2 * numSlots);
+            changedSlots = Arrays.copyOf(changedSlots, 2 * numSlots);
+        }
+        return numSlots++;
+    }
+
+    /**
+     * Removes the specified item in constant time by moving the last item into its position.
+     *
+     * @param o the item to remove
+     * @return true if the item has been contained in this store
+     */
+    @Override
+    public boolean remove(Object o) {
+        final int index = indexOf(o);
+        if (index < 0)
+            return false;
+        final Item item = dense[index];
+        final int slot = item.slot;
+        final int last = --size;
+        dense[index] = dense[last];
+        denseSlot[index] = denseSlot[last];
+        slotIndex[denseSlot[index]] = index;
+        dense[last] = null;
+        slotIndex[slot] = -1;
+        generations[slot] = (generations[slot] + 1) & GENERATION_MASK;
+        if (numFreeSlots == freeSlots.length)
+            freeSlots = Arrays.copyOf(freeSlots, 2 * numFreeSlots);
+        freeSlots[numFreeSlots++] = slot;
+        item.slot = -1;
+        modCount++;
+        if (trackingChanges) {
+            changedSlots[slot] = false;
+            addRemoved(item);
+        }
+        return true;
+    }
+
+    private void addRemoved(Item item) {
+        if (numRemoved == removedIds.length) {
+            removedIds = Arrays.copyOf(removedIds, 2 * numRemoved);
+            removedHandles = Arrays.copyOf(removedHandles, 2 * numRemoved);
+        }
+        removedIds[numRemoved] = item.id;
+        removedHandles[numRemoved++] = item.getHandle();
+    }
+
+    @Override
+    public Item remove(int index) {
+        final Item item = get(index);
+        remove(item);
+        return item;
+    }
+
+    /**
+     * Removes all items and frees all slots.
+     */
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            generations[denseSlot[i]] = (generations[denseSlot[i]] + 1) & GENERATION_MASK;
+            if (trackingChanges) {
+                changedSlots[denseSlot[i]] = false;
+                addRemoved(dense[i]);
+            }
+            dense[i].slot = -1;
+            dense[i] = null;
+        }
+        size = 0;
+        numSlots = 0;
+        numFreeSlots = 0;
+        pendingRemoval.clear();
+        destroyedThisTick.clear();
+        pendingLevelChanges.clear();
+        levelChangedThisTick.clear();
+        modCount++;
+    }
+
+    /**
+     * Starts or stops keeping track of changed and removed items. Stopping clears the tracked changes.
+     *
+     * @param trackingChanges true if changes shall be tracked
+     */
+    public void setTrackingChanges(boolean trackingChanges) {
+        if (!trackingChanges)
+            clearChanges();
+        this.trackingChanges = trackingChanges;
+    }
+
+    /**
+     * Returns true if changed and removed items are tracked.
+     */
+    public boolean isTrackingChanges() {
+        return trackingChanges;
+    }
+
+    /**
+     * Reports that the position, rotation, lives, or level of the specified item has changed.
+     * Items not contained in this store are ignored.
+     *
+     * @param item the changed item
+     */
+    void changed(Item item) {
+        if (!trackingChanges)
+            return;
+        final int slot = item.slot;
+        if (slot >= 0 && slot < numSlots && !changedSlots[slot] && slotIndex[slot] >= 0 && dense[slotIndex[slot]] == item) {
+            changedSlots[slot] = true;
+            changedItems.add(item);
+        }
+    }
+
+    /**
+     * Returns the items that have been added or changed since the last call of {@linkplain #clearChanges()},
+     * each of them once. Items that have been removed in the meantime are contained, too, but they do
+     * not have a slot anymore (see {@linkplain Item#getSlot()}). The returned list is empty unless
+     * changes are tracked.
+     */
+    public List<Item> getChangedItems() {
+        return Collections.unmodifiableList(changedItems);
+    }
+
+    /**
+     * Returns the number of ids returned by {@linkplain #getRemovedId(int)}.
+     */
+    public int getNumRemoved() {
+        return numRemoved;
+    }
+
+    /**
+     * Returns the id of the i-th item removed since the last call of {@linkplain #clearChanges()}.
+     *
+     * @param i the index in [0, {@linkplain #getNumRemoved()})
+     */
+    public int getRemovedId(int i) {
+        if (i < 0 || i >= numRemoved)
+            throw new IndexOutOfBoundsException(i);
+        return removedIds[i];
+    }
+
+    /**
+     * Returns the handle of the i-th item removed since the last call of {@linkplain #clearChanges()}.
+     *
+     * @param i the index in [0, {@linkplain #getNumRemoved()})
+     * @see Item#getHandle()
+     */
+    public int getRemovedHandle(int i) {
+        if (i < 0 || i >= numRemoved)
+            throw new IndexOutOfBoundsException(i);
+        return removedHandles[i];
+    }
+
+    /**
+     * Forgets all tracked changes. This takes time proportional to the number of changed items.
+     */
+    public void clearChanges() {
+        for (Item item : changedItems)
+            if (item.slot >= 0)
+                changedSlots[item.slot] = false;
+        changedItems.clear();
+        numRemoved = 0;
+    }
+
+    /**
+     * Reports that the specified item has been destroyed. The item is removed by the next call of
+     * {@linkplain #removeDestroyed(Consumer)}. Items not contained in this store are ignored.
+     *
+     * @param item the destroyed item
+     */
+    void destroyed(Item item) {
+        if (contains(item))
+            pendingRemoval.add(item);
+    }
+
+    /**
+     * Removes all items reported as destroyed since the last call and makes them available as
+     * {@linkplain #getDestroyedThisTick()}.
+     *
+     * @param action called for each removed item after it has been removed
+     */
+    public void removeDestroyed(Consumer<Item> action) {
+        destroyedThisTick.clear();
+        for (Item item : pendingRemoval)
+            if (remove(item)) {
+                destroyedThisTick.add(item);
+                action.accept(item);
+            }
+        pendingRemoval.clear();
+    }
+
+    /**
+     * Returns the items removed by the last call of {@linkplain #removeDestroyed(Consumer)},
+     * i.e., the items that have been destroyed during the last update of the map, in the order
+     * of their destruction. The returned list is cleared by the next call.
+     */
+    public List<Item> getDestroyedThisTick() {
+        return Collections.unmodifiableList(destroyedThisTick);
+    }
+
+    /**
+     * Reports that the specified item has been moved to another level. The item is made available
+     * by the next call of {@linkplain #collectLevelChanges()}. Items not contained in this store
+     * are ignored.
+     *
+     * @param item the moved item
+     */
+    void levelChanged(Item item) {
+        if (contains(item))
+            pendingLevelChanges.add(item);
+    }
+
+    /**
+     * Makes all items reported as moved to another level since the last call available as
+     * {@linkplain #getLevelChangedThisTick()}.
+     */
+    public void collectLevelChanges() {
+        levelChangedThisTick.clear();
+        levelChangedThisTick.addAll(pendingLevelChanges);
+        pendingLevelChanges.clear();
+    }
+
+    /**
+     * Returns the items collected by the last call of {@linkplain #collectLevelChanges()}, i.e.,
+     * the items that have been moved to another level during the last update of the map, in the
+     * order of their moves. An item moved several times is contained several times. The returned
+     * list is cleared by the next call.
+     */
+    public List<Item> getLevelChangedThisTick() {
+        return Collections.unmodifiableList(levelChangedThisTick);
+    }
+}
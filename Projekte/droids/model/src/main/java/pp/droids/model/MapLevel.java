@@ -1,8 +1,18 @@
 package pp.droids.model;
 
+import pp.droids.model.collisions.CollisionPredicate;
+import pp.droids.model.collisions.Impact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
-import java.util.NoSuchElementException;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  * Represents a level of the map and allows to iterate over all
@@ -10,6 +20,11 @@ import java.util.Objects;
  * to this level if {@linkplain Item#getLevel()} returns an
  * object to this MapLevel object. Equality of level names
  * {@linkplain #getName()} does not count.
+ * <p>
+ * Each level keeps its own lists of the items of the map that belong to it,
+ * so iterating over a level does not visit the items of other levels.
+ * These lists are maintained by {@linkplain DroidsMap} when items are
+ * added or removed and by {@linkplain Item#setLevel(MapLevel)}.
  */
 public class MapLevel implements Iterable<Item> {
     private final DroidsMap map;
@@ -18,6 +33,28 @@ public class MapLevel implements Iterable<Item> {
      */
     private final String name;
 
+    /**
+     * The spatial hash of all bounded items of this level that have a position of their own.
+     */
+    private final SpatialHash spatialHash = new SpatialHash(SpatialHash.CELL_SIZE);
+
+    /**
+     * All items of the map that belong to this level.
+     */
+    private final List<Item> items = new ArrayList<>();
+
+    /**
+     * All items of the map that belong to this level, grouped by their categories.
+     */
+    private final Map<String, List<Item>> itemsByCat = new HashMap<>();
+
+    /**
+     * All items of this level that are not contained in its spatial hash. These are all items
+     * that are not bounded items, e.g., mazes, and flags, whose position and level follow their
+     * captors.
+     */
+    private final List<Item> unhashedItems = new ArrayList<>();
+
     /**
      * Creates a new level with the specified name.
      *
@@ -44,40 +81,201 @@ public class MapLevel implements Iterable<Item> {
         return map;
     }
 
+    /**
+     * Returns the spatial hash of this level.
+     */
+    SpatialHash getSpatialHash() {
+        return spatialHash;
+    }
+
+    /**
+     * Returns whether there is an item in this level that satisfies the specified predicate
+     * and that may overlap with the circle with the specified center and radius. Only bounded
+     * items close to the circle are tested, but all other items of this level, e.g., mazes, are
+     * tested, too.
+     *
+     * @param x      the x-coordinate of the center
+     * @param y      the y-coordinate of the center
+     * @param radius the radius
+     * @param pred   the predicate
+     */
+    public boolean anyItemNear(float x, float y, float radius, Predicate<Item> pred) {
+        if (spatialHash.anyMatch(x, y, radius, pred))
+            return true;
+        for (Item item : unhashedItems)
+            if (pred.test(item))
+                return true;
+        return false;
+    }
+
+    /**
+     * Performs the specified action for each item in this level that may overlap with the circle
+     * with the specified center and radius. This includes all items of this level that are not
+     * contained in its spatial hash, e.g., mazes. The action is performed on a snapshot of these
+     * items, so it may move or add items.
+     *
+     * @param x      the x-coordinate of the center
+     * @param y      the y-coordinate of the center
+     * @param radius the radius
+     * @param action the action
+     */
+    public void forEachItemNear(float x, float y, float radius, Consumer<Item> action) {
+        final List<Item> items = new ArrayList<>();
+        spatialHash.forEach(x, y, radius, items::add);
+        items.addAll(unhashedItems);
+        items.forEach(action);
+    }
+
+    /**
+     * Returns the item of this level that is hit first by a circle moving on a straight line from
+     * (x,y) to (toX,toY), or null if no item is hit. Only items satisfying
+     * {@linkplain CollisionPredicate#INSTANCE} can be hit. Callers that search for impacts in every
+     * update should keep their own {@linkplain ImpactFinder} instead, which does not create any
+     * objects.
+     *
+     * @param item   the item represented by the moving circle, which is never hit, or null
+     * @param x      x-coordinate of the start position of the center
+     * @param y      y-coordinate of the start position of the center
+     * @param radius the radius of the moving circle
+     * @param toX    x-coordinate of the target position of the center
+     * @param toY    y-coordinate of the target position of the center
+     * @see pp.droids.model.collisions.Narrowphase#timeOfImpact(Item, float, float, float, float, float, Item)
+     */
+    public Impact findFirstImpact(Item item, float x, float y, float radius, float toX, float toY) {
+        final ImpactFinder finder = new ImpactFinder();
+        if (!finder.find(this, item, x, y, radius, toX, toY))
+            return null;
+        return new Impact(finder.getItem(), finder.getTime());
+    }
+
+    /**
+     * Returns all items of this level that are not contained in its spatial hash.
+     */
+    List<Item> getUnhashedItems() {
+        return unhashedItems;
+    }
+
     @Override
     public String toString() {
         return name;
     }
 
     /**
-     * Returns an iterator over all items in this level.
+     * Returns an unmodifiable view of all items in this level whose category
+     * ({@linkplain Item#cat()}) is the specified one.
+     *
+     * @param cat the category
+     * @see pp.droids.model.Category
      */
-    @Override
-    public Iterator<Item> iterator() {
-        return new Iterator<>() {
-            private final Iterator<Item> it = map.getItems().iterator();
-            private Item cur = null;
-
-            @Override
-            public boolean hasNext() {
-                while (!validItem() && it.hasNext())
-                    cur = it.next();
-                return validItem();
-            }
+    public List<Item> getItems(String cat) {
+        final List<Item> list = itemsByCat.get(cat);
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Adds the specified item, which belongs to this level, to the lists of this level.
+     * Called by {@linkplain DroidsMap} when the item is added to the map.
+     *
+     * @param item the item
+     */
+    void addItem(Item item) {
+        item.levelIndex = items.size();
+        items.add(item);
+        final List<Item> catList = itemsByCat.computeIfAbsent(item.cat(), c -> new ArrayList<>());
+        item.catIndex = catList.size();
+        catList.add(item);
+        if (item instanceof BoundedItem bounded && !(item instanceof Flag))
+            spatialHash.add(bounded);
+        else {
+            item.unhashedIndex = unhashedItems.size();
+            unhashedItems.add(item);
+        }
+    }
 
-            private boolean validItem() {
-                return cur != null && cur.getLevel() == MapLevel.this;
+    /**
+     * Adds the specified items, which belong to this level, to the lists of this level such that
+     * each item gets the positions stored in its fields {@code levelIndex}, {@code catIndex} and
+     * {@code unhashedIndex}. The hashed items are added to the spatial hash in the specified order.
+     * This restores the order of the items of a saved level, which depends on the history of the
+     * level otherwise (see {@linkplain #removeItem(Item)}).
+     *
+     * @param members   the items, whose stored positions must be consecutive in each list
+     * @param hashOrder the bounded items among the specified ones in the order of their cells
+     * @throws IllegalArgumentException if the stored positions are inconsistent
+     * @see MapStateFormat
+     */
+    void restoreItems(List<Item> members, List<BoundedItem> hashOrder) {
+        final List<Item> sorted = new ArrayList<>(members);
+        sorted.sort(Comparator.comparingInt(item -> item.levelIndex));
+        for (Item item : sorted) {
+            if (item.levelIndex != items.size())
+                throw new IllegalArgumentException("invalid position of " + item + " in " + this); //NON-NLS
+            items.add(item);
+        }
+        sorted.sort(Comparator.comparingInt(item -> item.catIndex));
+        for (Item item : sorted) {
+            final List<Item> catList = itemsByCat.computeIfAbsent(item.cat(), c -> new ArrayList<>());
+            if (item.catIndex != catList.size())
+                throw new IllegalArgumentException("invalid category position of " + item + " in " + this); //NON-NLS
+            catList.add(item);
+        }
+        sorted.sort(Comparator.comparingInt(item -> item.unhashedIndex));
+        for (Item item : sorted)
+            if (item.unhashedIndex >= 0) {
+                if (item.unhashedIndex != unhashedItems.size())
+                    throw new IllegalArgumentException("invalid unhashed position of " + item + " in " + this); //NON-NLS
+                unhashedItems.add(item);
             }
+        for (BoundedItem item : hashOrder)
+            spatialHash.add(item);
+    }
 
-            @Override
-            public Item next() {
-                if (hasNext()) {
-                    final Item result = cur;
-                    cur = null;
-                    return result;
-                }
-                throw new NoSuchElementException();
+    /**
+     * Removes the specified item from the lists of this level. Each item knows its positions in
+     * these lists, and it is replaced by the last item of each list. So removing an item takes
+     * constant time, but it changes the order of the remaining items.
+     *
+     * @param item the item
+     * @return true if the item has been contained in this level
+     */
+    boolean removeItem(Item item) {
+        final int index = item.levelIndex;
+        if (index < 0 || index >= items.size() || items.get(index) != item)
+            return false;
+        final Item last = items.remove(items.size() - 1);
+        if (last != item) {
+            items.set(index, last);
+            last.levelIndex = index;
+        }
+        item.levelIndex = -1;
+        final List<Item> catList = itemsByCat.get(item.cat());
+        if (catList != null && item.catIndex >= 0) {
+            final Item lastOfCat = catList.remove(catList.size() - 1);
+            if (lastOfCat != item) {
+                catList.set(item.catIndex, lastOfCat);
+                lastOfCat.catIndex = item.catIndex;
             }
-        };
+            item.catIndex = -1;
+        }
+        if (item.unhashedIndex >= 0) {
+            final Item lastUnhashed = unhashedItems.remove(unhashedItems.size() - 1);
+            if (lastUnhashed != item) {
+                unhashedItems.set(item.unhashedIndex, lastUnhashed);
+                lastUnhashed.unhashedIndex = item.unhashedIndex;
+            }
+            item.unhashedIndex = -1;
+        }
+        else if (item instanceof BoundedItem bounded && bounded.spatialHash == spatialHash)
+            spatialHash.remove(bounded, bounded.getX(), bounded.getY());
+        return true;
+    }
+
+    /**
+     * Returns an iterator over all items in this level. The iterator does not support
+     * removing items, and the level must not be modified while iterating.
+     */
+    @Override
+    public Iterator<Item> iterator() {
+        return Collections.unmodifiableList(items).iterator();
     }
 }
@@ -0,0 +1,564 @@
+package pp.droids.model;
+
+import pp.util.FloatPoint;
+import pp.util.Position;
+import pp.util.Segment;
+import pp.util.TypedSegment;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A binary format of the complete state of the current map of a game model, which allows to
+ * continue the game from the saved state exactly as the saved game goes on, e.g., when seeking in a
+ * replay. In contrast to {@linkplain pp.droids.model.external.ExternalMap}, which describes a map for
+ * starting a new game, the state contains
+ * <ul>
+ *     <li>the entity ids of all items and the order of the items in the item store and in the lists
+ *     of their levels, which determines the order of updates and of hit tests,</li>
+ *     <li>lives, the times since the last hits and the remaining reload times,</li>
+ *     <li>projectiles in flight, both items and projectiles of the {@linkplain ProjectilePool},</li>
+ *     <li>the navigation paths of the droid and the dog,</li>
+ *     <li>items that have been registered, but not yet added to the map, the droid even if it has been
+ *     removed from the map, captured flags and the winner, and</li>
+ *     <li>the time of each deferrable item's last thoughts (see {@linkplain ThinkScheduler}).</li>
+ * </ul>
+ * Slot indices and handles (see {@linkplain ItemStore}) are not saved, because they do not affect the
+ * game, and neither are observations, which the droid and the dog make again in the next update.
+ * <p>
+ * Items are referenced by their position in the sequence of all saved items, i.e., the items of the
+ * item store in their order, followed by the registered items and by the items that are referenced,
+ * but not contained in the map, e.g., the shooters of pooled projectiles that have been destroyed.
+ */
+public class MapStateFormat {
+    private static final byte DROID = 1;
+    private static final byte ENEMY = 2;
+    private static final byte OBSTACLE = 3;
+    private static final byte ROCKET = 4;
+    private static final byte MAZE = 5;
+    private static final byte EXIT = 6;
+    private static final byte FLAG = 7;
+    private static final byte DOG = 8;
+    private static final byte PROJECTILE = 9;
+
+    private MapStateFormat() { /* don't instantiate */ }
+
+    /**
+     * Writes the state of the current map of the specified model.
+     *
+     * @param model the game model
+     * @param out   the output receiving the state
+     * @throws IOException if any IO error occurs.
+     */
+    public static void write(DroidsModel model, DataOutput out) throws IOException {
+        try {
+            new Writer(model.getDroidsMap(), out).write(model);
+        }
+        catch (UncheckedIO e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Reads a state written by {@linkplain #write(DroidsModel, DataOutput)} and makes the restored map
+     * the current map of the specified model.
+     *
+     * @param in    the input containing the state
+     * @param model the game model
+     * @throws IOException if any IO error occurs or if the input doesn't contain a valid state.
+     */
+    public static void read(DataInput in, DroidsModel model) throws IOException {
+        final Reader reader = new Reader(in, model);
+        final DroidsMap map;
+        try {
+            map = reader.read();
+        }
+        catch (IllegalArgumentException | ClassCastException | IndexOutOfBoundsException e) {
+            throw new IOException("corrupt map state", e); //NON-NLS
+        }
+        model.setDroidsMap(map);
+        model.setWinner(reader.winner);
+    }
+
+    /**
+     * Writes the state of a map. The record of each item starts with its type, which is written by
+     * the visit method of its class.
+     */
+    private static class Writer implements VoidVisitor {
+        private final DroidsMap map;
+        private final DataOutput out;
+        private final ItemStore store;
+        private final List<Item> registered;
+        private final List<Item> detached = new ArrayList<>();
+        private final List<MapLevel> levels = new ArrayList<>();
+
+        Writer(DroidsMap map, DataOutput out) {
+            this.map = map;
+            this.out = out;
+            this.store = map.getItems();
+            this.registered = map.getRegisteredItems();
+        }
+
+        void write(DroidsModel model) throws IOException {
+            final Droid droid = map.getDroid();
+            final Dog dog = map.getDogOrNull();
+            final ProjectilePool pool = map.getProjectilePool();
+            detach(droid);
+            detach(dog);
+            detach(model.getWinner());
+            for (int i = 0; i < pool.size(); i++)
+                detach(pool.getOwner(i));
+            collectLevels(store);
+            collectLevels(registered);
+            collectLevels(detached);
+            for (int i = 0; i < pool.size(); i++)
+                level(pool.getLevel(i));
+
+            out.writeInt(map.getWidth());
+            out.writeInt(map.getHeight());
+            out.writeInt(store.getIdCount());
+            out.writeInt(levels.size());
+            for (MapLevel level : levels)
+                out.writeUTF(level.getName());
+            out.writeInt(store.size());
+            out.writeInt(registered.size());
+            out.writeInt(detached.size());
+            for (Item item : store)
+                item.accept(this);
+            for (Item item : registered)
+                item.accept(this);
+            for (Item item : detached)
+                item.accept(this);
+
+            out.writeInt(ref(droid));
+            out.writeInt(ref(dog));
+            out.writeInt(ref(model.getWinner()));
+            final List<FlagCaptor> captors = new ArrayList<>();
+            for (int i = 0; i < numItems(); i++)
+                if (item(i) instanceof FlagCaptor captor && captor.getCapturedFlag() != null)
+                    captors.add(captor);
+            out.writeInt(captors.size());
+            for (FlagCaptor captor : captors) {
+                out.writeInt(ref(captor));
+                out.writeInt(ref(captor.getCapturedFlag()));
+            }
+            final ThinkScheduler scheduler = map.getThinkScheduler();
+            out.writeDouble(scheduler.getTime());
+            for (Item item : store)
+                out.writeDouble(scheduler.getLastThought(item));
+
+            out.writeInt(pool.size());
+            for (int i = 0; i < pool.size(); i++) {
+                out.writeInt(ref(pool.getOwner(i)));
+                out.writeInt(levels.indexOf(pool.getLevel(i)));
+                out.writeFloat(pool.getX(i));
+                out.writeFloat(pool.getY(i));
+                out.writeFloat(pool.getPrevX(i));
+                out.writeFloat(pool.getPrevY(i));
+                out.writeFloat(pool.getRotation(i));
+                out.writeFloat(pool.getSpeed(i));
+                out.writeFloat(pool.getLifeTime(i));
+                out.writeFloat(pool.getRadius(i));
+            }
+        }
+
+        /**
+         * Saves the specified item as an item that is not contained in the map, unless it is.
+         */
+        private void detach(Item item) {
+            if (item != null && !store.contains(item) && !registered.contains(item) && !detached.contains(item))
+                detached.add(item);
+        }
+
+        private void collectLevels(List<Item> items) {
+            for (Item item : items)
+                level(item.getLevel());
+        }
+
+        private void level(MapLevel level) {
+            if (level != null && !levels.contains(level))
+                levels.add(level);
+        }
+
+        private int numItems() {
+            return store.size() + registered.size() + detached.size();
+        }
+
+        private Item item(int ref) {
+            if (ref < store.size())
+                return store.get(ref);
+            if (ref < store.size() + registered.size())
+                return registered.get(ref - store.size());
+            return detached.get(ref - store.size() - registered.size());
+        }
+
+        private int ref(Item item) {
+            if (item == null)
+                return -1;
+            int i = store.indexOf(item);
+            if (i >= 0)
+                return i;
+            i = registered.indexOf(item);
+            if (i >= 0)
+                return store.size() + i;
+            return store.size() + registered.size() + detached.indexOf(item);
+        }
+
+        private void write(byte type, Item item) {
+            try {
+                out.writeByte(type);
+                out.writeInt(item.id);
+                out.writeInt(levels.indexOf(item.getLevel()));
+                out.writeBoolean(item.isDestroyed());
+                final boolean inLevel = store.contains(item);
+                out.writeInt(inLevel ? item.levelIndex : -1);
+                out.writeInt(inLevel ? item.catIndex : -1);
+                out.writeInt(inLevel ? item.unhashedIndex : -1);
+                if (item instanceof BoundedItem bounded) {
+                    out.writeInt(inLevel && bounded.spatialHash != null ? bounded.spatialHash.indexInCell(bounded) : -1);
+                    out.writeFloat(bounded.getX());
+                    out.writeFloat(bounded.getY());
+                    out.writeFloat(bounded.getRotation());
+                    out.writeFloat(bounded.getRadius());
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIO(e);
+            }
+        }
+
+        private void shooter(byte type, Shooter shooter) {
+            write(type, shooter);
+            try {
+                out.writeInt(shooter.getLives());
+                out.writeFloat(shooter.getTimeSinceLastHit());
+                out.writeFloat(shooter.getReloadTime());
+                out.writeFloat(shooter.getRemainingReloadTime());
+            }
+            catch (IOException e) {
+                throw new UncheckedIO(e);
+            }
+        }
+
+        private void path(List<Position> path) {
+            try {
+                out.writeInt(path.size());
+                for (Position p : path) {
+                    out.writeFloat(p.getX());
+                    out.writeFloat(p.getY());
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIO(e);
+            }
+        }
+
+        private void floats(float... values) {
+            try {
+                for (float value : values)
+                    out.writeFloat(value);
+            }
+            catch (IOException e) {
+                throw new UncheckedIO(e);
+            }
+        }
+
+        @Override
+        public void visit(Droid droid) {
+            shooter(DROID, droid);
+            path(droid.getPath());
+        }
+
+        @Override
+        public void visit(Enemy enemy) {
+            shooter(ENEMY, enemy);
+        }
+
+        @Override
+        public void visit(Obstacle obstacle) {
+            write(OBSTACLE, obstacle);
+        }
+
+        @Override
+        public void visit(Projectile proj) {
+            write(PROJECTILE, proj);
+            floats(proj.getSpeed(), proj.getLifeTime());
+        }
+
+        @Override
+        public void visit(Rocket rocket) {
+            write(ROCKET, rocket);
+            final Position target = rocket.getTarget();
+            floats(target == null ? Float.NaN : target.getX(), target == null ? Float.NaN : target.getY(),
+                   rocket.getSpeed());
+        }
+
+        @Override
+        public void visit(Maze maze) {
+            write(MAZE, maze);
+            final List<Position> points = new ArrayList<>();
+            for (TypedSegment segment : maze.getSegments())
+                points.add(segment.to());
+            path(points);
+        }
+
+        @Override
+        public void visit(Flag flag) {
+            write(FLAG, flag);
+        }
+
+        @Override
+        public void visit(Exit exit) {
+            write(EXIT, exit);
+        }
+
+        @Override
+        public void visit(Dog dog) {
+            write(DOG, dog);
+            path(dog.getPath());
+        }
+    }
+
+    /**
+     * Carries an IO error out of a visit method.
+     */
+    private static class UncheckedIO extends RuntimeException {
+        UncheckedIO(IOException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized IOException getCause() {
+            return (IOException) super.getCause();
+        }
+    }
+
+    /**
+     * Reads the state of a map.
+     */
+    private static class Reader {
+        private final DataInput in;
+        private final DroidsModel model;
+        private final List<Item> items = new ArrayList<>();
+        private final List<int[]> positions = new ArrayList<>();
+        private final List<List<Position>> paths = new ArrayList<>();
+        private MapLevel[] levels;
+        private FlagCaptor winner;
+
+        Reader(DataInput in, DroidsModel model) {
+            this.in = in;
+            this.model = model;
+        }
+
+        DroidsMap read() throws IOException {
+            final DroidsMap map = new DroidsMap(model, in.readInt(), in.readInt());
+            final int idCount = in.readInt();
+            levels = new MapLevel[count()];
+            for (int i = 0; i < levels.length; i++)
+                levels[i] = new MapLevel(map, in.readUTF());
+            final int numStored = count();
+            final int numRegistered = count();
+            final int numDetached = count();
+            for (int i = 0; i < numStored + numRegistered + numDetached; i++)
+                readItem();
+
+            final Droid droid = (Droid) item(in.readInt());
+            final Dog dog = (Dog) item(in.readInt());
+            winner = (FlagCaptor) item(in.readInt());
+            // flags are captured before they are added to their levels, because capturing moves them
+            final int numCaptures = count();
+            for (int i = 0; i < numCaptures; i++)
+                ((FlagCaptor) item(in.readInt())).setCapturedFlag((Flag) item(in.readInt()));
+
+            final ItemStore store = map.getItems();
+            for (int i = 0; i < numStored; i++)
+                store.add(items.get(i));
+            store.setIdCount(idCount);
+            for (MapLevel level : levels)
+                restoreLevel(level, numStored);
+            for (int i = numStored; i < numStored + numRegistered; i++)
+                map.register(items.get(i), items.get(i).getLevel());
+            if (droid != null)
+                map.restoreDroid(droid);
+            if (dog != null)
+                map.setDog(dog);
+            for (int i = 0; i < items.size(); i++)
+                if (paths.get(i) != null)
+                    setPath(items.get(i), paths.get(i));
+            final double time = in.readDouble();
+            final double[] lastThoughts = new double[numStored];
+            for (int i = 0; i < numStored; i++)
+                lastThoughts[i] = in.readDouble();
+            map.getThinkScheduler().restore(time, items.subList(0, numStored), lastThoughts);
+
+            final ProjectilePool pool = map.getProjectilePool();
+            final int numProjectiles = count();
+            for (int i = 0; i < numProjectiles; i++) {
+                final Shooter owner = (Shooter) item(in.readInt());
+                final MapLevel level = level(in.readInt());
+                if (owner == null || level == null)
+                    throw new IOException("invalid pooled projectile"); //NON-NLS
+                pool.add(owner, level, in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat(),
+                         in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat());
+            }
+            return map;
+        }
+
+        /**
+         * Adds the stored items of the specified level to its lists in their saved order.
+         */
+        private void restoreLevel(MapLevel level, int numStored) {
+            final List<Item> members = new ArrayList<>();
+            final List<BoundedItem> hashed = new ArrayList<>();
+            final List<int[]> cellIndices = new ArrayList<>();
+            for (int i = 0; i < numStored; i++) {
+                final Item item = items.get(i);
+                if (item.getLevel() != level)
+                    continue;
+                final int[] pos = positions.get(i);
+                item.levelIndex = pos[0];
+                item.catIndex = pos[1];
+                item.unhashedIndex = pos[2];
+                if (pos[0] < 0)
+                    continue;
+                members.add(item);
+                if (pos[3] >= 0) {
+                    hashed.add((BoundedItem) item);
+                    cellIndices.add(pos);
+                }
+            }
+            final List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < hashed.size(); i++)
+                order.add(i);
+            order.sort(Comparator.comparingInt(i -> cellIndices.get(i)[3]));
+            final List<BoundedItem> hashOrder = new ArrayList<>();
+            for (int i : order)
+                hashOrder.add(hashed.get(i));
+            level.restoreItems(members, hashOrder);
+        }
+
+        private static void setPath(Item item, List<Position> points) {
+            final List<Segment> path = new ArrayList<>(points.size());
+            Position from = (Position) item;
+            for (Position to : points) {
+                path.add(new Segment(from, to));
+                from = to;
+            }
+            if (item instanceof Droid droid)
+                droid.setPath(path);
+            else if (item instanceof Dog dog)
+                dog.setPath(path);
+        }
+
+        private void readItem() throws IOException {
+            final byte type = in.readByte();
+            final int id = in.readInt();
+            final MapLevel level = level(in.readInt());
+            final boolean destroyed = in.readBoolean();
+            final int[] pos = {in.readInt(), in.readInt(), in.readInt(), -1};
+            final boolean bounded = type != MAZE;
+            float x = 0f;
+            float y = 0f;
+            float rotation = 0f;
+            float radius = 0f;
+            if (bounded) {
+                pos[3] = in.readInt();
+                x = in.readFloat();
+                y = in.readFloat();
+                rotation = in.readFloat();
+                radius = in.readFloat();
+            }
+            List<Position> path = null;
+            final Item item = switch (type) {
+                case DROID -> {
+                    final Droid droid = (Droid) readShooter(type, radius);
+                    path = readPoints();
+                    yield droid;
+                }
+                case ENEMY -> readShooter(type, radius);
+                case OBSTACLE -> new Obstacle(model);
+                case ROCKET -> {
+                    final Rocket rocket = new Rocket(model);
+                    final float targetX = in.readFloat();
+                    final float targetY = in.readFloat();
+                    if (!Float.isNaN(targetX))
+                        rocket.setTarget(targetX, targetY);
+                    rocket.setSpeed(in.readFloat());
+                    yield rocket;
+                }
+                case MAZE -> new Maze(model, readPoints());
+                case EXIT -> new Exit(model, radius);
+                case FLAG -> new Flag(model);
+                case DOG -> {
+                    path = readPoints();
+                    yield new Dog(model);
+                }
+                case PROJECTILE -> {
+                    final Projectile projectile = new Projectile(model, radius);
+                    projectile.setSpeed(in.readFloat());
+                    projectile.setLifeTime(in.readFloat());
+                    yield projectile;
+                }
+                default -> throw new IOException("invalid item type " + type); //NON-NLS
+            };
+            if (item instanceof BoundedItem boundedItem) {
+                boundedItem.setPos(x, y);
+                boundedItem.setRotation(rotation);
+            }
+            if (level != null)
+                item.setLevel(level);
+            item.id = id;
+            if (destroyed)
+                item.restoreDestroyed();
+            items.add(item);
+            positions.add(pos);
+            paths.add(path);
+        }
+
+        /**
+         * Reads the state of a droid or an enemy and creates it.
+         */
+        private Shooter readShooter(byte type, float radius) throws IOException {
+            final int lives = in.readInt();
+            final float timeSinceLastHit = in.readFloat();
+            final float reloadTime = in.readFloat();
+            final Shooter shooter = type == DROID
+                                    ? new Droid(model, radius, lives, reloadTime)
+                                    : new Enemy(model, radius, lives, reloadTime);
+            shooter.restoreHits(lives, timeSinceLastHit);
+            shooter.setRemainingReloadTime(in.readFloat());
+            return shooter;
+        }
+
+        private List<Position> readPoints() throws IOException {
+            final int n = count();
+            final List<Position> points = new ArrayList<>(n);
+            for (int i = 0; i < n; i++)
+                points.add(new FloatPoint(in.readFloat(), in.readFloat()));
+            return points;
+        }
+
+        private int count() throws IOException {
+            final int n = in.readInt();
+            if (n < 0)
+                throw new IOException("invalid count " + n); //NON-NLS
+            return n;
+        }
+
+        private MapLevel level(int index) throws IOException {
+            if (index < -1 || index >= levels.length)
+                throw new IOException("invalid level " + index); //NON-NLS
+            return index < 0 ? null : levels[index];
+        }
+
+        private Item item(int ref) throws IOException {
+            if (ref < -1 || ref >= items.size())
+                throw new IOException("invalid item reference " + ref); //NON-NLS
+            return ref < 0 ? null : items.get(ref);
+        }
+    }
+}
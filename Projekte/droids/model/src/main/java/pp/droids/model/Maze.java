@@ -1,6 +1,8 @@
 package pp.droids.model;
 
+import pp.droids.model.collisions.ShapeKind;
 import pp.util.Position;
+import pp.util.SegmentBatch;
 import pp.util.TypedSegment;
 
 import java.util.ArrayList;
@@ -15,6 +17,11 @@ public class Maze extends Item {
      */
     private final List<TypedSegment> segments = new ArrayList<>();
 
+    /**
+     * The contained segments as a batch for computing distances.
+     */
+    private final SegmentBatch segmentBatch;
+
     /**
      * The length of the maze.
      */
@@ -45,6 +52,7 @@ public class Maze extends Item {
             from = cur;
         }
         this.length = len;
+        this.segmentBatch = new SegmentBatch(segments);
     }
 
     @Override
@@ -59,6 +67,21 @@ public class Maze extends Item {
         return segments;
     }
 
+    /**
+     * Returns the segments contained in a maze as a batch for computing distances.
+     */
+    public SegmentBatch getSegmentBatch() {
+        return segmentBatch;
+    }
+
+    /**
+     * Returns {@linkplain ShapeKind#POLYLINE} because collisions are detected using the walls.
+     */
+    @Override
+    public ShapeKind getShapeKind() {
+        return ShapeKind.POLYLINE;
+    }
+
     /**
      * Returns the length of a maze.
      */
@@ -0,0 +1,199 @@
+package pp.droids.model;
+
+import static pp.util.FloatMath.sqr;
+import static pp.util.FloatMath.sqrt;
+
+/**
+ * Resolves the movement of a bounded item on a straight line to a target position. Instead of
+ * rejecting a move that would collide with another item, the item is moved up to the time of
+ * impact and then slides along the contact, i.e., the remaining move is projected onto the
+ * tangent at the contact point. This is repeated for at most {@linkplain #MAX_ITERATIONS}
+ * contacts, so an item can slide along a wall into a corner within a single query.
+ * Collisions are detected for the items satisfying
+ * {@linkplain pp.droids.model.collisions.CollisionPredicate#INSTANCE}, like
+ * {@linkplain Item#collidesWithAnyOtherItem()}.
+ * <p>
+ * A solver keeps the result of the last query in its fields and does not create any objects,
+ * so each moving item owns its own solver.
+ */
+class MovementSolver {
+    /**
+     * The maximal number of contacts resolved in a single move.
+     */
+    static final int MAX_ITERATIONS = 3;
+
+    /**
+     * The distance that the item keeps from items it has hit so that sliding along them
+     * does not hit them again immediately.
+     */
+    static final float SKIN = 1e-3f;
+
+    /**
+     * The result of a move.
+     */
+    enum Move {
+        /**
+         * The item reaches the target position.
+         */
+        FULL,
+        /**
+         * The item moves, but it does not reach the target position because it hits other items.
+         */
+        PARTIAL,
+        /**
+         * The item cannot move at all.
+         */
+        BLOCKED
+    }
+
+    private final ImpactFinder finder = new ImpactFinder();
+    private final float[] closest = new float[2];
+    private float x;
+    private float y;
+    private float normalX;
+    private float normalY;
+
+    /**
+     * Computes the position that the specified item reaches when it moves on a straight line from
+     * its current position to the specified target position and slides along the items it hits.
+     * The item itself is not moved; the resulting position is available by {@linkplain #getX()}
+     * and {@linkplain #getY()}. The resulting position does not collide with any other item
+     * unless the item collides with another item already at its current position. In that case,
+     * the result is the target position if it is collision-free, and the current position otherwise.
+     *
+     * @param item the moving item
+     * @param toX  x-coordinate of the target position
+     * @param toY  y-coordinate of the target position
+     * @return whether the item reaches the target position, moves only partially, or is blocked.
+     *         An item that does not reach the target position and moves less than
+     *         {@linkplain #SKIN} is blocked, and the resulting position is its current position then.
+     */
+    Move resolve(BoundedItem item, float toX, float toY) {
+        solve(item, toX, toY);
+        if (x == toX && y == toY)
+            return Move.FULL;
+        if (sqr(x - item.getX()) + sqr(y - item.getY()) >= SKIN * SKIN)
+            return Move.PARTIAL;
+        set(item.getX(), item.getY());
+        return Move.BLOCKED;
+    }
+
+    /**
+     * Returns the x-coordinate of the position computed by the last call of
+     * {@linkplain #resolve(BoundedItem, float, float)}.
+     */
+    float getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate of the position computed by the last call of
+     * {@linkplain #resolve(BoundedItem, float, float)}.
+     */
+    float getY() {
+        return y;
+    }
+
+    private void solve(BoundedItem item, float toX, float toY) {
+        final MapLevel level = item.getLevel();
+        final float radius = item.getRadius();
+        float curX = item.getX();
+        float curY = item.getY();
+        float moveX = toX - curX;
+        float moveY = toY - curY;
+        for (int i = 0; i < MAX_ITERATIONS && (moveX != 0f || moveY != 0f); i++) {
+            if (!finder.find(level, item, curX, curY, radius, curX + moveX, curY + moveY)) {
+                if (i == 0)
+                    set(toX, toY);
+                else
+                    checked(item, curX + moveX, curY + moveY, curX, curY);
+                return;
+            }
+            final float time = finder.getTime();
+            if (time <= 0f) {
+                if (i == 0)
+                    checked(item, toX, toY, item.getX(), item.getY());
+                else
+                    set(curX, curY);
+                return;
+            }
+            // move to the contact point
+            final float cx = curX + time * moveX;
+            final float cy = curY + time * moveY;
+            if (!contactNormal(finder.getItem(), cx, cy)) {
+                checked(item, curX, curY, curX, curY);
+                return;
+            }
+            // slide along the contact with the rest of the move
+            float restX = (1f - time) * moveX;
+            float restY = (1f - time) * moveY;
+            final float dot = restX * normalX + restY * normalY;
+            if (dot < 0f) {
+                restX -= dot * normalX;
+                restY -= dot * normalY;
+            }
+            final float prevX = curX;
+            final float prevY = curY;
+            curX = cx + SKIN * normalX;
+            curY = cy + SKIN * normalY;
+            if (collides(item, curX, curY)) {
+                set(prevX, prevY);
+                return;
+            }
+            moveX = restX;
+            moveY = restY;
+        }
+        set(curX, curY);
+    }
+
+    private void set(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Sets the result to the position (x,y) if the item does not collide there, and to the
+     * fallback position otherwise.
+     */
+    private void checked(BoundedItem item, float x, float y, float fallbackX, float fallbackY) {
+        if (collides(item, x, y))
+            set(fallbackX, fallbackY);
+        else
+            set(x, y);
+    }
+
+    /**
+     * Checks whether the item collides with any other item when placed at (x,y).
+     */
+    private boolean collides(BoundedItem item, float x, float y) {
+        return finder.find(item.getLevel(), item, x, y, item.getRadius(), x, y);
+    }
+
+    /**
+     * Computes the unit normal of the contact of a circle centered at (x,y) with the specified item,
+     * pointing away from the item, and stores it in {@linkplain #normalX} and {@linkplain #normalY}.
+     *
+     * @return false if the normal is undefined
+     */
+    private boolean contactNormal(Item other, float x, float y) {
+        switch (other.getShapeKind()) {
+            case CIRCLE -> {
+                final BoundedItem bounded = (BoundedItem) other;
+                closest[0] = bounded.getX();
+                closest[1] = bounded.getY();
+            }
+            case POLYLINE -> {
+                if (!((Maze) other).getSegmentBatch().closestPoint(x, y, closest))
+                    return false;
+            }
+        }
+        final float nx = x - closest[0];
+        final float ny = y - closest[1];
+        final float len = sqrt(nx * nx + ny * ny);
+        if (len <= 0f)
+            return false;
+        normalX = nx / len;
+        normalY = ny / len;
+        return true;
+    }
+}
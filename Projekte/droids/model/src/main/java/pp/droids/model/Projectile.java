@@ -1,6 +1,6 @@
 package pp.droids.model;
 
-import pp.droids.model.collisions.CollisionPredicate;
+import pp.droids.model.collisions.Impact;
 import pp.util.FloatPoint;
 import pp.util.Position;
 
@@ -32,6 +32,13 @@ public class Projectile extends BoundedItem {
         super(model, boundingRadius);
     }
 
+    /**
+     * Returns the specific speed.
+     */
+    float getSpeed() {
+        return speed;
+    }
+
     /**
      * Sets the specific speed.
      *
@@ -72,21 +79,27 @@ public class Projectile extends BoundedItem {
             final Position to = new FloatPoint(getX() + distance * cos(getRotation()),
                                                getY() + distance * sin(getRotation()));
             processHits(to);
-            setPos(to);
+            if (!isDestroyed())
+                setPos(to);
         }
     }
 
     /**
-     * Checks if the projectile hits an obstacle or an enemy. Projectiles are destroyed that way.
+     * Checks if the projectile hits an obstacle or an enemy on its way to the specified position.
+     * Only the item that is hit first along the way is hit, and the projectile is destroyed and
+     * placed at the point of impact in that case. The projectile is only tested against items
+     * close to its path (see {@linkplain MapLevel#findFirstImpact(Item, float, float, float, float, float)}).
      *
      * @param to the position where this projectile goes in this time step
      */
     public void processHits(Position to) {
-        for (Item item : getLevel())
-            if (CollisionPredicate.INSTANCE.test(item) && this.overlapsWhenMoving(to, item)) {
-                item.hitBy(this);
-                destroy();
-            }
+        final Impact impact = getLevel().findFirstImpact(this, getX(), getY(), getRadius(), to.getX(), to.getY());
+        if (impact != null) {
+            setPos(getX() + impact.time() * (to.getX() - getX()),
+                   getY() + impact.time() * (to.getY() - getY()));
+            impact.item().hitBy(this);
+            destroy();
+        }
     }
 
     /**
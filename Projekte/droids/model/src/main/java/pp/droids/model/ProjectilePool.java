@@ -0,0 +1,289 @@
+package pp.droids.model;
+
+import java.util.Arrays;
+
+import static pp.util.FloatMath.cos;
+import static pp.util.FloatMath.sin;
+
+/**
+ * A pool of projectiles stored as a structure of arrays, i.e., one primitive array per attribute
+ * instead of one {@linkplain Projectile} object per projectile. Firing a projectile just fills the
+ * next free slot, and removing a projectile moves the last projectile into its slot, so the pool
+ * does not create any objects while the game is running once its arrays are large enough.
+ * All projectiles are moved in one tight loop over the arrays when the pool is updated.
+ * <p>
+ * Pooled projectiles are not items of the map. They hit the same items as projectiles do
+ * (see {@linkplain MapLevel#findFirstImpact(Item, float, float, float, float, float)}), which
+ * are searched by an {@linkplain ImpactFinder} owned by the pool. When an item is hit, the shooter
+ * that has fired the projectile is passed as the hitting item (see {@linkplain Item#hitBy(Item)}),
+ * so hits do not create any objects either, and the hit events carry the id of the shooter.
+ * The pool is used instead of projectile items if {@linkplain DroidsConfig#isPooledProjectiles()}
+ * is true.
+ */
+public class ProjectilePool {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int size;
+    private float[] x = new float[INITIAL_CAPACITY];
+    private float[] y = new float[INITIAL_CAPACITY];
+    private float[] prevX = new float[INITIAL_CAPACITY];
+    private float[] prevY = new float[INITIAL_CAPACITY];
+    private float[] rotation = new float[INITIAL_CAPACITY];
+    private float[] dirX = new float[INITIAL_CAPACITY];
+    private float[] dirY = new float[INITIAL_CAPACITY];
+    private float[] speed = new float[INITIAL_CAPACITY];
+    private float[] lifeTime = new float[INITIAL_CAPACITY];
+    private float[] radius = new float[INITIAL_CAPACITY];
+    private float[] toX = new float[INITIAL_CAPACITY];
+    private float[] toY = new float[INITIAL_CAPACITY];
+    private Shooter[] owner = new Shooter[INITIAL_CAPACITY];
+    private MapLevel[] level = new MapLevel[INITIAL_CAPACITY];
+    private final ImpactFinder finder = new ImpactFinder();
+
+    /**
+     * Returns the number of projectiles in this pool. The projectiles occupy the
+     * slots 0 to size() - 1. Slots of projectiles change when projectiles are removed.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the x-coordinate of the projectile in the specified slot.
+     *
+     * @param i the slot
+     */
+    public float getX(int i) {
+        return x[i];
+    }
+
+    /**
+     * Returns the y-coordinate of the projectile in the specified slot.
+     *
+     * @param i the slot
+     */
+    public float getY(int i) {
+        return y[i];
+    }
+
+    /**
+     * Returns the x-coordinate of the projectile in the specified slot before the last update,
+     * or its start position if the pool has not been updated since it has been fired. Views
+     * interpolate between this position and the current one.
+     *
+     * @param i the slot
+     */
+    public float getPrevX(int i) {
+        return prevX[i];
+    }
+
+    /**
+     * Returns the y-coordinate of the projectile in the specified slot before the last update,
+     * or its start position if the pool has not been updated since it has been fired.
+     *
+     * @param i the slot
+     */
+    public float getPrevY(int i) {
+        return prevY[i];
+    }
+
+    /**
+     * Returns the rotation, i.e., the direction of flight of the projectile in the specified slot.
+     *
+     * @param i the slot
+     */
+    public float getRotation(int i) {
+        return rotation[i];
+    }
+
+    /**
+     * Returns the bounding radius of the projectile in the specified slot.
+     *
+     * @param i the slot
+     */
+    public float getRadius(int i) {
+        return radius[i];
+    }
+
+    /**
+     * Returns the remaining lifetime of the projectile in the specified slot.
+     *
+     * @param i the slot
+     */
+    public float getLifeTime(int i) {
+        return lifeTime[i];
+    }
+
+    /**
+     * Returns the speed of the projectile in the specified slot.
+     *
+     * @param i the slot
+     */
+    float getSpeed(int i) {
+        return speed[i];
+    }
+
+    /**
+     * Returns the shooter that has fired the projectile in the specified slot.
+     *
+     * @param i the slot
+     */
+    public Shooter getOwner(int i) {
+        return owner[i];
+    }
+
+    /**
+     * Returns the level of the projectile in the specified slot.
+     *
+     * @param i the slot
+     */
+    public MapLevel getLevel(int i) {
+        return level[i];
+    }
+
+    /**
+     * Adds a new projectile to this pool.
+     *
+     * @param owner    the shooter that fires the projectile
+     * @param x        the x-coordinate of the start position
+     * @param y        the y-coordinate of the start position
+     * @param rotation the direction of flight
+     * @param speed    the speed
+     * @param lifeTime the time in seconds until the projectile vanishes
+     * @param radius   the bounding radius
+     */
+    public void spawn(Shooter owner, float x, float y, float rotation, float speed, float lifeTime, float radius) {
+        add(owner, owner.getLevel(), x, y, x, y, rotation, speed, lifeTime, radius);
+    }
+
+    /**
+     * Adds a projectile to this pool, e.g., when a saved state is restored.
+     *
+     * @param owner    the shooter that has fired the projectile
+     * @param level    the level of the projectile
+     * @param x        the x-coordinate of the current position
+     * @param y        the y-coordinate of the current position
+     * @param prevX    the x-coordinate of the position before the last update
+     * @param prevY    the y-coordinate of the position before the last update
+     * @param rotation the direction of flight
+     * @param speed    the speed
+     * @param lifeTime the remaining lifetime in seconds
+     * @param radius   the bounding radius
+     * @see MapStateFormat
+     */
+    void add(Shooter owner, MapLevel level, float x, float y, float prevX, float prevY, float rotation,
+             float speed, float lifeTime, float radius) {
+        if (size == this.x.length)
+            grow();
+        final int i = size++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.prevX[i] = prevX;
+        this.prevY[i] = prevY;
+        this.rotation[i] = rotation;
+        this.dirX[i] = cos(rotation);
+        this.dirY[i] = sin(rotation);
+        this.speed[i] = speed;
+        this.lifeTime[i] = lifeTime;
+        this.radius[i] = radius;
+        this.owner[i] = owner;
+        this.level[i] = level;
+    }
+
+    /**
+     * Removes all projectiles from this pool.
+     */
+    public void clear() {
+        Arrays.fill(owner, 0, size, null);
+        Arrays.fill(level, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Updates all projectiles of this pool. The first pass computes the target positions of all
+     * projectiles. The second pass checks each projectile for hits on its way to its target
+     * position and removes projectiles that have hit an item or whose lifetime has passed.
+     *
+     * @param delta time in seconds since the last update call
+     */
+    public void update(float delta) {
+        final int n = size;
+        for (int i = 0; i < n; i++) {
+            lifeTime[i] -= delta;
+            final float distance = speed[i] * delta;
+            toX[i] = x[i] + distance * dirX[i];
+            toY[i] = y[i] + distance * dirY[i];
+        }
+
+        int i = 0;
+        while (i < size) {
+            if (lifeTime[i] <= 0f || processHit(i))
+                remove(i);
+            else {
+                prevX[i] = x[i];
+                prevY[i] = y[i];
+                x[i] = toX[i];
+                y[i] = toY[i];
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Checks whether the projectile in the specified slot hits an item on its way to its target
+     * position and lets the item that is hit first know about it. The shooter that has fired the
+     * projectile is passed as the hitting item.
+     *
+     * @param i the slot
+     * @return true if an item has been hit
+     */
+    private boolean processHit(int i) {
+        if (!finder.find(level[i], null, x[i], y[i], radius[i], toX[i], toY[i]))
+            return false;
+        finder.getItem().hitBy(owner[i]);
+        return true;
+    }
+
+    /**
+     * Removes the projectile in the specified slot by moving the last projectile into this slot.
+     *
+     * @param i the slot
+     */
+    private void remove(int i) {
+        final int last = --size;
+        x[i] = x[last];
+        y[i] = y[last];
+        prevX[i] = prevX[last];
+        prevY[i] = prevY[last];
+        rotation[i] = rotation[last];
+        dirX[i] = dirX[last];
+        dirY[i] = dirY[last];
+        speed[i] = speed[last];
+        lifeTime[i] = lifeTime[last];
+        radius[i] = radius[last];
+        toX[i] = toX[last];
+        toY[i] = toY[last];
+        owner[i] = owner[last];
+        level[i] = level[last];
+        owner[last] = null;
+        level[last] = null;
+    }
+
+    private void grow() {
+        final int capacity = 2 * x.length;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        rotation = Arrays.copyOf(rotation, capacity);
+        dirX = Arrays.copyOf(dirX, capacity);
+        dirY = Arrays.copyOf(dirY, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        lifeTime = Arrays.copyOf(lifeTime, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        toX = Arrays.copyOf(toX, capacity);
+        toY = Arrays.copyOf(toY, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+        level = Arrays.copyOf(level, capacity);
+    }
+}
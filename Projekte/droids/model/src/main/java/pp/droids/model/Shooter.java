@@ -1,5 +1,6 @@
 package pp.droids.model;
 
+import pp.droids.notifications.EventType;
 import pp.droids.notifications.ShooterFiredEvent;
 
 import static pp.util.FloatMath.cos;
@@ -77,21 +78,41 @@ public abstract class Shooter extends FlagCaptor {
         projectile.setSpeed(PROJECTILE_SPEED);
         projectile.setRotation(getRotation());
         projectile.setLifeTime(PROJECTILE_LIFE_TIME);
-        getModel().notifyListeners(new ShooterFiredEvent(this, projectile));
+        getModel().getEventRing().publish(EventType.SHOOTER_FIRED, getId(), -1, getX(), getY());
+        if (getModel().hasGameEventListeners(ShooterFiredEvent.class))
+            getModel().notifyListeners(new ShooterFiredEvent(this, projectile));
         return projectile;
     }
 
     /**
      * Lets the item fire a projectile if it is not reloading. The projectile is
-     * created by calling method {@linkplain Shooter#makeProjectile()}
+     * created by calling method {@linkplain Shooter#makeProjectile()}, or it is added to the
+     * projectile pool of the map if {@linkplain DroidsConfig#isPooledProjectiles()} is true.
      */
     public void fire() {
         if (!isReloading()) {
             startReloading();
-            getModel().getDroidsMap().register(makeProjectile(), getLevel());
+            if (getModel().getConfig().isPooledProjectiles())
+                firePooled();
+            else
+                getModel().getDroidsMap().register(makeProjectile(), getLevel());
         }
     }
 
+    /**
+     * Adds a projectile to the projectile pool of the map. Pooled shots are only published to the
+     * event ring of the model (see {@linkplain DroidsModel#getEventRing()}) and not by a
+     * {@linkplain ShooterFiredEvent}, so firing does not create any objects.
+     */
+    private void firePooled() {
+        getModel().getDroidsMap().getProjectilePool().spawn(this,
+                                                           getX() + PROJECTILE_START_DIST * cos(getRotation()),
+                                                           getY() + PROJECTILE_START_DIST * sin(getRotation()),
+                                                           getRotation(), PROJECTILE_SPEED, PROJECTILE_LIFE_TIME,
+                                                           PROJECTILE_BOUNDING_RADIUS);
+        getModel().getEventRing().publish(EventType.SHOOTER_FIRED, getId(), -1, getX(), getY());
+    }
+
     /**
      * Starts the reloading process.
      */
@@ -108,6 +129,25 @@ public abstract class Shooter extends FlagCaptor {
         return remainingReloadTime > 0f;
     }
 
+    /**
+     * Returns the time in seconds until this item has finished reloading, which is not positive
+     * if it is not reloading.
+     */
+    float getRemainingReloadTime() {
+        return remainingReloadTime;
+    }
+
+    /**
+     * Sets the time in seconds until this item has finished reloading, e.g., when a saved state
+     * is restored.
+     *
+     * @param remainingReloadTime the remaining time
+     * @see MapStateFormat
+     */
+    void setRemainingReloadTime(float remainingReloadTime) {
+        this.remainingReloadTime = remainingReloadTime;
+    }
+
     /**
      * Updates the item
      *
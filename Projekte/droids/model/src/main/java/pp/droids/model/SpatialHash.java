@@ -0,0 +1,213 @@
+package pp.droids.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static pp.util.FloatMath.floor;
+
+/**
+ * A uniform grid of square cells that maps each cell to the bounded items whose center is
+ * in this cell. The grid allows to find all items that are close to a position without
+ * iterating over all items. Items are put into their cells by their current position, so
+ * {@linkplain #moved(BoundedItem, float, float)} must be called whenever an item moves.
+ * Each item knows the grid containing it (see {@linkplain BoundedItem#spatialHash}).
+ * <p>
+ * The cells are kept in an open addressing hash table with primitive keys, and a cell is kept
+ * when it becomes empty, so neither queries nor moving items create any objects once every
+ * cell visited by items exists.
+ */
+class SpatialHash {
+    /**
+     * The default side length of the cells.
+     */
+    static final float CELL_SIZE = 2f;
+
+    private final float cellSize;
+    private long[] keys = new long[64];
+    private List<BoundedItem>[] cells = newCells(64);
+    private int numCells;
+
+    /**
+     * The maximal radius of all items that have ever been added. Items whose bounding
+     * circle reaches into a queried area may have their center in a neighbouring cell.
+     */
+    private float maxRadius;
+
+    /**
+     * Creates an empty grid with the specified cell size.
+     *
+     * @param cellSize the side length of the cells
+     */
+    SpatialHash(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds the specified item to the cell containing its current position.
+     *
+     * @param item the item to add
+     */
+    void add(BoundedItem item) {
+        maxRadius = Math.max(maxRadius, item.getRadius());
+        cellFor(key(item.getX(), item.getY())).add(item);
+        item.spatialHash = this;
+    }
+
+    /**
+     * Removes the specified item from the cell containing the specified position.
+     *
+     * @param item the item to remove
+     * @param x    the x-coordinate of the position where the item has been added or moved to
+     * @param y    the y-coordinate of the position where the item has been added or moved to
+     * @return true if the item has been contained in the cell
+     */
+    boolean remove(BoundedItem item, float x, float y) {
+        final List<BoundedItem> cell = cell(key(x, y));
+        if (cell == null) return false;
+        for (int i = 0; i < cell.size(); i++)
+            if (cell.get(i) == item) {
+                cell.remove(i);
+                item.spatialHash = null;
+                return true;
+            }
+        return false;
+    }
+
+    /**
+     * Moves the specified item, which must be contained in this grid, to the cell
+     * containing its current position.
+     *
+     * @param item the item that has moved
+     * @param oldX the x-coordinate of the item before moving
+     * @param oldY the y-coordinate of the item before moving
+     */
+    void moved(BoundedItem item, float oldX, float oldY) {
+        if (key(oldX, oldY) != key(item.getX(), item.getY()) && remove(item, oldX, oldY))
+            add(item);
+    }
+
+    /**
+     * Returns the position of the specified item in the cell containing its current position,
+     * or -1 if it is not contained in this cell. Items that are added to a cell later come after
+     * the items already contained in it.
+     *
+     * @param item the item
+     */
+    int indexInCell(BoundedItem item) {
+        final List<BoundedItem> cell = cell(key(item.getX(), item.getY()));
+        if (cell != null)
+            for (int i = 0; i < cell.size(); i++)
+                if (cell.get(i) == item)
+                    return i;
+        return -1;
+    }
+
+    /**
+     * Returns whether there is an item satisfying the specified predicate among the items
+     * whose bounding circle may intersect the circle with the specified center and radius.
+     *
+     * @param x      the x-coordinate of the center
+     * @param y      the y-coordinate of the center
+     * @param radius the radius
+     * @param pred   the predicate
+     */
+    boolean anyMatch(float x, float y, float radius, Predicate<? super BoundedItem> pred) {
+        final float range = radius + maxRadius;
+        final int minX = cell(x - range);
+        final int maxX = cell(x + range);
+        final int minY = cell(y - range);
+        final int maxY = cell(y + range);
+        for (int cx = minX; cx <= maxX; cx++)
+            for (int cy = minY; cy <= maxY; cy++) {
+                final List<BoundedItem> cell = cell(key(cx, cy));
+                if (cell != null)
+                    for (int i = 0; i < cell.size(); i++)
+                        if (pred.test(cell.get(i)))
+                            return true;
+            }
+        return false;
+    }
+
+    /**
+     * Performs the specified action for each item whose bounding circle may intersect the
+     * circle with the specified center and radius. The action must not move any item.
+     *
+     * @param x      the x-coordinate of the center
+     * @param y      the y-coordinate of the center
+     * @param radius the radius
+     * @param action the action
+     */
+    void forEach(float x, float y, float radius, Consumer<? super BoundedItem> action) {
+        anyMatch(x, y, radius, item -> {
+            action.accept(item);
+            return false;
+        });
+    }
+
+    /**
+     * Returns the cell with the specified key, or null if there is no such cell.
+     */
+    private List<BoundedItem> cell(long key) {
+        final int mask = keys.length - 1;
+        for (int i = slot(key, mask); cells[i] != null; i = (i + 1) & mask)
+            if (keys[i] == key)
+                return cells[i];
+        return null;
+    }
+
+    /**
+     * Returns the cell with the specified key and creates it if there is no such cell.
+     */
+    private List<BoundedItem> cellFor(long key) {
+        final List<BoundedItem> cell = cell(key);
+        if (cell != null) return cell;
+        if (2 * (numCells + 1) > keys.length)
+            rehash(2 * keys.length);
+        final List<BoundedItem> newCell = new ArrayList<>(4);
+        insert(key, newCell);
+        numCells++;
+        return newCell;
+    }
+
+    private void insert(long key, List<BoundedItem> cell) {
+        final int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (cells[i] != null)
+            i = (i + 1) & mask;
+        keys[i] = key;
+        cells[i] = cell;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = keys;
+        final List<BoundedItem>[] oldCells = cells;
+        keys = new long[capacity];
+        cells = newCells(capacity);
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldCells[i] != null)
+                insert(oldKeys[i], oldCells[i]);
+    }
+
+    private static int slot(long key, int mask) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<BoundedItem>[] newCells(int capacity) {
+        return (List<BoundedItem>[]) new List[capacity];
+    }
+
+    private int cell(float coord) {
+        return (int) floor(coord / cellSize);
+    }
+
+    private long key(float x, float y) {
+        return key(cell(x), cell(y));
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,289 @@
+package pp.droids.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spreads the thinking of items across updates so that it stays within a time budget per update
+ * (see {@linkplain DroidsConfig#getThinkBudget()}). Items that must think in every update, like
+ * the droid, always think. Items whose thinking may be deferred (see
+ * {@linkplain Item#isThinkingDeferrable()}), like the dog and the enemies, are selected by priority
+ * until the estimated cost of the selected items exceeds the budget, but at least one item is
+ * selected in each update.
+ * <p>
+ * The priority of an item is the time since it has last thought, weighted by its importance, which
+ * decreases with its distance to the droid. Hence, items near the droid think more often, but every
+ * item gets its turn eventually. The cost of an item is the elapsed wall-clock time of its last
+ * thoughts measured by {@linkplain System#nanoTime()}, smoothed over several updates. Hence, the
+ * cost includes time when the thinking thread has not been running. An item that thinks receives
+ * the time since its last thoughts as the time argument of {@linkplain Item#think(float)}.
+ * <p>
+ * The state of each item is stored in arrays indexed by its slot in the {@linkplain ItemStore}.
+ * The arrays and lists used for selecting items are reused, so a scheduler does not create any
+ * objects in an update once they are large enough.
+ */
+public class ThinkScheduler {
+    /**
+     * The distance to the droid at which the importance of an item is halved.
+     */
+    static final float IMPORTANCE_DISTANCE = 5f;
+
+    /**
+     * The importance of items in other levels than the droid's level.
+     */
+    static final float OTHER_LEVEL_IMPORTANCE = 0.1f;
+
+    /**
+     * The weight of the latest measurement when smoothing the cost of an item.
+     */
+    private static final float COST_SMOOTHING = 0.25f;
+
+    private final float budget;
+    private double time;
+    private int[] handles = new int[0];
+    private double[] lastThought = new double[0];
+    private float[] elapsed = new float[0];
+    private float[] cost = new float[0];
+    private float[] priority = new float[0];
+    private final List<Item> selected = new ArrayList<>();
+    private final List<Item> deferred = new ArrayList<>();
+    private final Comparator<Item> byPriority =
+            (a, b) -> Float.compare(priority[b.getSlot()], priority[a.getSlot()]);
+    private int numDeferred;
+    private int numSelected;
+    private float selectedCost;
+    private int[] selectedIds = new int[0];
+    private int[] forcedIds;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param budget the time in seconds per update for deferrable thinking; a non-positive
+     *               value means that all items think in every update
+     */
+    ThinkScheduler(float budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Returns true if this scheduler limits the thinking of deferrable items.
+     */
+    public boolean isLimited() {
+        return budget > 0f;
+    }
+
+    /**
+     * Returns the number of deferrable items in the last update.
+     */
+    public int getNumDeferred() {
+        return numDeferred;
+    }
+
+    /**
+     * Returns the number of deferrable items that have been selected in the last update.
+     */
+    public int getNumSelected() {
+        return numSelected;
+    }
+
+    /**
+     * Returns the estimated time in seconds of the items selected in the last update.
+     */
+    public float getSelectedCost() {
+        return selectedCost;
+    }
+
+    /**
+     * Returns the entity ids of the deferrable items that have been selected in the last update,
+     * in the order of their selection.
+     */
+    public int[] getSelectedIds() {
+        return Arrays.copyOf(selectedIds, numSelected);
+    }
+
+    /**
+     * Makes the next update select exactly the deferrable items with the specified entity ids
+     * instead of selecting items by priority and cost, e.g., when a recorded game is replayed.
+     * Ids of items that are not contained in the map are ignored.
+     *
+     * @param ids the ids as returned by {@linkplain #getSelectedIds()} in the recorded game
+     */
+    public void force(int[] ids) {
+        forcedIds = ids.clone();
+    }
+
+    /**
+     * Returns the items that shall think in the current update, i.e., all items that must think
+     * in every update, followed by the selected deferrable items in the order of their priority.
+     * The returned list is reused by the next call.
+     *
+     * @param items all items of the map
+     * @param droid the droid, or null if there is none
+     * @param delta time in seconds since the last update
+     */
+    List<Item> select(List<Item> items, Droid droid, float delta) {
+        time += delta;
+        if (!isLimited())
+            return items;
+        selected.clear();
+        deferred.clear();
+        for (int i = 0; i < items.size(); i++) {
+            final Item item = items.get(i);
+            if (item.isThinkingDeferrable() && item.getSlot() >= 0) {
+                track(item, delta);
+                deferred.add(item);
+            }
+            else
+                selected.add(item);
+        }
+        for (int i = 0; i < deferred.size(); i++) {
+            final Item item = deferred.get(i);
+            priority[item.getSlot()] = (float) (time - lastThought[item.getSlot()]) * importance(item, droid);
+        }
+        deferred.sort(byPriority);
+
+        numDeferred = deferred.size();
+        numSelected = 0;
+        selectedCost = 0f;
+        if (selectedIds.length < numDeferred)
+            selectedIds = new int[Math.max(numDeferred, 2 * selectedIds.length)];
+        if (forcedIds != null) {
+            selectForced();
+            return selected;
+        }
+        for (int i = 0; i < deferred.size(); i++) {
+            final Item item = deferred.get(i);
+            if (numSelected > 0 && selectedCost + cost[item.getSlot()] > budget)
+                break;
+            choose(item);
+        }
+        return selected;
+    }
+
+    /**
+     * Selects the deferrable items whose ids have been specified by {@linkplain #force(int[])}.
+     */
+    private void selectForced() {
+        final Map<Integer, Item> byId = new HashMap<>();
+        for (Item item : deferred)
+            byId.put(item.getId(), item);
+        for (int id : forcedIds) {
+            final Item item = byId.remove(id);
+            if (item != null)
+                choose(item);
+        }
+        forcedIds = null;
+    }
+
+    private void choose(Item item) {
+        final int slot = item.getSlot();
+        selected.add(item);
+        selectedCost += cost[slot];
+        selectedIds[numSelected++] = item.getId();
+        elapsed[slot] = (float) (time - lastThought[slot]);
+        lastThought[slot] = time;
+    }
+
+    /**
+     * Makes sure that there is state for the specified item. An item that is new in its slot
+     * counts as having thought in the previous update.
+     */
+    private void track(Item item, float delta) {
+        final int slot = item.getSlot();
+        if (slot >= handles.length) {
+            final int oldLength = handles.length;
+            final int newLength = Math.max(slot + 1, 2 * oldLength);
+            handles = Arrays.copyOf(handles, newLength);
+            lastThought = Arrays.copyOf(lastThought, newLength);
+            elapsed = Arrays.copyOf(elapsed, newLength);
+            cost = Arrays.copyOf(cost, newLength);
+            priority = Arrays.copyOf(priority, newLength);
+            Arrays.fill(handles, oldLength, newLength, -1);
+        }
+        if (handles[slot] != item.getHandle()) {
+            handles[slot] = item.getHandle();
+            lastThought[slot] = time - delta;
+            cost[slot] = 0f;
+        }
+    }
+
+    /**
+     * Returns the total time in seconds of all updates of this scheduler.
+     */
+    double getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the time of all updates up to the last thoughts of the specified item, or NaN if
+     * the item is not deferrable or if this scheduler is not limited.
+     *
+     * @param item an item of the map
+     */
+    double getLastThought(Item item) {
+        final int slot = item.getSlot();
+        if (slot < 0 || slot >= handles.length || handles[slot] != item.getHandle())
+            return Double.NaN;
+        return lastThought[slot];
+    }
+
+    /**
+     * Restores the time of all updates and the times of the last thoughts of the specified items,
+     * e.g., when a saved state is restored. NaN times are ignored.
+     *
+     * @param time         the time as returned by {@linkplain #getTime()}
+     * @param items        items of the map
+     * @param lastThoughts the times as returned by {@linkplain #getLastThought(Item)} for each item
+     * @see MapStateFormat
+     */
+    void restore(double time, List<Item> items, double[] lastThoughts) {
+        this.time = time;
+        for (int i = 0; i < items.size(); i++) {
+            final Item item = items.get(i);
+            if (Double.isNaN(lastThoughts[i]) || item.getSlot() < 0)
+                continue;
+            track(item, 0f);
+            lastThought[item.getSlot()] = lastThoughts[i];
+        }
+    }
+
+    /**
+     * Returns the importance of the specified item, which is 1 for items at the droid's position
+     * and decreases with the distance to the droid.
+     */
+    private float importance(Item item, Droid droid) {
+        if (droid == null || !(item instanceof BoundedItem bounded))
+            return 1f;
+        if (bounded.getLevel() != droid.getLevel())
+            return OTHER_LEVEL_IMPORTANCE;
+        return 1f / (1f + bounded.distanceTo(droid) / IMPORTANCE_DISTANCE);
+    }
+
+    /**
+     * Lets the specified items think. If this scheduler is limited, each deferrable item receives
+     * the time since its last thoughts, and the elapsed time of its thinking is measured. This
+     * method may be called concurrently for disjoint lists of items.
+     *
+     * @param items the items selected by {@linkplain #select(List, Droid, float)}
+     * @param delta time in seconds since the last update
+     */
+    void think(List<Item> items, float delta) {
+        for (int i = 0; i < items.size(); i++) {
+            final Item item = items.get(i);
+            final int slot = item.getSlot();
+            if (!isLimited() || !item.isThinkingDeferrable() || slot < 0 || slot >= handles.length
+                || handles[slot] != item.getHandle()) {
+                item.think(delta);
+                continue;
+            }
+            final long start = System.nanoTime();
+            item.think(elapsed[slot]);
+            final float measured = 1e-9f * (System.nanoTime() - start);
+            cost[slot] = cost[slot] == 0f ? measured : cost[slot] + COST_SMOOTHING * (measured - cost[slot]);
+        }
+    }
+}
@@ -12,8 +12,6 @@ import pp.droids.model.Projectile;
 import pp.droids.model.Rocket;
 import pp.droids.model.Visitor;
 
-import static pp.util.FloatMath.sqr;
-
 class BoundedItemOverlapVisitor implements Visitor<Boolean> {
     private final BoundedItem item;
 
@@ -22,10 +20,7 @@ class BoundedItemOverlapVisitor implements Visitor<Boolean> {
     }
 
     private boolean overlap(BoundedItem other) {
-        return item != other &&
-               !item.isDestroyed() &&
-               !other.isDestroyed() &&
-               item.distanceSquaredTo(other) <= sqr(item.getRadius() + other.getRadius());
+        return Narrowphase.circleCircle(item, other);
     }
 
     @Override
@@ -55,7 +50,7 @@ class BoundedItemOverlapVisitor implements Visitor<Boolean> {
 
     @Override
     public Boolean visit(Maze maze) {
-        return MazeOverlapVisitor.overlap(maze, item);
+        return Narrowphase.circlePolyline(item, maze);
     }
 
 
@@ -0,0 +1,13 @@
+package pp.droids.model.collisions;
+
+import pp.droids.model.Item;
+
+/**
+ * The item that is hit first by a moving circle together with the time of impact, i.e., the
+ * fraction of the path where the circle touches the item
+ * (see {@linkplain Narrowphase#timeOfImpact(Item, float, float, float, float, float, Item)}).
+ *
+ * @param item the item that is hit
+ * @param time the time of impact in [0,1]
+ */
+public record Impact(Item item, float time) {}
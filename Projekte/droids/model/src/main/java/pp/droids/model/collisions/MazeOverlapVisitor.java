@@ -11,17 +11,12 @@ import pp.droids.model.Obstacle;
 import pp.droids.model.Projectile;
 import pp.droids.model.Rocket;
 import pp.droids.model.Visitor;
-import pp.util.TypedSegment;
 
 class MazeOverlapVisitor implements Visitor<Boolean> {
     private final Maze maze;
 
     public static Boolean overlap(Maze maze, BoundedItem other) {
-        if (!maze.isDestroyed() && !other.isDestroyed())
-            for (TypedSegment cur : maze.getSegments())
-                if (cur.distanceTo(other) <= other.getRadius())
-                    return Boolean.TRUE;
-        return Boolean.FALSE;
+        return Narrowphase.circlePolyline(other, maze);
     }
 
     public MazeOverlapVisitor(Maze maze) {
@@ -12,11 +12,6 @@ import pp.droids.model.Projectile;
 import pp.droids.model.Rocket;
 import pp.droids.model.Visitor;
 import pp.util.Position;
-import pp.util.Segment;
-import pp.util.SegmentLike;
-import pp.util.TypedSegment;
-
-import static pp.util.FloatMath.sqr;
 
 class MoveBoundedItemVisitor implements Visitor<Boolean> {
     private final BoundedItem item;
@@ -28,12 +23,7 @@ class MoveBoundedItemVisitor implements Visitor<Boolean> {
     }
 
     private Boolean overlap(BoundedItem other) {
-        if (item != other &&
-            !item.isDestroyed() &&
-            !other.isDestroyed() &&
-            SegmentLike.distance(item, to, other) <= item.getRadius() + other.getRadius())
-            return Boolean.TRUE;
-        return Boolean.FALSE;
+        return Narrowphase.sweptCircleCircle(item, to, other);
     }
 
     @Override
@@ -63,14 +53,7 @@ class MoveBoundedItemVisitor implements Visitor<Boolean> {
 
     @Override
     public Boolean visit(Maze maze) {
-        if (item.isDestroyed() || maze.isDestroyed())
-            return Boolean.FALSE;
-        final Segment seg = new Segment(item, to);
-        final float dist2 = sqr(item.getRadius());
-        for (TypedSegment cur : maze.getSegments())
-            if (seg.minDistanceSquared(cur) <= dist2)
-                return Boolean.TRUE;
-        return Boolean.FALSE;
+        return Narrowphase.sweptCirclePolyline(item, to, maze);
     }
 
 
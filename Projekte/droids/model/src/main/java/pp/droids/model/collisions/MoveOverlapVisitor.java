@@ -12,6 +12,11 @@ import pp.droids.model.Rocket;
 import pp.droids.model.Visitor;
 import pp.util.Position;
 
+/**
+ * Visitor returning, for the visited item, a visitor that checks whether the visited item overlaps
+ * with another one when moving to a target position. The visitors are adapters of the pair tests in
+ * {@linkplain Narrowphase}, which should be used directly if the items need not be visited anyway.
+ */
 public class MoveOverlapVisitor implements Visitor<Visitor<Boolean>> {
     private final Position to;
 
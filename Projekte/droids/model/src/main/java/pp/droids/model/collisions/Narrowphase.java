@@ -0,0 +1,151 @@
+package pp.droids.model.collisions;
+
+import pp.droids.model.BoundedItem;
+import pp.droids.model.Item;
+import pp.droids.model.Maze;
+import pp.util.Position;
+import pp.util.SegmentLike;
+
+import static pp.util.FloatMath.sqr;
+
+/**
+ * Collision tests for pairs of items that select the test by the shape kinds of both items
+ * (see {@linkplain ShapeKind}) in a static dispatch table instead of a pair of visitors.
+ * The tests return primitive booleans and do not create any objects.
+ * Destroyed items never overlap, and an item never overlaps with itself.
+ */
+public final class Narrowphase {
+    private Narrowphase() { /* don't instantiate */ }
+
+    /**
+     * The pair tests. The test of a pair of items is found in the dispatch table by the shape kinds
+     * of both items.
+     */
+    private static final byte CIRCLE_CIRCLE = 0;
+    private static final byte CIRCLE_POLYLINE = 1;
+    private static final byte POLYLINE_CIRCLE = 2;
+    private static final byte NONE = 3;
+
+    private static final int KINDS = ShapeKind.values().length;
+    private static final byte[] DISPATCH = new byte[KINDS * KINDS];
+
+    static {
+        DISPATCH[index(ShapeKind.CIRCLE, ShapeKind.CIRCLE)] = CIRCLE_CIRCLE;
+        DISPATCH[index(ShapeKind.CIRCLE, ShapeKind.POLYLINE)] = CIRCLE_POLYLINE;
+        DISPATCH[index(ShapeKind.POLYLINE, ShapeKind.CIRCLE)] = POLYLINE_CIRCLE;
+        DISPATCH[index(ShapeKind.POLYLINE, ShapeKind.POLYLINE)] = NONE;
+    }
+
+    private static int index(ShapeKind a, ShapeKind b) {
+        return a.ordinal() * KINDS + b.ordinal();
+    }
+
+    /**
+     * Checks whether the specified items overlap.
+     *
+     * @param a an item
+     * @param b another item
+     */
+    public static boolean overlap(Item a, Item b) {
+        return switch (DISPATCH[index(a.getShapeKind(), b.getShapeKind())]) {
+            case CIRCLE_CIRCLE -> circleCircle((BoundedItem) a, (BoundedItem) b);
+            case CIRCLE_POLYLINE -> circlePolyline((BoundedItem) a, (Maze) b);
+            case POLYLINE_CIRCLE -> circlePolyline((BoundedItem) b, (Maze) a);
+            default -> false;
+        };
+    }
+
+    /**
+     * Checks whether item a overlaps with item b when a moves on a straight line from its
+     * current position to the specified position.
+     *
+     * @param a  the moving item
+     * @param to the target position of the moving item
+     * @param b  the other item
+     * @throws UnsupportedOperationException if the moving item is not a circle
+     */
+    public static boolean overlapWhenMoving(Item a, Position to, Item b) {
+        return switch (DISPATCH[index(a.getShapeKind(), b.getShapeKind())]) {
+            case CIRCLE_CIRCLE -> sweptCircleCircle((BoundedItem) a, to, (BoundedItem) b);
+            case CIRCLE_POLYLINE -> sweptCirclePolyline((BoundedItem) a, to, (Maze) b);
+            default -> throw new UnsupportedOperationException("cannot move a maze"); //NON-NLS
+        };
+    }
+
+    /**
+     * Returns the time of impact of a circle moving on a straight line from (x,y) to (toX,toY) with
+     * the specified item, i.e., the smallest fraction t in [0,1] of the path such that the circle
+     * touches the item, or {@linkplain Float#POSITIVE_INFINITY} if they do not touch at all. Hence,
+     * comparing the times of impact of several items yields the item that is hit first. The moving
+     * circle need not be represented by an item, e.g., if it is a projectile in a
+     * {@linkplain pp.droids.model.ProjectilePool}.
+     *
+     * @param a      the item represented by the moving circle, which never hits itself, or null
+     * @param x      x-coordinate of the start position of the center
+     * @param y      y-coordinate of the start position of the center
+     * @param radius the radius of the moving circle
+     * @param toX    x-coordinate of the target position of the center
+     * @param toY    y-coordinate of the target position of the center
+     * @param b      the other item
+     */
+    public static float timeOfImpact(Item a, float x, float y, float radius, float toX, float toY, Item b) {
+        if (a == b || b.isDestroyed() || (a != null && a.isDestroyed()))
+            return Float.POSITIVE_INFINITY;
+        return switch (DISPATCH[index(ShapeKind.CIRCLE, b.getShapeKind())]) {
+            case CIRCLE_CIRCLE -> {
+                final BoundedItem other = (BoundedItem) b;
+                yield SegmentLike.firstWithin(x, y, toX, toY, other.getX(), other.getY(), radius + other.getRadius());
+            }
+            case CIRCLE_POLYLINE -> ((Maze) b).getSegmentBatch().timeOfImpact(x, y, toX, toY, radius);
+            default -> Float.POSITIVE_INFINITY;
+        };
+    }
+
+    /**
+     * Checks whether the bounding circles of the specified items overlap.
+     *
+     * @param a a bounded item
+     * @param b another bounded item
+     */
+    public static boolean circleCircle(BoundedItem a, BoundedItem b) {
+        return a != b && !a.isDestroyed() && !b.isDestroyed() &&
+               a.distanceSquaredTo(b) <= sqr(a.getRadius() + b.getRadius());
+    }
+
+    /**
+     * Checks whether the bounding circle of the specified item touches a wall of the specified maze.
+     *
+     * @param a    a bounded item
+     * @param maze a maze
+     */
+    public static boolean circlePolyline(BoundedItem a, Maze maze) {
+        return !a.isDestroyed() && !maze.isDestroyed() &&
+               maze.getSegmentBatch().touches(a.getX(), a.getY(), a.getRadius());
+    }
+
+    /**
+     * Checks whether the bounding circles of the specified items overlap when item a moves on a
+     * straight line from its current position to the specified position.
+     *
+     * @param a  the moving bounded item
+     * @param to the target position of the moving item
+     * @param b  another bounded item
+     */
+    public static boolean sweptCircleCircle(BoundedItem a, Position to, BoundedItem b) {
+        return a != b && !a.isDestroyed() && !b.isDestroyed() &&
+               SegmentLike.distance(a, to, b) <= a.getRadius() + b.getRadius();
+    }
+
+    /**
+     * Checks whether the bounding circle of the specified item touches a wall of the specified maze
+     * when the item moves on a straight line from its current position to the specified position.
+     *
+     * @param a    the moving bounded item
+     * @param to   the target position of the moving item
+     * @param maze a maze
+     */
+    public static boolean sweptCirclePolyline(BoundedItem a, Position to, Maze maze) {
+        return !a.isDestroyed() && !maze.isDestroyed() &&
+               maze.getSegmentBatch().touches(a.getX(), a.getY(), to.getX(), to.getY(), a.getRadius());
+    }
+}
@@ -11,6 +11,11 @@ import pp.droids.model.Projectile;
 import pp.droids.model.Rocket;
 import pp.droids.model.Visitor;
 
+/**
+ * Visitor returning, for the visited item, a visitor that checks whether the visited item overlaps
+ * with another one. The visitors are adapters of the pair tests in {@linkplain Narrowphase}, which
+ * should be used directly if the items need not be visited anyway.
+ */
 public class OverlapVisitor implements Visitor<Visitor<Boolean>> {
     public static final OverlapVisitor INSTANCE = new OverlapVisitor();
 
@@ -0,0 +1,18 @@
+package pp.droids.model.collisions;
+
+/**
+ * The kinds of shapes of items as far as collision detection is concerned.
+ * The kind of an item determines the pair test used by {@linkplain Narrowphase}.
+ *
+ * @see pp.droids.model.Item#getShapeKind()
+ */
+public enum ShapeKind {
+    /**
+     * The item is a circle, i.e., a {@linkplain pp.droids.model.BoundedItem} with its bounding circle.
+     */
+    CIRCLE,
+    /**
+     * The item consists of line segments, i.e., a {@linkplain pp.droids.model.Maze}.
+     */
+    POLYLINE
+}
@@ -0,0 +1,452 @@
+package pp.droids.model.external;
+
+import pp.droids.model.DroidsMap;
+import pp.droids.model.DroidsModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A versioned binary format of game maps, which is equivalent to the JSON format of {@linkplain ExternalMap},
+ * but is loaded by mapping the file into memory (see {@linkplain FileChannel#map(FileChannel.MapMode, long, long)})
+ * instead of parsing text. All numbers are stored in little-endian byte order, and every section starts
+ * at a multiple of four bytes. A file consists of
+ * <ol>
+ *     <li>a header with the magic number {@code DMAP}, the version, the width and the height of the map,
+ *     the number of items, levels and strings,</li>
+ *     <li>a string table containing level names and item ids, each as its length followed by its
+ *     UTF-8 bytes, padded to a multiple of four bytes,</li>
+ *     <li>a section per level with the index of its name in the string table, a flat table of records
+ *     of {@value #RECORD_SIZE} bytes for its items, and a flat float array with the coordinates of its
+ *     mazes (see {@linkplain ExternalMaze#coords}).</li>
+ * </ol>
+ * Each record contains the type, the destroyed flag, the position of the item in the item list of the
+ * map, the id and the captured flag as string indices (-1 for none), position, angle, radius, lives, reload
+ * time, rocket target, and the offset and the number of the maze coordinates in the float array of the
+ * level. Fields that do not apply to the type of the item are 0. Converting a map from JSON to binary and
+ * back yields the same map.
+ */
+public class BinaryMapFormat {
+    /**
+     * The magic number "DMAP" at the beginning of each binary map file.
+     */
+    public static final int MAGIC = 0x50414D44;
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final short VERSION = 1;
+
+    /**
+     * The size of a single item record in bytes.
+     */
+    static final int RECORD_SIZE = 56;
+
+    private static final int HEADER_SIZE = 28;
+
+    private static final byte DROID = 1;
+    private static final byte ENEMY = 2;
+    private static final byte OBSTACLE = 3;
+    private static final byte ROCKET = 4;
+    private static final byte MAZE = 5;
+    private static final byte EXIT = 6;
+    private static final byte FLAG = 7;
+    private static final byte DOG = 8;
+
+    private BinaryMapFormat() { /* don't instantiate */ }
+
+    /**
+     * Returns true if the specified file starts with the magic number of a binary map.
+     *
+     * @param file a map file
+     * @throws IOException if any IO error occurs.
+     */
+    public static boolean isBinaryMap(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (magic.hasRemaining())
+                if (channel.read(magic) < 0)
+                    return false;
+            return magic.getInt(0) == MAGIC;
+        }
+    }
+
+    /**
+     * Writes the specified externalizable map into the specified binary file.
+     *
+     * @param map  an externalizable map
+     * @param file the binary file
+     * @throws IOException              if any IO error occurs.
+     * @throws IllegalArgumentException if an item of the map does not belong to any level
+     */
+    public static void write(ExternalMap map, File file) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(toBytes(map));
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                                                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+        }
+    }
+
+    /**
+     * Returns the binary representation of the specified externalizable map.
+     *
+     * @param map an externalizable map
+     * @throws IllegalArgumentException if an item of the map does not belong to any level
+     */
+    public static byte[] toBytes(ExternalMap map) {
+        final List<String> strings = new ArrayList<>();
+        final Map<String, Integer> stringIndex = new HashMap<>();
+        final Map<String, List<Integer>> levels = new LinkedHashMap<>();
+        for (int i = 0; i < map.items.size(); i++) {
+            final ExternalItem item = map.items.get(i);
+            if (item.level == null)
+                throw new IllegalArgumentException("item " + i + " does not belong to any level"); //NON-NLS
+            intern(item.level, strings, stringIndex);
+            intern(item.id, strings, stringIndex);
+            if (item instanceof ExternalShooter shooter)
+                intern(shooter.flag, strings, stringIndex);
+            levels.computeIfAbsent(item.level, l -> new ArrayList<>()).add(i);
+        }
+        int size = HEADER_SIZE;
+        for (String s : strings)
+            size += 4 + padded(s.getBytes(StandardCharsets.UTF_8).length);
+        for (List<Integer> indices : levels.values()) {
+            size += 12 + RECORD_SIZE * indices.size();
+            for (int i : indices)
+                if (map.items.get(i) instanceof ExternalMaze maze)
+                    size += 4 * maze.coords.length;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(map.width);
+        buffer.putInt(map.height);
+        buffer.putInt(map.items.size());
+        buffer.putInt(levels.size());
+        buffer.putInt(strings.size());
+        for (String s : strings) {
+            final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+            buffer.position(buffer.position() + padded(bytes.length) - bytes.length);
+        }
+        for (Map.Entry<String, List<Integer>> level : levels.entrySet()) {
+            final List<Integer> indices = level.getValue();
+            int numCoords = 0;
+            for (int i : indices)
+                if (map.items.get(i) instanceof ExternalMaze maze)
+                    numCoords += maze.coords.length;
+            buffer.putInt(stringIndex.get(level.getKey()));
+            buffer.putInt(indices.size());
+            buffer.putInt(numCoords);
+            final RecordWriter writer = new RecordWriter(buffer, stringIndex);
+            for (int i : indices) {
+                writer.index = i;
+                writer.accept(map.items.get(i));
+            }
+            for (int i : indices)
+                if (map.items.get(i) instanceof ExternalMaze maze)
+                    for (float c : maze.coords)
+                        buffer.putFloat(c);
+        }
+        return buffer.array();
+    }
+
+    private static void intern(String s, List<String> strings, Map<String, Integer> stringIndex) {
+        if (s != null && !stringIndex.containsKey(s)) {
+            stringIndex.put(s, strings.size());
+            strings.add(s);
+        }
+    }
+
+    private static int padded(int n) {
+        return (n + 3) & ~3;
+    }
+
+    /**
+     * Writes the record of each visited item.
+     */
+    private static class RecordWriter implements Visitor {
+        private final ByteBuffer buffer;
+        private final Map<String, Integer> stringIndex;
+        /**
+         * The position of the visited item in the item list of the map.
+         */
+        private int index;
+
+        /**
+         * The number of maze coordinates of the level written so far.
+         */
+        private int numCoords;
+
+        RecordWriter(ByteBuffer buffer, Map<String, Integer> stringIndex) {
+            this.buffer = buffer;
+            this.stringIndex = stringIndex;
+        }
+
+        private int string(String s) {
+            return s == null ? -1 : stringIndex.get(s);
+        }
+
+        private void write(byte type, ExternalItem item, String flag, float x, float y, float angle, float radius,
+                           int lives, float reloadTime, float targetX, float targetY, float[] coords) {
+            buffer.put(type);
+            buffer.put((byte) (item.destroyed ? 1 : 0));
+            buffer.putShort((short) 0);
+            buffer.putInt(index);
+            buffer.putInt(string(item.id));
+            buffer.putInt(string(flag));
+            buffer.putFloat(x);
+            buffer.putFloat(y);
+            buffer.putFloat(angle);
+            buffer.putFloat(radius);
+            buffer.putInt(lives);
+            buffer.putFloat(reloadTime);
+            buffer.putFloat(targetX);
+            buffer.putFloat(targetY);
+            buffer.putInt(coords == null ? 0 : numCoords);
+            buffer.putInt(coords == null ? 0 : coords.length);
+            if (coords != null)
+                numCoords += coords.length;
+        }
+
+        private void bounded(byte type, ExternalBoundedItem item) {
+            write(type, item, null, item.x, item.y, item.angle, item.radius, 0, 0f, 0f, 0f, null);
+        }
+
+        private void shooter(byte type, ExternalShooter item) {
+            write(type, item, item.flag, item.x, item.y, item.angle, item.radius, item.lives, item.reloadTime,
+                  0f, 0f, null);
+        }
+
+        @Override
+        public void visit(ExternalDroid item) {
+            shooter(DROID, item);
+        }
+
+        @Override
+        public void visit(ExternalEnemy item) {
+            shooter(ENEMY, item);
+        }
+
+        @Override
+        public void visit(ExternalObstacle item) {
+            bounded(OBSTACLE, item);
+        }
+
+        @Override
+        public void visit(ExternalRocket item) {
+            write(ROCKET, item, null, item.x, item.y, item.angle, item.radius, 0, 0f, item.targetX, item.targetY, null);
+        }
+
+        @Override
+        public void visit(ExternalMaze item) {
+            write(MAZE, item, null, 0f, 0f, 0f, 0f, 0, 0f, 0f, 0f, item.coords);
+        }
+
+        @Override
+        public void visit(ExternalExit item) {
+            bounded(EXIT, item);
+        }
+
+        @Override
+        public void visit(ExternalFlag item) {
+            bounded(FLAG, item);
+        }
+
+        @Override
+        public void visit(ExternalDog item) {
+            bounded(DOG, item);
+        }
+    }
+
+    /**
+     * Reads the binary map file by mapping it into memory and returns the externalizable map.
+     *
+     * @param file a binary map file
+     * @return the externalizable map stored in the file
+     * @throws IOException if any IO error occurs or if the file doesn't contain a binary map.
+     */
+    public static ExternalMap read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the binary map in the specified buffer, starting at its current position, and
+     * returns the externalizable map.
+     *
+     * @param buffer a buffer containing a binary map
+     * @return the externalizable map stored in the buffer
+     * @throws IOException if the buffer doesn't contain a binary map.
+     */
+    public static ExternalMap read(ByteBuffer buffer) throws IOException {
+        final ByteBuffer in = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            if (in.getInt() != MAGIC)
+                throw new IOException("not a binary map"); //NON-NLS
+            final short version = in.getShort();
+            if (version != VERSION)
+                throw new IOException("unsupported binary map version " + version); //NON-NLS
+            in.getShort();
+            final ExternalMap map = new ExternalMap();
+            map.width = in.getInt();
+            map.height = in.getInt();
+            final int numItems = count(in, RECORD_SIZE, "items"); //NON-NLS
+            final int numLevels = count(in, 12, "levels"); //NON-NLS
+            final String[] strings = new String[count(in, 4, "strings")]; //NON-NLS
+            for (int i = 0; i < strings.length; i++) {
+                final byte[] bytes = new byte[count(in, 1, "string bytes")]; //NON-NLS
+                in.get(bytes);
+                in.position(in.position() + padded(bytes.length) - bytes.length);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            final ExternalItem[] items = new ExternalItem[numItems];
+            for (int l = 0; l < numLevels; l++) {
+                final String level = strings[in.getInt()];
+                final int numRecords = in.getInt();
+                final int numCoords = in.getInt();
+                if (numRecords < 0 || numCoords < 0 || numRecords > in.remaining() / RECORD_SIZE
+                    || numCoords > (in.remaining() - numRecords * RECORD_SIZE) / 4)
+                    throw new IOException("invalid level size " + numRecords + ", " + numCoords); //NON-NLS
+                final int recordStart = in.position();
+                final int coordStart = recordStart + numRecords * RECORD_SIZE;
+                for (int r = 0; r < numRecords; r++) {
+                    in.position(recordStart + r * RECORD_SIZE);
+                    final ExternalItem item = readRecord(in, strings, coordStart, numCoords);
+                    item.level = level;
+                    final int index = in.getInt(recordStart + r * RECORD_SIZE + 4);
+                    if (index < 0 || index >= numItems || items[index] != null)
+                        throw new IOException("invalid item index " + index); //NON-NLS
+                    items[index] = item;
+                }
+                in.position(coordStart + 4 * numCoords);
+            }
+            for (ExternalItem item : items) {
+                if (item == null)
+                    throw new IOException("missing items"); //NON-NLS
+                map.items.add(item);
+            }
+            return map;
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("corrupt binary map", e); //NON-NLS
+        }
+    }
+
+    /**
+     * Reads a number of elements of the specified size in bytes and checks that they fit
+     * into the rest of the buffer.
+     */
+    private static int count(ByteBuffer in, int size, String what) throws IOException {
+        final int n = in.getInt();
+        if (n < 0 || n > in.remaining() / size)
+            throw new IOException("invalid number of " + what + " " + n); //NON-NLS
+        return n;
+    }
+
+    private static ExternalItem readRecord(ByteBuffer in, String[] strings, int coordStart, int levelCoords)
+            throws IOException {
+        final byte type = in.get();
+        final boolean destroyed = in.get() != 0;
+        in.getShort();
+        in.getInt();
+        final int id = in.getInt();
+        final int flag = in.getInt();
+        final float x = in.getFloat();
+        final float y = in.getFloat();
+        final float angle = in.getFloat();
+        final float radius = in.getFloat();
+        final int lives = in.getInt();
+        final float reloadTime = in.getFloat();
+        final float targetX = in.getFloat();
+        final float targetY = in.getFloat();
+        final int coordOffset = in.getInt();
+        final int numCoords = in.getInt();
+        final ExternalItem item = switch (type) {
+            case DROID -> new ExternalDroid();
+            case ENEMY -> new ExternalEnemy();
+            case OBSTACLE -> new ExternalObstacle();
+            case ROCKET -> new ExternalRocket();
+            case MAZE -> new ExternalMaze();
+            case EXIT -> new ExternalExit();
+            case FLAG -> new ExternalFlag();
+            case DOG -> new ExternalDog();
+            default -> throw new IOException("invalid item type " + type); //NON-NLS
+        };
+        item.id = id < 0 ? null : strings[id];
+        item.destroyed = destroyed;
+        if (item instanceof ExternalBoundedItem bounded) {
+            bounded.x = x;
+            bounded.y = y;
+            bounded.angle = angle;
+            bounded.radius = radius;
+        }
+        if (item instanceof ExternalShooter shooter) {
+            shooter.lives = lives;
+            shooter.reloadTime = reloadTime;
+            shooter.flag = flag < 0 ? null : strings[flag];
+        }
+        if (item instanceof ExternalRocket rocket) {
+            rocket.targetX = targetX;
+            rocket.targetY = targetY;
+        }
+        if (item instanceof ExternalMaze maze) {
+            if (coordOffset < 0 || numCoords < 0 || numCoords > levelCoords - coordOffset)
+                throw new IOException("invalid maze coordinates " + coordOffset + ", " + numCoords); //NON-NLS
+            maze.coords = new float[numCoords];
+            in.position(coordStart + 4 * coordOffset);
+            in.asFloatBuffer().get(maze.coords);
+        }
+        return item;
+    }
+
+    /**
+     * Creates a game map from the specified binary map file.
+     *
+     * @param file  a binary map file
+     * @param model the game model that will be used for creating the map and all items
+     * @return the game map
+     * @throws IOException if any IO error occurs or if the file doesn't contain a valid map.
+     */
+    public static DroidsMap load(File file, DroidsModel model) throws IOException {
+        return read(file).toMap(model);
+    }
+
+    /**
+     * Converts the specified JSON map file into a binary map file.
+     *
+     * @param json   a JSON map file
+     * @param binary the binary map file to write
+     * @throws IOException if any IO error occurs.
+     */
+    public static void jsonToBinary(File json, File binary) throws IOException {
+        write(ExternalMap.readFromJsonFile(json), binary);
+    }
+
+    /**
+     * Converts the specified binary map file into a JSON map file.
+     *
+     * @param binary a binary map file
+     * @param json   the JSON map file to write
+     * @throws IOException if any IO error occurs.
+     */
+    public static void binaryToJson(File binary, File json) throws IOException {
+        read(binary).writeToFile(json);
+    }
+}
@@ -3,12 +3,9 @@ package pp.droids.model.external;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import pp.droids.model.BoundedItem;
-import pp.droids.model.Item;
 import pp.util.FloatPoint;
 import pp.util.Position;
 
-import java.util.Map;
-
 /**
  * Abstract class for representations of bounded items.
  */
@@ -30,8 +27,8 @@ abstract class ExternalBoundedItem extends ExternalItem {
      */
     ExternalBoundedItem() { /* empty */ }
 
-    ExternalBoundedItem(BoundedItem item, Map<Item, String> idMap) {
-        super(item, idMap);
+    ExternalBoundedItem(BoundedItem item) {
+        super(item);
         this.x = item.getX();
         this.y = item.getY();
         this.angle = item.getRotation();
@@ -6,8 +6,6 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonTypeInfo.As;
 import pp.droids.model.Item;
 
-import java.util.Map;
-
 /**
  * Abstract class for external items
  */
@@ -22,7 +20,8 @@ import java.util.Map;
         @JsonSubTypes.Type(value = ExternalRocket.class, name = "rocket"), //NON-NLS
         @JsonSubTypes.Type(value = ExternalFlag.class, name = "flag"), //NON-NLS
         @JsonSubTypes.Type(value = ExternalExit.class, name = "exit"), //NON-NLS
-        @JsonSubTypes.Type(value = ExternalMaze.class, name = "maze") //NON-NLS
+        @JsonSubTypes.Type(value = ExternalMaze.class, name = "maze"), //NON-NLS
+        @JsonSubTypes.Type(value = ExternalDog.class, name = "dog") //NON-NLS
 })
 abstract class ExternalItem {
     @JsonProperty
@@ -42,12 +41,23 @@ abstract class ExternalItem {
      */
     ExternalItem() { /* empty */ }
 
-    ExternalItem(Item item, Map<Item, String> idMap) {
-        id = idMap.get(item);
+    ExternalItem(Item item) {
+        id = idOf(item);
         level = item.getLevel().getName();
         this.destroyed = item.isDestroyed();
     }
 
+    /**
+     * Returns the id string of the specified item, which is derived from its entity id,
+     * or null if the item has never been contained in a map.
+     *
+     * @param item the item
+     * @see Item#getId()
+     */
+    static String idOf(Item item) {
+        return item.getId() < 0 ? null : "id" + item.getId(); //NON-NLS
+    }
+
     /**
      * Accept method of the visitor pattern.
      *
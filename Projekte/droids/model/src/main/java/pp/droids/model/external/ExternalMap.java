@@ -40,9 +40,9 @@ public class ExternalMap {
     List<ExternalItem> items = new ArrayList<>();
 
     /**
-     * Default constructor necessary for Jackson use.
+     * Default constructor necessary for Jackson and {@linkplain BinaryMapFormat}.
      */
-    private ExternalMap() { /* empty */ }
+    ExternalMap() { /* empty */ }
 
     /**
      * Creates an externalizable map from the specified game map.
@@ -76,6 +76,20 @@ public class ExternalMap {
         }
     }
 
+    /**
+     * Returns this externalizable map as a compact JSON String.
+     *
+     * @throws IOException if the map cannot be represented in JSON.
+     */
+    public String toJson() throws IOException {
+        try {
+            return new ObjectMapper().writeValueAsString(this);
+        }
+        catch (JsonProcessingException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+
     /**
      * Reads a JSON file and returns the externalizable map stored in the file.
      *
@@ -134,7 +148,7 @@ public class ExternalMap {
      * @return a game map.
      */
     public DroidsMap toMap(DroidsModel model) throws IOException {
-        final ToModelVisitor visitor = new ToModelVisitor(this, model);
+        final ToModelVisitor visitor = new ToModelVisitor(width, height, model);
         items.forEach(visitor::accept);
         visitor.connectItems();
         if (visitor.getErrors() != null)
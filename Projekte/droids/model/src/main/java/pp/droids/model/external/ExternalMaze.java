@@ -1,12 +1,9 @@
 package pp.droids.model.external;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
-import pp.droids.model.Item;
 import pp.droids.model.Maze;
 import pp.util.TypedSegment;
 
-import java.util.Map;
-
 /**
  * External representation of a maze
  */
@@ -18,17 +15,17 @@ class ExternalMaze extends ExternalItem {
     float[] coords;
 
     /**
-     * Default constructor just for Jackson
+     * Default constructor for Jackson and {@linkplain BinaryMapFormat}
      */
-    private ExternalMaze() { /* empty */ }
+    ExternalMaze() { /* empty */ }
 
     /**
      * Creates a new external maze based on an existing non-external maze.
      *
      * @param item the existing non-external maze to use.
      */
-    ExternalMaze(Maze item, Map<Item, String> idMap) {
-        super(item, idMap);
+    ExternalMaze(Maze item) {
+        super(item);
         this.coords = makeCoords(item);
     }
 
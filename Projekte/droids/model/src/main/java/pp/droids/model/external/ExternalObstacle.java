@@ -1,23 +1,20 @@
 package pp.droids.model.external;
 
-import pp.droids.model.Item;
 import pp.droids.model.Obstacle;
 
-import java.util.Map;
-
 /**
  * External representation of an obstacle.
  */
 class ExternalObstacle extends ExternalBoundedItem {
-    private ExternalObstacle() { /* default constructor just for Jackson */ }
+    ExternalObstacle() { /* default constructor for Jackson and BinaryMapFormat */ }
 
     /**
      * Creates a new external obstacle based on an existing non-external one.
      *
      * @param item the existing non-external obstacle
      */
-    ExternalObstacle(Obstacle item, Map<Item, String> idMap) {
-        super(item, idMap);
+    ExternalObstacle(Obstacle item) {
+        super(item);
     }
 
     @Override
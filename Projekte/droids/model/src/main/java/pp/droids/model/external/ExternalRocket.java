@@ -2,13 +2,10 @@ package pp.droids.model.external;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import pp.droids.model.Item;
 import pp.droids.model.Rocket;
 import pp.util.FloatPoint;
 import pp.util.Position;
 
-import java.util.Map;
-
 /**
  * External representation of a rocket.
  */
@@ -25,17 +22,17 @@ class ExternalRocket extends ExternalBoundedItem {
     float targetY;
 
     /**
-     * Default constructor just for Jackson
+     * Default constructor for Jackson and {@linkplain BinaryMapFormat}
      */
-    private ExternalRocket() { /* empty */ }
+    ExternalRocket() { /* empty */ }
 
     /**
      * Creates a new external rocket based on an existing non-external one.
      *
      * @param item the non-external rocket
      */
-    ExternalRocket(Rocket item, Map<Item, String> idMap) {
-        super(item, idMap);
+    ExternalRocket(Rocket item) {
+        super(item);
         this.targetX = item.getTarget().getX();
         this.targetY = item.getTarget().getY();
     }
@@ -2,11 +2,8 @@ package pp.droids.model.external;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import pp.droids.model.Item;
 import pp.droids.model.Shooter;
 
-import java.util.Map;
-
 /**
  * Abstract class for representations of shooters.
  */
@@ -35,10 +32,10 @@ abstract class ExternalShooter extends ExternalBoundedItem {
      */
     ExternalShooter() { /* empty */ }
 
-    protected ExternalShooter(Shooter item, Map<Item, String> idMap) {
-        super(item, idMap);
+    protected ExternalShooter(Shooter item) {
+        super(item);
         this.lives = item.getLives();
         this.reloadTime = item.getReloadTime();
-        this.flag = item.getCapturedFlag() == null ? null : idMap.get(item.getCapturedFlag());
+        this.flag = item.getCapturedFlag() == null ? null : idOf(item.getCapturedFlag());
     }
 }
@@ -0,0 +1,122 @@
+package pp.droids.model.external;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import pp.droids.model.DroidsMap;
+import pp.droids.model.DroidsModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates game maps from JSON documents in the format of {@linkplain ExternalMap} without binding
+ * the whole document first. The items are read one after the other by a streaming parser, and each
+ * of them is translated into a model item right away, i.e., at most one external item exists at any
+ * time. This keeps the peak memory of loading large maps close to the size of the resulting map.
+ * <p>
+ * The items can only be translated as soon as the width and the height of the map are known. If a
+ * document lists its items before these properties, which {@linkplain ExternalMap} never does, the
+ * items are collected first.
+ */
+public class StreamingMapLoader {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader ITEM_READER = MAPPER.readerFor(ExternalItem.class);
+
+    private StreamingMapLoader() { /* don't instantiate */ }
+
+    /**
+     * Creates a game map from the specified JSON file.
+     *
+     * @param file  a JSON file
+     * @param model the game model that will be used for creating the map and all items
+     * @return the game map
+     * @throws IOException if any IO error occurs or if the file doesn't contain a valid map.
+     */
+    public static DroidsMap load(File file, DroidsModel model) throws IOException {
+        return load(MAPPER.getFactory().createParser(file), model);
+    }
+
+    /**
+     * Creates a game map from the specified JSON stream. The stream is closed afterwards.
+     *
+     * @param stream a JSON stream
+     * @param model  the game model that will be used for creating the map and all items
+     * @return the game map
+     * @throws IOException if any IO error occurs or if the stream doesn't contain a valid map.
+     */
+    public static DroidsMap load(InputStream stream, DroidsModel model) throws IOException {
+        return load(MAPPER.getFactory().createParser(stream), model);
+    }
+
+    /**
+     * Creates a game map from the specified JSON String.
+     *
+     * @param string a JSON String
+     * @param model  the game model that will be used for creating the map and all items
+     * @return the game map
+     * @throws IOException if the String doesn't contain a valid map.
+     */
+    public static DroidsMap load(String string, DroidsModel model) throws IOException {
+        return load(MAPPER.getFactory().createParser(string), model);
+    }
+
+    private static DroidsMap load(JsonParser parser, DroidsModel model) throws IOException {
+        try (parser) {
+            if (parser.nextToken() != JsonToken.START_OBJECT)
+                throw new IOException("expected a map object at " + parser.getCurrentLocation()); //NON-NLS
+            Integer width = null;
+            Integer height = null;
+            ToModelVisitor visitor = null;
+            final List<ExternalItem> early = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "width" -> width = parser.getIntValue(); //NON-NLS
+                    case "height" -> height = parser.getIntValue(); //NON-NLS
+                    case "items" -> { //NON-NLS
+                        if (parser.currentToken() != JsonToken.START_ARRAY)
+                            throw new IOException("expected an array of items at " + parser.getCurrentLocation()); //NON-NLS
+                        if (width != null && height != null)
+                            visitor = new ToModelVisitor(width, height, model);
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            final ExternalItem item = ITEM_READER.readValue(parser);
+                            if (visitor != null)
+                                visitor.accept(item);
+                            else
+                                early.add(item);
+                        }
+                        if (parser.currentToken() != JsonToken.END_ARRAY)
+                            throw new IOException("expected an item at " + parser.getCurrentLocation()); //NON-NLS
+                    }
+                    default -> throw new IOException("unknown property " + field + " at " + parser.getCurrentLocation()); //NON-NLS
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT)
+                throw new IOException("expected a property at " + parser.getCurrentLocation()); //NON-NLS
+            if (parser.nextToken() != null)
+                throw new IOException("unexpected content after the map at " + parser.getCurrentLocation()); //NON-NLS
+            if (visitor == null) {
+                visitor = new ToModelVisitor(width == null ? 0 : width, height == null ? 0 : height, model);
+                for (ExternalItem item : early)
+                    visitor.accept(item);
+            }
+            visitor.connectItems();
+            if (visitor.getErrors() != null)
+                throw new IOException(visitor.getErrors());
+            final DroidsMap map = visitor.getMap();
+            // update map to add all registered items
+            map.addRegisteredItems();
+            return map;
+        }
+        catch (JsonProcessingException e) {
+            throw new IOException(e.getMessage());
+        }
+    }
+}
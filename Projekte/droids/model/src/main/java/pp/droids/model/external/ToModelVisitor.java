@@ -20,7 +20,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * A visitor used for translating all external representations into model items.
@@ -29,9 +28,9 @@ class ToModelVisitor implements Visitor {
     private final DroidsModel model;
     private final DroidsMap map;
     /**
-     * A list of all levels.
+     * Maps level names to levels. A level is declared by the first item naming it and is created then.
      */
-    private final List<MapLevel> levelList;
+    private final Map<String, MapLevel> levels = new HashMap<>();
     /**
      * Maps flag captors to their captured flags, represented by id strings
      */
@@ -44,20 +43,16 @@ class ToModelVisitor implements Visitor {
     private final StringBuilder errors = new StringBuilder();
 
     /**
-     * Creates a visitor for the specified external representation af a game map and the specified game model.
+     * Creates a visitor for a game map of the specified size and the specified game model.
+     * External items may be visited one after the other as they are read.
      *
-     * @param externalMap external representation af a game map
-     * @param model       game model
+     * @param width  the width of the map
+     * @param height the height of the map
+     * @param model  game model
      */
-    ToModelVisitor(ExternalMap externalMap, DroidsModel model) {
+    ToModelVisitor(int width, int height, DroidsModel model) {
         this.model = model;
-        map = new DroidsMap(model, externalMap.width, externalMap.height);
-        levelList = externalMap.items.stream()
-                                     .map(it -> it.level)
-                                     .collect(Collectors.toSet())
-                                     .stream()
-                                     .map(s -> new MapLevel(map, s))
-                                     .toList();
+        map = new DroidsMap(model, width, height);
     }
 
     /**
@@ -96,12 +91,14 @@ class ToModelVisitor implements Visitor {
 
     /**
      * Returns the level with the same name as used in the specified external item.
+     * The level is created if it does not yet exist.
+     *
+     * @throws RuntimeException if the item does not name any level
      */
     private MapLevel findLevel(ExternalItem item) {
-        return levelList.stream()
-                        .filter(l -> l.getName().equals(item.level))
-                        .findFirst()
-                        .orElseThrow(() -> new RuntimeException("cannot find level " + item.level));
+        if (item.level == null)
+            throw new RuntimeException("cannot find level " + item.level); //NON-NLS
+        return levels.computeIfAbsent(item.level, name -> new MapLevel(map, name));
     }
 
     @Override
@@ -0,0 +1,96 @@
+package pp.droids.model.observation;
+
+import pp.droids.model.DroidsModel;
+import pp.droids.model.external.ExternalMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reports failures of the exact visibility computation and writes the current map of a model
+ * to a file for reproducing them. Failures may occur in every update, so both the report and
+ * the dump are rate-limited: only the first failure after at least {@linkplain #MIN_INTERVAL}
+ * seconds is logged with its stack trace, and only this failure makes a copy of the map. Later
+ * failures are just counted and reported with the next dump. The copy into the external
+ * representation is made on the calling thread because the model must not be read concurrently,
+ * but the file is written by the model's executor service so that the game thread is not blocked
+ * by file IO. A new dump is also skipped while the previous one is still being written.
+ * <p>
+ * Each model owns a dumper of its own (see {@linkplain DroidsModel#getModelDumper()}), so the
+ * failures of one model never suppress the dumps of another one, e.g., when a server hosts many
+ * matches, and each model writes to its own file (see {@linkplain DroidsModel#setDumpFile(File)}).
+ */
+public class ModelDumper {
+    private static final Logger LOGGER = System.getLogger(ModelDumper.class.getName());
+
+    /**
+     * The minimal time in seconds between two dumps.
+     */
+    static final float MIN_INTERVAL = 10f;
+
+    private final DroidsModel model;
+    private final AtomicBoolean writing = new AtomicBoolean();
+    private final AtomicLong lastDump = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger suppressed = new AtomicInteger();
+
+    /**
+     * Creates a dumper for the specified model.
+     *
+     * @param model the model whose map is saved
+     */
+    public ModelDumper(DroidsModel model) {
+        this.model = model;
+    }
+
+    /**
+     * Reports the specified failure of the model and saves its current map asynchronously
+     * unless a dump is still being written or the previous dump has been started too recently.
+     * In the latter cases, the failure is just counted.
+     *
+     * @param ex the failure
+     * @return true if a dump has been scheduled
+     */
+    public boolean failed(RuntimeException ex) {
+        final long now = System.nanoTime();
+        final long last = lastDump.get();
+        if (last != Long.MIN_VALUE && now - last < (long) (MIN_INTERVAL * 1e9) ||
+            !lastDump.compareAndSet(last, now) ||
+            !writing.compareAndSet(false, true)) {
+            suppressed.incrementAndGet();
+            LOGGER.log(Level.DEBUG, "when updating visibility map: {0}", ex.getMessage()); //NON-NLS
+            return false;
+        }
+        LOGGER.log(Level.ERROR, "when updating visibility map ({0} similar failures since last report)", //NON-NLS
+                   suppressed.getAndSet(0), ex);
+        final File file = model.getDumpFile();
+        try {
+            // copy the map on the calling thread; the model must not be read concurrently
+            final ExternalMap externalMap = new ExternalMap(model.getDroidsMap());
+            model.getExecutor().execute(() -> write(externalMap, file));
+            return true;
+        }
+        catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "cannot save {0}", file, e); //NON-NLS
+            writing.set(false);
+            return false;
+        }
+    }
+
+    private void write(ExternalMap externalMap, File file) {
+        try {
+            externalMap.writeToFile(file);
+            LOGGER.log(Level.ERROR, "current model saved in {0}", file.getAbsolutePath()); //NON-NLS
+        }
+        catch (IOException ioex) {
+            LOGGER.log(Level.WARNING, "cannot save {0}", file); //NON-NLS
+        }
+        finally {
+            writing.set(false);
+        }
+    }
+}
@@ -2,12 +2,9 @@ package pp.droids.model.observation;
 
 import pp.droids.model.BoundedItem;
 import pp.util.Circle;
+import pp.util.TypedSegment;
 import pp.util.map.Observation;
 
-import java.io.File;
-import java.io.IOException;
-import java.lang.System.Logger;
-import java.lang.System.Logger.Level;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -17,9 +14,6 @@ import java.util.function.Function;
  * Provides observation facility to {@linkplain pp.droids.model.BoundedItem} instances.
  */
 public class Observer {
-    private static final Logger LOGGER = System.getLogger(Observer.class.getName());
-    private static final String DUMP_FILE = "dump.json";
-
     private Observer() { /* don't instantiate */ }
 
     /**
@@ -31,6 +25,12 @@ public class Observer {
      * encapsulates a sequence of triangles ({@linkplain pp.util.map.Triangle}).
      * Each triangle represents any other item or any wall, represented by its
      * type defined in {@link pp.droids.model.Category}.
+     * <p>
+     * If the exact computation fails because of degenerate geometry, e.g., if the observer
+     * is too close to a segment, the failure is reported and the current model is saved
+     * asynchronously so that the error can be reproduced (both at most every few seconds,
+     * see {@linkplain ModelDumper}), and the observation is computed again in the
+     * degenerate-case-tolerant mode of {@linkplain pp.util.map.Observation}.
      *
      * @param observer the bounded item used as observer
      * @param visible  indicates segments by their categories which are potentially visible as well.
@@ -40,16 +40,16 @@ public class Observer {
         final SegmentCollector collector = new SegmentCollector(observer, visible);
         observer.getLevel().forEach(collector::accept);
         final float viewingArea = observer.getModel().getConfig().getViewingArea();
+        final Map<TypedSegment, Circle> entityMap = translate(collector.getEntityMap(), Circle::new);
         try {
             return new Observation(observer, observer.getRotation(), viewingArea,
-                                   collector.getSegments(),
-                                   translate(collector.getEntityMap(), Circle::new));
+                                   collector.getSegments(), entityMap);
         }
-        catch (Throwable ex) { // deliberately catch every Throwable here
-            LOGGER.log(Level.ERROR, "when updating visibility map", ex); //NON-NLS
-            // save the current model so that the error can be reproduced
-            saveModel(observer);
-            throw ex;
+        catch (RuntimeException ex) {
+            // report the failure and save the current model so that the error can be reproduced
+            observer.getModel().getModelDumper().failed(ex);
+            return new Observation(observer, observer.getRotation(), viewingArea,
+                                   collector.getSegments(), entityMap, true);
         }
     }
 
@@ -61,15 +61,4 @@ public class Observer {
         map.forEach((a, b) -> tMap.put(a, fun.apply(b)));
         return tMap;
     }
-
-    private static void saveModel(BoundedItem observer) {
-        final File file = new File(DUMP_FILE);
-        try {
-            observer.getModel().saveMap(file);
-            LOGGER.log(Level.ERROR, "current model saved in {0}", file.getAbsolutePath()); //NON-NLS
-        }
-        catch (IOException ioex) {
-            LOGGER.log(Level.WARNING, "cannot save {0}", file); //NON-NLS
-        }
-    }
 }
@@ -0,0 +1,39 @@
+package pp.droids.model.replay;
+
+import pp.droids.model.Droid;
+
+/**
+ * The commands that a player may give to the droid in a single update. They are recorded by a
+ * {@linkplain ReplayRecorder} and applied again by a {@linkplain ReplayPlayer}.
+ */
+public enum DroidCommand {
+    FORWARD, BACKWARD, STEP_LEFT, STEP_RIGHT, TURN_LEFT, TURN_RIGHT, FIRE;
+
+    private static final DroidCommand[] VALUES = values();
+
+    /**
+     * Gives this command to the specified droid.
+     *
+     * @param droid the droid
+     */
+    public void applyTo(Droid droid) {
+        switch (this) {
+            case FORWARD -> droid.goForward();
+            case BACKWARD -> droid.goBackward();
+            case STEP_LEFT -> droid.stepLeft();
+            case STEP_RIGHT -> droid.stepRight();
+            case TURN_LEFT -> droid.turnLeft();
+            case TURN_RIGHT -> droid.turnRight();
+            case FIRE -> droid.fire();
+        }
+    }
+
+    /**
+     * Returns the command with the specified ordinal without allocating an array.
+     *
+     * @param ordinal the ordinal of a command
+     */
+    static DroidCommand of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
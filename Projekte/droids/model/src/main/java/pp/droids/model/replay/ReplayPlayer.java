@@ -0,0 +1,306 @@
+package pp.droids.model.replay;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import pp.droids.model.DroidsConfig;
+import pp.droids.model.DroidsModel;
+import pp.droids.model.MapStateFormat;
+import pp.util.FloatPoint;
+import pp.util.Position;
+import pp.util.Segment;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import static pp.droids.model.replay.ReplayRecorder.COMMAND;
+import static pp.droids.model.replay.ReplayRecorder.DOG_PATH;
+import static pp.droids.model.replay.ReplayRecorder.KEYFRAME;
+import static pp.droids.model.replay.ReplayRecorder.MAGIC;
+import static pp.droids.model.replay.ReplayRecorder.PATH;
+import static pp.droids.model.replay.ReplayRecorder.THINK;
+import static pp.droids.model.replay.ReplayRecorder.TICK;
+import static pp.droids.model.replay.ReplayRecorder.VERSION;
+
+/**
+ * Plays back a replay log written by a {@linkplain ReplayRecorder}. The player creates a game model
+ * from the configuration and the initial state of the log and updates it with the recorded inputs,
+ * i.e., the replayed game is identical to the recorded one. There is no rendering and no real-time
+ * clock involved, so a game can be played back as fast as the model can be updated.
+ * <p>
+ * The keyframes of the log are indexed when the player is created. {@linkplain #seek(long)} restores
+ * the latest keyframe before the target and steps forward from there. Keyframes contain the complete
+ * state of the map (see {@linkplain MapStateFormat}), so the state reached by seeking is the same as
+ * the state reached by playing back from the start.
+ * <p>
+ * A log whose last records are truncated, e.g., after a crash of the recording game, ends with the
+ * last update whose records are complete.
+ */
+public class ReplayPlayer {
+    private final DroidsModel model;
+    private final byte[] bytes;
+    private final ByteBuffer log;
+    private final int initialState;
+    private final int bodyStart;
+    private final List<Long> keyframeTicks = new ArrayList<>();
+    private final List<Integer> keyframeOffsets = new ArrayList<>();
+    private long numTicks;
+    private long tick;
+
+    /**
+     * Creates a player for the replay log in the specified file.
+     *
+     * @param file     the replay log
+     * @param executor the executor service used by the replayed model, or null if the model shall
+     *                 create its own one
+     * @throws IOException if the file cannot be read or does not contain a valid replay log
+     */
+    public ReplayPlayer(File file, ExecutorService executor) throws IOException {
+        this(Files.readAllBytes(file.toPath()), executor);
+    }
+
+    /**
+     * Creates a player for the specified replay log.
+     *
+     * @param bytes    the replay log
+     * @param executor the executor service used by the replayed model, or null if the model shall
+     *                 create its own one
+     * @throws IOException if the bytes do not contain a valid replay log
+     */
+    public ReplayPlayer(byte[] bytes, ExecutorService executor) throws IOException {
+        this.bytes = bytes;
+        log = ByteBuffer.wrap(bytes);
+        try {
+            if (log.getInt() != MAGIC)
+                throw new IOException("not a replay log"); //NON-NLS
+            final short version = log.getShort();
+            if (version != VERSION)
+                throw new IOException("unsupported replay version " + version); //NON-NLS
+            final DroidsConfig config = new ObjectMapper()
+                    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                    .readValue(readString(), DroidsConfig.class);
+            initialState = log.position();
+            skip(log.getInt());
+            bodyStart = log.position();
+            index();
+            model = new DroidsModel(config, executor);
+            restore(initialState);
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException("truncated replay log", e); //NON-NLS
+        }
+        catch (BufferUnderflowException e) {
+            throw new IOException("truncated replay log", e); //NON-NLS
+        }
+    }
+
+    /**
+     * Scans the log once, counts its updates, and records the position of each keyframe.
+     * Truncated records at the end, e.g., after a crash of the recording game, are ignored. An update
+     * counts only if its selection of thinking items is complete, too.
+     */
+    private void index() throws IOException {
+        log.position(bodyStart);
+        try {
+            while (log.hasRemaining()) {
+                final byte tag = log.get();
+                switch (tag) {
+                    case TICK -> {
+                        log.getFloat();
+                        if (log.hasRemaining() && log.get(log.position()) == THINK) {
+                            log.get();
+                            skip(4 * log.getInt());
+                        }
+                        numTicks++;
+                    }
+                    case COMMAND -> log.get();
+                    case PATH, DOG_PATH -> skip(8 * (log.getShort() & 0xFFFF));
+                    case THINK -> skip(4 * log.getInt());
+                    case KEYFRAME -> {
+                        final long keyframeTick = log.getLong();
+                        final int offset = log.position();
+                        skip(log.getInt());
+                        keyframeTicks.add(keyframeTick);
+                        keyframeOffsets.add(offset);
+                    }
+                    default -> throw new IOException("invalid record " + tag + " at " + (log.position() - 1)); //NON-NLS
+                }
+            }
+        }
+        catch (BufferUnderflowException | IllegalArgumentException e) {
+            // truncated last record
+        }
+        log.position(bodyStart);
+    }
+
+    private void skip(int n) {
+        log.position(log.position() + n);
+    }
+
+    /**
+     * Restores the state of the map stored at the specified position of the log, i.e., its length
+     * followed by its bytes.
+     */
+    private void restore(int offset) throws IOException {
+        final int length = ByteBuffer.wrap(bytes, offset, 4).getInt();
+        MapStateFormat.read(new DataInputStream(new ByteArrayInputStream(bytes, offset + 4, length)), model);
+    }
+
+    private String readString() {
+        final byte[] bytes = new byte[log.getInt()];
+        log.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the replayed game model.
+     */
+    public DroidsModel getModel() {
+        return model;
+    }
+
+    /**
+     * Returns the number of updates of the replayed game so far.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the number of updates in the log.
+     */
+    public long getNumTicks() {
+        return numTicks;
+    }
+
+    /**
+     * Returns the ticks of all keyframes in the log in ascending order.
+     */
+    public List<Long> getKeyframeTicks() {
+        return List.copyOf(keyframeTicks);
+    }
+
+    /**
+     * Returns true if all updates of the log have been replayed.
+     */
+    public boolean isAtEnd() {
+        return tick >= numTicks;
+    }
+
+    /**
+     * Replays the next update, i.e., gives the recorded commands to the droid and updates the model
+     * with the recorded time step. If the records of the next update turn out to be truncated, the
+     * log ends before this update.
+     *
+     * @return true if an update has been replayed, and false if the end of the log has been reached
+     */
+    public boolean step() {
+        if (isAtEnd())
+            return false;
+        try {
+            return replayNext();
+        }
+        catch (BufferUnderflowException | IllegalArgumentException e) {
+            numTicks = tick;
+            return false;
+        }
+    }
+
+    private boolean replayNext() {
+        while (true) {
+            final byte tag = log.get();
+            switch (tag) {
+                case COMMAND -> DroidCommand.of(log.get()).applyTo(model.getDroidsMap().getDroid());
+                case PATH -> model.getDroidsMap().getDroid().setPath(readPath(model.getDroidsMap().getDroid()));
+                case DOG_PATH -> model.getDroidsMap().getDog().setPath(readPath(model.getDroidsMap().getDog()));
+                case THINK -> skip(4 * log.getInt());
+                case KEYFRAME -> {
+                    log.getLong();
+                    skip(log.getInt());
+                }
+                case TICK -> {
+                    final float delta = log.getFloat();
+                    if (log.hasRemaining() && log.get(log.position()) == THINK) {
+                        log.get();
+                        final int[] ids = new int[log.getInt()];
+                        for (int i = 0; i < ids.length; i++)
+                            ids[i] = log.getInt();
+                        model.getDroidsMap().getThinkScheduler().force(ids);
+                    }
+                    model.update(delta);
+                    tick++;
+                    return true;
+                }
+                default -> throw new IllegalStateException("invalid record " + tag); //NON-NLS
+            }
+        }
+    }
+
+    /**
+     * Converts the recorded points of a path into the segments expected by the droid or the dog.
+     *
+     * @param from the start of the path, i.e., the droid or the dog
+     */
+    private List<Segment> readPath(Position from) {
+        final int n = log.getShort() & 0xFFFF;
+        final List<Segment> path = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            final Position to = new FloatPoint(log.getFloat(), log.getFloat());
+            path.add(new Segment(from, to));
+            from = to;
+        }
+        return path;
+    }
+
+    /**
+     * Replays all remaining updates of the log as fast as possible.
+     *
+     * @return the number of replayed updates
+     */
+    public long playToEnd() {
+        long n = 0L;
+        while (step())
+            n++;
+        return n;
+    }
+
+    /**
+     * Moves the replayed game to the state after the specified number of updates. If there is a
+     * keyframe between the current tick and the target, or if the target lies in the past, the
+     * state of the latest keyframe at or before the target, or the initial state if there is none,
+     * is restored first.
+     *
+     * @param target the number of updates, which is clamped to the length of the log
+     * @throws IOException if the state of a keyframe cannot be read
+     */
+    public void seek(long target) throws IOException {
+        target = Math.max(0L, Math.min(target, numTicks));
+        int k = -1;
+        for (int i = 0; i < keyframeTicks.size() && keyframeTicks.get(i) <= target; i++)
+            k = i;
+        final long restoredTick = k < 0 ? 0L : keyframeTicks.get(k);
+        if (target < tick || restoredTick > tick) {
+            if (k < 0) {
+                log.position(bodyStart);
+                restore(initialState);
+            }
+            else {
+                restore(keyframeOffsets.get(k));
+                log.position(keyframeOffsets.get(k));
+                skip(log.getInt());
+            }
+            tick = restoredTick;
+        }
+        while (tick < target)
+            if (!step())
+                break;
+    }
+}
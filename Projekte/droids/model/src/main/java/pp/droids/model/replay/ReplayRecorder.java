@@ -0,0 +1,234 @@
+package pp.droids.model.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import pp.droids.model.DroidsModel;
+import pp.droids.model.MapStateFormat;
+import pp.util.Position;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Records a game into an append-only binary replay log, which can be played back by a
+ * {@linkplain ReplayPlayer}. The game model is deterministic given its initial map and the inputs
+ * of each update, so the log only contains
+ * <ul>
+ *     <li>a header with the configuration in JSON and the initial state of the map,</li>
+ *     <li>the commands and navigation paths given to the droid and the navigation paths given to
+ *     the dog before each update,</li>
+ *     <li>the time step of each update,</li>
+ *     <li>the deferrable items selected by the {@linkplain pp.droids.model.ThinkScheduler}
+ *     if its selection depends on measured times, and</li>
+ *     <li>a keyframe with the state of the map every
+ *     {@linkplain pp.droids.model.DroidsConfig#getReplayKeyframeInterval()} updates, which allows for
+ *     seeking.</li>
+ * </ul>
+ * The states are written in the binary format of {@linkplain MapStateFormat}, which contains
+ * everything that affects the following updates, so playing back from a keyframe yields the same
+ * game as playing back from the start. A state is encoded into a buffer that is reused by all
+ * keyframes.
+ * A recorder never throws an exception into the game. If writing fails, the error is logged and
+ * the recording stops.
+ */
+public class ReplayRecorder implements AutoCloseable {
+    private static final Logger LOGGER = System.getLogger(ReplayRecorder.class.getName());
+
+    static final int MAGIC = 0x4452504C;
+    static final short VERSION = 2;
+    static final byte TICK = 1;
+    static final byte COMMAND = 2;
+    static final byte PATH = 3;
+    static final byte THINK = 4;
+    static final byte KEYFRAME = 5;
+    static final byte DOG_PATH = 6;
+
+    private final DroidsModel model;
+    private final DataOutputStream out;
+    private final int keyframeInterval;
+    private final ByteArrayOutputStream stateBytes = new ByteArrayOutputStream();
+    private final DataOutputStream state = new DataOutputStream(stateBytes);
+    private long tick;
+    private boolean closed;
+
+    /**
+     * Creates a recorder for the specified model and writes the header of the log, i.e., the
+     * configuration and the state of the current map of the model.
+     *
+     * @param model the recorded game model
+     * @param out   the stream receiving the log; it is closed when the recording stops
+     * @throws IOException if the header cannot be written
+     */
+    public ReplayRecorder(DroidsModel model, OutputStream out) throws IOException {
+        this.model = model;
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.keyframeInterval = model.getConfig().getReplayKeyframeInterval();
+        this.out.writeInt(MAGIC);
+        this.out.writeShort(VERSION);
+        writeString(new ObjectMapper().writeValueAsString(model.getConfig()));
+        writeState();
+    }
+
+    /**
+     * Returns the number of updates recorded so far.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns true if the recording has stopped.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Records a command given to the droid before the next update.
+     *
+     * @param command the command
+     */
+    public void command(DroidCommand command) {
+        if (closed)
+            return;
+        try {
+            out.writeByte(COMMAND);
+            out.writeByte(command.ordinal());
+        }
+        catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the navigation path set for the droid before the next update.
+     *
+     * @param path the points of the path
+     */
+    public void path(List<? extends Position> path) {
+        writePath(PATH, path);
+    }
+
+    /**
+     * Records the navigation path set for the dog before the next update.
+     *
+     * @param path the points of the path
+     */
+    public void dogPath(List<? extends Position> path) {
+        writePath(DOG_PATH, path);
+    }
+
+    private void writePath(byte tag, List<? extends Position> path) {
+        if (closed)
+            return;
+        try {
+            out.writeByte(tag);
+            out.writeShort(path.size());
+            for (Position p : path) {
+                out.writeFloat(p.getX());
+                out.writeFloat(p.getY());
+            }
+        }
+        catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the start of an update with the specified time step.
+     *
+     * @param delta time in seconds since the last update
+     */
+    public void tick(float delta) {
+        if (closed)
+            return;
+        try {
+            out.writeByte(TICK);
+            out.writeFloat(delta);
+            tick++;
+        }
+        catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records the entity ids of the deferrable items selected for thinking in the current update.
+     *
+     * @param ids the ids in the order of their selection
+     */
+    public void think(int[] ids) {
+        if (closed)
+            return;
+        try {
+            out.writeByte(THINK);
+            out.writeInt(ids.length);
+            for (int id : ids)
+                out.writeInt(id);
+        }
+        catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Called at the end of each update. Writes a keyframe with the state of the map if the number of
+     * recorded updates is a multiple of the keyframe interval.
+     */
+    public void afterUpdate() {
+        if (closed || keyframeInterval <= 0 || tick % keyframeInterval != 0L)
+            return;
+        try {
+            out.writeByte(KEYFRAME);
+            out.writeLong(tick);
+            writeState();
+        }
+        catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes the length and the bytes of the state of the current map.
+     */
+    private void writeState() throws IOException {
+        stateBytes.reset();
+        MapStateFormat.write(model, state);
+        state.flush();
+        out.writeInt(stateBytes.size());
+        stateBytes.writeTo(out);
+    }
+
+    private void writeString(String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void fail(IOException e) {
+        LOGGER.log(Level.ERROR, "recording stopped after " + tick + " ticks", e); //NON-NLS
+        close();
+    }
+
+    /**
+     * Stops the recording and closes the stream.
+     */
+    @Override
+    public void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            out.close();
+        }
+        catch (IOException e) {
+            LOGGER.log(Level.ERROR, "when closing the replay log", e); //NON-NLS
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package pp.droids.model.snapshot;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static pp.droids.model.snapshot.DeltaEncoder.DELTA;
+import static pp.droids.model.snapshot.DeltaEncoder.KEYFRAME;
+import static pp.droids.model.snapshot.DeltaEncoder.LEVEL;
+import static pp.droids.model.snapshot.DeltaEncoder.LIVES;
+import static pp.droids.model.snapshot.DeltaEncoder.NEW;
+import static pp.droids.model.snapshot.DeltaEncoder.ROTATION;
+import static pp.droids.model.snapshot.DeltaEncoder.X;
+import static pp.droids.model.snapshot.DeltaEncoder.Y;
+
+/**
+ * Reconstructs the state of all items of a map from the frames written by a {@linkplain DeltaEncoder}.
+ * The state of an item is accessed by its entity id (see {@linkplain pp.droids.model.Item#getId()}).
+ * The decoder must receive a keyframe first and then every delta frame in sequence.
+ */
+public class DeltaDecoder {
+    private int frame = -1;
+    private int size;
+    private boolean[] present = new boolean[0];
+    private String[] cats = new String[0];
+    private float[] radii = new float[0];
+    private float[] xs = new float[0];
+    private float[] ys = new float[0];
+    private float[] rotations = new float[0];
+    private int[] lives = new int[0];
+    private String[] levels = new String[0];
+
+    /**
+     * Applies the specified frame.
+     *
+     * @param bytes a frame returned by the encoder
+     * @throws IOException if the frame is invalid or does not follow the previous frame
+     */
+    public void apply(byte[] bytes) throws IOException {
+        apply(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Reads the next frame from the specified input and applies it.
+     *
+     * @param in the input
+     * @throws IOException if reading fails, or if the frame is invalid or does not follow the previous frame
+     */
+    public void apply(DataInput in) throws IOException {
+        final byte kind = in.readByte();
+        final int number = in.readInt();
+        if (kind == KEYFRAME) {
+            Arrays.fill(present, false);
+            size = 0;
+        }
+        else if (kind != DELTA)
+            throw new IOException("invalid frame kind " + kind); //NON-NLS
+        else if (frame < 0 || number != frame + 1)
+            throw new IOException("delta frame " + number + " does not follow frame " + frame); //NON-NLS
+        frame = number;
+        final int numRecords = in.readInt();
+        for (int i = 0; i < numRecords; i++)
+            readItem(in);
+        final int numRemoved = in.readInt();
+        for (int i = 0; i < numRemoved; i++) {
+            final int id = in.readInt();
+            if (contains(id)) {
+                present[id] = false;
+                size--;
+            }
+        }
+    }
+
+    private void readItem(DataInput in) throws IOException {
+        final int id = in.readInt();
+        final int flags = in.readByte();
+        if (id < 0)
+            throw new IOException("invalid id " + id); //NON-NLS
+        ensureCapacity(id + 1);
+        if ((flags & NEW) != 0) {
+            cats[id] = in.readUTF();
+            radii[id] = in.readFloat();
+            if (!present[id]) {
+                present[id] = true;
+                size++;
+            }
+        }
+        else if (!present[id])
+            throw new IOException("unknown item " + id); //NON-NLS
+        if ((flags & X) != 0)
+            xs[id] = in.readFloat();
+        if ((flags & Y) != 0)
+            ys[id] = in.readFloat();
+        if ((flags & ROTATION) != 0)
+            rotations[id] = in.readFloat();
+        if ((flags & LIVES) != 0)
+            lives[id] = in.readInt();
+        if ((flags & LEVEL) != 0) {
+            final String level = in.readUTF();
+            levels[id] = level.isEmpty() ? null : level;
+        }
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= present.length)
+            return;
+        final int capacity = Math.max(n, 2 * present.length);
+        present = Arrays.copyOf(present, capacity);
+        cats = Arrays.copyOf(cats, capacity);
+        radii = Arrays.copyOf(radii, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        rotations = Arrays.copyOf(rotations, capacity);
+        lives = Arrays.copyOf(lives, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+    }
+
+    /**
+     * Returns the number of the last applied frame, or -1 if no frame has been applied.
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Returns the number of items.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the map contains an item with the specified id.
+     *
+     * @param id an entity id
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < present.length && present[id];
+    }
+
+    /**
+     * Returns the ids of all items in ascending order.
+     */
+    public int[] getIds() {
+        final int[] ids = new int[size];
+        int n = 0;
+        for (int id = 0; id < present.length; id++)
+            if (present[id])
+                ids[n++] = id;
+        return ids;
+    }
+
+    /**
+     * Returns the category of the item with the specified id.
+     */
+    public String getCat(int id) {
+        return cats[id];
+    }
+
+    /**
+     * Returns the bounding radius of the item with the specified id, or 0 if it is not a bounded item.
+     */
+    public float getRadius(int id) {
+        return radii[id];
+    }
+
+    /**
+     * Returns the x-coordinate of the item with the specified id.
+     */
+    public float getX(int id) {
+        return xs[id];
+    }
+
+    /**
+     * Returns the y-coordinate of the item with the specified id.
+     */
+    public float getY(int id) {
+        return ys[id];
+    }
+
+    /**
+     * Returns the rotation of the item with the specified id.
+     */
+    public float getRotation(int id) {
+        return rotations[id];
+    }
+
+    /**
+     * Returns the number of lives of the item with the specified id, or -1 if it cannot be damaged.
+     */
+    public int getLives(int id) {
+        return lives[id];
+    }
+
+    /**
+     * Returns the name of the level of the item with the specified id, or null if it has no level.
+     */
+    public String getLevelName(int id) {
+        return levels[id];
+    }
+}
@@ -0,0 +1,275 @@
+package pp.droids.model.snapshot;
+
+import pp.droids.model.BoundedItem;
+import pp.droids.model.DamageReceiver;
+import pp.droids.model.DroidsMap;
+import pp.droids.model.Item;
+import pp.droids.model.ItemStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Encodes the state of all items of a map into compact binary frames, which are applied by a
+ * {@linkplain DeltaDecoder}, e.g., on a network client or when restoring a save state.
+ * <p>
+ * A keyframe contains the state of every item. A delta frame only contains the fields that have
+ * changed since the previous frame, i.e., new items, changed positions, rotations, lives and levels,
+ * and the ids of removed items. The encoder lets the item store of the map track changed items (see
+ * {@linkplain ItemStore#setTrackingChanges(boolean)}), so the cost of a delta frame is proportional to
+ * the number of changes and not to the size of the map. Only a single encoder may be attached to a map.
+ * <p>
+ * The encoded state of each item is kept in arrays indexed by the slot of the item in the item store
+ * and tagged with its handle (see {@linkplain Item#getHandle()}). Slots are reused, so the memory of an
+ * encoder and the time of resetting it for a keyframe grow with the number of items in the map, not
+ * with the number of items ever created.
+ * <p>
+ * Frames are numbered, and a delta frame can only be applied to the state reached by the frame
+ * right before it. Projectiles of the projectile pool are not items and hence not encoded.
+ * <p>
+ * Format of a frame: the kind ({@linkplain #KEYFRAME} or {@linkplain #DELTA}), the frame number
+ * as an int, the number of item records as an int followed by the records, and the number of removed
+ * items as an int followed by their ids. An item record consists of the id, a byte of field flags,
+ * and the flagged fields in the order of the flags.
+ */
+public class DeltaEncoder {
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    static final int NEW = 1;
+    static final int X = 2;
+    static final int Y = 4;
+    static final int ROTATION = 8;
+    static final int LIVES = 16;
+    static final int LEVEL = 32;
+
+    private final DroidsMap map;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream bufferOut = new DataOutputStream(buffer);
+    private int frame = -1;
+
+    /**
+     * The encoded state of each item by slot, i.e., the state after the last frame, and the handle
+     * of the item whose state is encoded in each slot, or -1 if there is none.
+     */
+    private int[] handles = new int[0];
+    private float[] xs = new float[0];
+    private float[] ys = new float[0];
+    private float[] rotations = new float[0];
+    private int[] lives = new int[0];
+    private String[] levels = new String[0];
+
+    /**
+     * The flags of the changed items and the ids of the removed items of the current delta frame.
+     */
+    private int[] changedFlags = new int[0];
+    private int[] removedIds = new int[0];
+
+    /**
+     * Creates an encoder for the specified map and starts tracking the changes of its items.
+     * The first frame is a keyframe.
+     *
+     * @param map the encoded map
+     */
+    public DeltaEncoder(DroidsMap map) {
+        this.map = map;
+        map.getItems().setTrackingChanges(true);
+    }
+
+    /**
+     * Returns the number of the last encoded frame, or -1 if no frame has been encoded.
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Stops tracking the changes of the items of the map.
+     */
+    public void detach() {
+        map.getItems().setTrackingChanges(false);
+    }
+
+    /**
+     * Encodes a keyframe containing the state of all items of the map. This takes time
+     * proportional to the number of items.
+     *
+     * @return the keyframe
+     */
+    public byte[] encodeKeyframe() {
+        buffer.reset();
+        try {
+            encodeKeyframe(bufferOut);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Writes a keyframe containing the state of all items of the map to the specified output.
+     *
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public void encodeKeyframe(DataOutput out) throws IOException {
+        final ItemStore items = map.getItems();
+        Arrays.fill(handles, -1);
+        out.writeByte(KEYFRAME);
+        out.writeInt(++frame);
+        out.writeInt(items.size());
+        for (Item item : items)
+            writeItem(out, item, flags(item));
+        out.writeInt(0);
+        items.clearChanges();
+    }
+
+    /**
+     * Encodes a delta frame containing the changes since the previous frame, or a keyframe if no
+     * frame has been encoded yet.
+     *
+     * @return the frame
+     */
+    public byte[] encodeDelta() {
+        buffer.reset();
+        try {
+            encodeDelta(bufferOut);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Writes a delta frame containing the changes since the previous frame, or a keyframe if no
+     * frame has been encoded yet, to the specified output.
+     *
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public void encodeDelta(DataOutput out) throws IOException {
+        if (frame < 0) {
+            encodeKeyframe(out);
+            return;
+        }
+        final ItemStore items = map.getItems();
+        // forget removed items first because their slots may already be used by new items
+        if (removedIds.length < items.getNumRemoved())
+            removedIds = new int[Math.max(items.getNumRemoved(), 2 * removedIds.length)];
+        int numRemoved = 0;
+        for (int i = 0; i < items.getNumRemoved(); i++) {
+            final int handle = items.getRemovedHandle(i);
+            final int slot = ItemStore.slotOf(handle);
+            if (slot < handles.length && handles[slot] == handle) {
+                handles[slot] = -1;
+                removedIds[numRemoved++] = items.getRemovedId(i);
+            }
+        }
+        final List<Item> changed = items.getChangedItems();
+        if (changedFlags.length < changed.size())
+            changedFlags = new int[Math.max(changed.size(), 2 * changedFlags.length)];
+        int numRecords = 0;
+        for (int i = 0; i < changed.size(); i++) {
+            final Item item = changed.get(i);
+            changedFlags[i] = item.getSlot() >= 0 ? flags(item) : 0;
+            if (changedFlags[i] != 0)
+                numRecords++;
+        }
+        out.writeByte(DELTA);
+        out.writeInt(++frame);
+        out.writeInt(numRecords);
+        for (int i = 0; i < changed.size(); i++)
+            if (changedFlags[i] != 0)
+                writeItem(out, changed.get(i), changedFlags[i]);
+        out.writeInt(numRemoved);
+        for (int i = 0; i < numRemoved; i++)
+            out.writeInt(removedIds[i]);
+        items.clearChanges();
+    }
+
+    /**
+     * Returns true if the state of the specified item, which is contained in the map, has been encoded.
+     */
+    private boolean isKnown(Item item) {
+        final int slot = item.getSlot();
+        return slot < handles.length && handles[slot] == item.getHandle();
+    }
+
+    /**
+     * Returns the flags of the fields of the specified item that differ from the encoded state.
+     */
+    private int flags(Item item) {
+        if (!isKnown(item))
+            return NEW | X | Y | ROTATION | LIVES | LEVEL;
+        final int slot = item.getSlot();
+        int flags = 0;
+        if (item instanceof BoundedItem bounded) {
+            if (Float.floatToIntBits(bounded.getX()) != Float.floatToIntBits(xs[slot]))
+                flags |= X;
+            if (Float.floatToIntBits(bounded.getY()) != Float.floatToIntBits(ys[slot]))
+                flags |= Y;
+            if (Float.floatToIntBits(bounded.getRotation()) != Float.floatToIntBits(rotations[slot]))
+                flags |= ROTATION;
+        }
+        if (livesOf(item) != lives[slot])
+            flags |= LIVES;
+        if (!Objects.equals(levelOf(item), levels[slot]))
+            flags |= LEVEL;
+        return flags;
+    }
+
+    private void writeItem(DataOutput out, Item item, int flags) throws IOException {
+        final int slot = item.getSlot();
+        ensureCapacity(slot + 1);
+        out.writeInt(item.getId());
+        out.writeByte(flags);
+        if ((flags & NEW) != 0) {
+            out.writeUTF(item.cat());
+            out.writeFloat(item instanceof BoundedItem bounded ? bounded.getRadius() : 0f);
+            handles[slot] = item.getHandle();
+        }
+        final BoundedItem bounded = item instanceof BoundedItem b ? b : null;
+        if ((flags & X) != 0)
+            out.writeFloat(xs[slot] = bounded == null ? 0f : bounded.getX());
+        if ((flags & Y) != 0)
+            out.writeFloat(ys[slot] = bounded == null ? 0f : bounded.getY());
+        if ((flags & ROTATION) != 0)
+            out.writeFloat(rotations[slot] = bounded == null ? 0f : bounded.getRotation());
+        if ((flags & LIVES) != 0)
+            out.writeInt(lives[slot] = livesOf(item));
+        if ((flags & LEVEL) != 0) {
+            levels[slot] = levelOf(item);
+            out.writeUTF(levels[slot] == null ? "" : levels[slot]);
+        }
+    }
+
+    private static int livesOf(Item item) {
+        return item instanceof DamageReceiver receiver ? receiver.getLives() : -1;
+    }
+
+    private static String levelOf(Item item) {
+        return item.getLevel() == null ? null : item.getLevelName();
+    }
+
+    private void ensureCapacity(int n) {
+        if (n <= handles.length)
+            return;
+        final int oldCapacity = handles.length;
+        final int capacity = Math.max(n, 2 * oldCapacity);
+        handles = Arrays.copyOf(handles, capacity);
+        Arrays.fill(handles, oldCapacity, capacity, -1);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        rotations = Arrays.copyOf(rotations, capacity);
+        lives = Arrays.copyOf(lives, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+    }
+}
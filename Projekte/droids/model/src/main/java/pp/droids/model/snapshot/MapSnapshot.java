@@ -0,0 +1,245 @@
+package pp.droids.model.snapshot;
+
+import pp.droids.model.BoundedItem;
+import pp.droids.model.Item;
+import pp.droids.model.ItemStore;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The state of all items of a map at the end of a single update. The states are stored in
+ * parallel arrays, i.e., the state of the i-th item consists of the i-th element of each
+ * array. Items that do not have a position (i.e., that are not bounded items) are at (0,0)
+ * with rotation and radius 0.
+ * <p>
+ * A snapshot is obtained by {@linkplain SnapshotPublisher#acquire()} and does not change until
+ * it is released by {@linkplain #close()}. Afterwards, the publisher may reuse it for a later
+ * update, i.e., a snapshot must not be used after it has been closed.
+ */
+public class MapSnapshot implements AutoCloseable {
+    private final AtomicInteger readers = new AtomicInteger();
+    private long tick;
+    private int size;
+    private int droidIndex = -1;
+    private int[] ids = new int[0];
+    private int[] handles = new int[0];
+    private String[] cats = new String[0];
+    private String[] levels = new String[0];
+    private float[] xs = new float[0];
+    private float[] ys = new float[0];
+    private float[] rotations = new float[0];
+    private float[] radii = new float[0];
+    private boolean[] destroyed = new boolean[0];
+    private int[] slots = new int[0];
+    private int[] indexBySlot = new int[0];
+
+    /**
+     * Creates an empty snapshot, which is filled by its publisher.
+     */
+    MapSnapshot() { /* filled by fill(...) */ }
+
+    /**
+     * Copies the state of the specified items into this snapshot. This method is called by the
+     * publisher on the simulation thread while no reader uses this snapshot. Only the slots of the
+     * items of the previous fill are cleared, so the cost does not depend on the number of slots.
+     *
+     * @param tick  the number of the update
+     * @param items the items of the map
+     * @param droid the droid, or null if there is none
+     */
+    void fill(long tick, List<Item> items, Item droid) {
+        this.tick = tick;
+        for (int i = 0; i < size; i++)
+            if (slots[i] >= 0)
+                indexBySlot[slots[i]] = -1;
+        size = items.size();
+        ensureCapacity(size);
+        droidIndex = -1;
+        for (int i = 0; i < size; i++) {
+            final Item item = items.get(i);
+            ids[i] = item.getId();
+            handles[i] = item.getHandle();
+            cats[i] = item.cat();
+            levels[i] = item.getLevel() == null ? null : item.getLevel().getName();
+            destroyed[i] = item.isDestroyed();
+            if (item instanceof BoundedItem bounded) {
+                xs[i] = bounded.getX();
+                ys[i] = bounded.getY();
+                rotations[i] = bounded.getRotation();
+                radii[i] = bounded.getRadius();
+            }
+            else {
+                xs[i] = 0f;
+                ys[i] = 0f;
+                rotations[i] = 0f;
+                radii[i] = 0f;
+            }
+            final int slot = item.getSlot();
+            slots[i] = slot;
+            if (slot >= 0) {
+                if (slot >= indexBySlot.length) {
+                    final int oldLength = indexBySlot.length;
+                    indexBySlot = Arrays.copyOf(indexBySlot, Math.max(slot + 1, 2 * oldLength));
+                    Arrays.fill(indexBySlot, oldLength, indexBySlot.length, -1);
+                }
+                indexBySlot[slot] = i;
+            }
+            if (item == droid)
+                droidIndex = i;
+        }
+        // do not keep the strings of removed items alive
+        Arrays.fill(cats, size, cats.length, null);
+        Arrays.fill(levels, size, levels.length, null);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length)
+            return;
+        final int newLength = Math.max(capacity, 2 * ids.length);
+        ids = Arrays.copyOf(ids, newLength);
+        handles = Arrays.copyOf(handles, newLength);
+        cats = Arrays.copyOf(cats, newLength);
+        levels = Arrays.copyOf(levels, newLength);
+        xs = Arrays.copyOf(xs, newLength);
+        ys = Arrays.copyOf(ys, newLength);
+        rotations = Arrays.copyOf(rotations, newLength);
+        radii = Arrays.copyOf(radii, newLength);
+        destroyed = Arrays.copyOf(destroyed, newLength);
+        slots = Arrays.copyOf(slots, newLength);
+    }
+
+    /**
+     * Registers a reader of this snapshot.
+     */
+    void retain() {
+        readers.incrementAndGet();
+    }
+
+    /**
+     * Returns true if a reader uses this snapshot.
+     */
+    boolean isInUse() {
+        return readers.get() > 0;
+    }
+
+    /**
+     * Releases this snapshot. It must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        readers.decrementAndGet();
+    }
+
+    /**
+     * Returns the number of the update at whose end this snapshot has been taken.
+     * Numbers start at 1 and increase by one with each update.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the number of items.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the item with the specified handle, or -1 if the item has not been
+     * an item of the map at the end of the update.
+     *
+     * @param handle the handle of an item
+     * @see Item#getHandle()
+     */
+    public int indexOf(int handle) {
+        if (handle < 0) return -1;
+        final int slot = ItemStore.slotOf(handle);
+        if (slot >= indexBySlot.length) return -1;
+        final int index = indexBySlot[slot];
+        return index >= 0 && handles[index] == handle ? index : -1;
+    }
+
+    /**
+     * Returns the index of the droid, or -1 if the droid has not been an item of the map.
+     */
+    public int getDroidIndex() {
+        return droidIndex;
+    }
+
+    /**
+     * Returns the entity id of the i-th item.
+     */
+    public int getId(int i) {
+        return ids[check(i)];
+    }
+
+    /**
+     * Returns the handle of the i-th item.
+     */
+    public int getHandle(int i) {
+        return handles[check(i)];
+    }
+
+    /**
+     * Returns the category of the i-th item.
+     */
+    public String getCat(int i) {
+        return cats[check(i)];
+    }
+
+    /**
+     * Returns the name of the level of the i-th item, or null if it is not in a level.
+     */
+    public String getLevelName(int i) {
+        return levels[check(i)];
+    }
+
+    /**
+     * Returns the x-coordinate of the i-th item.
+     */
+    public float getX(int i) {
+        return xs[check(i)];
+    }
+
+    /**
+     * Returns the y-coordinate of the i-th item.
+     */
+    public float getY(int i) {
+        return ys[check(i)];
+    }
+
+    /**
+     * Returns the rotation of the i-th item.
+     */
+    public float getRotation(int i) {
+        return rotations[check(i)];
+    }
+
+    /**
+     * Returns the radius of the i-th item.
+     */
+    public float getRadius(int i) {
+        return radii[check(i)];
+    }
+
+    /**
+     * Returns true if the i-th item has been destroyed during the update.
+     */
+    public boolean isDestroyed(int i) {
+        return destroyed[check(i)];
+    }
+
+    private int check(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException(i);
+        return i;
+    }
+
+    @Override
+    public String toString() {
+        return "MapSnapshot[tick=" + tick + ", size=" + size + "]"; //NON-NLS
+    }
+}
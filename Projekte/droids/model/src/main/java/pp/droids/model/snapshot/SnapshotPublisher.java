@@ -0,0 +1,81 @@
+package pp.droids.model.snapshot;
+
+import pp.droids.model.Item;
+
+import java.util.List;
+
+/**
+ * Publishes a {@linkplain MapSnapshot} of all items at the end of each update so that other
+ * threads, e.g., the render thread or path searches running on the executor service, can read
+ * a consistent state of the map while the simulation goes on.
+ * <p>
+ * Publication is lock-free and double-buffered: the simulation thread fills the snapshot that is
+ * not published and then publishes it through a volatile reference. A reader retains the published
+ * snapshot by {@linkplain #acquire()} and releases it by {@linkplain MapSnapshot#close()}. The
+ * simulation never waits for readers: if the back buffer is still retained by a reader, a new
+ * snapshot is allocated instead, and the retained one is left to the garbage collector.
+ * <p>
+ * {@linkplain #publish(List, Item)} must only be called by a single thread, whereas
+ * {@linkplain #acquire()} may be called by any number of threads.
+ */
+public class SnapshotPublisher {
+    private volatile MapSnapshot published;
+    private MapSnapshot back = new MapSnapshot();
+    private volatile long tick;
+    private volatile int numAllocated = 1;
+
+    /**
+     * Takes a snapshot of the specified items and publishes it.
+     *
+     * @param items the items of the map
+     * @param droid the droid, or null if there is none
+     */
+    public void publish(List<Item> items, Item droid) {
+        if (back.isInUse()) {
+            // a reader has retained the snapshot before it has been replaced
+            back = new MapSnapshot();
+            numAllocated++;
+        }
+        back.fill(++tick, items, droid);
+        final MapSnapshot front = published;
+        published = back;
+        back = front != null ? front : new MapSnapshot();
+        if (front == null)
+            numAllocated++;
+    }
+
+    /**
+     * Returns the latest published snapshot, which must be released by
+     * {@linkplain MapSnapshot#close()}, preferably by a try-with-resources statement.
+     *
+     * @return the latest snapshot, or null if none has been published yet
+     */
+    public MapSnapshot acquire() {
+        while (true) {
+            final MapSnapshot snapshot = published;
+            if (snapshot == null)
+                return null;
+            snapshot.retain();
+            // the snapshot must still be published after it has been retained, because the
+            // simulation thread may have started to refill it in the meantime
+            if (snapshot == published)
+                return snapshot;
+            snapshot.close();
+        }
+    }
+
+    /**
+     * Returns the number of updates whose snapshot has been published.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Returns the number of snapshots allocated so far. It exceeds 2 only if readers
+     * retain snapshots for longer than an update.
+     */
+    public int getNumAllocated() {
+        return numAllocated;
+    }
+}
@@ -0,0 +1,263 @@
+package pp.droids.notifications;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers game events to registered {@linkplain GameEventListener listeners}.
+ * <p>
+ * Between {@linkplain #beginBatch()} and {@linkplain #flush()}, e.g., during an update of the game
+ * model, posted events are queued instead of being delivered immediately. The flush delivers the
+ * queued events as a batch in the order in which they have been posted. Events posted outside a
+ * batch are delivered immediately.
+ * <p>
+ * The listeners are kept in arrays that are replaced whenever a listener is added or removed, so
+ * listeners may be added or removed while events are delivered. The queue of posted events is
+ * reused, i.e., posting and flushing events does not create any objects as long as there are only
+ * synchronous listeners. A listener may opt into asynchronous delivery on an executor of its choice.
+ * Such a listener receives the events in the order in which they have been posted, one batch after
+ * the other, but never concurrently. Slow listeners, e.g., for audio or logging, hence do not stall
+ * the simulation. Each batch is copied for the asynchronous listeners, and asynchronous listeners
+ * receive events after the model may have changed again, i.e., they must not rely on the current
+ * state of the items an event refers to.
+ * <p>
+ * The bus keeps track of the types of events that are handled by any listener (see
+ * {@linkplain #hasListeners(Class)}), so that events nobody handles need not be created at all.
+ * A {@linkplain GameEventAdapter} only handles the events whose listener methods it overrides.
+ * <p>
+ * Events must be posted and flushed by a single thread, usually the one updating the game model.
+ */
+public class EventBus {
+    private static final Logger LOGGER = System.getLogger(EventBus.class.getName());
+
+    /**
+     * The name of the listener method of each type of event.
+     */
+    private static final Map<Class<? extends GameEvent>, String> HANDLERS =
+            Map.of(MapChangedEvent.class, "mapChanged", //NON-NLS
+                   ShooterFiredEvent.class, "shooterFired", //NON-NLS
+                   EnemyDestroyedEvent.class, "enemyDestroyed", //NON-NLS
+                   HitEvent.class, "hit", //NON-NLS
+                   ItemsDestroyedEvent.class, "itemsDestroyed", //NON-NLS
+                   ItemsChangedLevelEvent.class, "itemsChangedLevel"); //NON-NLS
+
+    /**
+     * A listener registered for asynchronous delivery. Batches of events are queued in a mailbox,
+     * and at most one task delivering them is scheduled on the executor at any time.
+     */
+    private static class AsyncListener {
+        private final GameEventListener listener;
+        private final Executor executor;
+        private final Queue<List<GameEvent>> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        AsyncListener(GameEventListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void post(List<GameEvent> batch) {
+            mailbox.add(batch);
+            if (scheduled.compareAndSet(false, true))
+                schedule();
+        }
+
+        private void schedule() {
+            try {
+                executor.execute(this::drain);
+            }
+            catch (RejectedExecutionException e) {
+                LOGGER.log(Level.WARNING, "dropped events for " + listener, e); //NON-NLS
+                mailbox.clear();
+                scheduled.set(false);
+            }
+        }
+
+        private void drain() {
+            List<GameEvent> batch;
+            while ((batch = mailbox.poll()) != null)
+                for (GameEvent event : batch)
+                    try {
+                        event.notify(listener);
+                    }
+                    catch (RuntimeException e) {
+                        LOGGER.log(Level.ERROR, "listener " + listener + " failed on " + event, e); //NON-NLS
+                    }
+            scheduled.set(false);
+            // a batch may have been posted after the mailbox has been found empty
+            if (!mailbox.isEmpty() && scheduled.compareAndSet(false, true))
+                schedule();
+        }
+    }
+
+    private volatile GameEventListener[] listeners = new GameEventListener[0];
+    private volatile AsyncListener[] asyncListeners = new AsyncListener[0];
+    private volatile Set<Class<? extends GameEvent>> handledTypes = Set.of();
+    private List<GameEvent> queue = new ArrayList<>();
+    private List<GameEvent> delivering = new ArrayList<>();
+    private boolean batching;
+
+    /**
+     * Adds the specified listener, which receives events on the thread posting or flushing them.
+     *
+     * @param listener the listener to add
+     */
+    public synchronized void addListener(GameEventListener listener) {
+        final GameEventListener[] newListeners = Arrays.copyOf(listeners, listeners.length + 1);
+        newListeners[listeners.length] = listener;
+        listeners = newListeners;
+        updateHandledTypes();
+    }
+
+    /**
+     * Adds the specified listener, which receives events asynchronously on the specified executor.
+     *
+     * @param listener the listener to add
+     * @param executor the executor used for delivering events to the listener
+     */
+    public synchronized void addListener(GameEventListener listener, Executor executor) {
+        final AsyncListener[] newListeners = Arrays.copyOf(asyncListeners, asyncListeners.length + 1);
+        newListeners[asyncListeners.length] = new AsyncListener(listener, executor);
+        asyncListeners = newListeners;
+        updateHandledTypes();
+    }
+
+    /**
+     * Removes the specified listener. Events already queued for asynchronous delivery are
+     * still delivered.
+     *
+     * @param listener the listener to remove
+     */
+    public synchronized void removeListener(GameEventListener listener) {
+        final int index = Arrays.asList(listeners).indexOf(listener);
+        if (index >= 0)
+            listeners = without(listeners, index);
+        for (int i = asyncListeners.length - 1; i >= 0; i--)
+            if (asyncListeners[i].listener == listener)
+                asyncListeners = without(asyncListeners, i);
+        updateHandledTypes();
+    }
+
+    private static <T> T[] without(T[] array, int index) {
+        final T[] result = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, index + 1, result, index, result.length - index);
+        return result;
+    }
+
+    /**
+     * Returns true if any listener has been added.
+     */
+    public boolean hasListeners() {
+        return listeners.length > 0 || asyncListeners.length > 0;
+    }
+
+    /**
+     * Returns true if any listener handles events of the specified type. Listeners extending
+     * {@linkplain GameEventAdapter} only handle the events whose listener methods they override.
+     *
+     * @param type the type of events
+     */
+    public boolean hasListeners(Class<? extends GameEvent> type) {
+        return HANDLERS.containsKey(type) ? handledTypes.contains(type) : hasListeners();
+    }
+
+    private void updateHandledTypes() {
+        final Set<Class<? extends GameEvent>> types = new HashSet<>();
+        for (Class<? extends GameEvent> type : HANDLERS.keySet()) {
+            for (GameEventListener listener : listeners)
+                if (handles(listener, type))
+                    types.add(type);
+            for (AsyncListener listener : asyncListeners)
+                if (handles(listener.listener, type))
+                    types.add(type);
+        }
+        handledTypes = Set.copyOf(types);
+    }
+
+    /**
+     * Returns true unless the specified listener is a {@linkplain GameEventAdapter} that does not
+     * override the listener method of the specified type of events.
+     */
+    private static boolean handles(GameEventListener listener, Class<? extends GameEvent> type) {
+        if (!(listener instanceof GameEventAdapter))
+            return true;
+        final String name = HANDLERS.get(type);
+        for (Method method : listener.getClass().getMethods())
+            if (method.getName().equals(name) && method.getDeclaringClass() != GameEventAdapter.class)
+                return true;
+        return false;
+    }
+
+    /**
+     * Starts queuing posted events until the next call of {@linkplain #flush()}.
+     */
+    public void beginBatch() {
+        batching = true;
+    }
+
+    /**
+     * Returns true if posted events are queued.
+     */
+    public boolean isBatching() {
+        return batching;
+    }
+
+    /**
+     * Posts the specified event. It is delivered immediately unless events are being batched.
+     *
+     * @param event the event to post
+     */
+    public void post(GameEvent event) {
+        if (batching) {
+            queue.add(event);
+            return;
+        }
+        final AsyncListener[] async = asyncListeners;
+        if (async.length > 0) {
+            final List<GameEvent> batch = List.of(event);
+            for (AsyncListener listener : async)
+                listener.post(batch);
+        }
+        for (GameEventListener listener : listeners)
+            event.notify(listener);
+    }
+
+    /**
+     * Delivers all queued events in the order in which they have been posted and stops batching.
+     */
+    public void flush() {
+        batching = false;
+        if (queue.isEmpty())
+            return;
+        // listeners may post further events while the queued ones are delivered
+        final List<GameEvent> batch = queue;
+        queue = delivering;
+        delivering = batch;
+        try {
+            final AsyncListener[] async = asyncListeners;
+            if (async.length > 0) {
+                final List<GameEvent> copy = List.copyOf(batch);
+                for (AsyncListener listener : async)
+                    listener.post(copy);
+            }
+            for (GameEventListener listener : listeners)
+                for (int i = 0; i < batch.size(); i++)
+                    batch.get(i).notify(listener);
+        }
+        finally {
+            batch.clear();
+        }
+    }
+}
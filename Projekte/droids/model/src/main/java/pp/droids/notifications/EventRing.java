@@ -0,0 +1,265 @@
+package pp.droids.notifications;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A preallocated ring buffer of primitive events in the style of a disruptor. Each event consists
+ * of its {@linkplain EventType type}, the entity ids of up to two items (see
+ * {@linkplain pp.droids.model.Item#getId()}), and a position. The fields are stored in parallel
+ * arrays, i.e., publishing and consuming events does not allocate any objects.
+ * <p>
+ * The game model is the only producer. It claims the slot of the next sequence number by
+ * {@linkplain #claim()}, writes the fields by {@linkplain #set(long, EventType, int, int, float, float)},
+ * and makes the event visible to consumers by {@linkplain #publish(long)}. Each consumer has its own
+ * {@linkplain Consumer cursor} and processes the events in sequence by {@linkplain #poll(Consumer, Handler)},
+ * possibly on another thread. A slot is reused only after every consumer has processed its event. If
+ * the slowest consumer lags behind by the capacity of the ring, new events are dropped instead of
+ * blocking the producer, see {@linkplain #getDropped()}.
+ */
+public class EventRing {
+    /**
+     * Processes a single event of a ring. The handler reads the fields of the event by the getters
+     * of the ring with the specified sequence number.
+     */
+    @FunctionalInterface
+    public interface Handler {
+        /**
+         * Processes the event with the specified sequence number.
+         *
+         * @param ring     the ring containing the event
+         * @param sequence the sequence number of the event
+         */
+        void onEvent(EventRing ring, long sequence);
+    }
+
+    /**
+     * The cursor of a consumer, i.e., the sequence number of the next event that it will process.
+     */
+    public static class Consumer {
+        private volatile long next;
+
+        private Consumer(long next) {
+            this.next = next;
+        }
+
+        /**
+         * Returns the sequence number of the next event that this consumer will process.
+         */
+        public long getNext() {
+            return next;
+        }
+    }
+
+    private final int mask;
+    private final byte[] types;
+    private final int[] itemIds;
+    private final int[] otherIds;
+    private final float[] xs;
+    private final float[] ys;
+    private final List<Consumer> consumers = new CopyOnWriteArrayList<>();
+
+    /**
+     * The sequence number of the last published event, or -1 if no event has been published.
+     */
+    private volatile long published = -1L;
+
+    /**
+     * The sequence number of the next event to claim. It is only used by the producer.
+     */
+    private long nextClaim;
+
+    /**
+     * The minimal cursor of all consumers when it has been computed the last time. It is only
+     * used by the producer to avoid checking all consumers for each event.
+     */
+    private long cachedGate;
+
+    private volatile long dropped;
+
+    /**
+     * Creates a ring with the specified capacity, which is rounded up to a power of two.
+     *
+     * @param capacity the minimal number of events that the ring can hold
+     */
+    public EventRing(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30)
+            throw new IllegalArgumentException("invalid capacity " + capacity); //NON-NLS
+        final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        types = new byte[size];
+        itemIds = new int[size];
+        otherIds = new int[size];
+        xs = new float[size];
+        ys = new float[size];
+    }
+
+    /**
+     * Returns the number of events that the ring can hold.
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Adds a consumer that processes all events published from now on.
+     *
+     * @return the cursor of the consumer, which must be passed to {@linkplain #poll(Consumer, Handler)}
+     */
+    public Consumer addConsumer() {
+        final Consumer consumer = new Consumer(published + 1);
+        consumers.add(consumer);
+        return consumer;
+    }
+
+    /**
+     * Removes the specified consumer so that it does not hold back the producer anymore.
+     *
+     * @param consumer the cursor of the consumer
+     */
+    public void removeConsumer(Consumer consumer) {
+        consumers.remove(consumer);
+    }
+
+    /**
+     * Claims the slot for the next event. The event must be written by
+     * {@linkplain #set(long, EventType, int, int, float, float)} and then published by
+     * {@linkplain #publish(long)} before the next event is claimed. This method must only be
+     * called by the producer.
+     *
+     * @return the sequence number of the claimed slot, or -1 if the ring is full and the event
+     *         has to be dropped
+     */
+    public long claim() {
+        final long sequence = nextClaim;
+        if (sequence - getCapacity() >= cachedGate) {
+            cachedGate = minConsumer(sequence);
+            if (sequence - getCapacity() >= cachedGate) {
+                dropped++;
+                return -1L;
+            }
+        }
+        nextClaim = sequence + 1;
+        return sequence;
+    }
+
+    private long minConsumer(long sequence) {
+        long min = sequence;
+        for (Consumer consumer : consumers)
+            min = Math.min(min, consumer.next);
+        return min;
+    }
+
+    /**
+     * Writes the fields of the event in the claimed slot.
+     *
+     * @param sequence the sequence number returned by {@linkplain #claim()}
+     * @param type     the type of the event
+     * @param itemId   the id of the item of the event
+     * @param otherId  the id of the other item of the event, or -1 if there is none
+     * @param x        the x-coordinate of the event
+     * @param y        the y-coordinate of the event
+     */
+    public void set(long sequence, EventType type, int itemId, int otherId, float x, float y) {
+        final int slot = (int) sequence & mask;
+        types[slot] = (byte) type.ordinal();
+        itemIds[slot] = itemId;
+        otherIds[slot] = otherId;
+        xs[slot] = x;
+        ys[slot] = y;
+    }
+
+    /**
+     * Makes the event with the specified sequence number and all previous ones visible to the consumers.
+     *
+     * @param sequence the sequence number returned by {@linkplain #claim()}
+     */
+    public void publish(long sequence) {
+        published = sequence;
+    }
+
+    /**
+     * Claims, writes, and publishes an event. This method must only be called by the producer.
+     *
+     * @return true if the event has been published, and false if it has been dropped because the
+     *         ring is full
+     * @see #set(long, EventType, int, int, float, float)
+     */
+    public boolean publish(EventType type, int itemId, int otherId, float x, float y) {
+        final long sequence = claim();
+        if (sequence < 0L)
+            return false;
+        set(sequence, type, itemId, otherId, x, y);
+        publish(sequence);
+        return true;
+    }
+
+    /**
+     * Lets the specified handler process all events that have been published, but not yet processed
+     * by the specified consumer, in the order of their sequence numbers. A consumer must not be
+     * polled by several threads concurrently.
+     *
+     * @param consumer the cursor of the consumer
+     * @param handler  the handler processing the events
+     * @return the number of processed events
+     */
+    public int poll(Consumer consumer, Handler handler) {
+        final long available = published;
+        final long first = consumer.next;
+        for (long sequence = first; sequence <= available; sequence++)
+            handler.onEvent(this, sequence);
+        if (available >= first)
+            consumer.next = available + 1;
+        return (int) Math.max(0L, available - first + 1);
+    }
+
+    /**
+     * Returns the sequence number of the last published event, or -1 if there is none.
+     */
+    public long getPublished() {
+        return published;
+    }
+
+    /**
+     * Returns the number of events that have been dropped because the ring was full.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Returns the type of the event with the specified sequence number.
+     */
+    public EventType getType(long sequence) {
+        return EventType.of(types[(int) sequence & mask]);
+    }
+
+    /**
+     * Returns the id of the item of the event with the specified sequence number.
+     */
+    public int getItemId(long sequence) {
+        return itemIds[(int) sequence & mask];
+    }
+
+    /**
+     * Returns the id of the other item of the event with the specified sequence number,
+     * or -1 if there is none.
+     */
+    public int getOtherId(long sequence) {
+        return otherIds[(int) sequence & mask];
+    }
+
+    /**
+     * Returns the x-coordinate of the event with the specified sequence number.
+     */
+    public float getX(long sequence) {
+        return xs[(int) sequence & mask];
+    }
+
+    /**
+     * Returns the y-coordinate of the event with the specified sequence number.
+     */
+    public float getY(long sequence) {
+        return ys[(int) sequence & mask];
+    }
+}
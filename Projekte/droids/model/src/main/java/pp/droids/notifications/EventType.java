@@ -0,0 +1,36 @@
+package pp.droids.notifications;
+
+/**
+ * The types of the events published in an {@linkplain EventRing}. The meaning of the item ids
+ * and the position of an event depends on its type.
+ */
+public enum EventType {
+    /**
+     * A shooter has fired. The item is the shooter, there is no other item because the projectile
+     * is not yet an item of the map, and the position is the position of the shooter.
+     */
+    SHOOTER_FIRED,
+
+    /**
+     * An item has been hit, but not destroyed. The item is the damaged item, the other item is
+     * the hitting item, and the position is the position of the damaged item.
+     */
+    HIT,
+
+    /**
+     * An enemy has been destroyed. The item is the enemy, there is no other item, and the
+     * position is the position of the enemy.
+     */
+    ENEMY_DESTROYED;
+
+    private static final EventType[] VALUES = values();
+
+    /**
+     * Returns the event type with the specified ordinal without allocating an array.
+     *
+     * @param ordinal the ordinal of an event type
+     */
+    static EventType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -7,6 +7,8 @@ import pp.droids.model.Item;
 import pp.droids.model.Projectile;
 import pp.droids.model.Shooter;
 
+import java.util.List;
+
 /**
  * Listener class for all events implemented by subclasses of {@linkplain GameEvent} implementing {@link pp.droids.notifications.GameEventListener}.
  */
@@ -35,4 +37,16 @@ public class GameEventAdapter implements GameEventListener {
      */
     @Override
     public void hit(DamageReceiver damaged, Item hittingItem) { /* empty implementation */}
+
+    /**
+     * Indicates that destroyed items have been removed from a map
+     */
+    @Override
+    public void itemsDestroyed(DroidsMap map, List<Item> items) { /* empty implementation */}
+
+    /**
+     * Indicates that items of a map have been moved to another level
+     */
+    @Override
+    public void itemsChangedLevel(DroidsMap map, List<Item> items) { /* empty implementation */}
 }
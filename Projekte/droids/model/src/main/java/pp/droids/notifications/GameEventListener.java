@@ -7,6 +7,8 @@ import pp.droids.model.Item;
 import pp.droids.model.Projectile;
 import pp.droids.model.Shooter;
 
+import java.util.List;
+
 /**
  * Listener interface for all events implemented by subclasses of {@linkplain GameEvent}.
  */
@@ -39,4 +41,18 @@ public interface GameEventListener {
      * @param hittingItem the item giving damage
      */
     void hit(DamageReceiver damaged, Item hittingItem);
+
+    /**
+     * Indicates that destroyed items have been removed from a map
+     * @param map the map that contained the items
+     * @param items the removed items
+     */
+    void itemsDestroyed(DroidsMap map, List<Item> items);
+
+    /**
+     * Indicates that items of a map have been moved to another level
+     * @param map the map containing the items
+     * @param items the moved items
+     */
+    void itemsChangedLevel(DroidsMap map, List<Item> items);
 }
@@ -0,0 +1,25 @@
+package pp.droids.notifications;
+
+import pp.droids.model.DroidsMap;
+import pp.droids.model.Item;
+
+import java.util.List;
+
+/**
+ * Event when items of a map have been moved to another level during an update.
+ *
+ * @param map   the map containing the items
+ * @param items the moved items in the order of their moves
+ */
+public record ItemsChangedLevelEvent(DroidsMap map, List<Item> items) implements GameEvent {
+
+    /**
+     * Notifies the game event listener of this event.
+     *
+     * @param listener the game event listener
+     */
+    @Override
+    public void notify(GameEventListener listener) {
+        listener.itemsChangedLevel(map, items);
+    }
+}
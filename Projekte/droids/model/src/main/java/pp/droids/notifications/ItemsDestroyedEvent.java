@@ -0,0 +1,25 @@
+package pp.droids.notifications;
+
+import pp.droids.model.DroidsMap;
+import pp.droids.model.Item;
+
+import java.util.List;
+
+/**
+ * Event when destroyed items have been removed from a map at the end of an update.
+ *
+ * @param map   the map that contained the items
+ * @param items the removed items in the order of their destruction
+ */
+public record ItemsDestroyedEvent(DroidsMap map, List<Item> items) implements GameEvent {
+
+    /**
+     * Notifies the game event listener of this event.
+     *
+     * @param listener the game event listener
+     */
+    @Override
+    public void notify(GameEventListener listener) {
+        listener.itemsDestroyed(map, items);
+    }
+}
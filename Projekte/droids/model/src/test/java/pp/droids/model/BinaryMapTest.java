@@ -0,0 +1,148 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.model.external.BinaryMapFormat;
+import pp.droids.model.external.ExternalMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryMapTest {
+    private static final String FILE_NAME = "/maps/map.json"; //NON-NLS
+
+    private DroidsModel gameModel;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        gameModel.loadRandomMap();
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    private static File tempFile(String suffix) throws IOException {
+        final File file = File.createTempFile("droids", suffix); //NON-NLS
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        final ExternalMap map = new ExternalMap(gameModel.getDroidsMap());
+        final ExternalMap read = BinaryMapFormat.read(ByteBuffer.wrap(BinaryMapFormat.toBytes(map)));
+        assertEquals(map.toJson(), read.toJson());
+    }
+
+    @Test
+    public void roundTripResource() throws IOException {
+        final ExternalMap map;
+        try (InputStream stream = getClass().getResourceAsStream(FILE_NAME)) {
+            map = ExternalMap.readFromJsonStream(stream);
+        }
+        final ExternalMap read = BinaryMapFormat.read(ByteBuffer.wrap(BinaryMapFormat.toBytes(map)));
+        assertEquals(map.toJson(), read.toJson());
+    }
+
+    @Test
+    public void convertFiles() throws IOException {
+        final File json = tempFile(".json"); //NON-NLS
+        final File binary = tempFile(".dmap"); //NON-NLS
+        final File json2 = tempFile(".json"); //NON-NLS
+        gameModel.saveMap(json);
+        BinaryMapFormat.jsonToBinary(json, binary);
+        assertTrue(BinaryMapFormat.isBinaryMap(binary));
+        assertFalse(BinaryMapFormat.isBinaryMap(json));
+        BinaryMapFormat.binaryToJson(binary, json2);
+        assertEquals(ExternalMap.readFromJsonFile(json).toJson(), ExternalMap.readFromJsonFile(json2).toJson());
+    }
+
+    /**
+     * The model loads binary maps as well as JSON maps, and both result in the same map.
+     */
+    @Test
+    public void loadBinary() throws IOException {
+        final File json = tempFile(".json"); //NON-NLS
+        final File binary = tempFile(".dmap"); //NON-NLS
+        gameModel.saveMap(json);
+        gameModel.saveBinaryMap(binary);
+        final DroidsModel fromJson = new DroidsModel();
+        final DroidsModel fromBinary = new DroidsModel();
+        try {
+            fromJson.loadMap(json);
+            fromBinary.loadMap(binary);
+            assertEquals(gameModel.getDroidsMap().getItems().size(), fromBinary.getDroidsMap().getItems().size());
+            assertEquals(new ExternalMap(fromJson.getDroidsMap()).toJson(),
+                         new ExternalMap(fromBinary.getDroidsMap()).toJson());
+        }
+        finally {
+            fromJson.shutdown();
+            fromBinary.shutdown();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void notBinary() throws IOException {
+        final byte[] bytes = BinaryMapFormat.toBytes(new ExternalMap(gameModel.getDroidsMap()));
+        bytes[0]++;
+        BinaryMapFormat.read(ByteBuffer.wrap(bytes));
+    }
+
+    @Test(expected = IOException.class)
+    public void truncated() throws IOException {
+        final byte[] bytes = BinaryMapFormat.toBytes(new ExternalMap(gameModel.getDroidsMap()));
+        BinaryMapFormat.read(ByteBuffer.wrap(bytes, 0, bytes.length - 8));
+    }
+
+    /**
+     * Reads the binary representation of the map after replacing the int at the specified offset.
+     */
+    private void readCorrupted(int offset, int value) throws IOException {
+        final byte[] bytes = BinaryMapFormat.toBytes(new ExternalMap(gameModel.getDroidsMap()));
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(offset, value);
+        BinaryMapFormat.read(ByteBuffer.wrap(bytes));
+    }
+
+    @Test(expected = IOException.class)
+    public void negativeNumberOfItems() throws IOException {
+        readCorrupted(16, -1);
+    }
+
+    @Test(expected = IOException.class)
+    public void hugeNumberOfItems() throws IOException {
+        readCorrupted(16, Integer.MAX_VALUE);
+    }
+
+    @Test(expected = IOException.class)
+    public void hugeNumberOfStrings() throws IOException {
+        readCorrupted(24, Integer.MAX_VALUE);
+    }
+
+    @Test(expected = IOException.class)
+    public void negativeStringLength() throws IOException {
+        readCorrupted(28, -4);
+    }
+
+    @Test(expected = IOException.class)
+    public void hugeStringLength() throws IOException {
+        readCorrupted(28, 1 << 30);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void itemWithoutLevel() throws IOException {
+        final ExternalMap map = ExternalMap.readFromJsonString(
+                "{\"width\": 10, \"height\": 10, \"items\": [{\"type\": \"obstacle\", \"x\": 1, \"y\": 2}]}"); //NON-NLS
+        BinaryMapFormat.toBytes(map);
+    }
+}
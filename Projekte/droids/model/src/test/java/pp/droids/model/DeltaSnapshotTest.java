@@ -0,0 +1,216 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.model.snapshot.DeltaDecoder;
+import pp.droids.model.snapshot.DeltaEncoder;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static pp.droids.model.GamePlayTest.enemy;
+import static pp.droids.model.GamePlayTest.flag;
+import static pp.droids.model.GamePlayTest.obstacle;
+
+public class DeltaSnapshotTest {
+    private static final float EPS = 0.00001f;
+
+    /**
+     * The size of a delta frame without any record: kind, frame number, and two counts.
+     */
+    private static final int EMPTY_DELTA = 13;
+
+    private DroidsModel gameModel;
+    private DroidsMap map;
+    private MapLevel level;
+    private DeltaEncoder encoder;
+    private DeltaDecoder decoder;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        map = new DroidsMap(gameModel, 20, 20);
+        level = new MapLevel(map, "Level"); //NON-NLS
+        map.setDroid(new Droid(gameModel), level);
+        gameModel.setDroidsMap(map);
+        encoder = new DeltaEncoder(map);
+        decoder = new DeltaDecoder();
+    }
+
+    @After
+    public void tearDown() {
+        encoder.detach();
+        gameModel.shutdown();
+    }
+
+    private int sendDelta() throws IOException {
+        final byte[] frame = encoder.encodeDelta();
+        decoder.apply(frame);
+        return frame.length;
+    }
+
+    /**
+     * Checks that the decoded state coincides with the items of the map.
+     */
+    private void assertDecoded(DroidsMap m) {
+        assertEquals(m.getItems().size(), decoder.size());
+        for (Item item : m.getItems()) {
+            final int id = item.getId();
+            assertTrue(decoder.contains(id));
+            assertEquals(item.cat(), decoder.getCat(id));
+            assertEquals(item.getLevelName(), decoder.getLevelName(id));
+            if (item instanceof BoundedItem bounded) {
+                assertEquals(bounded.getX(), decoder.getX(id), 0f);
+                assertEquals(bounded.getY(), decoder.getY(id), 0f);
+                assertEquals(bounded.getRotation(), decoder.getRotation(id), 0f);
+                assertEquals(bounded.getRadius(), decoder.getRadius(id), 0f);
+            }
+            if (item instanceof DamageReceiver receiver)
+                assertEquals(receiver.getLives(), decoder.getLives(id));
+        }
+    }
+
+    /**
+     * A new item reusing the slot of an item removed in the same frame is sent as a new item, and
+     * the removed item is reported, too.
+     */
+    @Test
+    public void reusedSlot() throws IOException {
+        final Obstacle old = obstacle(gameModel, 5f, 6f);
+        map.register(old, level);
+        map.update(0f);
+        sendDelta();
+        old.destroy();
+        map.update(0f);
+        final Obstacle reusing = obstacle(gameModel, 5f, 6f);
+        map.register(reusing, level);
+        map.update(0f);
+        assertEquals(ItemStore.slotOf(old.getHandle()), reusing.getSlot());
+        sendDelta();
+        assertFalse(decoder.contains(old.getId()));
+        assertTrue(decoder.contains(reusing.getId()));
+        assertDecoded(map);
+        // after many items have been created and removed, a keyframe is still exact
+        for (int i = 0; i < 100; i++) {
+            final Obstacle obstacle = obstacle(gameModel, 1f + i % 10, 1f + i / 10);
+            map.register(obstacle, level);
+            map.update(0f);
+            obstacle.destroy();
+            map.update(0f);
+        }
+        decoder.apply(encoder.encodeKeyframe());
+        assertDecoded(map);
+    }
+
+    @Test
+    public void onlyChangedFields() throws IOException {
+        final Obstacle obstacle = obstacle(gameModel, 5f, 6f);
+        final Enemy enemy = enemy(gameModel, 8f, 9f);
+        map.register(obstacle, level);
+        map.register(enemy, level);
+        map.update(0f);
+        sendDelta();
+        assertEquals(3, decoder.size());
+        assertDecoded(map);
+
+        assertEquals(EMPTY_DELTA, sendDelta());
+        // moving an item to its current position is not a change
+        obstacle.setPos(5f, 6f);
+        assertEquals(EMPTY_DELTA, sendDelta());
+
+        obstacle.setPos(5f, 7f);
+        // id, flags, and y-coordinate
+        assertEquals(EMPTY_DELTA + 4 + 1 + 4, sendDelta());
+        assertEquals(7f, decoder.getY(obstacle.getId()), EPS);
+
+        final int lives = enemy.getLives();
+        enemy.hitBy(obstacle);
+        assertEquals(EMPTY_DELTA + 4 + 1 + 4, sendDelta());
+        assertEquals(lives - 1, decoder.getLives(enemy.getId()));
+
+        obstacle.destroy();
+        map.update(0f);
+        // id of the removed item
+        assertEquals(EMPTY_DELTA + 4, sendDelta());
+        assertFalse(decoder.contains(obstacle.getId()));
+        assertDecoded(map);
+    }
+
+    @Test
+    public void followsGame() throws IOException {
+        gameModel.loadRandomMap();
+        final DroidsMap random = gameModel.getDroidsMap();
+        final DeltaEncoder randomEncoder = new DeltaEncoder(random);
+        try {
+            decoder.apply(randomEncoder.encodeKeyframe());
+            assertDecoded(random);
+            for (int i = 0; i < 300; i++) {
+                final Droid droid = random.getDroid();
+                droid.goForward();
+                if (i % 60 >= 30)
+                    droid.turnLeft();
+                if (i % 20 == 0)
+                    droid.fire();
+                gameModel.update(1f / 60f);
+                decoder.apply(randomEncoder.encodeDelta());
+                assertDecoded(random);
+            }
+        }
+        finally {
+            randomEncoder.detach();
+        }
+    }
+
+    /**
+     * The size of a delta frame depends on the number of changes, not on the number of items.
+     */
+    @Test
+    public void proportionalToChanges() throws IOException {
+        final Obstacle moving = obstacle(gameModel, 1f, 1f);
+        map.register(moving, level);
+        for (int i = 0; i < 5000; i++)
+            map.register(obstacle(gameModel, i % 20, i / 250f), level);
+        map.update(0f);
+        assertTrue(encoder.encodeKeyframe().length > 5000 * 20);
+        moving.setPos(2f, 2f);
+        assertEquals(EMPTY_DELTA + 4 + 1 + 4 + 4, encoder.encodeDelta().length);
+        assertEquals(EMPTY_DELTA, encoder.encodeDelta().length);
+    }
+
+    @Test
+    public void capturedFlagFollowsCaptor() throws IOException {
+        final Flag flag = flag(gameModel, 5f, 5f);
+        final Enemy enemy = enemy(gameModel, 8f, 9f);
+        map.register(flag, level);
+        map.register(enemy, level);
+        map.update(0f);
+        sendDelta();
+        enemy.setCapturedFlag(flag);
+        sendDelta();
+        assertDecoded(map);
+        enemy.setPos(10f, 11f);
+        sendDelta();
+        assertEquals(10f, decoder.getX(flag.getId()), 0f);
+        assertDecoded(map);
+    }
+
+    @Test
+    public void keyframeResynchronizes() throws IOException {
+        decoder.apply(encoder.encodeKeyframe());
+        encoder.encodeDelta();
+        encoder.encodeDelta();
+        decoder.apply(encoder.encodeKeyframe());
+        assertEquals(encoder.getFrame(), decoder.getFrame());
+        assertDecoded(map);
+    }
+
+    @Test(expected = IOException.class)
+    public void missingFrame() throws IOException {
+        decoder.apply(encoder.encodeKeyframe());
+        encoder.encodeDelta();
+        decoder.apply(encoder.encodeDelta());
+    }
+}
@@ -0,0 +1,253 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.notifications.EnemyDestroyedEvent;
+import pp.droids.notifications.EventBus;
+import pp.droids.notifications.GameEventAdapter;
+import pp.droids.notifications.GameEventListener;
+import pp.droids.notifications.HitEvent;
+import pp.droids.notifications.ItemsChangedLevelEvent;
+import pp.droids.notifications.ItemsDestroyedEvent;
+import pp.droids.notifications.MapChangedEvent;
+import pp.droids.notifications.ShooterFiredEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static pp.droids.model.GamePlayTest.enemy;
+import static pp.droids.model.GamePlayTest.obstacle;
+
+public class EventBusTest {
+    private DroidsModel gameModel;
+    private ExecutorService executor;
+
+    /**
+     * Records hits and shots in the order of their delivery.
+     */
+    private static class Recorder extends GameEventAdapter {
+        final List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void shooterFired(Shooter shooter, Projectile projectile) {
+            received.add("fired"); //NON-NLS
+        }
+
+        @Override
+        public void hit(DamageReceiver damaged, Item hittingItem) {
+            received.add("hit " + ((Obstacle) hittingItem).getX()); //NON-NLS
+        }
+    }
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        gameModel.shutdown();
+    }
+
+    private HitEvent hit(float x) {
+        return new HitEvent(enemy(gameModel, 0f, 0f), obstacle(gameModel, x, 0f));
+    }
+
+    @Test
+    public void immediateOutsideBatch() {
+        final EventBus bus = new EventBus();
+        final Recorder recorder = new Recorder();
+        bus.addListener(recorder);
+        bus.post(hit(1f));
+        assertEquals(List.of("hit 1.0"), recorder.received); //NON-NLS
+    }
+
+    @Test
+    public void batchedInPostOrder() {
+        final EventBus bus = new EventBus();
+        final Recorder recorder = new Recorder();
+        bus.addListener(recorder);
+        bus.beginBatch();
+        bus.post(hit(1f));
+        bus.post(new ShooterFiredEvent(null, null));
+        bus.post(hit(2f));
+        bus.post(new ShooterFiredEvent(null, null));
+        assertTrue(bus.isBatching());
+        assertTrue(recorder.received.isEmpty());
+        bus.flush();
+        assertEquals(List.of("hit 1.0", "fired", "hit 2.0", "fired"), recorder.received); //NON-NLS
+        bus.flush();
+        assertEquals(4, recorder.received.size());
+    }
+
+    /**
+     * Events posted by a listener while a batch is delivered are delivered immediately
+     * after the events that have been posted before them.
+     */
+    @Test
+    public void postWhileFlushing() {
+        final EventBus bus = new EventBus();
+        final Recorder recorder = new Recorder();
+        bus.addListener(new GameEventAdapter() {
+            @Override
+            public void shooterFired(Shooter shooter, Projectile projectile) {
+                bus.post(EventBusTest.this.hit(3f));
+            }
+        });
+        bus.addListener(recorder);
+        bus.beginBatch();
+        bus.post(new ShooterFiredEvent(null, null));
+        bus.post(hit(1f));
+        bus.flush();
+        assertEquals(List.of("hit 3.0", "fired", "hit 1.0"), recorder.received); //NON-NLS
+        bus.beginBatch();
+        bus.post(hit(2f));
+        bus.flush();
+        assertEquals(4, recorder.received.size());
+    }
+
+    @Test
+    public void removeWhileDelivering() {
+        final EventBus bus = new EventBus();
+        final Recorder recorder = new Recorder();
+        bus.addListener(new GameEventAdapter() {
+            @Override
+            public void hit(DamageReceiver damaged, Item hittingItem) {
+                bus.removeListener(this);
+            }
+        });
+        bus.addListener(recorder);
+        bus.beginBatch();
+        bus.post(hit(1f));
+        bus.post(hit(2f));
+        bus.flush();
+        assertEquals(2, recorder.received.size());
+    }
+
+    @Test
+    public void asyncListenerDoesNotStall() throws InterruptedException {
+        final EventBus bus = new EventBus();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(3);
+        final Recorder recorder = new Recorder() {
+            @Override
+            public void hit(DamageReceiver damaged, Item hittingItem) {
+                try {
+                    assertTrue(release.await(5, TimeUnit.SECONDS));
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.hit(damaged, hittingItem);
+                done.countDown();
+            }
+        };
+        bus.addListener(recorder, executor);
+        // the slow listener blocks its executor, but not the thread posting and flushing events
+        bus.post(hit(1f));
+        bus.beginBatch();
+        bus.post(hit(2f));
+        bus.post(hit(3f));
+        bus.flush();
+        assertTrue(recorder.received.isEmpty());
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("hit 1.0", "hit 2.0", "hit 3.0"), recorder.received); //NON-NLS
+    }
+
+    @Test
+    public void handledTypes() {
+        final EventBus bus = new EventBus();
+        assertFalse(bus.hasListeners(HitEvent.class));
+        final GameEventAdapter mapListener = new GameEventAdapter() {
+            @Override
+            public void mapChanged(DroidsMap oldMap, DroidsMap newMap) {
+                // only map changes
+            }
+        };
+        bus.addListener(mapListener);
+        assertTrue(bus.hasListeners());
+        assertTrue(bus.hasListeners(MapChangedEvent.class));
+        assertFalse(bus.hasListeners(HitEvent.class));
+        assertFalse(bus.hasListeners(ShooterFiredEvent.class));
+
+        final Recorder recorder = new Recorder();
+        bus.addListener(recorder, executor);
+        assertTrue(bus.hasListeners(HitEvent.class));
+        assertTrue(bus.hasListeners(ShooterFiredEvent.class));
+        assertFalse(bus.hasListeners(EnemyDestroyedEvent.class));
+        bus.removeListener(recorder);
+        assertFalse(bus.hasListeners(HitEvent.class));
+
+        // listeners not extending the adapter handle all events
+        final GameEventListener listener = new GameEventAdapter();
+        bus.addListener(new GameEventListener() {
+            @Override
+            public void mapChanged(DroidsMap oldMap, DroidsMap newMap) {
+                listener.mapChanged(oldMap, newMap);
+            }
+
+            @Override
+            public void shooterFired(Shooter shooter, Projectile projectile) {
+                listener.shooterFired(shooter, projectile);
+            }
+
+            @Override
+            public void enemyDestroyed(Enemy enemy) {
+                listener.enemyDestroyed(enemy);
+            }
+
+            @Override
+            public void hit(DamageReceiver damaged, Item hittingItem) {
+                listener.hit(damaged, hittingItem);
+            }
+
+            @Override
+            public void itemsDestroyed(DroidsMap map, List<Item> items) {
+                listener.itemsDestroyed(map, items);
+            }
+
+            @Override
+            public void itemsChangedLevel(DroidsMap map, List<Item> items) {
+                listener.itemsChangedLevel(map, items);
+            }
+        });
+        assertTrue(bus.hasListeners(EnemyDestroyedEvent.class));
+        assertTrue(bus.hasListeners(ItemsDestroyedEvent.class));
+        assertTrue(bus.hasListeners(ItemsChangedLevelEvent.class));
+    }
+
+    @Test
+    public void modelUpdateBatchesEvents() {
+        final DroidsMap map = new DroidsMap(gameModel, 20, 20);
+        final MapLevel level = new MapLevel(map, "Level"); //NON-NLS
+        map.setDroid(new Droid(gameModel), level);
+        gameModel.setDroidsMap(map);
+        final Obstacle obstacle = obstacle(gameModel, 5f, 5f);
+        map.register(obstacle, level);
+        gameModel.update(0.01f);
+        final List<List<Item>> destroyed = new ArrayList<>();
+        gameModel.addGameEventListener(new GameEventAdapter() {
+            @Override
+            public void itemsDestroyed(DroidsMap m, List<Item> items) {
+                // delivered after the update has been completed
+                assertFalse(gameModel.getEventBus().isBatching());
+                destroyed.add(items);
+            }
+        });
+        obstacle.destroy();
+        gameModel.update(0.01f);
+        assertEquals(List.of(List.of(obstacle)), destroyed);
+    }
+}
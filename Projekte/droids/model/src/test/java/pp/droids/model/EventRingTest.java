@@ -0,0 +1,154 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.notifications.EventRing;
+import pp.droids.notifications.EventType;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static pp.droids.model.GamePlayTest.enemy;
+import static pp.droids.model.GamePlayTest.obstacle;
+
+public class EventRingTest {
+    private static final float EPS = 0.00001f;
+
+    private DroidsModel gameModel;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    @Test
+    public void capacity() {
+        assertEquals(1, new EventRing(1).getCapacity());
+        assertEquals(8, new EventRing(5).getCapacity());
+        assertEquals(1024, new EventRing(1024).getCapacity());
+    }
+
+    @Test
+    public void consumeInSequence() {
+        final EventRing ring = new EventRing(4);
+        ring.publish(EventType.HIT, 0, 1, 0f, 0f);
+        // a consumer only receives events published after it has been added
+        final EventRing.Consumer consumer = ring.addConsumer();
+        for (int i = 1; i <= 3; i++)
+            assertTrue(ring.publish(EventType.HIT, i, i + 1, i, 2f * i));
+        final List<Integer> ids = new ArrayList<>();
+        assertEquals(3, ring.poll(consumer, (r, s) -> {
+            assertEquals(EventType.HIT, r.getType(s));
+            assertEquals(r.getItemId(s) + 1, r.getOtherId(s));
+            assertEquals(2f * r.getX(s), r.getY(s), EPS);
+            ids.add(r.getItemId(s));
+        }));
+        assertEquals(List.of(1, 2, 3), ids);
+        assertEquals(0, ring.poll(consumer, (r, s) -> ids.add(-1)));
+        assertEquals(4L, consumer.getNext());
+    }
+
+    @Test
+    public void dropWhenFull() {
+        final EventRing ring = new EventRing(4);
+        final EventRing.Consumer consumer = ring.addConsumer();
+        for (int i = 0; i < 4; i++)
+            assertTrue(ring.publish(EventType.SHOOTER_FIRED, i, -1, 0f, 0f));
+        // the consumer has not processed any event, so the producer must not overwrite them
+        assertFalse(ring.publish(EventType.SHOOTER_FIRED, 4, -1, 0f, 0f));
+        assertEquals(1L, ring.getDropped());
+        final List<Integer> ids = new ArrayList<>();
+        ring.poll(consumer, (r, s) -> ids.add(r.getItemId(s)));
+        assertEquals(List.of(0, 1, 2, 3), ids);
+        assertTrue(ring.publish(EventType.SHOOTER_FIRED, 5, -1, 0f, 0f));
+        // removed consumers do not hold back the producer
+        ring.removeConsumer(consumer);
+        for (int i = 0; i < 10; i++)
+            assertTrue(ring.publish(EventType.SHOOTER_FIRED, i, -1, 0f, 0f));
+    }
+
+    @Test
+    public void modelPublishesHits() {
+        final Enemy enemy = enemy(gameModel, 3f, 4f);
+        gameModel.getDroidsMap().getItems().add(enemy);
+        final EventRing ring = gameModel.getEventRing();
+        final EventRing.Consumer consumer = ring.addConsumer();
+        enemy.hitBy(obstacle(gameModel, 0f, 0f));
+        final List<EventType> types = new ArrayList<>();
+        ring.poll(consumer, (r, s) -> {
+            types.add(r.getType(s));
+            assertEquals(enemy.getId(), r.getItemId(s));
+            assertEquals(3f, r.getX(s), EPS);
+            assertEquals(4f, r.getY(s), EPS);
+        });
+        assertEquals(List.of(EventType.HIT), types);
+    }
+
+    /**
+     * A consumer on another thread receives every event exactly once and in sequence.
+     */
+    @Test
+    public void concurrentConsumer() throws InterruptedException, ExecutionException {
+        final EventRing ring = new EventRing(64);
+        final EventRing.Consumer consumer = ring.addConsumer();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final Future<Long> future = gameModel.getExecutor().submit(() -> {
+            final long[] expected = {0L};
+            while (running.get() || consumer.getNext() <= ring.getPublished())
+                ring.poll(consumer, (r, s) -> {
+                    assertEquals(expected[0]++, r.getItemId(s) + (long) r.getOtherId(s) * 100_000L);
+                });
+            return expected[0];
+        });
+        long published = 0L;
+        for (int i = 0; i < 200_000; i++)
+            if (ring.publish(EventType.HIT, (int) (published % 100_000L), (int) (published / 100_000L), 0f, 0f))
+                published++;
+        running.set(false);
+        assertEquals(published, (long) future.get());
+        assertEquals(200_000L, published + ring.getDropped());
+    }
+
+    /**
+     * Publishing and consuming events does not allocate anything per event once the code has been
+     * warmed up. The measurement itself may allocate a few bytes, whereas an event object per event
+     * would amount to megabytes.
+     */
+    @Test
+    public void allocationFree() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)
+            || !bean.isThreadAllocatedMemorySupported())
+            return;
+        bean.setThreadAllocatedMemoryEnabled(true);
+        final EventRing ring = new EventRing(256);
+        final EventRing.Consumer consumer = ring.addConsumer();
+        final long[] sum = {0L};
+        final EventRing.Handler handler = (r, s) -> sum[0] += r.getItemId(s);
+        for (int round = 0; round < 3; round++) {
+            final long thread = Thread.currentThread().getId();
+            final long before = bean.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 100_000; i++) {
+                ring.publish(EventType.HIT, i, -1, i, i);
+                if ((i & 127) == 127)
+                    ring.poll(consumer, handler);
+            }
+            final long allocated = bean.getThreadAllocatedBytes(thread) - before;
+            if (round == 2)
+                assertTrue("allocated " + allocated + " bytes", allocated < 64 * 1024); //NON-NLS
+        }
+        assertEquals(0L, ring.getDropped());
+    }
+}
@@ -0,0 +1,90 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FixedStepDriverTest {
+    private static final float EPS = 1e-5f;
+
+    private DroidsModel gameModel;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        final DroidsMap map = new DroidsMap(gameModel, 20, 20);
+        map.setDroid(new Droid(gameModel), new MapLevel(map, "Level")); //NON-NLS
+        gameModel.setDroidsMap(map);
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    @Test
+    public void fixedSteps() {
+        final FixedStepDriver driver = new FixedStepDriver(gameModel, 0.1f, 5);
+        assertEquals(0, driver.advance(0.05f));
+        assertEquals(0.5f, driver.getAlpha(), EPS);
+        assertEquals(1, driver.advance(0.07f));
+        assertEquals(0.2f, driver.getAlpha(), EPS);
+        assertEquals(2, driver.advance(0.2f));
+        assertEquals(0.2f, driver.getAlpha(), EPS);
+        assertEquals(3L, driver.getStepCount());
+    }
+
+    @Test
+    public void catchUp() {
+        final FixedStepDriver driver = new FixedStepDriver(gameModel, 0.1f, 5);
+        // a long frame is simulated by at most 5 steps; the rest is dropped
+        assertEquals(5, driver.advance(2.05f));
+        assertEquals(0.5f, driver.getAlpha(), 1e-3f);
+        assertEquals(0, driver.advance(0.01f));
+    }
+
+    /**
+     * After several catch-up steps in one frame, the previous state of an item is its state
+     * after the second to last step, not its state at the previous frame.
+     */
+    @Test
+    public void previousStateAfterCatchUp() {
+        final DroidsMap map = gameModel.getDroidsMap();
+        final MapLevel level = map.getDroid().getLevel();
+        final int[] moves = {3};
+        final Obstacle mover = new Obstacle(gameModel) {
+            @Override
+            public void update(float delta) {
+                if (moves[0]-- > 0) {
+                    setPos(getX() + 1f, getY());
+                    setRotation(getRotation() + 0.1f);
+                }
+            }
+        };
+        mover.setPos(5f, 5f);
+        map.register(mover, level);
+        map.addRegisteredItems();
+        assertEquals(5f, mover.getPreviousX(), 0f);
+        final FixedStepDriver driver = new FixedStepDriver(gameModel, 0.1f, 5);
+        assertEquals(2, driver.advance(0.25f));
+        assertEquals(7f, mover.getX(), 0f);
+        assertEquals(6f, mover.getPreviousX(), 0f);
+        assertEquals(5f, mover.getPreviousY(), 0f);
+        assertEquals(0.1f, mover.getPreviousRotation(), EPS);
+        assertEquals(2, driver.advance(0.2f));
+        // the mover has moved in the first of these steps only
+        assertEquals(8f, mover.getX(), 0f);
+        assertEquals(8f, mover.getPreviousX(), 0f);
+        assertEquals(mover.getRotation(), mover.getPreviousRotation(), 0f);
+    }
+
+    @Test
+    public void variableSteps() {
+        final FixedStepDriver driver = new FixedStepDriver(gameModel);
+        assertEquals(0f, driver.getStepSize(), 0f);
+        assertEquals(1, driver.advance(0.05f));
+        assertEquals(1f, driver.getAlpha(), 0f);
+    }
+}
@@ -181,6 +181,29 @@ public class GamePlayTest {
         assertEquals(3, enemy.getLives());
     }
 
+    /**
+     * Check that a fast projectile only hits the first of several enemies along its path
+     */
+    @Test
+    public void projectileHitsFirstEnemyOnly() {
+        final Enemy first = enemy(gameModel, droid.getX() + 3f, droid.getY());
+        final Enemy second = enemy(gameModel, droid.getX() + 4f, droid.getY());
+        map.register(second, droid.getLevel());
+        map.register(first, droid.getLevel());
+        map.addRegisteredItems();
+        droid.setRotation(0f);
+        final Projectile projectile = droid.makeProjectile();
+        map.register(projectile, droid.getLevel());
+        map.addRegisteredItems();
+
+        // the projectile passes both enemies within a single update
+        projectile.update(1f);
+        assertTrue(projectile.isDestroyed());
+        assertEquals(3, first.getLives());
+        assertEquals(4, second.getLives());
+        assertEquals(projectile.getRadius() + first.getRadius(), projectile.distanceTo(first), 1e-4f);
+    }
+
     /**
      * Check that game is won after the droid captured the flag and carried it to the exit
      */
@@ -0,0 +1,142 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.notifications.GameEventAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static pp.droids.model.GamePlayTest.obstacle;
+
+public class ItemStoreTest {
+    private DroidsModel gameModel;
+    private DroidsMap map;
+    private MapLevel level;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        map = new DroidsMap(gameModel, 20, 20);
+        level = new MapLevel(map, "Level"); //NON-NLS
+        map.setDroid(new Droid(gameModel), level);
+        gameModel.setDroidsMap(map);
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    @Test
+    public void swapRemove() {
+        final ItemStore store = new ItemStore();
+        final List<Obstacle> obstacles = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            final Obstacle obstacle = obstacle(gameModel, i, 0f);
+            obstacles.add(obstacle);
+            store.add(obstacle);
+            assertEquals(i, obstacle.getSlot());
+        }
+        final Obstacle first = obstacles.get(0);
+        final Obstacle last = obstacles.get(39);
+        assertTrue(store.remove(first));
+        assertFalse(store.remove(first));
+        assertFalse(store.contains(first));
+        assertEquals(-1, first.getSlot());
+        // the last item fills the gap, but keeps its slot
+        assertSame(last, store.get(0));
+        assertEquals(39, last.getSlot());
+        assertSame(last, store.getBySlot(39));
+        assertNull(store.getBySlot(0));
+        assertEquals(39, store.size());
+        // the free slot is reused
+        final Obstacle added = obstacle(gameModel, 0f, 1f);
+        store.add(added);
+        assertEquals(0, added.getSlot());
+        for (int i = 0; i < store.size(); i++) {
+            final Item item = store.get(i);
+            assertEquals(i, store.indexOf(item));
+            assertSame(item, store.getBySlot(item.getSlot()));
+        }
+    }
+
+    @Test
+    public void handles() {
+        final ItemStore store = new ItemStore();
+        final Obstacle a = obstacle(gameModel, 0f, 0f);
+        final Obstacle b = obstacle(gameModel, 1f, 0f);
+        store.add(a);
+        store.add(b);
+        assertEquals(0, a.getId());
+        assertEquals(1, b.getId());
+        final int handleA = a.getHandle();
+        assertSame(a, store.resolve(handleA));
+        assertSame(b, store.resolve(b.getHandle()));
+        store.remove(a);
+        assertNull(store.resolve(handleA));
+        assertEquals(handleA, a.getHandle());
+        // the new item reuses the slot, but gets a new id and handle
+        final Obstacle c = obstacle(gameModel, 2f, 0f);
+        store.add(c);
+        assertEquals(-1, a.getSlot());
+        assertEquals(ItemStore.slotOf(handleA), c.getSlot());
+        assertEquals(2, c.getId());
+        assertTrue(c.getHandle() != handleA);
+        assertNull(store.resolve(handleA));
+        assertSame(c, store.resolve(c.getHandle()));
+        // a removed item keeps its id when it is added again
+        store.add(a);
+        assertEquals(0, a.getId());
+        assertSame(a, store.resolve(a.getHandle()));
+        assertEquals(3, store.getIdCount());
+        assertNull(store.resolve(-1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addTwice() {
+        final Obstacle obstacle = obstacle(gameModel, 0f, 0f);
+        map.getItems().add(obstacle);
+        new ItemStore().add(obstacle);
+    }
+
+    @Test
+    public void destroyedThisTick() {
+        final List<Item> events = new ArrayList<>();
+        gameModel.addGameEventListener(new GameEventAdapter() {
+            @Override
+            public void itemsDestroyed(DroidsMap map, List<Item> items) {
+                events.addAll(items);
+            }
+        });
+        final Obstacle a = obstacle(gameModel, 5f, 5f);
+        final Obstacle b = obstacle(gameModel, 8f, 5f);
+        final Obstacle c = obstacle(gameModel, 11f, 5f);
+        for (Obstacle obstacle : List.of(a, b, c))
+            map.register(obstacle, level);
+        map.update(0.01f);
+        assertEquals(4, map.getItems().size());
+        assertTrue(map.getItems().getDestroyedThisTick().isEmpty());
+
+        c.destroy();
+        a.destroy();
+        a.destroy();
+        map.update(0.01f);
+        assertEquals(List.of(c, a), map.getItems().getDestroyedThisTick());
+        assertEquals(List.of(c, a), events);
+        assertEquals(2, map.getItems().size());
+        assertTrue(map.getItems().contains(b));
+        for (Item item : level)
+            assertTrue(item != a && item != c);
+
+        map.update(0.01f);
+        assertTrue(map.getItems().getDestroyedThisTick().isEmpty());
+        assertEquals(2, events.size());
+    }
+}
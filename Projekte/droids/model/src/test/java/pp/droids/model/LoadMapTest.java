@@ -3,6 +3,8 @@ package pp.droids.model;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import pp.droids.model.external.ExternalMap;
+import pp.droids.model.external.StreamingMapLoader;
 import pp.util.FloatPoint;
 
 import java.io.IOException;
@@ -98,4 +100,53 @@ public class LoadMapTest {
         for (Rocket rocket : getRockets(gameModel))
             GamePlayTest.assertPositionEquals(it.next(), rocket, EPS);
     }
+
+    /**
+     * The streaming loader creates the same map as binding the whole document.
+     */
+    @Test
+    public void streamingLikeBinding() throws IOException {
+        final DroidsMap streamed;
+        final DroidsMap bound;
+        try (InputStream stream = getClass().getResourceAsStream(FILE_NAME)) {
+            streamed = StreamingMapLoader.load(stream, gameModel);
+        }
+        try (InputStream stream = getClass().getResourceAsStream(FILE_NAME)) {
+            bound = ExternalMap.readFromJsonStream(stream).toMap(gameModel);
+        }
+        assertEquals(bound.getItems().size(), streamed.getItems().size());
+        assertEquals(new ExternalMap(bound).toJson(), new ExternalMap(streamed).toJson());
+    }
+
+    /**
+     * Items listed before the size of the map are collected until the size is known.
+     */
+    @Test
+    public void itemsBeforeSize() throws IOException {
+        final String json = new ExternalMap(gameModel.getDroidsMap()).toJson();
+        final int items = json.indexOf("\"items\""); //NON-NLS
+        final String reordered = "{" + json.substring(items, json.length() - 1) + "," + json.substring(1, items - 1) + "}"; //NON-NLS
+        final DroidsMap map = StreamingMapLoader.load(reordered, gameModel);
+        assertEquals(25, map.getWidth());
+        assertEquals(15, map.getHeight());
+        assertEquals(json, new ExternalMap(map).toJson());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void missingLevel() throws IOException {
+        StreamingMapLoader.load("{\"width\": 10, \"height\": 10, \"items\": [{\"type\": \"obstacle\", \"x\": 1, \"y\": 2}]}", //NON-NLS
+                                gameModel);
+    }
+
+    @Test(expected = IOException.class)
+    public void itemNotAnObject() throws IOException {
+        final String json = new ExternalMap(gameModel.getDroidsMap()).toJson();
+        final int items = json.indexOf('[', json.indexOf("\"items\"")); //NON-NLS
+        StreamingMapLoader.load(json.substring(0, items + 1) + "1," + json.substring(items + 1), gameModel); //NON-NLS
+    }
+
+    @Test(expected = IOException.class)
+    public void trailingContent() throws IOException {
+        StreamingMapLoader.load(new ExternalMap(gameModel.getDroidsMap()).toJson() + " {}", gameModel); //NON-NLS
+    }
 }
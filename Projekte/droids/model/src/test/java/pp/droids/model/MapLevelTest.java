@@ -0,0 +1,144 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.notifications.GameEventAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static pp.droids.model.GamePlayTest.enemy;
+import static pp.droids.model.GamePlayTest.flag;
+import static pp.droids.model.GamePlayTest.obstacle;
+
+public class MapLevelTest {
+    private DroidsModel gameModel;
+    private DroidsMap map;
+    private MapLevel level1;
+    private MapLevel level2;
+    private Droid droid;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        map = new DroidsMap(gameModel, 20, 20);
+        level1 = new MapLevel(map, "Level 1"); //NON-NLS
+        level2 = new MapLevel(map, "Level 2"); //NON-NLS
+        droid = new Droid(gameModel);
+        map.setDroid(droid, level1);
+        gameModel.setDroidsMap(map);
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    @Test
+    public void partition() {
+        final Obstacle obstacle1 = obstacle(gameModel, 3f, 3f);
+        final Obstacle obstacle2 = obstacle(gameModel, 5f, 5f);
+        final Enemy enemy = enemy(gameModel, 8f, 8f);
+        map.register(obstacle1, level1);
+        map.register(obstacle2, level2);
+        map.register(enemy, level2);
+        map.addRegisteredItems();
+        assertEquals(List.of(droid, obstacle1), items(level1));
+        assertEquals(List.of(obstacle2, enemy), items(level2));
+        assertEquals(List.of(obstacle2), level2.getItems(Category.OBSTACLE));
+        assertEquals(List.of(enemy), level2.getItems(Category.CHARACTER));
+        assertEquals(List.of(), level1.getItems(Category.CHARACTER));
+
+        obstacle1.setLevel(level2);
+        assertEquals(List.of(droid), items(level1));
+        assertEquals(List.of(obstacle2, enemy, obstacle1), items(level2));
+        assertEquals(List.of(obstacle2, obstacle1), level2.getItems(Category.OBSTACLE));
+
+        obstacle2.destroy();
+        map.update(0.01f);
+        // the last item takes the place of the removed one
+        assertEquals(List.of(obstacle1, enemy), items(level2));
+        assertEquals(List.of(obstacle1), level2.getItems(Category.OBSTACLE));
+    }
+
+    @Test
+    public void removeMany() {
+        final List<Obstacle> obstacles = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            final Obstacle obstacle = obstacle(gameModel, i % 20, i / 20 + 2f);
+            obstacles.add(obstacle);
+            map.register(obstacle, level2);
+        }
+        map.addRegisteredItems();
+        final List<Item> remaining = new ArrayList<>();
+        for (int i = 0; i < obstacles.size(); i++)
+            if (i % 3 == 0)
+                obstacles.get(i).destroy();
+            else
+                remaining.add(obstacles.get(i));
+        map.update(0.01f);
+        assertEquals(remaining.size(), items(level2).size());
+        assertTrue(items(level2).containsAll(remaining));
+        assertEquals(remaining.size(), level2.getItems(Category.OBSTACLE).size());
+        assertTrue(level2.getItems(Category.OBSTACLE).containsAll(remaining));
+        // the remaining items can still be moved to another level
+        for (Item item : remaining)
+            item.setLevel(level1);
+        assertEquals(List.of(), items(level2));
+        assertEquals(List.of(), level2.getItems(Category.OBSTACLE));
+        assertEquals(remaining.size() + 1, items(level1).size());
+    }
+
+    @Test
+    public void flagFollowsCaptor() {
+        final Flag flag = flag(gameModel, 2f, 2f);
+        final Enemy enemy = enemy(gameModel, 8f, 8f);
+        map.register(flag, level1);
+        map.register(enemy, level1);
+        map.addRegisteredItems();
+        enemy.setCapturedFlag(flag);
+        enemy.setLevel(level2);
+        assertEquals(List.of(droid), items(level1));
+        assertEquals(List.of(enemy, flag), items(level2));
+        enemy.setCapturedFlag(null);
+        assertEquals(level2, flag.getLevel());
+        assertEquals(List.of(enemy, flag), items(level2));
+    }
+
+    @Test
+    public void levelChangesReported() {
+        final Flag flag = flag(gameModel, 2f, 2f);
+        final Enemy enemy = enemy(gameModel, 8f, 8f);
+        final Obstacle obstacle = obstacle(gameModel, 3f, 3f);
+        map.register(flag, level1);
+        map.register(enemy, level1);
+        map.register(obstacle, level1);
+        map.addRegisteredItems();
+        final List<List<Item>> moved = new ArrayList<>();
+        gameModel.addGameEventListener(new GameEventAdapter() {
+            @Override
+            public void itemsChangedLevel(DroidsMap m, List<Item> items) {
+                moved.add(items);
+            }
+        });
+        enemy.setCapturedFlag(flag);
+        enemy.setLevel(level2);
+        obstacle.setLevel(level1);
+        gameModel.update(0.01f);
+        assertEquals(List.of(enemy, flag), map.getItems().getLevelChangedThisTick());
+        assertEquals(List.of(List.of(enemy, flag)), moved);
+
+        gameModel.update(0.01f);
+        assertEquals(List.of(), map.getItems().getLevelChangedThisTick());
+        assertEquals(1, moved.size());
+    }
+
+    private static List<Item> items(MapLevel level) {
+        final List<Item> items = new ArrayList<>();
+        level.forEach(items::add);
+        return items;
+    }
+}
@@ -0,0 +1,111 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.model.MovementSolver.Move;
+import pp.util.FloatPoint;
+import pp.util.Position;
+import pp.util.Segment;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static pp.droids.model.GamePlayTest.obstacle;
+
+public class MovementSolverTest {
+    private static final float EPS = 1e-3f;
+
+    private DroidsModel gameModel;
+    private DroidsMap map;
+    private Droid droid;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        map = new DroidsMap(gameModel, 20, 20);
+        final MapLevel level = new MapLevel(map, "Level"); //NON-NLS
+        droid = new Droid(gameModel);
+        droid.setPos(5f, 2f);
+        map.setDroid(droid, level);
+        map.register(new Maze(gameModel, List.of(new FloatPoint(0f, 0f), new FloatPoint(10f, 0f),
+                                                 new FloatPoint(10f, 10f), new FloatPoint(0f, 10f))), level);
+        map.addRegisteredItems();
+        gameModel.setDroidsMap(map);
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    @Test
+    public void freeMove() {
+        final MovementSolver solver = new MovementSolver();
+        assertEquals(Move.FULL, solver.resolve(droid, 6f, 3f));
+        assertEquals(6f, solver.getX(), 0f);
+        assertEquals(3f, solver.getY(), 0f);
+    }
+
+    @Test
+    public void slideAlongWall() {
+        final float r = droid.getRadius();
+        final MovementSolver solver = new MovementSolver();
+        // the droid first hits the wall and then slides along it to the right
+        assertEquals(Move.PARTIAL, solver.resolve(droid, 7f, 0f));
+        assertEquals(r + MovementSolver.SKIN, solver.getY(), EPS);
+        assertEquals(7f, solver.getX(), EPS);
+        droid.setPos(solver.getX(), solver.getY());
+        assertFalse(droid.collidesWithAnyOtherItem());
+    }
+
+    @Test
+    public void slideIntoCorner() {
+        final float r = droid.getRadius();
+        final MovementSolver solver = new MovementSolver();
+        droid.setPos(9f, 2f);
+        assertEquals(Move.PARTIAL, solver.resolve(droid, 12f, -1f));
+        assertEquals(10f - r - MovementSolver.SKIN, solver.getX(), EPS);
+        assertEquals(r + MovementSolver.SKIN, solver.getY(), EPS);
+        droid.setPos(solver.getX(), solver.getY());
+        assertFalse(droid.collidesWithAnyOtherItem());
+        // the droid cannot move any further into the corner
+        assertEquals(Move.BLOCKED, solver.resolve(droid, 12f, -1f));
+        assertEquals(droid.getX(), solver.getX(), 0f);
+        assertEquals(droid.getY(), solver.getY(), 0f);
+    }
+
+    @Test
+    public void stopAtObstacle() {
+        final Obstacle obstacle = obstacle(gameModel, 8f, 2f);
+        map.register(obstacle, droid.getLevel());
+        map.addRegisteredItems();
+        final MovementSolver solver = new MovementSolver();
+        // a head-on collision leaves nothing to slide
+        assertEquals(Move.PARTIAL, solver.resolve(droid, 9f, 2f));
+        assertEquals(8f - obstacle.getRadius() - droid.getRadius() - MovementSolver.SKIN, solver.getX(), EPS);
+        assertEquals(2f, solver.getY(), EPS);
+        droid.setPos(solver.getX(), solver.getY());
+        assertEquals(Move.BLOCKED, solver.resolve(droid, 9f, 2f));
+    }
+
+    /**
+     * A droid that slides along an obstacle keeps following its path.
+     */
+    @Test
+    public void keepPathWhenSliding() {
+        final Obstacle obstacle = obstacle(gameModel, 6.5f, 2f);
+        map.register(obstacle, droid.getLevel());
+        map.addRegisteredItems();
+        final Position target = new FloatPoint(8f, 2.3f);
+        droid.setPath(List.of(new Segment(new FloatPoint(droid.getX(), droid.getY()), target)));
+        droid.update(0.5f);
+        assertFalse(droid.getPath().isEmpty());
+        for (int i = 0; i < 100 && !droid.getPath().isEmpty(); i++)
+            droid.update(0.1f);
+        assertTrue(droid.getPath().isEmpty());
+        assertEquals(0f, droid.distanceTo(target), EPS);
+    }
+}
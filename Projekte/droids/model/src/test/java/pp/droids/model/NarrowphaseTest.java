@@ -0,0 +1,93 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.model.collisions.MoveOverlapVisitor;
+import pp.droids.model.collisions.Narrowphase;
+import pp.droids.model.collisions.OverlapVisitor;
+import pp.util.FloatPoint;
+import pp.util.Position;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static pp.droids.model.GamePlayTest.enemy;
+import static pp.droids.model.GamePlayTest.obstacle;
+
+public class NarrowphaseTest {
+    private DroidsModel gameModel;
+    private Maze maze;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        maze = new Maze(gameModel, List.of(new FloatPoint(2f, 2f), new FloatPoint(8f, 2f),
+                                           new FloatPoint(8f, 8f), new FloatPoint(2f, 8f)));
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    @Test
+    public void overlap() {
+        final Enemy enemy = enemy(gameModel, 5f, 5f);
+        final Obstacle obstacle = obstacle(gameModel, 5.5f, 5f);
+        assertTrue(Narrowphase.overlap(enemy, obstacle));
+        assertTrue(Narrowphase.overlap(obstacle, enemy));
+        assertFalse(Narrowphase.overlap(enemy, enemy));
+        assertFalse(Narrowphase.overlap(enemy, maze));
+        assertFalse(Narrowphase.overlap(maze, maze));
+        enemy.setPos(2.1f, 5f);
+        assertTrue(Narrowphase.overlap(enemy, maze));
+        assertTrue(Narrowphase.overlap(maze, enemy));
+        obstacle.destroy();
+        assertFalse(Narrowphase.overlap(enemy, obstacle));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void moveMaze() {
+        Narrowphase.overlapWhenMoving(maze, new FloatPoint(1f, 1f), enemy(gameModel, 5f, 5f));
+    }
+
+    @Test
+    public void timeOfImpact() {
+        final Enemy enemy = enemy(gameModel, 5f, 5f);
+        final Obstacle obstacle = obstacle(gameModel, 5f, 7f);
+        assertEquals((4f - obstacle.getRadius()) / 4f,
+                     Narrowphase.timeOfImpact(null, 5f, 3f, 0f, 5f, 7f, obstacle), 1e-5f);
+        assertEquals(0f, Narrowphase.timeOfImpact(enemy, 5f, 6.5f, 0.5f, 5f, 4f, obstacle), 0f);
+        assertEquals(Float.POSITIVE_INFINITY, Narrowphase.timeOfImpact(enemy, 5f, 5f, 0f, 5f, 4f, enemy), 0f);
+        assertEquals(0.5f, Narrowphase.timeOfImpact(null, 1f, 5f, 0f, 3f, 5f, maze), 1e-5f);
+        obstacle.destroy();
+        assertEquals(Float.POSITIVE_INFINITY, Narrowphase.timeOfImpact(null, 5f, 3f, 0f, 5f, 7f, obstacle), 0f);
+    }
+
+    @Test
+    public void sameAsVisitors() {
+        final Random random = new Random(42);
+        final Enemy enemy = enemy(gameModel, 0f, 0f);
+        final Obstacle obstacle = obstacle(gameModel, 0f, 0f);
+        for (int i = 0; i < 1000; i++) {
+            enemy.setPos(10f * random.nextFloat(), 10f * random.nextFloat());
+            obstacle.setPos(10f * random.nextFloat(), 10f * random.nextFloat());
+            final Position to = new FloatPoint(10f * random.nextFloat(), 10f * random.nextFloat());
+            for (Item other : List.of(obstacle, maze)) {
+                assertEquals(other.accept(enemy.accept(OverlapVisitor.INSTANCE)),
+                             Narrowphase.overlap(enemy, other));
+                assertEquals(enemy.accept(other.accept(OverlapVisitor.INSTANCE)),
+                             Narrowphase.overlap(other, enemy));
+                assertEquals(other.accept(enemy.accept(new MoveOverlapVisitor(to))),
+                             Narrowphase.overlapWhenMoving(enemy, to, other));
+                assertEquals(Narrowphase.overlapWhenMoving(enemy, to, other),
+                             Narrowphase.timeOfImpact(enemy, enemy.getX(), enemy.getY(), enemy.getRadius(),
+                                                      to.getX(), to.getY(), other) <= 1f);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.notifications.EventRing;
+import pp.droids.notifications.EventType;
+import pp.droids.notifications.GameEventAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static pp.droids.model.GamePlayTest.enemy;
+
+public class ProjectilePoolTest {
+    private static final float EPS = 1e-4f;
+
+    private DroidsModel gameModel;
+    private DroidsMap map;
+    private Droid droid;
+    private ProjectilePool pool;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        map = new DroidsMap(gameModel, 20, 20);
+        final MapLevel level = new MapLevel(map, "Level"); //NON-NLS
+        droid = new Droid(gameModel);
+        droid.setPos(2f, 2f);
+        map.setDroid(droid, level);
+        gameModel.setDroidsMap(map);
+        pool = map.getProjectilePool();
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    @Test
+    public void move() {
+        pool.spawn(droid, 3f, 2f, 0f, 10f, 1f, Shooter.PROJECTILE_BOUNDING_RADIUS);
+        map.update(0.1f);
+        assertEquals(1, pool.size());
+        assertEquals(4f, pool.getX(0), EPS);
+        assertEquals(2f, pool.getY(0), EPS);
+        assertEquals(0.9f, pool.getLifeTime(0), EPS);
+        assertEquals(3f, pool.getPrevX(0), EPS);
+        assertEquals(2f, pool.getPrevY(0), EPS);
+        map.update(1f);
+        assertEquals(0, pool.size());
+    }
+
+    @Test
+    public void swapRemove() {
+        for (int i = 0; i < 100; i++)
+            pool.spawn(droid, 3f, 2f, 0f, 1f, i % 2 == 0 ? 0.5f : 5f, Shooter.PROJECTILE_BOUNDING_RADIUS);
+        map.update(1f);
+        assertEquals(50, pool.size());
+        for (int i = 0; i < pool.size(); i++) {
+            assertEquals(4f, pool.getLifeTime(i), EPS);
+            assertEquals(4f, pool.getX(i), EPS);
+            assertEquals(droid, pool.getOwner(i));
+        }
+    }
+
+    @Test
+    public void hitFirstEnemyOnly() {
+        final Enemy first = enemy(gameModel, 6f, 2f);
+        final Enemy second = enemy(gameModel, 7f, 2f);
+        map.register(second, droid.getLevel());
+        map.register(first, droid.getLevel());
+        map.addRegisteredItems();
+        final int lives = first.getLives();
+
+        pool.spawn(droid, 3f, 2f, 0f, 10f, 10f, Shooter.PROJECTILE_BOUNDING_RADIUS);
+        map.update(1f);
+        assertEquals(0, pool.size());
+        assertEquals(lives - 1, first.getLives());
+        assertEquals(lives, second.getLives());
+    }
+
+    @Test
+    public void hitByOwner() {
+        final Enemy enemy = enemy(gameModel, 6f, 2f);
+        map.register(enemy, droid.getLevel());
+        map.addRegisteredItems();
+        final List<Item> hitting = new ArrayList<>();
+        gameModel.addGameEventListener(new GameEventAdapter() {
+            @Override
+            public void hit(DamageReceiver damaged, Item hittingItem) {
+                hitting.add(hittingItem);
+            }
+        });
+        final EventRing ring = gameModel.getEventRing();
+        final EventRing.Consumer consumer = ring.addConsumer();
+
+        pool.spawn(droid, 3f, 2f, 0f, 10f, 10f, Shooter.PROJECTILE_BOUNDING_RADIUS);
+        map.update(1f);
+        assertEquals(List.of(droid), hitting);
+        final List<Integer> others = new ArrayList<>();
+        ring.poll(consumer, (r, s) -> {
+            assertEquals(EventType.HIT, r.getType(s));
+            assertEquals(enemy.getId(), r.getItemId(s));
+            others.add(r.getOtherId(s));
+        });
+        assertEquals(List.of(droid.getId()), others);
+    }
+}
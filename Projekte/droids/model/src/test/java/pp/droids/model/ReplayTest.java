@@ -0,0 +1,216 @@
+package pp.droids.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.model.replay.ReplayPlayer;
+import pp.util.FloatPoint;
+import pp.util.Position;
+import pp.util.Segment;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayTest {
+    private static final float STEP = 1f / 60f;
+    private static final int TICKS = 1300;
+
+    private DroidsModel gameModel;
+    private ReplayPlayer player;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        gameModel.loadRandomMap();
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+        if (player != null)
+            player.getModel().shutdown();
+    }
+
+    /**
+     * Plays the game for the specified number of ticks while giving commands to the droid.
+     */
+    private void play(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            final Droid droid = gameModel.getDroidsMap().getDroid();
+            if (i % 90 < 60)
+                droid.goForward();
+            if (i % 90 >= 45)
+                droid.turnLeft();
+            if (i % 30 == 0)
+                droid.fire();
+            gameModel.update(STEP);
+        }
+    }
+
+    /**
+     * Returns the state of each item of the specified model, the projectiles in flight, and the
+     * navigation paths of the droid and the dog.
+     */
+    private static List<String> state(DroidsModel model) {
+        final DroidsMap map = model.getDroidsMap();
+        final List<String> state = new ArrayList<>();
+        final Droid droid = map.getDroid();
+        state.add("droid " + droid.getId() + " " + droid.getX() + " " + droid.getY() + " " + droid.getRotation() //NON-NLS
+                  + " " + droid.getLives() + " " + droid.getRemainingReloadTime() + " " + path(droid.getPath())); //NON-NLS
+        final Dog dog = map.getDog();
+        state.add("dog " + dog.getId() + " " + dog.getX() + " " + dog.getY() + " " + dog.getRotation() //NON-NLS
+                  + " " + path(dog.getPath())); //NON-NLS
+        for (Item item : map.getItems()) {
+            final StringBuilder b = new StringBuilder();
+            b.append(item.getId()).append(' ').append(item.cat()).append(' ').append(item.getLevel().getName())
+             .append(' ').append(item.isDestroyed());
+            if (item instanceof BoundedItem bounded)
+                b.append(' ').append(bounded.getX()).append(' ').append(bounded.getY())
+                 .append(' ').append(bounded.getRotation());
+            if (item instanceof DamageReceiver receiver)
+                b.append(' ').append(receiver.getLives());
+            if (item instanceof Shooter shooter)
+                b.append(' ').append(shooter.getRemainingReloadTime());
+            state.add(b.toString());
+        }
+        final ProjectilePool pool = map.getProjectilePool();
+        for (int i = 0; i < pool.size(); i++)
+            state.add("projectile " + pool.getOwner(i).getId() + " " + pool.getX(i) + " " + pool.getY(i) //NON-NLS
+                      + " " + pool.getLifeTime(i)); //NON-NLS
+        state.add("winner " + model.getWinner()); //NON-NLS
+        return state;
+    }
+
+    private static String path(List<Position> path) {
+        final StringBuilder b = new StringBuilder();
+        for (Position p : path)
+            b.append(p.getX()).append(',').append(p.getY()).append(' ');
+        return b.toString();
+    }
+
+    private byte[] record(int ticks) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        gameModel.startRecording(out);
+        play(ticks);
+        gameModel.stopRecording();
+        assertNull(gameModel.getReplayRecorder());
+        return out.toByteArray();
+    }
+
+    @Test
+    public void replayIsIdentical() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        gameModel.startRecording(out);
+        final List<String> initial = state(gameModel);
+        play(TICKS);
+        gameModel.stopRecording();
+        player = new ReplayPlayer(out.toByteArray(), null);
+        assertEquals(TICKS, player.getNumTicks());
+        assertEquals(initial, state(player.getModel()));
+        assertEquals(TICKS, player.playToEnd());
+        assertTrue(player.isAtEnd());
+        assertFalse(player.step());
+        assertEquals(state(gameModel), state(player.getModel()));
+    }
+
+    /**
+     * Seeking yields the same state as playing back straight to the same tick.
+     */
+    @Test
+    public void seek() throws IOException {
+        final byte[] log = record(TICKS);
+        player = new ReplayPlayer(log, null);
+        final int interval = gameModel.getConfig().getReplayKeyframeInterval();
+        assertEquals(List.of((long) interval, 2L * interval), player.getKeyframeTicks());
+        final ReplayPlayer straight = new ReplayPlayer(log, null);
+        try {
+            while (straight.getTick() < 100L)
+                straight.step();
+            final List<String> at100 = state(straight.getModel());
+            while (straight.getTick() < 2L * interval + 10L)
+                straight.step();
+            final List<String> atKeyframe = state(straight.getModel());
+            straight.playToEnd();
+
+            player.seek(2L * interval + 10L);
+            assertEquals(2L * interval + 10L, player.getTick());
+            assertEquals(atKeyframe, state(player.getModel()));
+            // seeking backwards without a keyframe in between restarts from the initial state
+            player.seek(100L);
+            assertEquals(100L, player.getTick());
+            assertEquals(at100, state(player.getModel()));
+            player.seek(TICKS);
+            assertTrue(player.isAtEnd());
+            assertEquals(state(straight.getModel()), state(player.getModel()));
+            assertEquals(state(gameModel), state(player.getModel()));
+        }
+        finally {
+            straight.getModel().shutdown();
+        }
+    }
+
+    @Test
+    public void seekFromStartIsExact() throws IOException {
+        final byte[] log = record(500);
+        final List<String> expected = state(gameModel);
+        player = new ReplayPlayer(log, null);
+        player.seek(250L);
+        player.seek(0L);
+        player.seek(500L);
+        assertEquals(expected, state(player.getModel()));
+    }
+
+    /**
+     * A log whose last update is truncated ends with the previous update.
+     */
+    @Test
+    public void truncatedTail() throws IOException {
+        gameModel.shutdown();
+        gameModel = new DroidsModel(new ObjectMapper().readValue("{\"think budget\": 1e-6}", //NON-NLS
+                                                                 DroidsConfig.class));
+        gameModel.loadRandomMap();
+        final byte[] log = record(500);
+        final ReplayPlayer complete = new ReplayPlayer(log, null);
+        try {
+            assertEquals(500L, complete.getNumTicks());
+            // the last record is the selection of thinking items of the last update
+            player = new ReplayPlayer(Arrays.copyOf(log, log.length - 2), null);
+            assertEquals(499L, player.getNumTicks());
+            assertEquals(499L, player.playToEnd());
+            assertFalse(player.step());
+            complete.seek(499L);
+            assertEquals(state(complete.getModel()), state(player.getModel()));
+        }
+        finally {
+            complete.getModel().shutdown();
+        }
+    }
+
+    @Test
+    public void dogPath() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        gameModel.startRecording(out);
+        play(20);
+        final Dog dog = gameModel.getDroidsMap().getDog();
+        final Position to = new FloatPoint(dog.getX() + 1f, dog.getY() + 1f);
+        dog.setPath(List.of(new Segment(dog, to)));
+        play(1);
+        final List<String> expected = state(gameModel);
+        play(100);
+        gameModel.stopRecording();
+        player = new ReplayPlayer(out.toByteArray(), null);
+        player.seek(21L);
+        assertEquals(expected, state(player.getModel()));
+        player.playToEnd();
+        assertEquals(state(gameModel), state(player.getModel()));
+    }
+}
@@ -0,0 +1,197 @@
+package pp.droids.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import pp.droids.model.snapshot.MapSnapshot;
+import pp.droids.model.snapshot.SnapshotPublisher;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static pp.droids.model.GamePlayTest.obstacle;
+
+public class SnapshotTest {
+    private static final float EPS = 0.00001f;
+
+    private DroidsModel gameModel;
+    private DroidsMap map;
+    private MapLevel level;
+    private Droid droid;
+
+    @Before
+    public void setUp() throws IOException {
+        final DroidsConfig config = new ObjectMapper().readValue("{\"publish snapshots\": true}", //NON-NLS
+                                                                 DroidsConfig.class);
+        gameModel = new DroidsModel(config);
+        map = new DroidsMap(gameModel, 20, 20);
+        level = new MapLevel(map, "Level"); //NON-NLS
+        droid = new Droid(gameModel);
+        droid.setPos(2f, 3f);
+        map.setDroid(droid, level);
+        gameModel.setDroidsMap(map);
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    @Test
+    public void publishedAfterUpdate() {
+        assertNull(map.getSnapshots().acquire());
+        final Obstacle obstacle = obstacle(gameModel, 5f, 6f);
+        map.register(obstacle, level);
+        map.update(0.01f);
+        try (MapSnapshot snapshot = map.getSnapshots().acquire()) {
+            assertEquals(1, snapshot.getTick());
+            assertEquals(2, snapshot.size());
+            final int d = snapshot.getDroidIndex();
+            assertEquals(d, snapshot.indexOf(droid.getHandle()));
+            assertEquals(droid.getX(), snapshot.getX(d), EPS);
+            assertEquals(droid.getY(), snapshot.getY(d), EPS);
+            assertEquals(Category.DROID, snapshot.getCat(d));
+            final int o = snapshot.indexOf(obstacle.getHandle());
+            assertEquals(obstacle.getId(), snapshot.getId(o));
+            assertEquals(5f, snapshot.getX(o), EPS);
+            assertEquals(6f, snapshot.getY(o), EPS);
+            assertEquals(obstacle.getRadius(), snapshot.getRadius(o), EPS);
+            assertEquals("Level", snapshot.getLevelName(o)); //NON-NLS
+            assertFalse(snapshot.isDestroyed(o));
+        }
+        // the snapshot does not contain items removed afterwards
+        obstacle.destroy();
+        map.update(0.01f);
+        try (MapSnapshot snapshot = map.getSnapshots().acquire()) {
+            assertEquals(2, snapshot.getTick());
+            assertEquals(-1, snapshot.indexOf(obstacle.getHandle()));
+            assertEquals(1, snapshot.size());
+        }
+    }
+
+    @Test
+    public void notPublishedByDefault() {
+        final DroidsModel model = new DroidsModel();
+        try {
+            final DroidsMap otherMap = new DroidsMap(model, 20, 20);
+            final MapLevel otherLevel = new MapLevel(otherMap, "Level"); //NON-NLS
+            otherMap.setDroid(new Droid(model), otherLevel);
+            model.setDroidsMap(otherMap);
+            otherMap.update(0.01f);
+            assertNull(otherMap.getSnapshots().acquire());
+            assertEquals(0, otherMap.getSnapshots().getTick());
+        }
+        finally {
+            model.shutdown();
+        }
+    }
+
+    /**
+     * Refilling a snapshot with fewer items forgets the slots of the items that are gone.
+     */
+    @Test
+    public void shrinking() {
+        final SnapshotPublisher publisher = new SnapshotPublisher();
+        final Obstacle obstacle = obstacle(gameModel, 5f, 6f);
+        map.register(obstacle, level);
+        map.update(0.01f);
+        publisher.publish(List.of(droid, obstacle), droid);
+        publisher.publish(List.of(droid, obstacle), droid);
+        publisher.publish(List.of(droid), droid);
+        publisher.publish(List.of(droid), droid);
+        try (MapSnapshot snapshot = publisher.acquire()) {
+            assertEquals(1, snapshot.size());
+            assertEquals(-1, snapshot.indexOf(obstacle.getHandle()));
+            assertEquals(0, snapshot.indexOf(droid.getHandle()));
+        }
+    }
+
+    @Test
+    public void doubleBuffered() {
+        final SnapshotPublisher publisher = new SnapshotPublisher();
+        final List<Item> items = List.of(droid);
+        for (int i = 0; i < 10; i++) {
+            publisher.publish(items, droid);
+            try (MapSnapshot snapshot = publisher.acquire()) {
+                assertEquals(i + 1, snapshot.getTick());
+            }
+        }
+        assertEquals(2, publisher.getNumAllocated());
+    }
+
+    @Test
+    public void retainedSnapshotDoesNotChange() {
+        final SnapshotPublisher publisher = new SnapshotPublisher();
+        final List<Item> items = List.of(droid);
+        publisher.publish(items, droid);
+        final MapSnapshot retained = publisher.acquire();
+        for (int i = 0; i < 3; i++) {
+            droid.setPos(i + 10f, 0f);
+            publisher.publish(items, droid);
+        }
+        assertEquals(1, retained.getTick());
+        assertEquals(2f, retained.getX(0), EPS);
+        try (MapSnapshot latest = publisher.acquire()) {
+            assertNotSame(retained, latest);
+            assertEquals(4, latest.getTick());
+            assertEquals(12f, latest.getX(0), EPS);
+        }
+        retained.close();
+        assertEquals(3, publisher.getNumAllocated());
+        // the released snapshot is not used anymore, but the buffers are reused again
+        final MapSnapshot latest = publisher.acquire();
+        latest.close();
+        publisher.publish(items, droid);
+        publisher.publish(items, droid);
+        try (MapSnapshot snapshot = publisher.acquire()) {
+            assertSame(latest, snapshot);
+        }
+        assertEquals(3, publisher.getNumAllocated());
+    }
+
+    /**
+     * Readers on other threads always see the state of a single update, i.e., all items
+     * of a snapshot are at the same position.
+     */
+    @Test
+    public void concurrentReaders() throws InterruptedException, ExecutionException {
+        final SnapshotPublisher publisher = new SnapshotPublisher();
+        final List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            items.add(obstacle(gameModel, 0f, 0f));
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final List<Future<Integer>> readers = new ArrayList<>();
+        for (int r = 0; r < 3; r++)
+            readers.add(gameModel.getExecutor().submit(() -> {
+                int reads = 0;
+                while (running.get())
+                    try (MapSnapshot snapshot = publisher.acquire()) {
+                        if (snapshot == null) continue;
+                        final float x = snapshot.getTick();
+                        for (int i = 0; i < snapshot.size(); i++)
+                            assertEquals(x, snapshot.getX(i), EPS);
+                        reads++;
+                    }
+                return reads;
+            }));
+        for (int tick = 1; tick <= 2000; tick++) {
+            for (Item item : items)
+                ((Obstacle) item).setPos(tick, 0f);
+            publisher.publish(items, null);
+        }
+        running.set(false);
+        for (Future<Integer> reader : readers)
+            assertTrue(reader.get() >= 0);
+    }
+}
@@ -0,0 +1,112 @@
+package pp.droids.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static pp.droids.model.GamePlayTest.obstacle;
+
+public class SpatialHashTest {
+    private DroidsModel gameModel;
+    private DroidsMap map;
+    private MapLevel level;
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        map = new DroidsMap(gameModel, 30, 30);
+        level = new MapLevel(map, "Level"); //NON-NLS
+        final Droid droid = new Droid(gameModel);
+        map.setDroid(droid, level);
+        gameModel.setDroidsMap(map);
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    @Test
+    public void nearItems() {
+        final Obstacle near = obstacle(gameModel, 3f, 3f);
+        final Obstacle far = obstacle(gameModel, 20f, 20f);
+        map.register(near, level);
+        map.register(far, level);
+        map.addRegisteredItems();
+        final List<Item> found = itemsNear(3.5f, 3f, 0.1f);
+        assertTrue(found.contains(near));
+        assertFalse(found.contains(far));
+        // moving items updates the hash
+        far.setPos(4f, 3f);
+        assertTrue(itemsNear(3.5f, 3f, 0.1f).contains(far));
+        assertFalse(itemsNear(20f, 20f, 0.1f).contains(far));
+    }
+
+    @Test
+    public void collisions() {
+        final Obstacle obstacle = obstacle(gameModel, 10f, 10f);
+        map.register(obstacle, level);
+        map.addRegisteredItems();
+        final Droid droid = map.getDroid();
+        droid.setPos(10.5f, 10f);
+        assertTrue(droid.collidesWithAnyOtherItem());
+        droid.setPos(15f, 10f);
+        assertFalse(droid.collidesWithAnyOtherItem());
+        obstacle.setPos(15.5f, 10f);
+        assertTrue(droid.collidesWithAnyOtherItem());
+    }
+
+    @Test
+    public void levelChangeAndRemoval() {
+        final MapLevel other = new MapLevel(map, "Other"); //NON-NLS
+        final Obstacle obstacle = obstacle(gameModel, 5f, 5f);
+        map.register(obstacle, level);
+        map.addRegisteredItems();
+        assertSame(level.getSpatialHash(), obstacle.spatialHash);
+        obstacle.setLevel(other);
+        assertSame(other.getSpatialHash(), obstacle.spatialHash);
+        assertFalse(itemsNear(5f, 5f, 1f).contains(obstacle));
+        // copies are not contained in any hash
+        assertNull(obstacle.copy().spatialHash);
+        obstacle.destroy();
+        map.update(0.1f);
+        assertNull(obstacle.spatialHash);
+        assertEquals(List.of(), itemsNear(other, 5f, 5f, 1f));
+    }
+
+    @Test
+    public void manyCells() {
+        final SpatialHash hash = new SpatialHash(1f);
+        final List<Obstacle> obstacles = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            final Obstacle obstacle = obstacle(gameModel, (i % 40) - 20.5f, (i / 40) - 12.5f);
+            obstacles.add(obstacle);
+            hash.add(obstacle);
+        }
+        for (Obstacle obstacle : obstacles) {
+            final List<BoundedItem> found = new ArrayList<>();
+            hash.forEach(obstacle.getX(), obstacle.getY(), 0.1f, found::add);
+            assertTrue(found.contains(obstacle));
+            assertTrue(hash.remove(obstacle, obstacle.getX(), obstacle.getY()));
+        }
+        assertFalse(hash.anyMatch(0f, 0f, 100f, item -> true));
+    }
+
+    private List<Item> itemsNear(float x, float y, float radius) {
+        return itemsNear(level, x, y, radius);
+    }
+
+    private static List<Item> itemsNear(MapLevel level, float x, float y, float radius) {
+        final List<Item> items = new ArrayList<>();
+        level.forEachItemNear(x, y, radius, items::add);
+        return items;
+    }
+}
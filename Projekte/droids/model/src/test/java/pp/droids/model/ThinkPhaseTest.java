@@ -0,0 +1,187 @@
+package pp.droids.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ThinkPhaseTest {
+    private static final int NUM_ITEMS = 5 * DroidsMap.PARALLEL_THRESHOLD;
+
+    private DroidsModel gameModel;
+    private DroidsMap map;
+    private final AtomicInteger thoughts = new AtomicInteger();
+
+    /**
+     * An obstacle that counts its thoughts and records how many items have thought before its update.
+     */
+    private class ThinkingObstacle extends Obstacle {
+        private int thinks;
+        private int thoughtsBeforeUpdate = -1;
+
+        ThinkingObstacle() {
+            super(gameModel);
+        }
+
+        @Override
+        public void think(float delta) {
+            thinks++;
+            thoughts.incrementAndGet();
+        }
+
+        @Override
+        public void update(float delta) {
+            thoughtsBeforeUpdate = thoughts.get();
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        gameModel = new DroidsModel(config(true));
+        map = new DroidsMap(gameModel, 100, 100);
+        final MapLevel level = new MapLevel(map, "Level"); //NON-NLS
+        final Droid droid = new Droid(gameModel);
+        droid.setPos(1f, 1f);
+        map.setDroid(droid, level);
+        gameModel.setDroidsMap(map);
+    }
+
+    private static DroidsConfig config(boolean parallel) throws IOException {
+        return new ObjectMapper().readValue("{\"parallel think phase\": " + parallel + "}", //NON-NLS
+                                            DroidsConfig.class);
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    @Test
+    public void thinkBeforeUpdate() {
+        final List<ThinkingObstacle> obstacles = new ArrayList<>();
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            final ThinkingObstacle obstacle = new ThinkingObstacle();
+            obstacle.setPos(5f + i % 50, 5f + 2 * (i / 50));
+            obstacles.add(obstacle);
+            map.register(obstacle, map.getDroid().getLevel());
+        }
+        map.addRegisteredItems();
+        map.update(0.1f);
+        // each obstacle has thought exactly once, and all have done so before the first update
+        for (ThinkingObstacle obstacle : obstacles) {
+            assertEquals(1, obstacle.thinks);
+            assertEquals(NUM_ITEMS, obstacle.thoughtsBeforeUpdate);
+        }
+    }
+
+    /**
+     * An interrupted update still waits for all thinking items before updating any item, and the
+     * interrupt status is kept.
+     */
+    @Test
+    public void interrupted() {
+        final List<ThinkingObstacle> obstacles = new ArrayList<>();
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            final ThinkingObstacle obstacle = new ThinkingObstacle() {
+                @Override
+                public void think(float delta) {
+                    final long start = System.nanoTime();
+                    while (System.nanoTime() - start < 100_000L)
+                        Thread.onSpinWait();
+                    super.think(delta);
+                }
+            };
+            obstacle.setPos(5f + i % 50, 5f + 2 * (i / 50));
+            obstacles.add(obstacle);
+            map.register(obstacle, map.getDroid().getLevel());
+        }
+        map.addRegisteredItems();
+        Thread.currentThread().interrupt();
+        map.update(0.1f);
+        assertTrue(Thread.interrupted());
+        for (ThinkingObstacle obstacle : obstacles) {
+            assertEquals(1, obstacle.thinks);
+            assertEquals(NUM_ITEMS, obstacle.thoughtsBeforeUpdate);
+        }
+    }
+
+    /**
+     * An obstacle that counts its neighbours when thinking and moves by their number when updated.
+     */
+    private static class CountingObstacle extends Obstacle {
+        private int neighbours;
+
+        CountingObstacle(DroidsModel model) {
+            super(model);
+        }
+
+        @Override
+        public void think(float delta) {
+            final int[] count = {0};
+            getLevel().forEachItemNear(getX(), getY(), 3f, it -> count[0]++);
+            neighbours = count[0];
+        }
+
+        @Override
+        public void update(float delta) {
+            setPos(getX() + 0.01f * neighbours, getY() + 0.001f * (neighbours % 3));
+        }
+    }
+
+    /**
+     * Runs several updates of a map with obstacles that count their neighbours in the think phase,
+     * and returns the final positions of the obstacles.
+     */
+    private static List<Float> runCounting(boolean parallel) throws IOException {
+        final DroidsModel model = new DroidsModel(config(parallel));
+        try {
+            final DroidsMap map = new DroidsMap(model, 100, 100);
+            final MapLevel level = new MapLevel(map, "Level"); //NON-NLS
+            final Droid droid = new Droid(model);
+            droid.setPos(1f, 1f);
+            map.setDroid(droid, level);
+            model.setDroidsMap(map);
+            final List<CountingObstacle> obstacles = new ArrayList<>();
+            for (int i = 0; i < NUM_ITEMS; i++) {
+                final CountingObstacle obstacle = new CountingObstacle(model);
+                obstacle.setPos(5f + 1.5f * (i % 40), 5f + 1.5f * (i / 40));
+                obstacles.add(obstacle);
+                map.register(obstacle, level);
+            }
+            map.addRegisteredItems();
+            for (int i = 0; i < 20; i++)
+                map.update(0.1f);
+            final List<Float> positions = new ArrayList<>();
+            for (CountingObstacle obstacle : obstacles) {
+                positions.add(obstacle.getX());
+                positions.add(obstacle.getY());
+            }
+            return positions;
+        }
+        finally {
+            model.shutdown();
+        }
+    }
+
+    /**
+     * The parallel think phase yields the same results in every run, and the same results as
+     * thinking sequentially.
+     */
+    @Test
+    public void sameAsSequential() throws IOException {
+        assertFalse(new DroidsConfig().isParallelThinkPhase());
+        final List<Float> sequential = runCounting(false);
+        final List<Float> parallel = runCounting(true);
+        assertEquals(sequential, parallel);
+        assertEquals(parallel, runCounting(true));
+    }
+}
@@ -0,0 +1,197 @@
+package pp.droids.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ThinkSchedulerTest {
+    private static final float DELTA = 0.02f;
+    private static final float EPS = 0.00001f;
+
+    private DroidsModel gameModel;
+    private DroidsMap map;
+    private ItemStore store;
+    private MapLevel level;
+    private Droid droid;
+
+    /**
+     * An item whose thinking may be deferred and which records the time arguments of its thoughts.
+     */
+    private static class Thinker extends Obstacle {
+        private final long busyNanos;
+        private final List<Float> deltas = new ArrayList<>();
+
+        Thinker(DroidsModel model, float x, float y, long busyNanos) {
+            super(model);
+            setPos(x, y);
+            this.busyNanos = busyNanos;
+        }
+
+        @Override
+        public boolean isThinkingDeferrable() {
+            return true;
+        }
+
+        @Override
+        public void think(float delta) {
+            deltas.add(delta);
+            final long start = System.nanoTime();
+            while (System.nanoTime() - start < busyNanos)
+                Thread.onSpinWait();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        gameModel = new DroidsModel();
+        map = new DroidsMap(gameModel, 20, 20);
+        level = new MapLevel(map, "Level"); //NON-NLS
+        droid = new Droid(gameModel);
+        map.setDroid(droid, level);
+        gameModel.setDroidsMap(map);
+        store = map.getItems();
+    }
+
+    @After
+    public void tearDown() {
+        gameModel.shutdown();
+    }
+
+    private List<Thinker> addThinkers(int num, long busyNanos) {
+        final List<Thinker> thinkers = new ArrayList<>();
+        for (int i = 0; i < num; i++) {
+            final Thinker thinker = new Thinker(gameModel, i + 1, 0f, busyNanos);
+            thinkers.add(thinker);
+            map.register(thinker, level);
+        }
+        // adds the registered items to the store
+        map.update(0f);
+        thinkers.forEach(thinker -> thinker.deltas.clear());
+        return thinkers;
+    }
+
+    private static void tick(ThinkScheduler scheduler, List<Item> items, Droid droid) {
+        scheduler.think(scheduler.select(items, droid, DELTA), DELTA);
+    }
+
+    @Test
+    public void unlimited() {
+        final ThinkScheduler scheduler = new ThinkScheduler(0f);
+        assertFalse(scheduler.isLimited());
+        final List<Thinker> thinkers = addThinkers(5, 0L);
+        for (int i = 0; i < 3; i++)
+            tick(scheduler, store, droid);
+        for (Thinker thinker : thinkers)
+            assertEquals(List.of(DELTA, DELTA, DELTA), thinker.deltas);
+    }
+
+    @Test
+    public void budget() {
+        final ThinkScheduler scheduler = new ThinkScheduler(1e-3f);
+        assertTrue(scheduler.isLimited());
+        final List<Thinker> thinkers = addThinkers(4, 2_000_000L);
+        // the costs are unknown in the first update, so all items think
+        tick(scheduler, store, droid);
+        assertEquals(4, scheduler.getNumDeferred());
+        assertEquals(4, scheduler.getNumSelected());
+        // each item exceeds the budget, but at least one item thinks in each update
+        for (int i = 0; i < 3; i++) {
+            final List<Item> selected = scheduler.select(store, droid, DELTA);
+            assertEquals(1, scheduler.getNumSelected());
+            assertEquals(2, selected.size());
+            assertSame(droid, selected.get(0));
+            scheduler.think(selected, DELTA);
+        }
+        int total = 0;
+        for (Thinker thinker : thinkers)
+            total += thinker.deltas.size();
+        assertEquals(7, total);
+    }
+
+    @Test
+    public void nearItemsFirst() {
+        final ThinkScheduler scheduler = new ThinkScheduler(1e-3f);
+        final List<Thinker> thinkers = addThinkers(4, 2_000_000L);
+        tick(scheduler, store, droid);
+        // all items have waited equally long, so the item nearest to the droid wins
+        final List<Item> selected = scheduler.select(store, droid, DELTA);
+        assertSame(thinkers.get(0), selected.get(1));
+    }
+
+    @Test
+    public void everyItemThinks() {
+        final ThinkScheduler scheduler = new ThinkScheduler(1e-3f);
+        final List<Thinker> thinkers = addThinkers(4, 2_000_000L);
+        for (int i = 0; i < 40; i++)
+            tick(scheduler, store, droid);
+        for (Thinker thinker : thinkers) {
+            assertTrue(thinker.deltas.size() > 1);
+            // the time arguments add up to the time of all updates up to the last thoughts
+            float total = 0f;
+            for (float delta : thinker.deltas)
+                total += delta;
+            assertTrue(total <= 40 * DELTA + EPS);
+        }
+        // the farthest item thinks less often than the nearest one
+        assertTrue(thinkers.get(3).deltas.size() < thinkers.get(0).deltas.size());
+    }
+
+    /**
+     * The dog observes only in updates where it has been selected for thinking, and it keeps its
+     * latest observation otherwise.
+     */
+    @Test
+    public void deferredDog() throws IOException {
+        final DroidsConfig config = new ObjectMapper().readValue("{\"think budget\": 1e-6}", //NON-NLS
+                                                                 DroidsConfig.class);
+        final DroidsModel model = new DroidsModel(config);
+        try {
+            final DroidsMap dogMap = new DroidsMap(model, 20, 20);
+            final MapLevel dogLevel = new MapLevel(dogMap, "Level"); //NON-NLS
+            final Droid dogDroid = new Droid(model);
+            dogDroid.setPos(2f, 2f);
+            dogMap.setDroid(dogDroid, dogLevel);
+            final Dog dog = new Dog(model);
+            dog.setPos(4f, 2f);
+            dogMap.register(dog, dogLevel);
+            dogMap.setDog(dog);
+            dogMap.register(new Thinker(model, 6f, 2f, 0L), dogLevel);
+            model.setDroidsMap(dogMap);
+            final ThinkScheduler scheduler = dogMap.getThinkScheduler();
+            assertTrue(dog.isThinkingDeferrable());
+            dogMap.update(DELTA);
+            int deferred = 0;
+            int selected = 0;
+            for (int i = 0; i < 10; i++) {
+                final Object before = dog.getLatestObservation();
+                dogMap.update(DELTA);
+                assertEquals(2, scheduler.getNumDeferred());
+                if (Arrays.stream(scheduler.getSelectedIds()).anyMatch(id -> id == dog.getId())) {
+                    assertNotSame(before, dog.getLatestObservation());
+                    selected++;
+                }
+                else {
+                    assertSame(before, dog.getLatestObservation());
+                    deferred++;
+                }
+            }
+            assertTrue(selected > 0);
+            assertTrue(deferred > 0);
+        }
+        finally {
+            model.shutdown();
+        }
+    }
+}
@@ -19,6 +19,20 @@ public class NonPlayerCharacterBehavior {
         this.npc = npc;
     }
 
+    /**
+     * Prepares the next call of {@linkplain #update(float)}, e.g., by observing the surroundings
+     * or planning the next move. This method is called for all npcs before any of them is
+     * updated, possibly concurrently for different npcs. Hence, it must only read the state of
+     * the game and must not change anything but the state of this behavior. If the game limits
+     * the time for thinking, this method may be called less often than {@linkplain #update(float)},
+     * and the results of the last call must remain usable until the next one.
+     *
+     * @param delta time in seconds since the last call of this method
+     */
+    public void think(float delta) {
+        // missing implementation
+    }
+
     /**
      * Specifies the actual behavior.
      *
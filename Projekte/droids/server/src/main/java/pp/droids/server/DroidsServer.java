@@ -0,0 +1,177 @@
+package pp.droids.server;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import pp.droids.model.DroidsConfig;
+import pp.droids.model.replay.ReplayPlayer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.logging.LogManager;
+
+/**
+ * Runs droids matches without any rendering, e.g., on a server. The matches are hosted by a
+ * {@linkplain MatchHost}, which ticks them on a shared thread pool either in real time with the step
+ * size of the matches or as fast as possible, and regularly reports the number of simulation steps
+ * (ticks) per second.
+ * <p>
+ * Usage: {@code droids-server [options]} with the options
+ * <ul>
+ *     <li>{@code --config <file>} json file with the configuration of the game model
+ *     (default: {@code config.json} if it exists)</li>
+ *     <li>{@code --map <file>} json file with the map of every match (default: random maps)</li>
+ *     <li>{@code --matches <n>} number of matches (default: 1)</li>
+ *     <li>{@code --rate <n>} simulation steps per simulated second (default: the simulation rate
+ *     of the configuration, or 60 if it is not set)</li>
+ *     <li>{@code --fast} runs the matches as fast as possible instead of in real time</li>
+ *     <li>{@code --threads <n>} number of worker threads shared by all matches
+ *     (default: number of processors)</li>
+ *     <li>{@code --ticks <n>} stops each match after this number of ticks (default: no limit)</li>
+ *     <li>{@code --report <seconds>} time between two reports (default: 5)</li>
+ *     <li>{@code --record <file>} records the first match into the specified replay log</li>
+ *     <li>{@code --replay <file>} plays back the specified replay log as fast as possible instead
+ *     of hosting matches</li>
+ * </ul>
+ * The server terminates as soon as every match is over or has reached its tick limit.
+ */
+public class DroidsServer {
+    private static final Logger LOGGER = System.getLogger(DroidsServer.class.getName());
+    private static final String CONFIG_JSON = "config.json"; //NON-NLS
+    private static final float DEFAULT_RATE = 60f;
+
+    static {
+        // Configure logging
+        LogManager manager = LogManager.getLogManager();
+        try {
+            manager.readConfiguration(new FileInputStream("logging.properties"));
+            LOGGER.log(Level.INFO, "read logging properties"); //NON-NLS
+        }
+        catch (IOException e) {
+            LOGGER.log(Level.INFO, e.getMessage());
+        }
+    }
+
+    private DroidsServer() { /* don't instantiate */ }
+
+    /**
+     * Main method of the headless droids server.
+     *
+     * @param args command line options as described in {@linkplain DroidsServer}
+     */
+    public static void main(String[] args) {
+        File configFile = new File(CONFIG_JSON);
+        File mapFile = null;
+        int numMatches = 1;
+        float rate = 0f;
+        boolean fast = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long maxTicks = 0L;
+        double reportInterval = 5.;
+        File recordFile = null;
+        File replayFile = null;
+        try {
+            for (int i = 0; i < args.length; i++)
+                switch (args[i]) {
+                    case "--config" -> configFile = new File(args[++i]); //NON-NLS
+                    case "--map" -> mapFile = new File(args[++i]); //NON-NLS
+                    case "--matches" -> numMatches = Integer.parseInt(args[++i]); //NON-NLS
+                    case "--rate" -> rate = Float.parseFloat(args[++i]); //NON-NLS
+                    case "--fast" -> fast = true; //NON-NLS
+                    case "--threads" -> threads = Integer.parseInt(args[++i]); //NON-NLS
+                    case "--ticks" -> maxTicks = Long.parseLong(args[++i]); //NON-NLS
+                    case "--report" -> reportInterval = Double.parseDouble(args[++i]); //NON-NLS
+                    case "--record" -> recordFile = new File(args[++i]); //NON-NLS
+                    case "--replay" -> replayFile = new File(args[++i]); //NON-NLS
+                    default -> throw new IllegalArgumentException("unknown option " + args[i]); //NON-NLS
+                }
+        }
+        catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("invalid arguments: " + e.getMessage()); //NON-NLS
+            System.err.println("usage: droids-server [--config <file>] [--map <file>] [--matches <n>] " + //NON-NLS
+                               "[--rate <n>] [--fast] [--threads <n>] [--ticks <n>] [--report <seconds>] " + //NON-NLS
+                               "[--record <file>] [--replay <file>]"); //NON-NLS
+            System.exit(1);
+        }
+
+        if (replayFile != null) {
+            replay(replayFile);
+            return;
+        }
+
+        final DroidsConfig config = loadConfig(configFile);
+        if (rate <= 0f)
+            rate = config.getSimulationRate() > 0f ? config.getSimulationRate() : DEFAULT_RATE;
+        final MatchHost host = new MatchHost(threads, fast, maxTicks);
+        try {
+            for (int i = 1; i <= numMatches; i++) {
+                final String name = "Match " + i; //NON-NLS
+                final Match match = mapFile == null
+                                    ? Match.withRandomMap(name, config, host.getExecutor(), 1f / rate)
+                                    : Match.withMap(name, config, host.getExecutor(), mapFile, 1f / rate);
+                if (i == 1 && recordFile != null)
+                    match.getModel().startRecording(new FileOutputStream(recordFile));
+                host.add(match);
+            }
+            host.run(reportInterval);
+        }
+        catch (IOException e) {
+            LOGGER.log(Level.ERROR, "when trying to read the map or to write the replay log", e); //NON-NLS
+        }
+        catch (InterruptedException e) {
+            LOGGER.log(Level.WARNING, "interrupted", e); //NON-NLS
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            host.shutdown();
+        }
+    }
+
+    /**
+     * Plays back the specified replay log without any rendering as fast as possible and reports
+     * the number of replayed simulation steps per second.
+     *
+     * @param file the replay log
+     */
+    private static void replay(File file) {
+        try {
+            final ReplayPlayer player = new ReplayPlayer(file, null);
+            LOGGER.log(Level.INFO, "replaying {0} ticks from {1}", player.getNumTicks(), file.getAbsolutePath()); //NON-NLS
+            final long start = System.nanoTime();
+            final long ticks = player.playToEnd();
+            final double seconds = Math.max(1e-9, (System.nanoTime() - start) * 1e-9);
+            LOGGER.log(Level.INFO, "replayed {0} ticks in {1} seconds, {2} ticks per second, game over: {3}", //NON-NLS
+                       ticks, seconds, ticks / seconds, player.getModel().isGameOver());
+            player.getModel().shutdown();
+        }
+        catch (IOException e) {
+            LOGGER.log(Level.ERROR, "when trying to replay " + file.getAbsolutePath(), e); //NON-NLS
+        }
+    }
+
+    /**
+     * Loads the configuration of the game model from the specified json file, or returns the
+     * default configuration if the file does not exist or cannot be read. Unknown properties are
+     * ignored so that the configuration file of the app can be used as well.
+     *
+     * @param file json file with the configuration
+     */
+    private static DroidsConfig loadConfig(File file) {
+        if (file.exists())
+            try {
+                final DroidsConfig conf = new ObjectMapper()
+                        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                        .readValue(file, DroidsConfig.class);
+                LOGGER.log(Level.INFO, "read config from {0}", file.getAbsolutePath()); //NON-NLS
+                return conf;
+            }
+            catch (IOException e) {
+                LOGGER.log(Level.WARNING, "when trying to read " + file.getAbsolutePath(), e); //NON-NLS
+            }
+        LOGGER.log(Level.INFO, "using default configuration"); //NON-NLS
+        return new DroidsConfig();
+    }
+}
@@ -0,0 +1,190 @@
+package pp.droids.server;
+
+import pp.droids.model.DroidsConfig;
+import pp.droids.model.DroidsModel;
+import pp.droids.model.FixedStepDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Represents a single match hosted by the headless server. A match owns its game model and a
+ * {@linkplain FixedStepDriver} that updates the model with a fixed step size. Enemies and dogs
+ * are driven by their behaviors as part of the model update. Nobody controls the droid, i.e.,
+ * it does not move unless it is pushed by the game.
+ * <p>
+ * A match is not thread-safe. It may be stepped by different threads, but never concurrently.
+ */
+public class Match {
+    private final String name;
+    private final DroidsModel model;
+    private final FixedStepDriver driver;
+    private final int maxSteps;
+
+    /**
+     * Creates a match for the specified model, which must already contain its map.
+     *
+     * @param name     the name of this match used in reports and in the name of its dump file
+     * @param model    the game model
+     * @param stepSize the time in seconds of each simulation step, which must be positive
+     * @param maxSteps the maximal number of catch-up steps per call of {@linkplain #advance(float)}
+     */
+    public Match(String name, DroidsModel model, float stepSize, int maxSteps) {
+        if (stepSize <= 0f)
+            throw new IllegalArgumentException("step size must be positive: " + stepSize); //NON-NLS
+        this.name = name;
+        this.model = model;
+        // matches run side by side, so each of them saves its map to a file of its own
+        model.setDumpFile(new File("dump-" + name.replaceAll("[^\\w.-]", "_") + ".json")); //NON-NLS
+        this.driver = new FixedStepDriver(model, stepSize, maxSteps);
+        this.maxSteps = Math.max(1, maxSteps);
+    }
+
+    /**
+     * Creates a match on a random map generated according to the specified configuration.
+     *
+     * @param name     the name of this match used in reports
+     * @param config   the configuration of the game model
+     * @param stepSize the time in seconds of each simulation step
+     */
+    public static Match withRandomMap(String name, DroidsConfig config, float stepSize) {
+        return withRandomMap(name, config, null, stepSize);
+    }
+
+    /**
+     * Creates a match on a random map generated according to the specified configuration
+     * whose model uses the specified executor service.
+     *
+     * @param name     the name of this match used in reports
+     * @param config   the configuration of the game model
+     * @param executor the executor service shared by the models, or null if the model shall
+     *                 create its own one
+     * @param stepSize the time in seconds of each simulation step
+     */
+    public static Match withRandomMap(String name, DroidsConfig config, ExecutorService executor, float stepSize) {
+        final DroidsModel model = new DroidsModel(config, executor);
+        model.loadRandomMap();
+        return new Match(name, model, stepSize, config.getMaxCatchUpSteps());
+    }
+
+    /**
+     * Creates a match on the map of the specified json file.
+     *
+     * @param name     the name of this match used in reports
+     * @param config   the configuration of the game model
+     * @param file     json file representing a droids map
+     * @param stepSize the time in seconds of each simulation step
+     * @throws IOException if any IO error occurs.
+     */
+    public static Match withMap(String name, DroidsConfig config, File file, float stepSize) throws IOException {
+        return withMap(name, config, null, file, stepSize);
+    }
+
+    /**
+     * Creates a match on the map of the specified json file whose model uses the specified
+     * executor service.
+     *
+     * @param name     the name of this match used in reports
+     * @param config   the configuration of the game model
+     * @param executor the executor service shared by the models, or null if the model shall
+     *                 create its own one
+     * @param file     json file representing a droids map
+     * @param stepSize the time in seconds of each simulation step
+     * @throws IOException if any IO error occurs.
+     */
+    public static Match withMap(String name, DroidsConfig config, ExecutorService executor, File file, float stepSize)
+            throws IOException {
+        final DroidsModel model = new DroidsModel(config, executor);
+        try {
+            model.loadMap(file);
+        }
+        catch (IOException e) {
+            model.shutdown();
+            throw e;
+        }
+        return new Match(name, model, stepSize, config.getMaxCatchUpSteps());
+    }
+
+    /**
+     * Returns the name of this match.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the game model of this match.
+     */
+    public DroidsModel getModel() {
+        return model;
+    }
+
+    /**
+     * Returns the time in seconds of each simulation step.
+     */
+    public float getStepSize() {
+        return driver.getStepSize();
+    }
+
+    /**
+     * Returns the maximal number of steps that this match may fall behind real time before
+     * surplus time is dropped.
+     */
+    public int getMaxCatchUpSteps() {
+        return maxSteps;
+    }
+
+    /**
+     * Returns the number of simulation steps since this match has been created.
+     */
+    public long getTicks() {
+        return driver.getStepCount();
+    }
+
+    /**
+     * Returns the simulated time in seconds since this match has been created.
+     */
+    public double getSimulatedTime() {
+        return getTicks() * (double) getStepSize();
+    }
+
+    /**
+     * Returns true if the game of this match is over.
+     */
+    public boolean isOver() {
+        return model.isGameOver();
+    }
+
+    /**
+     * Updates the model by exactly one simulation step unless the game is over.
+     *
+     * @return true if the model has been updated
+     */
+    public boolean step() {
+        return driver.advance(getStepSize()) > 0;
+    }
+
+    /**
+     * Advances the model by the specified wall clock time, i.e., by as many simulation steps as
+     * fit into the accumulated time, but at most by the maximal number of catch-up steps.
+     *
+     * @param time time in seconds since the last call
+     * @return the number of model updates
+     */
+    public int advance(float time) {
+        return driver.advance(time);
+    }
+
+    /**
+     * Releases the resources of this match.
+     */
+    public void shutdown() {
+        model.shutdown();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,242 @@
+package pp.droids.server;
+
+import pp.util.StopWatch;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts many matches in a single JVM on one bounded fork-join pool. The pool is shared by all
+ * matches: the host runs the ticks of the matches on it, and the models of the matches shall use
+ * it as their executor service, see {@linkplain #getExecutor()}. Because the pool is a fork-join
+ * pool, a tick waiting for the tasks that it has submitted, e.g., in the parallel think phase,
+ * helps executing them instead of blocking a worker thread.
+ * <p>
+ * Each match has a deadline for its next tick. In real time, the deadline advances by the step size
+ * of the match after each tick, i.e., a match that has fallen behind is ticked again immediately until
+ * it has caught up, but by at most its maximal number of catch-up steps. When running as fast as
+ * possible, each tick is due immediately after the previous one. Due ticks are dispatched
+ * earliest deadline first, which is fair: no match is ticked twice while another one is overdue.
+ * A match never has more than one tick in flight, and the number of ticks in flight is bounded. If the
+ * pool cannot keep up, the dispatcher waits instead of queuing ever more tasks (back-pressure),
+ * and the overdue ticks wait ordered by their deadlines.
+ */
+public class MatchHost {
+    private static final Logger LOGGER = System.getLogger(MatchHost.class.getName());
+
+    /**
+     * The maximal time in milliseconds that the dispatcher waits for a due tick before it checks
+     * whether it shall report or terminate.
+     */
+    private static final long POLL_MILLIS = 100L;
+
+    private final ForkJoinPool executor;
+    private final boolean fast;
+    private final long maxTicks;
+    private final int maxPendingTicks;
+    private final Semaphore pendingTicks;
+    private final DelayQueue<ScheduledTick> queue = new DelayQueue<>();
+    private final List<Match> matches = new CopyOnWriteArrayList<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * The next tick of a match, which is due at its deadline. Ticks with the same deadline are
+     * ordered by the sequence of their scheduling.
+     */
+    private record ScheduledTick(Match match, long deadline, long sequence) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            final ScheduledTick tick = (ScheduledTick) other;
+            final int cmp = Long.compare(deadline, tick.deadline);
+            return cmp != 0 ? cmp : Long.compare(sequence, tick.sequence);
+        }
+    }
+
+    /**
+     * Creates a host with a fork-join pool of the specified parallelism.
+     *
+     * @param parallelism the number of worker threads
+     * @param fast        true if the matches shall run as fast as possible, and false
+     *                    if they shall run in real time
+     * @param maxTicks    the number of ticks after which a match stops, or a non-positive value
+     *                    if matches shall run until they are over
+     */
+    public MatchHost(int parallelism, boolean fast, long maxTicks) {
+        this.executor = new ForkJoinPool(parallelism);
+        this.fast = fast;
+        this.maxTicks = maxTicks;
+        this.maxPendingTicks = 2 * parallelism;
+        this.pendingTicks = new Semaphore(maxPendingTicks);
+    }
+
+    /**
+     * Returns the executor service shared by all hosted matches. It shall be passed to the
+     * model of each match.
+     *
+     * @see pp.droids.model.DroidsModel#DroidsModel(pp.droids.model.DroidsConfig, ExecutorService)
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Returns the hosted matches.
+     */
+    public List<Match> getMatches() {
+        return Collections.unmodifiableList(matches);
+    }
+
+    /**
+     * Returns the total number of ticks of all matches since this host has been created.
+     */
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    /**
+     * Returns the number of matches that are still being ticked.
+     */
+    public int getRunning() {
+        return running.get();
+    }
+
+    /**
+     * Adds the specified match, whose first tick is due immediately. Matches may be added
+     * while the host is running.
+     *
+     * @param match the match, whose model shall use {@linkplain #getExecutor()}
+     */
+    public void add(Match match) {
+        matches.add(match);
+        if (isRunning(match)) {
+            running.incrementAndGet();
+            schedule(match, System.nanoTime());
+        }
+    }
+
+    /**
+     * Returns true if the specified match shall still be ticked.
+     */
+    private boolean isRunning(Match match) {
+        return !match.isOver() && (maxTicks <= 0 || match.getTicks() < maxTicks);
+    }
+
+    private void schedule(Match match, long deadline) {
+        queue.add(new ScheduledTick(match, deadline, sequence.getAndIncrement()));
+    }
+
+    /**
+     * Dispatches the ticks of all matches until every match is over or has reached the tick limit.
+     *
+     * @param reportInterval the time in seconds between two reports, or a non-positive value
+     *                       if no reports shall be made
+     * @return the total number of ticks of all matches
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the next tick
+     */
+    public long run(double reportInterval) throws InterruptedException {
+        final StopWatch clock = new StopWatch();
+        clock.start();
+        final long startTicks = ticks.get();
+        double lastReport = 0.;
+        long reportedTicks = startTicks;
+        while (running.get() > 0) {
+            final ScheduledTick tick = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (tick != null) {
+                pendingTicks.acquire();
+                executor.execute(() -> tick(tick));
+            }
+            final double now = clock.getTime();
+            if (reportInterval > 0. && now - lastReport >= reportInterval) {
+                final long current = ticks.get();
+                report(current - reportedTicks, now - lastReport);
+                lastReport = now;
+                reportedTicks = current;
+            }
+        }
+        clock.stop();
+        final long total = ticks.get() - startTicks;
+        LOGGER.log(Level.INFO, "{0} ticks in {1} seconds, {2} ticks per second", //NON-NLS
+                   total, clock.getTime(), total / clock.getTime());
+        for (Match match : matches)
+            LOGGER.log(Level.INFO, "{0}: {1} ticks, {2} simulated seconds, game over: {3}", //NON-NLS
+                       match, match.getTicks(), match.getSimulatedTime(), match.isOver());
+        return total;
+    }
+
+    /**
+     * Runs a single tick of a match on a worker thread and schedules its next tick.
+     */
+    private void tick(ScheduledTick tick) {
+        final Match match = tick.match();
+        boolean again = false;
+        try {
+            if (match.step())
+                ticks.incrementAndGet();
+            again = isRunning(match);
+        }
+        catch (RuntimeException e) {
+            LOGGER.log(Level.ERROR, "tick of " + match + " failed", e); //NON-NLS
+        }
+        finally {
+            pendingTicks.release();
+            if (again)
+                schedule(match, nextDeadline(tick));
+            else
+                running.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the deadline of the tick following the specified one.
+     */
+    private long nextDeadline(ScheduledTick tick) {
+        final long now = System.nanoTime();
+        if (fast)
+            return now;
+        final long stepNanos = (long) (tick.match().getStepSize() * 1e9);
+        final long deadline = tick.deadline() + stepNanos;
+        if (now - deadline > tick.match().getMaxCatchUpSteps() * stepNanos) {
+            LOGGER.log(Level.DEBUG, "{0} dropped {1} seconds of simulation time", //NON-NLS
+                       tick.match(), (now - deadline) * 1e-9);
+            return now;
+        }
+        return deadline;
+    }
+
+    /**
+     * Logs the number of ticks per second since the last report.
+     */
+    private void report(long ticks, double time) {
+        final double perSecond = ticks / time;
+        final int numRunning = Math.max(1, running.get());
+        LOGGER.log(Level.INFO, "{0} running matches, {1} ticks per second, {2} per match, {3} ticks in flight", //NON-NLS
+                   running.get(), perSecond, perSecond / numRunning, maxPendingTicks - pendingTicks.availablePermits());
+    }
+
+    /**
+     * Releases the resources of all matches and shuts down the shared executor service.
+     */
+    public void shutdown() {
+        for (Match match : matches)
+            match.shutdown();
+        executor.shutdown();
+    }
+}
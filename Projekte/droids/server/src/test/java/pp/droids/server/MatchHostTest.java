@@ -0,0 +1,105 @@
+package pp.droids.server;
+
+import org.junit.After;
+import org.junit.Test;
+import pp.droids.model.DroidsConfig;
+import pp.droids.model.DroidsModel;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MatchHostTest {
+    private static final float STEP = 1f / 60f;
+
+    private MatchHost host;
+
+    private void createHost(int numMatches, boolean fast, long maxTicks) {
+        host = new MatchHost(2, fast, maxTicks);
+        final DroidsConfig config = new DroidsConfig();
+        for (int i = 1; i <= numMatches; i++)
+            host.add(Match.withRandomMap("Match " + i, config, host.getExecutor(), STEP)); //NON-NLS
+    }
+
+    @After
+    public void tearDown() {
+        host.shutdown();
+    }
+
+    @Test
+    public void step() {
+        createHost(1, true, 0L);
+        final Match match = host.getMatches().get(0);
+        assertTrue(match.step());
+        assertTrue(match.step());
+        assertEquals(2L, match.getTicks());
+        assertEquals(2. * STEP, match.getSimulatedTime(), 1e-6);
+    }
+
+    /**
+     * Each match reports failures and saves its map on its own, so the failures of one match
+     * neither suppress the dumps of another one nor overwrite its file.
+     */
+    @Test
+    public void dumpPerMatch() throws IOException {
+        createHost(2, true, 0L);
+        final DroidsModel model1 = host.getMatches().get(0).getModel();
+        final DroidsModel model2 = host.getMatches().get(1).getModel();
+        assertNotEquals(model1.getDumpFile(), model2.getDumpFile());
+        assertNotSame(model1.getModelDumper(), model2.getModelDumper());
+        final File file1 = File.createTempFile("dump1", ".json"); //NON-NLS
+        final File file2 = File.createTempFile("dump2", ".json"); //NON-NLS
+        file1.deleteOnExit();
+        file2.deleteOnExit();
+        model1.setDumpFile(file1);
+        model2.setDumpFile(file2);
+        assertTrue(model1.getModelDumper().failed(new IllegalStateException("test"))); //NON-NLS
+        assertFalse(model1.getModelDumper().failed(new IllegalStateException("test"))); //NON-NLS
+        assertTrue(model2.getModelDumper().failed(new IllegalStateException("test"))); //NON-NLS
+    }
+
+    @Test
+    public void fast() throws InterruptedException {
+        createHost(5, true, 100L);
+        final long ticks = host.run(0.);
+        long sum = 0L;
+        for (Match match : host.getMatches()) {
+            assertTrue(match.isOver() || match.getTicks() == 100L);
+            sum += match.getTicks();
+        }
+        assertEquals(sum, ticks);
+        assertEquals(0, host.getRunning());
+    }
+
+    @Test
+    public void realTime() throws InterruptedException {
+        createHost(1, false, 6L);
+        final long start = System.nanoTime();
+        host.run(0.);
+        final double time = (System.nanoTime() - start) * 1e-9;
+        // 6 steps of 1/60 seconds take about 0.1 seconds
+        final Match match = host.getMatches().get(0);
+        assertTrue(match.isOver() || match.getTicks() == 6L);
+        assertTrue("took only " + time + " seconds", time >= 0.08); //NON-NLS
+    }
+
+    @Test
+    public void sharedExecutor() {
+        createHost(2, true, 0L);
+        host.getMatches().forEach(Match::shutdown);
+        assertFalse(host.getExecutor().isShutdown());
+        assertSame(host.getExecutor(), host.getMatches().get(0).getModel().getExecutor());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidStepSize() {
+        createHost(1, true, 0L);
+        new Match("invalid", host.getMatches().get(0).getModel(), 0f, 1); //NON-NLS
+    }
+}